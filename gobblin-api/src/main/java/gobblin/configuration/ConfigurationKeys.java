@@ -47,6 +47,9 @@ public class ConfigurationKeys {
   public static final String STATE_STORE_FS_URI_KEY = "state.store.fs.uri";
   // Enable / disable state store
   public static final String STATE_STORE_ENABLED = "state.store.enabled";
+  // Keep the latest dataset states of a job in a single indexed file instead of one file per dataset
+  public static final String STATE_STORE_INDEXED_ENABLED_KEY = "state.store.indexed.enabled";
+  public static final boolean DEFAULT_STATE_STORE_INDEXED_ENABLED = false;
 
   /**
    * Job scheduler configuration properties.
@@ -76,6 +79,22 @@ public class ConfigurationKeys {
   public static final int DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE = 2;
   public static final int DEFAULT_TASK_STATE_TRACKER_THREAD_POOL_CORE_SIZE = 1;
   public static final int DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE = 1;
+  // Policy of scheduling tasks waiting for a thread of the task executor: FIFO, or FAIR for weighted fair
+  // queuing among the scheduling groups of the tasks, e.g., among jobs sharing a task executor in a container
+  public static final String TASK_EXECUTOR_SCHEDULING_POLICY_KEY = "taskexecutor.scheduling.policy";
+  public static final String DEFAULT_TASK_EXECUTOR_SCHEDULING_POLICY = "FIFO";
+  // Scheduling group of the tasks of a job under the FAIR policy, which defaults to the job name.
+  // Jobs of the same tenant can be put into the same group to share the tenant's fair share.
+  public static final String TASK_SCHEDULING_GROUP_KEY = "task.scheduling.group";
+  // Relative share of the task executor threads given to the scheduling group of a job
+  public static final String TASK_SCHEDULING_WEIGHT_KEY = "task.scheduling.weight";
+  public static final double DEFAULT_TASK_SCHEDULING_WEIGHT = 1.0;
+  // Tasks of a higher priority are run before waiting tasks of a lower priority
+  public static final String TASK_SCHEDULING_PRIORITY_KEY = "task.scheduling.priority";
+  public static final int DEFAULT_TASK_SCHEDULING_PRIORITY = 0;
+  // Maximum number of tasks of a scheduling group running concurrently, where a non-positive value means no limit
+  public static final String TASK_SCHEDULING_MAX_CONCURRENT_TASKS_KEY = "task.scheduling.max.concurrent.tasks";
+  public static final int DEFAULT_TASK_SCHEDULING_MAX_CONCURRENT_TASKS = 0;
 
   /**
    * Common job configuration properties.
@@ -97,6 +116,9 @@ public class ConfigurationKeys {
   public static final String DEFAULT_FORK_OPERATOR_CLASS = "gobblin.fork.IdentityForkOperator";
   public static final String JOB_COMMIT_POLICY_KEY = "job.commit.policy";
   public static final String DEFAULT_JOB_COMMIT_POLICY = "full";
+  // Number of threads used to commit the datasets of a job concurrently
+  public static final String JOB_COMMIT_THREADS_KEY = "job.commit.threads";
+  public static final int DEFAULT_JOB_COMMIT_THREADS = 1;
   public static final String WORK_UNIT_RETRY_POLICY_KEY = "workunit.retry.policy";
   public static final String WORK_UNIT_RETRY_ENABLED_KEY = "workunit.retry.enabled";
   public static final String JOB_RUN_ONCE_KEY = "job.runonce";
@@ -112,6 +134,27 @@ public class ConfigurationKeys {
   public static final int DEFAULT_MAX_TASK_RETRIES = 5;
   public static final String TASK_RETRY_INTERVAL_IN_SEC_KEY = "task.retry.intervalinsec";
   public static final long DEFAULT_TASK_RETRY_INTERVAL_IN_SEC = 300;
+  // Number of records extracted, converted and written at a time. A value of 1 processes one record at a time.
+  public static final String TASK_RECORD_BATCH_SIZE_KEY = "task.record.batch.size";
+  public static final int DEFAULT_TASK_RECORD_BATCH_SIZE = 1;
+  // Speculative execution of straggler tasks, which should only be enabled for sources that can be read twice
+  public static final String TASK_SPECULATION_ENABLED_KEY = "task.speculation.enabled";
+  public static final boolean DEFAULT_TASK_SPECULATION_ENABLED = false;
+  public static final String TASK_SPECULATION_CHECK_INTERVAL_MS_KEY = "task.speculation.check.interval.ms";
+  public static final long DEFAULT_TASK_SPECULATION_CHECK_INTERVAL_MS = 30000;
+  // Minimum running time of a task before it can be speculated
+  public static final String TASK_SPECULATION_MIN_RUNTIME_MS_KEY = "task.speculation.min.runtime.ms";
+  public static final long DEFAULT_TASK_SPECULATION_MIN_RUNTIME_MS = 120000;
+  // A task is speculated if its extraction rate is below this ratio of the median extraction rate of the job's tasks
+  public static final String TASK_SPECULATION_SLOWNESS_RATIO_KEY = "task.speculation.slowness.ratio";
+  public static final double DEFAULT_TASK_SPECULATION_SLOWNESS_RATIO = 0.25;
+  public static final String TASK_SPECULATION_MAX_ATTEMPTS_KEY = "task.speculation.max.attempts";
+  public static final int DEFAULT_TASK_SPECULATION_MAX_ATTEMPTS = 2;
+  // Interval of the checkpoints of tasks whose extractor is a CheckpointableExtractor. A value of 0 disables them.
+  public static final String TASK_CHECKPOINT_INTERVAL_MS_KEY = "task.checkpoint.interval.ms";
+  public static final long DEFAULT_TASK_CHECKPOINT_INTERVAL_MS = 0;
+  // Directory where checkpoints are persisted so they survive a rerun of a task in a new process
+  public static final String TASK_CHECKPOINT_DIR_KEY = "task.checkpoint.dir";
   public static final String OVERWRITE_CONFIGS_IN_STATESTORE = "overwrite.configs.in.statestore";
   public static final boolean DEFAULT_OVERWRITE_CONFIGS_IN_STATESTORE = false;
   public static final String CLEANUP_STAGING_DATA_PER_TASK = "cleanup.staging.data.per.task";
@@ -123,6 +166,9 @@ public class ConfigurationKeys {
    */
   public static final String JOB_ID_KEY = "job.id";
   public static final String TASK_ID_KEY = "task.id";
+  public static final String TASK_ATTEMPT_ID_KEY = "task.attempt.id";
+  public static final String TASK_CHECKPOINT_WATERMARK_KEY = "task.checkpoint.watermark";
+  public static final String TASK_CHECKPOINT_COUNT_KEY = "task.checkpoint.count";
   public static final String JOB_CONFIG_FILE_PATH_KEY = "job.config.path";
   public static final String TASK_FAILURE_EXCEPTION_KEY = "task.failure.exception";
   public static final String TASK_RETRIES_KEY = "task.retries";
@@ -171,6 +217,9 @@ public class ConfigurationKeys {
   public static final String EXTRACT_SCHEMA = "extract.schema";
   public static final String EXTRACT_LIMIT_ENABLED_KEY = "extract.limit.enabled";
   public static final boolean DEFAULT_EXTRACT_LIMIT_ENABLED = false;
+  // Unit of the permits acquired for each extracted record, either "records" or "bytes"
+  public static final String EXTRACT_LIMIT_UNIT_KEY = "extract.limit.unit";
+  public static final String DEFAULT_EXTRACT_LIMIT_UNIT = "records";
 
   /**
    * Converter configuration properties.
@@ -238,6 +287,12 @@ public class ConfigurationKeys {
   public static final String WRITER_EAGER_INITIALIZATION_KEY = WRITER_PREFIX + ".eager.initialization";
   public static final String WRITER_PARTITIONER_CLASS = WRITER_PREFIX + ".partitioner.class";
   public static final boolean DEFAULT_WRITER_EAGER_INITIALIZATION = false;
+  // Whether to limit the bytes written by each writer using a Limiter configured by the writer.limit.* properties
+  public static final String WRITER_LIMIT_ENABLED_KEY = WRITER_PREFIX + ".limit.enabled";
+  public static final boolean DEFAULT_WRITER_LIMIT_ENABLED = false;
+  // Whether to limit the estimated size of the records written instead of the bytes reported by the writer
+  public static final String WRITER_LIMIT_ESTIMATE_SIZE_KEY = WRITER_PREFIX + ".limit.estimate.size";
+  public static final boolean DEFAULT_WRITER_LIMIT_ESTIMATE_SIZE = false;
   public static final String WRITER_GROUP_NAME = WRITER_PREFIX + ".group.name";
   public static final String DEFAULT_WRITER_FILE_BASE_NAME = "part";
   public static final int DEFAULT_DEFLATE_LEVEL = 9;
@@ -356,6 +411,12 @@ public class ConfigurationKeys {
   public static final String SOURCE_FILEBASED_FS_URI = "source.filebased.fs.uri";
   public static final String SOURCE_FILEBASED_PRESERVE_FILE_NAME = "source.filebased.preserve.file.name";
   public static final String SOURCE_FILEBASED_OPTIONAL_DOWNLOADER_CLASS = "source.filebased.downloader.class";
+  // Number of files opened and buffered ahead of the file being read, 0 to disable prefetching
+  public static final String SOURCE_FILEBASED_PREFETCH_FILES = "source.filebased.prefetch.files";
+  public static final int DEFAULT_SOURCE_FILEBASED_PREFETCH_FILES = 0;
+  // Maximum number of bytes buffered in memory for all the prefetched files
+  public static final String SOURCE_FILEBASED_PREFETCH_BUFFER_SIZE = "source.filebased.prefetch.buffer.size";
+  public static final long DEFAULT_SOURCE_FILEBASED_PREFETCH_BUFFER_SIZE = 16 * 1024 * 1024;
 
   /**
    * Configuration properties used internally by the KafkaSource.
@@ -376,6 +437,12 @@ public class ConfigurationKeys {
   public static final String SOURCE_CONN_USE_AUTHENTICATION = "source.conn.use.authentication";
   public static final String SOURCE_CONN_PRIVATE_KEY = "source.conn.private.key";
   public static final String SOURCE_CONN_KNOWN_HOSTS = "source.conn.known.hosts";
+  // Maximum number of channels pooled and open at the same time on a connection, e.g., an SFTP session
+  public static final String SOURCE_CONN_MAX_CHANNELS = "source.conn.max.channels";
+  public static final int DEFAULT_SOURCE_CONN_MAX_CHANNELS = 5;
+  // Maximum time to wait for one of the channels to be available before failing
+  public static final String SOURCE_CONN_MAX_CHANNEL_WAIT_MS = "source.conn.max.channel.wait.ms";
+  public static final long DEFAULT_SOURCE_CONN_MAX_CHANNEL_WAIT_MS = TimeUnit.MINUTES.toMillis(10);
   public static final String SOURCE_CONN_CLIENT_SECRET = "source.conn.client.secret";
   public static final String SOURCE_CONN_CLIENT_ID = "source.conn.client.id";
   public static final String SOURCE_CONN_DOMAIN = "source.conn.domain";
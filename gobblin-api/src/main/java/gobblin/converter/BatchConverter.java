@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.converter;
+
+import gobblin.configuration.WorkUnitState;
+import gobblin.util.RecordBatch;
+
+
+/**
+ * An interface for {@link Converter}s that are able to convert a batch of data records at a time.
+ *
+ * <p>
+ *   {@link Converter}s that do not implement this interface convert a record at a time through
+ *   {@link gobblin.util.RecordBatches#convertBatch(Converter, Object, RecordBatch, RecordBatch, WorkUnitState)}.
+ *   The result of {@link #convertBatch(Object, RecordBatch, RecordBatch, WorkUnitState)} must be consistent
+ *   with the result of {@link Converter#convertRecord(Object, Object, WorkUnitState)}.
+ * </p>
+ *
+ * @param <SO> output schema type
+ * @param <DI> input data type
+ * @param <DO> output data type
+ */
+public interface BatchConverter<SO, DI, DO> {
+
+  /**
+   * Convert a batch of input data records, adding the converted data records to the output {@link RecordBatch}
+   * in order.
+   *
+   * @param outputSchema output schema converted using the {@link Converter#convertSchema} method
+   * @param inputRecords the input data records to be converted
+   * @param outputRecords the {@link RecordBatch} to add the converted data records to
+   * @param workUnit a {@link WorkUnitState} object carrying configuration properties
+   * @throws DataConversionException if it fails to convert an input data record
+   */
+  public void convertBatch(SO outputSchema, RecordBatch<DI> inputRecords, RecordBatch<DO> outputRecords,
+      WorkUnitState workUnit) throws DataConversionException;
+}
@@ -66,6 +66,19 @@ public abstract class RowLevelPolicy implements Closeable, FinalState {
 
   public abstract Result executePolicy(Object record);
 
+  /**
+   * Prepare this {@link RowLevelPolicy} for checking records of the given schema, e.g., by resolving the positions
+   * of the fields it checks, before {@link #executePolicy(Object)} is called on the records. This is a no-op by
+   * default.
+   *
+   * @param schema the schema of the records to check, which may be null if unknown
+   * @return {@code true} if every valid record of the given schema is guaranteed to pass this {@link RowLevelPolicy},
+   *         in which case {@link #executePolicy(Object)} does not need to be called on the records
+   */
+  public boolean prepareForSchema(Object schema) {
+    return false;
+  }
+
   @Override
   public String toString() {
     return this.getClass().getName();
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor;
+
+import java.io.IOException;
+
+import gobblin.util.RecordBatch;
+
+
+/**
+ * An {@link Extractor} that is able to extract a batch of data records at a time.
+ *
+ * <p>
+ *   {@link Extractor}s that do not implement this interface are read a record at a time through
+ *   {@link gobblin.util.RecordBatches#readBatch(Extractor, RecordBatch)}.
+ * </p>
+ *
+ * @param <S> output schema type
+ * @param <D> output record type
+ */
+public interface BatchExtractor<S, D> extends Extractor<S, D> {
+
+  /**
+   * Read the next data records from the data source into the given {@link RecordBatch}, up to its capacity.
+   *
+   * @param batch the {@link RecordBatch} to add the data records to
+   * @return the number of data records added, which is {@code 0} only if there are no more data records
+   * @throws DataRecordException if there is problem with an extracted data record
+   * @throws java.io.IOException if there is problem extracting the next data records from the source
+   */
+  public int readBatch(RecordBatch<D> batch) throws DataRecordException, IOException;
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor;
+
+import java.io.IOException;
+
+import com.google.gson.JsonElement;
+
+
+/**
+ * An {@link Extractor} whose progress can be checkpointed, so that a retry of a failed task resumes extracting from
+ * the last checkpoint instead of from the low watermark of its {@link gobblin.source.workunit.WorkUnit}.
+ *
+ * <p>
+ *   A task periodically gets the {@link #getCheckpointWatermark()} of its {@link Extractor}, commits the output
+ *   written so far, and then records the {@link Watermark}. A retry of the task creates a new {@link Extractor} and
+ *   calls {@link #resumeFrom(JsonElement)} with the recorded {@link Watermark} before reading any record.
+ * </p>
+ *
+ * @param <S> output schema type
+ * @param <D> output record type
+ */
+public interface CheckpointableExtractor<S, D> extends Extractor<S, D> {
+
+  /**
+   * Get a {@link Watermark} covering every data record returned so far, and no data record to be returned next.
+   *
+   * @return the {@link Watermark} of the records returned so far, or {@code null} if the progress of this
+   *         {@link Extractor} cannot be checkpointed at this point
+   */
+  public Watermark getCheckpointWatermark();
+
+  /**
+   * Skip the data records covered by a {@link Watermark} returned by {@link #getCheckpointWatermark()} of another
+   * {@link Extractor} of the same {@link gobblin.source.workunit.WorkUnit}. This is called before any record is read.
+   *
+   * @param checkpointWatermark the {@link Watermark#toJson()} of the checkpointed {@link Watermark}
+   * @throws IOException if there is problem seeking to the checkpointed {@link Watermark}
+   */
+  public void resumeFrom(JsonElement checkpointWatermark) throws IOException;
+}
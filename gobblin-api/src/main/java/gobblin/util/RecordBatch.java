@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.common.base.Preconditions;
+
+
+/**
+ * A reusable batch of data records passed between the constructs of a task, i.e.,
+ * {@link gobblin.source.extractor.Extractor}s, {@link gobblin.converter.Converter}s and
+ * {@link gobblin.writer.DataWriter}s, that support batch processing.
+ *
+ * <p>
+ *   A {@link RecordBatch} has a target capacity, which is the number of records a producer should add to it
+ *   before handing it off. Producers that emit more than one record for an input record, e.g., a
+ *   {@link gobblin.converter.Converter} that explodes a record, may add records beyond the target capacity,
+ *   in which case the backing array grows. A {@link RecordBatch} is meant to be {@link #clear()}ed and
+ *   reused for the next batch so the backing array is allocated only once per task.
+ * </p>
+ *
+ * <p>
+ *   This class is not thread-safe.
+ * </p>
+ *
+ * @param <D> data record type
+ */
+public class RecordBatch<D> implements Iterable<D> {
+
+  private final int capacity;
+  private Object[] records;
+  private int size = 0;
+
+  /**
+   * @param capacity the target number of records of this {@link RecordBatch}
+   */
+  public RecordBatch(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "Record batch capacity must be positive");
+    this.capacity = capacity;
+    this.records = new Object[capacity];
+  }
+
+  /**
+   * Add a data record to the end of this {@link RecordBatch}.
+   *
+   * @param record the data record to add, which must not be {@code null}
+   */
+  public void add(D record) {
+    Preconditions.checkNotNull(record);
+    if (this.size == this.records.length) {
+      this.records = Arrays.copyOf(this.records, this.records.length * 2);
+    }
+    this.records[this.size++] = record;
+  }
+
+  /**
+   * Get the data record at the given position of this {@link RecordBatch}.
+   */
+  @SuppressWarnings("unchecked")
+  public D get(int index) {
+    Preconditions.checkElementIndex(index, this.size);
+    return (D) this.records[index];
+  }
+
+  /**
+   * Get the number of records in this {@link RecordBatch}.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Get the target number of records of this {@link RecordBatch}.
+   */
+  public int capacity() {
+    return this.capacity;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Check if this {@link RecordBatch} has reached its target capacity.
+   */
+  public boolean isFull() {
+    return this.size >= this.capacity;
+  }
+
+  /**
+   * Remove all records from this {@link RecordBatch} so it can be reused.
+   */
+  public void clear() {
+    Arrays.fill(this.records, 0, this.size, null);
+    this.size = 0;
+  }
+
+  @Override
+  public Iterator<D> iterator() {
+    return new Iterator<D>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return this.next < RecordBatch.this.size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public D next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return (D) RecordBatch.this.records[this.next++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import java.io.IOException;
+
+import gobblin.configuration.WorkUnitState;
+import gobblin.converter.BatchConverter;
+import gobblin.converter.Converter;
+import gobblin.converter.DataConversionException;
+import gobblin.source.extractor.BatchExtractor;
+import gobblin.source.extractor.DataRecordException;
+import gobblin.source.extractor.Extractor;
+import gobblin.writer.BatchDataWriter;
+import gobblin.writer.DataWriter;
+
+
+/**
+ * Utility methods for processing {@link RecordBatch}es with {@link Extractor}s, {@link Converter}s and
+ * {@link DataWriter}s, whether or not they support batch processing.
+ *
+ * <p>
+ *   Each method delegates to the batch method of the construct if it implements the corresponding batch
+ *   interface, and falls back to processing a record at a time otherwise.
+ * </p>
+ */
+public class RecordBatches {
+
+  private RecordBatches() {
+  }
+
+  /**
+   * Read the next data records from the given {@link Extractor} into the given {@link RecordBatch},
+   * up to its capacity.
+   *
+   * @return the number of data records added, which is {@code 0} only if there are no more data records
+   */
+  @SuppressWarnings("unchecked")
+  public static <S, D> int readBatch(Extractor<S, D> extractor, RecordBatch<D> batch)
+      throws DataRecordException, IOException {
+    if (extractor instanceof BatchExtractor) {
+      return ((BatchExtractor<S, D>) extractor).readBatch(batch);
+    }
+
+    int count = 0;
+    D record;
+    while (!batch.isFull() && (record = extractor.readRecord(null)) != null) {
+      batch.add(record);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Convert a batch of input data records using the given {@link Converter}, adding the converted data records
+   * to the output {@link RecordBatch} in order.
+   */
+  @SuppressWarnings("unchecked")
+  public static <SI, SO, DI, DO> void convertBatch(Converter<SI, SO, DI, DO> converter, SO outputSchema,
+      RecordBatch<DI> inputRecords, RecordBatch<DO> outputRecords, WorkUnitState workUnit)
+      throws DataConversionException {
+    if (converter instanceof BatchConverter) {
+      ((BatchConverter<SO, DI, DO>) converter).convertBatch(outputSchema, inputRecords, outputRecords, workUnit);
+      return;
+    }
+
+    for (int i = 0; i < inputRecords.size(); i++) {
+      for (DO convertedRecord : converter.convertRecord(outputSchema, inputRecords.get(i), workUnit)) {
+        outputRecords.add(convertedRecord);
+      }
+    }
+  }
+
+  /**
+   * Write a batch of data records in order using the given {@link DataWriter}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <D> void writeBatch(DataWriter<D> writer, RecordBatch<D> records) throws IOException {
+    if (writer instanceof BatchDataWriter) {
+      ((BatchDataWriter<D>) writer).writeBatch(records);
+      return;
+    }
+
+    for (int i = 0; i < records.size(); i++) {
+      writer.write(records.get(i));
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.IOException;
+
+import gobblin.util.RecordBatch;
+
+
+/**
+ * A {@link DataWriter} that is able to write a batch of data records at a time.
+ *
+ * <p>
+ *   {@link DataWriter}s that do not implement this interface are written a record at a time through
+ *   {@link gobblin.util.RecordBatches#writeBatch(DataWriter, RecordBatch)}.
+ * </p>
+ *
+ * @param <D> data record type
+ */
+public interface BatchDataWriter<D> extends DataWriter<D> {
+
+  /**
+   * Write a batch of data records in order.
+   *
+   * @param records the data records to write
+   * @throws IOException if there is anything wrong writing the data records
+   */
+  public void writeBatch(RecordBatch<D> records) throws IOException;
+}
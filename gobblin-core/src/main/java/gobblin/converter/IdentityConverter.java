@@ -5,7 +5,8 @@ import gobblin.configuration.WorkUnitState;
 /**
  * Implementation of {@link Converter} that returns the inputSchema unmodified and each inputRecord unmodified
  */
-public class IdentityConverter extends Converter<Object, Object, Object, Object> {
+public class IdentityConverter extends Converter<Object, Object, Object, Object>
+    implements SingleRecordConverter<Object, Object, Object> {
 
   @Override
   public Object convertSchema(Object inputSchema, WorkUnitState workUnit) throws SchemaConversionException {
@@ -15,6 +16,12 @@ public class IdentityConverter extends Converter<Object, Object, Object, Object>
   @Override
   public Iterable<Object> convertRecord(Object outputSchema, Object inputRecord, WorkUnitState workUnit)
       throws DataConversionException {
-    return new SingleRecordIterable<>(inputRecord);
+    return new SingleRecordIterable<>(convertSingleRecord(outputSchema, inputRecord, workUnit));
+  }
+
+  @Override
+  public Object convertSingleRecord(Object outputSchema, Object inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
+    return inputRecord;
   }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.converter;
+
+import gobblin.configuration.WorkUnitState;
+
+
+/**
+ * An interface for {@link Converter}s that convert each input record into at most one output record, i.e.,
+ * {@link Converter}s whose {@link Converter#convertRecord(Object, Object, WorkUnitState)} always returns either a
+ * {@link SingleRecordIterable} or an {@link EmptyIterable}.
+ *
+ * <p>
+ *   Implementing this interface allows a chain of such {@link Converter}s to be applied to a record through direct
+ *   calls to {@link #convertSingleRecord(Object, Object, WorkUnitState)}, without creating an {@link Iterable} per
+ *   record for each {@link Converter} in the chain. The result of
+ *   {@link #convertSingleRecord(Object, Object, WorkUnitState)} must be consistent with the result of
+ *   {@link Converter#convertRecord(Object, Object, WorkUnitState)}.
+ * </p>
+ *
+ * @param <SO> output schema type
+ * @param <DI> input data type
+ * @param <DO> output data type
+ */
+public interface SingleRecordConverter<SO, DI, DO> {
+
+  /**
+   * Convert an input data record to at most one output record conforming to the output schema.
+   *
+   * @param outputSchema output schema converted using the {@link Converter#convertSchema} method
+   * @param inputRecord input data record to be converted
+   * @param workUnit a {@link WorkUnitState} object carrying configuration properties
+   * @return the converted data record or {@code null} if the input data record is filtered out
+   * @throws DataConversionException if it fails to convert the input data record
+   */
+  public DO convertSingleRecord(SO outputSchema, DI inputRecord, WorkUnitState workUnit)
+      throws DataConversionException;
+}
@@ -20,12 +20,13 @@ import com.google.common.base.Preconditions;
 
 import gobblin.converter.Converter;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.EmptyIterable;
-import gobblin.util.AvroUtils;
+import gobblin.util.AvroFieldAccessor;
 import gobblin.util.ForkOperatorUtils;
 
 
@@ -35,9 +36,10 @@ import gobblin.util.ForkOperatorUtils;
  * specifies the location of the field to retrieve. Nested fields can be specified by following use the following
  * syntax: field.nestedField
  */
-public class AvroFieldRetrieverConverter extends Converter<Schema, Schema, GenericRecord, Object> {
+public class AvroFieldRetrieverConverter extends Converter<Schema, Schema, GenericRecord, Object>
+    implements SingleRecordConverter<Schema, GenericRecord, Object> {
 
-  private String fieldLocation;
+  private AvroFieldAccessor fieldAccessor;
 
   @Override
   public Converter<Schema, Schema, GenericRecord, Object> init(WorkUnitState workUnit) {
@@ -50,13 +52,13 @@ public class AvroFieldRetrieverConverter extends Converter<Schema, Schema, Gener
         "The converter " + this.getClass().getName() + " cannot be used without setting the property "
             + ConfigurationKeys.CONVERTER_AVRO_EXTRACTOR_FIELD_PATH);
 
-    this.fieldLocation = workUnit.getProp(fieldPathKey);
+    this.fieldAccessor = new AvroFieldAccessor(workUnit.getProp(fieldPathKey));
     return this;
   }
 
   @Override
   public Schema convertSchema(Schema inputSchema, WorkUnitState workUnit) throws SchemaConversionException {
-    Optional<Schema> schema = AvroUtils.getFieldSchema(inputSchema, this.fieldLocation);
+    Optional<Schema> schema = this.fieldAccessor.getFieldSchema(inputSchema);
 
     return schema.orNull();
   }
@@ -64,8 +66,14 @@ public class AvroFieldRetrieverConverter extends Converter<Schema, Schema, Gener
   @Override
   public Iterable<Object> convertRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
       throws DataConversionException {
-    Optional<Object> field = AvroUtils.getFieldValue(inputRecord, this.fieldLocation);
+    Object field = convertSingleRecord(outputSchema, inputRecord, workUnit);
 
-    return field.isPresent() ? new SingleRecordIterable<>(field.get()) : new EmptyIterable<>();
+    return field != null ? new SingleRecordIterable<>(field) : new EmptyIterable<>();
+  }
+
+  @Override
+  public Object convertSingleRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
+    return this.fieldAccessor.getFieldValue(inputRecord).orNull();
   }
 }
@@ -19,6 +19,7 @@ import gobblin.configuration.WorkUnitState;
 import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.fork.CopyableGenericRecord;
 import gobblin.fork.CopyableSchema;
@@ -29,7 +30,8 @@ import gobblin.fork.CopyableSchema;
  * {@link gobblin.fork.CopyableSchema} and a {@link gobblin.fork.CopyableGenericRecord}.
  */
 public class AvroToAvroCopyableConverter extends
-    Converter<Schema, CopyableSchema, GenericRecord, CopyableGenericRecord> {
+    Converter<Schema, CopyableSchema, GenericRecord, CopyableGenericRecord>
+    implements SingleRecordConverter<CopyableSchema, GenericRecord, CopyableGenericRecord> {
 
   /**
    * Returns a {@link gobblin.fork.CopyableSchema} wrapper around the given {@link Schema}.
@@ -49,6 +51,12 @@ public class AvroToAvroCopyableConverter extends
   @Override
   public Iterable<CopyableGenericRecord> convertRecord(CopyableSchema outputSchema, GenericRecord inputRecord,
       WorkUnitState workUnit) throws DataConversionException {
-    return new SingleRecordIterable<>(new CopyableGenericRecord(inputRecord));
+    return new SingleRecordIterable<>(convertSingleRecord(outputSchema, inputRecord, workUnit));
+  }
+
+  @Override
+  public CopyableGenericRecord convertSingleRecord(CopyableSchema outputSchema, GenericRecord inputRecord,
+      WorkUnitState workUnit) throws DataConversionException {
+    return new CopyableGenericRecord(inputRecord);
   }
 }
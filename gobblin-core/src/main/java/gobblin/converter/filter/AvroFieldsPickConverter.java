@@ -31,13 +31,15 @@ import gobblin.configuration.WorkUnitState;
 import gobblin.converter.AvroToAvroConverterBase;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.util.AvroUtils;
 
 /**
  * Converts schema and data by choosing only selected fields provided by user.
  */
-public class AvroFieldsPickConverter extends AvroToAvroConverterBase {
+public class AvroFieldsPickConverter extends AvroToAvroConverterBase
+    implements SingleRecordConverter<Schema, GenericRecord, GenericRecord> {
   private static final Logger LOG = LoggerFactory.getLogger(AvroFieldsPickConverter.class);
 
   private static final Splitter SPLITTER_ON_COMMA = Splitter.on(',').trimResults().omitEmptyStrings();
@@ -194,8 +196,14 @@ public class AvroFieldsPickConverter extends AvroToAvroConverterBase {
   @Override
   public Iterable<GenericRecord> convertRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
       throws DataConversionException {
+    return new SingleRecordIterable<>(convertSingleRecord(outputSchema, inputRecord, workUnit));
+  }
+
+  @Override
+  public GenericRecord convertSingleRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
     try {
-      return new SingleRecordIterable<GenericRecord>(AvroUtils.convertRecordSchema(inputRecord, outputSchema));
+      return AvroUtils.convertRecordSchema(inputRecord, outputSchema);
     } catch (IOException e) {
       throw new DataConversionException(e);
     }
@@ -15,6 +15,7 @@ package gobblin.converter.filter;
 import gobblin.converter.AvroToAvroConverterBase;
 import gobblin.converter.Converter;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
@@ -26,7 +27,7 @@ import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.EmptyIterable;
-import gobblin.util.AvroUtils;
+import gobblin.util.AvroFieldAccessor;
 
 
 /**
@@ -34,9 +35,10 @@ import gobblin.util.AvroUtils;
  * field name, and its expected value. The converter only supports equality operations and only performs the comparison
  * based on the string representation of the value.
  */
-public class AvroFilterConverter extends AvroToAvroConverterBase {
+public class AvroFilterConverter extends AvroToAvroConverterBase
+    implements SingleRecordConverter<Schema, GenericRecord, GenericRecord> {
 
-  private String fieldName;
+  private AvroFieldAccessor fieldAccessor;
   private String fieldValue;
 
   /**
@@ -53,7 +55,7 @@ public class AvroFilterConverter extends AvroToAvroConverterBase {
     Preconditions.checkArgument(workUnit.contains(ConfigurationKeys.CONVERTER_FILTER_FIELD_VALUE),
         "Missing required property converter.filter.value for the AvroFilterConverter class.");
 
-    this.fieldName = workUnit.getProp(ConfigurationKeys.CONVERTER_FILTER_FIELD_NAME);
+    this.fieldAccessor = new AvroFieldAccessor(workUnit.getProp(ConfigurationKeys.CONVERTER_FILTER_FIELD_NAME));
     this.fieldValue = workUnit.getProp(ConfigurationKeys.CONVERTER_FILTER_FIELD_VALUE);
     return super.init(workUnit);
   }
@@ -78,10 +80,21 @@ public class AvroFilterConverter extends AvroToAvroConverterBase {
   @Override
   public Iterable<GenericRecord> convertRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
       throws DataConversionException {
-    Optional<Object> fieldValue = AvroUtils.getFieldValue(inputRecord, this.fieldName);
+    GenericRecord outputRecord = convertSingleRecord(outputSchema, inputRecord, workUnit);
+    return outputRecord != null ? new SingleRecordIterable<>(outputRecord) : new EmptyIterable<GenericRecord>();
+  }
+
+  /**
+   * Returns the inputRecord if the specified field is equal to the expected value {@link #fieldValue}, and
+   * {@code null} otherwise.
+   */
+  @Override
+  public GenericRecord convertSingleRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
+    Optional<Object> fieldValue = this.fieldAccessor.getFieldValue(inputRecord);
     if (fieldValue.isPresent() && fieldValue.get().toString().equals(this.fieldValue)) {
-      return new SingleRecordIterable<>(inputRecord);
+      return inputRecord;
     }
-    return new EmptyIterable<>();
+    return null;
   }
 }
@@ -25,6 +25,7 @@ import gobblin.converter.AvroToAvroConverterBase;
 import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.util.AvroUtils;
 
@@ -34,7 +35,8 @@ import gobblin.util.AvroUtils;
  *
  * @author Ziyang Liu
  */
-public class AvroProjectionConverter extends AvroToAvroConverterBase {
+public class AvroProjectionConverter extends AvroToAvroConverterBase
+    implements SingleRecordConverter<Schema, GenericRecord, GenericRecord> {
 
   public static final String REMOVE_FIELDS = ".remove.fields";
 
@@ -76,8 +78,14 @@ public class AvroProjectionConverter extends AvroToAvroConverterBase {
   @Override
   public Iterable<GenericRecord> convertRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
       throws DataConversionException {
+    return new SingleRecordIterable<>(convertSingleRecord(outputSchema, inputRecord, workUnit));
+  }
+
+  @Override
+  public GenericRecord convertSingleRecord(Schema outputSchema, GenericRecord inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
     try {
-      return new SingleRecordIterable<>(AvroUtils.convertRecordSchema(inputRecord, outputSchema));
+      return AvroUtils.convertRecordSchema(inputRecord, outputSchema);
     } catch (IOException e) {
       throw new DataConversionException(e);
     }
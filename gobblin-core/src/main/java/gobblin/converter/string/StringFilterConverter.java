@@ -24,6 +24,7 @@ import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.EmptyIterable;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.util.ForkOperatorUtils;
 
@@ -32,7 +33,8 @@ import gobblin.util.ForkOperatorUtils;
  * Implementation of {@link Converter} which filters strings based on whether or not they match a regex specified by
  * {@link ConfigurationKeys#CONVERTER_STRING_FILTER_PATTERN}
  */
-public class StringFilterConverter extends Converter<Class<String>, Class<String>, String, String> {
+public class StringFilterConverter extends Converter<Class<String>, Class<String>, String, String>
+    implements SingleRecordConverter<Class<String>, String, String> {
 
   private Pattern pattern;
   private Optional<Matcher> matcher;
@@ -56,13 +58,19 @@ public class StringFilterConverter extends Converter<Class<String>, Class<String
   @Override
   public Iterable<String> convertRecord(Class<String> outputSchema, String inputRecord, WorkUnitState workUnit)
       throws DataConversionException {
+    String outputRecord = convertSingleRecord(outputSchema, inputRecord, workUnit);
+    return outputRecord != null ? new SingleRecordIterable<>(outputRecord) : new EmptyIterable<String>();
+  }
 
+  @Override
+  public String convertSingleRecord(Class<String> outputSchema, String inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
     if (!this.matcher.isPresent()) {
       this.matcher = Optional.of(this.pattern.matcher(inputRecord));
     } else {
       this.matcher.get().reset(inputRecord);
     }
 
-    return this.matcher.get().matches() ? new SingleRecordIterable<String>(inputRecord) : new EmptyIterable<String>();
+    return this.matcher.get().matches() ? inputRecord : null;
   }
 }
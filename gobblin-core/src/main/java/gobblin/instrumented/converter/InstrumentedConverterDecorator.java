@@ -34,7 +34,7 @@ public class InstrumentedConverterDecorator<SI, SO, DI, DO> extends Instrumented
     implements Decorator {
 
   private Converter<SI, SO, DI, DO> embeddedConverter;
-  private final boolean isEmbeddedInstrumented;
+  protected final boolean isEmbeddedInstrumented;
 
   public InstrumentedConverterDecorator(Converter<SI, SO, DI, DO> converter) {
     this.embeddedConverter = converter;
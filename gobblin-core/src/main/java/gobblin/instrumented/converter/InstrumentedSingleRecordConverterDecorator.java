@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.instrumented.converter;
+
+import gobblin.configuration.WorkUnitState;
+import gobblin.converter.Converter;
+import gobblin.converter.DataConversionException;
+import gobblin.converter.EmptyIterable;
+import gobblin.converter.SingleRecordConverter;
+import gobblin.converter.SingleRecordIterable;
+
+
+/**
+ * An {@link InstrumentedConverterDecorator} for {@link Converter}s that implement {@link SingleRecordConverter}.
+ * It implements {@link SingleRecordConverter} itself, so chains of decorated {@link SingleRecordConverter}s can
+ * still be applied through direct calls, e.g., by {@code gobblin.runtime.MultiConverter}, with the same
+ * instrumentation as {@link #convertRecord(Object, Object, WorkUnitState)}.
+ */
+public class InstrumentedSingleRecordConverterDecorator<SI, SO, DI, DO>
+    extends InstrumentedConverterDecorator<SI, SO, DI, DO> implements SingleRecordConverter<SO, DI, DO> {
+
+  private SingleRecordConverter<SO, DI, DO> embeddedSingleRecordConverter;
+
+  @SuppressWarnings("unchecked")
+  public InstrumentedSingleRecordConverterDecorator(Converter<SI, SO, DI, DO> converter) {
+    super(converter);
+    this.embeddedSingleRecordConverter = (SingleRecordConverter<SO, DI, DO>) converter;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Converter<SI, SO, DI, DO> init(WorkUnitState workUnit) {
+    Converter<SI, SO, DI, DO> converter = super.init(workUnit);
+    // The embedded converter may be replaced by the one returned by its init method
+    this.embeddedSingleRecordConverter = (SingleRecordConverter<SO, DI, DO>) getDecoratedObject();
+    return converter;
+  }
+
+  @Override
+  public DO convertSingleRecord(SO outputSchema, DI inputRecord, WorkUnitState workUnit)
+      throws DataConversionException {
+    if (this.isEmbeddedInstrumented || !isInstrumentationEnabled()) {
+      return this.embeddedSingleRecordConverter.convertSingleRecord(outputSchema, inputRecord, workUnit);
+    }
+
+    try {
+      long startTime = System.nanoTime();
+
+      beforeConvert(outputSchema, inputRecord, workUnit);
+      DO outputRecord = this.embeddedSingleRecordConverter.convertSingleRecord(outputSchema, inputRecord, workUnit);
+      afterConvert(outputRecord == null ? new EmptyIterable<DO>() : new SingleRecordIterable<>(outputRecord),
+          startTime);
+
+      if (outputRecord != null) {
+        onIterableNext(outputRecord);
+      }
+      return outputRecord;
+    } catch (DataConversionException exception) {
+      onException(exception);
+      throw exception;
+    }
+  }
+}
@@ -32,16 +32,18 @@ import gobblin.metrics.GobblinMetrics;
 import gobblin.metrics.MetricContext;
 import gobblin.metrics.MetricNames;
 import gobblin.metrics.Tag;
+import gobblin.source.extractor.BatchExtractor;
 import gobblin.source.extractor.DataRecordException;
-import gobblin.source.extractor.Extractor;
 import gobblin.util.FinalState;
+import gobblin.util.RecordBatch;
 
 
 /**
  * package-private implementation of instrumentation for {@link gobblin.source.extractor.Extractor}.
  * See {@link gobblin.instrumented.extractor.InstrumentedExtractor} for extensible class.
  */
-public abstract class InstrumentedExtractorBase<S, D> implements Extractor<S, D>, Instrumentable, Closeable, FinalState {
+public abstract class InstrumentedExtractorBase<S, D>
+    implements BatchExtractor<S, D>, Instrumentable, Closeable, FinalState {
 
   private final boolean instrumentationEnabled;
   private MetricContext metricContext;
@@ -131,6 +133,39 @@ public abstract class InstrumentedExtractorBase<S, D> implements Extractor<S, D>
 
   }
 
+  @Override
+  public int readBatch(RecordBatch<D> batch)
+      throws DataRecordException, IOException {
+    if (!isInstrumentationEnabled()) {
+      return readBatchImpl(batch);
+    }
+
+    try {
+      long startTimeNanos = System.nanoTime();
+      int count = readBatchImpl(batch);
+      afterReadBatch(count, startTimeNanos);
+      return count;
+    } catch(DataRecordException exception) {
+      onException(exception);
+      throw exception;
+    } catch(IOException exception) {
+      onException(exception);
+      throw exception;
+    }
+  }
+
+  /**
+   * Called after each batch of records is read.
+   * @param count number of records read.
+   * @param startTime reading start time.
+   */
+  public void afterReadBatch(int count, long startTime) {
+    Instrumented.updateTimer(this.extractorTimer, System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    if (count > 0) {
+      Instrumented.markMeter(this.readRecordsMeter, count);
+    }
+  }
+
   /**
    * Called before each record is read.
    */
@@ -163,6 +198,21 @@ public abstract class InstrumentedExtractorBase<S, D> implements Extractor<S, D>
    */
   public abstract D readRecordImpl(D reuse) throws DataRecordException, IOException;
 
+  /**
+   * Subclasses able to read a batch of records at a time should override this instead of
+   * {@link gobblin.source.extractor.BatchExtractor#readBatch}. By default this calls {@link #readRecordImpl}
+   * until the batch is full or there are no more records.
+   */
+  public int readBatchImpl(RecordBatch<D> batch) throws DataRecordException, IOException {
+    int count = 0;
+    D record;
+    while (!batch.isFull() && (record = readRecordImpl(null)) != null) {
+      batch.add(record);
+      count++;
+    }
+    return count;
+  }
+
   /**
    * Get final state for this object. By default this returns an empty {@link gobblin.configuration.State}, but
    * concrete subclasses can add information that will be added to the task state.
@@ -25,6 +25,8 @@ import gobblin.source.extractor.Extractor;
 import gobblin.util.Decorator;
 import gobblin.util.DecoratorUtils;
 import gobblin.util.FinalState;
+import gobblin.util.RecordBatch;
+import gobblin.util.RecordBatches;
 
 
 /**
@@ -64,6 +66,20 @@ public class InstrumentedExtractorDecorator<S, D> extends InstrumentedExtractorB
     return this.embeddedExtractor.readRecord(reuse);
   }
 
+  @Override
+  public int readBatch(RecordBatch<D> batch)
+      throws DataRecordException, IOException {
+    return this.isEmbeddedInstrumented ?
+        readBatchImpl(batch) :
+        super.readBatch(batch);
+  }
+
+  @Override
+  public int readBatchImpl(RecordBatch<D> batch)
+      throws DataRecordException, IOException {
+    return RecordBatches.readBatch(this.embeddedExtractor, batch);
+  }
+
   @Override
   public S getSchema()
       throws IOException {
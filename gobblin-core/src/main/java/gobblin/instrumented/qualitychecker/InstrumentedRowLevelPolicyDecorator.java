@@ -60,6 +60,11 @@ public class InstrumentedRowLevelPolicyDecorator extends InstrumentedRowLevelPol
     return this.embeddedPolicy.executePolicy(record);
   }
 
+  @Override
+  public boolean prepareForSchema(Object schema) {
+    return this.embeddedPolicy.prepareForSchema(schema);
+  }
+
   @Override
   public void close()
       throws IOException {
@@ -38,6 +38,8 @@ import gobblin.metrics.MetricNames;
 import gobblin.metrics.Tag;
 import gobblin.util.ExecutorsUtils;
 import gobblin.util.FinalState;
+import gobblin.util.RecordBatch;
+import gobblin.writer.BatchDataWriter;
 import gobblin.writer.DataWriter;
 
 
@@ -48,7 +50,7 @@ import gobblin.writer.DataWriter;
  *
  * @see gobblin.instrumented.writer.InstrumentedDataWriter for extensible class.
  */
-abstract class InstrumentedDataWriterBase<D> implements DataWriter<D>, Instrumentable, Closeable, FinalState {
+abstract class InstrumentedDataWriterBase<D> implements BatchDataWriter<D>, Instrumentable, Closeable, FinalState {
 
   private final Optional<ScheduledThreadPoolExecutor> writerMetricsUpdater;
   private final boolean instrumentationEnabled;
@@ -167,6 +169,26 @@ abstract class InstrumentedDataWriterBase<D> implements DataWriter<D>, Instrumen
     }
   }
 
+  @Override
+  public void writeBatch(RecordBatch<D> records)
+      throws IOException {
+    if (!isInstrumentationEnabled()) {
+      writeBatchImpl(records);
+      return;
+    }
+
+    try {
+      long startTimeNanos = System.nanoTime();
+      Instrumented.markMeter(this.recordsInMeter, records.size());
+      writeBatchImpl(records);
+      Instrumented.updateTimer(this.dataWriterTimer, System.nanoTime() - startTimeNanos, TimeUnit.NANOSECONDS);
+      Instrumented.markMeter(this.successfulWritesMeter, records.size());
+    } catch (IOException exception) {
+      onException(exception);
+      throw exception;
+    }
+  }
+
   /**
    * Called beforeWriting a record.
    * @param record record to write.
@@ -197,6 +219,17 @@ abstract class InstrumentedDataWriterBase<D> implements DataWriter<D>, Instrumen
   public abstract void writeImpl(D record)
       throws IOException;
 
+  /**
+   * Subclasses able to write a batch of records at a time should override this instead of
+   * {@link gobblin.writer.BatchDataWriter#writeBatch}. By default this calls {@link #writeImpl} for each record.
+   */
+  public void writeBatchImpl(RecordBatch<D> records)
+      throws IOException {
+    for (int i = 0; i < records.size(); i++) {
+      writeImpl(records.get(i));
+    }
+  }
+
   /**
    * Get final state for this object. By default this returns an empty {@link gobblin.configuration.State}, but
    * concrete subclasses can add information that will be added to the task state.
@@ -23,6 +23,8 @@ import gobblin.metrics.MetricContext;
 import gobblin.util.Decorator;
 import gobblin.util.DecoratorUtils;
 import gobblin.util.FinalState;
+import gobblin.util.RecordBatch;
+import gobblin.util.RecordBatches;
 import gobblin.writer.DataWriter;
 
 
@@ -61,6 +63,20 @@ public class InstrumentedDataWriterDecorator<D> extends InstrumentedDataWriterBa
     this.embeddedWriter.write(record);
   }
 
+  @Override
+  public void writeBatch(RecordBatch<D> records) throws IOException {
+    if (this.isEmbeddedInstrumented) {
+      writeBatchImpl(records);
+    } else {
+      super.writeBatch(records);
+    }
+  }
+
+  @Override
+  public void writeBatchImpl(RecordBatch<D> records) throws IOException {
+    RecordBatches.writeBatch(this.embeddedWriter, records);
+  }
+
   @Override
   public void commit() throws IOException {
     this.embeddedWriter.commit();
@@ -25,6 +25,8 @@ public class MetricNames {
     public static final String RECORDS_FAILED_METER = "gobblin.extractor.records.failed";
     // Times extraction of records.
     public static final String EXTRACT_TIMER = "gobblin.extractor.extract.time";
+    // Times blocking on the extractor's Limiter.
+    public static final String THROTTLED_TIMER = "gobblin.extractor.throttled.time";
   }
 
   /**
@@ -99,5 +101,11 @@ public class MetricNames {
      * A {@link com.codahale.metrics.Timer} measuring the time taken for each write operation.
      */
     public static final String WRITE_TIMER = "gobblin.writer.write.time";
+
+    /**
+     * A {@link com.codahale.metrics.Timer} measuring the time blocked on the {@link gobblin.util.limiter.Limiter}
+     * of a {@link gobblin.writer.DataWriter} after each write operation.
+     */
+    public static final String THROTTLED_TIMER = "gobblin.writer.throttled.time";
   }
 }
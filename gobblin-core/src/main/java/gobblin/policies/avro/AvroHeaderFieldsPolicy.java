@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.policies.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+
+import com.google.common.base.Optional;
+
+import gobblin.configuration.State;
+import gobblin.qualitychecker.row.RowLevelPolicy;
+import gobblin.util.AvroFieldAccessor;
+
+
+/**
+ * A base class for {@link RowLevelPolicy}s that check fields of the header record of Avro records.
+ *
+ * The checked fields are read through {@link AvroFieldAccessor}s, which resolve the positions of the header field and
+ * of the checked fields in the header once per schema, so that records are checked without looking up the fields by
+ * name.
+ */
+abstract class AvroHeaderFieldsPolicy extends RowLevelPolicy {
+
+  private static final String HEADER = "header";
+
+  private final AvroFieldAccessor headerAccessor;
+  private final AvroFieldAccessor[] headerFieldAccessors;
+
+  AvroHeaderFieldsPolicy(State state, Type type, String... headerFieldNames) {
+    super(state, type);
+    this.headerAccessor = new AvroFieldAccessor(HEADER);
+    this.headerFieldAccessors = new AvroFieldAccessor[headerFieldNames.length];
+    for (int i = 0; i < headerFieldNames.length; i++) {
+      this.headerFieldAccessors[i] = new AvroFieldAccessor(HEADER + "." + headerFieldNames[i]);
+    }
+  }
+
+  /**
+   * Whether a record passes this policy if the header is not null and the checked fields for which the given flags
+   * are {@code true} are not null.
+   */
+  protected abstract boolean isGuaranteedToPass(boolean[] nonNullHeaderFields);
+
+  @Override
+  public boolean prepareForSchema(Object schema) {
+    if (!(schema instanceof Schema) || ((Schema) schema).getType() != Schema.Type.RECORD) {
+      return false;
+    }
+
+    Optional<Schema> headerSchema = this.headerAccessor.getFieldSchema((Schema) schema);
+    if (!headerSchema.isPresent() || headerSchema.get().getType() != Schema.Type.RECORD) {
+      return false;
+    }
+
+    boolean[] nonNullHeaderFields = new boolean[this.headerFieldAccessors.length];
+    for (int i = 0; i < this.headerFieldAccessors.length; i++) {
+      Optional<Schema> fieldSchema = this.headerFieldAccessors[i].getFieldSchema((Schema) schema);
+      nonNullHeaderFields[i] = fieldSchema.isPresent() && !isNullable(fieldSchema.get());
+    }
+    return isGuaranteedToPass(nonNullHeaderFields);
+  }
+
+  /**
+   * Whether the i-th checked field of the header of the given record is present and not null.
+   */
+  protected boolean hasHeaderField(GenericRecord record, int i) {
+    return this.headerFieldAccessors[i].getFieldValue(record).isPresent();
+  }
+
+  private static boolean isNullable(Schema schema) {
+    if (schema.getType() == Schema.Type.NULL) {
+      return true;
+    }
+    if (schema.getType() == Schema.Type.UNION) {
+      for (Schema type : schema.getTypes()) {
+        if (type.getType() == Schema.Type.NULL) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -22,9 +22,14 @@ import gobblin.qualitychecker.row.RowLevelPolicy;
  *
  * @author Ziyang Liu
  */
-public class AvroHeaderGuidPolicy extends RowLevelPolicy {
+public class AvroHeaderGuidPolicy extends AvroHeaderFieldsPolicy {
   public AvroHeaderGuidPolicy(State state, Type type) {
-    super(state, type);
+    super(state, type, "guid");
+  }
+
+  @Override
+  protected boolean isGuaranteedToPass(boolean[] nonNullHeaderFields) {
+    return nonNullHeaderFields[0];
   }
 
   @Override
@@ -33,8 +38,7 @@ public class AvroHeaderGuidPolicy extends RowLevelPolicy {
       return RowLevelPolicy.Result.FAILED;
     }
 
-    GenericRecord header = (GenericRecord) ((GenericRecord) record).get("header");
-    if (header == null || header.get("guid") == null) {
+    if (!hasHeaderField((GenericRecord) record, 0)) {
       return RowLevelPolicy.Result.FAILED;
     }
     return RowLevelPolicy.Result.PASSED;
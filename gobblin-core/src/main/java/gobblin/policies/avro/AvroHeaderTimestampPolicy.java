@@ -23,10 +23,15 @@ import gobblin.qualitychecker.row.RowLevelPolicy;
  *
  * @author Ziyang Liu
  */
-public class AvroHeaderTimestampPolicy extends RowLevelPolicy {
+public class AvroHeaderTimestampPolicy extends AvroHeaderFieldsPolicy {
 
   public AvroHeaderTimestampPolicy(State state, Type type) {
-    super(state, type);
+    super(state, type, "time", "timestamp");
+  }
+
+  @Override
+  protected boolean isGuaranteedToPass(boolean[] nonNullHeaderFields) {
+    return nonNullHeaderFields[0] || nonNullHeaderFields[1];
   }
 
   /**
@@ -38,11 +43,7 @@ public class AvroHeaderTimestampPolicy extends RowLevelPolicy {
       return RowLevelPolicy.Result.FAILED;
     }
 
-    GenericRecord header = (GenericRecord) ((GenericRecord) record).get("header");
-    if (header == null) {
-      return RowLevelPolicy.Result.FAILED;
-    }
-    if (header.get("time") != null || header.get("timestamp") != null) {
+    if (hasHeaderField((GenericRecord) record, 0) || hasHeaderField((GenericRecord) record, 1)) {
       return RowLevelPolicy.Result.PASSED;
     }
     return RowLevelPolicy.Result.FAILED;
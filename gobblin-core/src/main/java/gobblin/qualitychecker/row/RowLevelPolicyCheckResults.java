@@ -13,7 +13,8 @@
 package gobblin.qualitychecker.row;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,24 +26,45 @@ import com.google.common.base.Joiner;
  * @author stakiar
  */
 public class RowLevelPolicyCheckResults {
-  Map<RowLevelPolicyResultPair, Long> results;
+  // Number of records per result of each RowLevelPolicy, indexed by the ordinal of the result
+  private final Map<RowLevelPolicy, long[]> counts;
 
   public RowLevelPolicyCheckResults() {
-    results = new HashMap<RowLevelPolicyResultPair, Long>();
+    this.counts = new IdentityHashMap<RowLevelPolicy, long[]>();
   }
 
   public void put(RowLevelPolicy policy, RowLevelPolicy.Result result) {
-    RowLevelPolicyResultPair resultPolicyPair = new RowLevelPolicyResultPair(policy, result);
-    long value;
-    if (results.containsKey(resultPolicyPair)) {
-      value = results.get(resultPolicyPair);
-    } else {
-      value = 0;
+    getCounts(policy)[result.ordinal()]++;
+  }
+
+  /**
+   * Get the numbers of records per result of the given {@link RowLevelPolicy}, indexed by the ordinal of the
+   * result, which can be incremented directly by callers that check many records.
+   */
+  long[] getCounts(RowLevelPolicy policy) {
+    long[] policyCounts = this.counts.get(policy);
+    if (policyCounts == null) {
+      policyCounts = new long[RowLevelPolicy.Result.values().length];
+      this.counts.put(policy, policyCounts);
     }
-    results.put(new RowLevelPolicyResultPair(policy, result), Long.valueOf(1 + value));
+    return policyCounts;
   }
 
   public String getResults() {
+    // Results of different instances of the same RowLevelPolicy are reported together
+    Map<RowLevelPolicyResultPair, Long> results = new LinkedHashMap<RowLevelPolicyResultPair, Long>();
+    for (Map.Entry<RowLevelPolicy, long[]> entry : this.counts.entrySet()) {
+      for (RowLevelPolicy.Result result : RowLevelPolicy.Result.values()) {
+        long count = entry.getValue()[result.ordinal()];
+        if (count == 0) {
+          continue;
+        }
+        RowLevelPolicyResultPair resultPolicyPair = new RowLevelPolicyResultPair(entry.getKey(), result);
+        Long value = results.get(resultPolicyPair);
+        results.put(resultPolicyPair, value == null ? count : value + count);
+      }
+    }
+
     List<String> list = new ArrayList<String>();
     Joiner joiner = Joiner.on("\n").skipNulls();
     for (Map.Entry<RowLevelPolicyResultPair, Long> entry : results.entrySet()) {
@@ -18,17 +18,37 @@ import java.util.List;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.io.Closer;
 
 import gobblin.configuration.State;
 import gobblin.util.FinalState;
 import gobblin.util.HadoopUtils;
+import gobblin.util.RecordBatch;
 
 
+/**
+ * A checker that executes a list of {@link RowLevelPolicy}s on each record, stopping at the first
+ * {@link RowLevelPolicy} the record fails.
+ *
+ * <p>
+ *   If the schema of the records is known, {@link #prepareForSchema(Object)} lets each {@link RowLevelPolicy}
+ *   prepare for the schema, and {@link RowLevelPolicy}s that are guaranteed to pass on every valid record of the
+ *   schema are no longer executed but counted as passed. The numbers of records per result of each
+ *   {@link RowLevelPolicy} are kept in primitive counters of the {@link RowLevelPolicyCheckResults}, which are
+ *   looked up once rather than for every record.
+ * </p>
+ */
 public class RowLevelPolicyChecker implements Closeable, FinalState {
 
+  private static final Logger LOG = LoggerFactory.getLogger(RowLevelPolicyChecker.class);
+
+  private static final int PASSED = RowLevelPolicy.Result.PASSED.ordinal();
+
   private final List<RowLevelPolicy> list;
   private final String stateId;
   private final FileSystem fs;
@@ -36,6 +56,15 @@ public class RowLevelPolicyChecker implements Closeable, FinalState {
   private final Closer closer;
   private RowLevelErrFileWriter writer;
 
+  // Policies executed on each record, and policies guaranteed to pass for the schema of the records
+  private RowLevelPolicy[] executedPolicies;
+  private RowLevelPolicy[] skippedPolicies;
+
+  // Counters of the policies in the RowLevelPolicyCheckResults last used
+  private RowLevelPolicyCheckResults currentResults;
+  private long[][] executedPolicyCounts;
+  private long[][] skippedPolicyCounts;
+
   public RowLevelPolicyChecker(List<RowLevelPolicy> list, String stateId, FileSystem fs) throws IOException {
     this.list = list;
     this.stateId = stateId;
@@ -43,31 +72,88 @@ public class RowLevelPolicyChecker implements Closeable, FinalState {
     this.errFileOpen = false;
     this.closer = Closer.create();
     this.writer = this.closer.register(new RowLevelErrFileWriter(this.fs));
+    this.executedPolicies = list.toArray(new RowLevelPolicy[list.size()]);
+    this.skippedPolicies = new RowLevelPolicy[0];
   }
 
-  public boolean executePolicies(Object record, RowLevelPolicyCheckResults results) throws IOException {
+  /**
+   * Prepare the {@link RowLevelPolicy}s for checking records of the given schema, and skip the
+   * {@link RowLevelPolicy}s that are guaranteed to pass on every valid record of the schema.
+   *
+   * @param schema the schema of the records to check, which may be null if unknown
+   */
+  public void prepareForSchema(Object schema) {
+    List<RowLevelPolicy> executed = Lists.newArrayList();
+    List<RowLevelPolicy> skipped = Lists.newArrayList();
     for (RowLevelPolicy p : this.list) {
+      if (p.prepareForSchema(schema)) {
+        LOG.info(String.format("RowLevelPolicy %s is guaranteed to pass for the schema and will be skipped", p));
+        skipped.add(p);
+      } else {
+        executed.add(p);
+      }
+    }
+    this.executedPolicies = executed.toArray(new RowLevelPolicy[executed.size()]);
+    this.skippedPolicies = skipped.toArray(new RowLevelPolicy[skipped.size()]);
+    this.currentResults = null;
+  }
+
+  public boolean executePolicies(Object record, RowLevelPolicyCheckResults results) throws IOException {
+    if (results != this.currentResults) {
+      useResults(results);
+    }
+
+    for (int i = 0; i < this.executedPolicies.length; i++) {
+      RowLevelPolicy p = this.executedPolicies[i];
       RowLevelPolicy.Result result = p.executePolicy(record);
-      results.put(p, result);
+      this.executedPolicyCounts[i][result.ordinal()]++;
 
-      if (result.equals(RowLevelPolicy.Result.FAILED)) {
-        if (p.getType().equals(RowLevelPolicy.Type.FAIL)) {
+      if (result == RowLevelPolicy.Result.FAILED) {
+        if (p.getType() == RowLevelPolicy.Type.FAIL) {
           throw new RuntimeException("RowLevelPolicy " + p + " failed on record " + record);
-        } else if (p.getType().equals(RowLevelPolicy.Type.ERR_FILE)) {
-          if (!errFileOpen) {
+        } else if (p.getType() == RowLevelPolicy.Type.ERR_FILE) {
+          if (!this.errFileOpen) {
             this.writer.open(getErrFilePath(p));
-            this.writer.write(record);
-          } else {
-            this.writer.write(record);
           }
-          errFileOpen = true;
+          this.writer.write(record);
+          this.errFileOpen = true;
         }
         return false;
       }
     }
+
+    for (long[] counts : this.skippedPolicyCounts) {
+      counts[PASSED]++;
+    }
     return true;
   }
 
+  private void useResults(RowLevelPolicyCheckResults results) {
+    this.executedPolicyCounts = new long[this.executedPolicies.length][];
+    for (int i = 0; i < this.executedPolicies.length; i++) {
+      this.executedPolicyCounts[i] = results.getCounts(this.executedPolicies[i]);
+    }
+    this.skippedPolicyCounts = new long[this.skippedPolicies.length][];
+    for (int i = 0; i < this.skippedPolicies.length; i++) {
+      this.skippedPolicyCounts[i] = results.getCounts(this.skippedPolicies[i]);
+    }
+    this.currentResults = results;
+  }
+
+  /**
+   * Execute the {@link RowLevelPolicy}s on a batch of records, adding the records that pass all the
+   * {@link RowLevelPolicy}s to the given {@link RecordBatch} of passed records in order.
+   */
+  public void executePolicies(RecordBatch<Object> records, RecordBatch<Object> passedRecords,
+      RowLevelPolicyCheckResults results) throws IOException {
+    for (int i = 0; i < records.size(); i++) {
+      Object record = records.get(i);
+      if (this.list.isEmpty() || executePolicies(record, results)) {
+        passedRecords.add(record);
+      }
+    }
+  }
+
   private Path getErrFilePath(RowLevelPolicy policy) {
     String errFileName = HadoopUtils.sanitizePath(policy.toString(), "-");
     if (!Strings.isNullOrEmpty(this.stateId)) {
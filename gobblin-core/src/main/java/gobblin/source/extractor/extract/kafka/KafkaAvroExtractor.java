@@ -13,6 +13,8 @@
 package gobblin.source.extractor.extract.kafka;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
 
 import kafka.message.MessageAndOffset;
 import lombok.extern.slf4j.Slf4j;
@@ -22,17 +24,20 @@ import org.apache.avro.SchemaBuilder;
 import org.apache.avro.generic.GenericData.Record;
 import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
 
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
 
 import gobblin.configuration.WorkUnitState;
 import gobblin.metrics.kafka.KafkaSchemaRegistry;
 import gobblin.metrics.kafka.SchemaRegistryException;
 import gobblin.source.extractor.DataRecordException;
 import gobblin.source.extractor.Extractor;
-import gobblin.util.AvroUtils;
+import gobblin.util.EncodedAvroRecord;
 
 
 /**
@@ -42,11 +47,22 @@ import gobblin.util.AvroUtils;
  * schema registry is not used (i.e., property {@link KafkaSchemaRegistry#KAFKA_SCHEMA_REGISTRY_CLASS} is not
  * specified, method {@link #getExtractorSchema()} should be overriden.
  *
+ * Records are decoded directly into the extractor schema using a resolving {@link GenericDatumReader} per
+ * writer schema, so records written with an older schema do not need to be re-encoded and decoded again.
+ *
+ * If property {@link #PASS_THROUGH_ENABLED_KEY} is set to true and the subclass implements
+ * {@link #getDatumOffset(byte[])}, records whose writer schema is the extractor schema are not decoded at all.
+ * They are emitted as {@link EncodedAvroRecord}s, which an Avro writer can append to the output file as is.
+ * Such records are only decoded if something downstream, e.g., a converter, accesses their fields.
+ *
  * @author Ziyang Liu
  */
 @Slf4j
 public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, GenericRecord> {
 
+  public static final String PASS_THROUGH_ENABLED_KEY = "kafka.avro.pass.through.enabled";
+  public static final boolean DEFAULT_PASS_THROUGH_ENABLED = false;
+
   protected static final Schema DEFAULT_SCHEMA = SchemaBuilder.record("DefaultSchema").fields().name("header")
       .type(SchemaBuilder.record("header").fields().name("time").type("long").withDefault(0).endRecord()).noDefault()
       .endRecord();
@@ -55,6 +71,15 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
   protected final Optional<Schema> schema;
   protected final Optional<GenericDatumReader<Record>> reader;
 
+  // Resolving readers from the writer schemas of the records to the extractor schema, keyed by writer schema
+  private final Map<Schema, GenericDatumReader<Record>> resolvingReaders = Maps.newHashMap();
+  private BinaryDecoder binaryDecoder;
+
+  private final boolean passThroughEnabled;
+  // Whether records of a writer schema can be passed through without decoding, keyed by writer schema
+  private final Map<Schema, Boolean> passThroughSchemas = Maps.newHashMap();
+  private final Optional<GenericDatumReader<GenericRecord>> passThroughReader;
+
   public KafkaAvroExtractor(WorkUnitState state) {
     super(state);
     this.schemaRegistry = state.contains(KafkaSchemaRegistry.KAFKA_SCHEMA_REGISTRY_CLASS)
@@ -67,6 +92,11 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
       log.error(String.format("Cannot find latest schema for topic %s. This topic will be skipped", this.topicName));
       this.reader = Optional.absent();
     }
+    this.passThroughEnabled = this.schema.isPresent()
+        && state.getPropAsBoolean(PASS_THROUGH_ENABLED_KEY, DEFAULT_PASS_THROUGH_ENABLED);
+    this.passThroughReader = this.passThroughEnabled
+        ? Optional.of(new GenericDatumReader<GenericRecord>(this.schema.get()))
+        : Optional.<GenericDatumReader<GenericRecord>> absent();
   }
 
   /**
@@ -104,18 +134,62 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
   protected GenericRecord decodeRecord(MessageAndOffset messageAndOffset) throws IOException {
     byte[] payload = getBytes(messageAndOffset.message().payload());
     Schema recordSchema = getRecordSchema(payload);
+    if (this.passThroughEnabled && canPassThrough(recordSchema)) {
+      Optional<Integer> datumOffset = getDatumOffset(payload);
+      if (datumOffset.isPresent()) {
+        return new EncodedAvroRecord(this.schema.get(),
+            ByteBuffer.wrap(payload, datumOffset.get(), payload.length - datumOffset.get()),
+            this.passThroughReader.get());
+      }
+    }
+
     Decoder decoder = getDecoder(payload);
-    this.reader.get().setSchema(recordSchema);
     try {
-      GenericRecord record = this.reader.get().read(null, decoder);
-      record = AvroUtils.convertRecordSchema(record, this.schema.get());
-      return record;
+      return getResolvingReader(recordSchema).read(null, decoder);
     } catch (IOException e) {
       log.error(String.format("Error during decoding record for partition %s: ", this.getCurrentPartition()));
       throw e;
     }
   }
 
+  /**
+   * Get a {@link GenericDatumReader} that reads records written with the given schema into the extractor schema.
+   */
+  private GenericDatumReader<Record> getResolvingReader(Schema writerSchema) {
+    GenericDatumReader<Record> resolvingReader = this.resolvingReaders.get(writerSchema);
+    if (resolvingReader == null) {
+      resolvingReader = new GenericDatumReader<>(writerSchema, this.schema.get());
+      this.resolvingReaders.put(writerSchema, resolvingReader);
+    }
+    return resolvingReader;
+  }
+
+  /**
+   * Check if records written with the given schema can be emitted without being decoded, i.e., if the
+   * given schema is the extractor schema.
+   */
+  private boolean canPassThrough(Schema writerSchema) {
+    if (writerSchema == this.schema.get()) {
+      return true;
+    }
+    Boolean canPassThrough = this.passThroughSchemas.get(writerSchema);
+    if (canPassThrough == null) {
+      canPassThrough = writerSchema.equals(this.schema.get());
+      this.passThroughSchemas.put(writerSchema, canPassThrough);
+    }
+    return canPassThrough;
+  }
+
+  /**
+   * Get a {@link BinaryDecoder} for the given bytes of a payload. The same {@link BinaryDecoder} instance is
+   * reused across records, so subclasses can use this method in {@link #getDecoder(byte[])} to avoid
+   * allocating a new {@link BinaryDecoder} per record.
+   */
+  protected BinaryDecoder getBinaryDecoder(byte[] payload, int offset, int length) {
+    this.binaryDecoder = DecoderFactory.get().binaryDecoder(payload, offset, length, this.binaryDecoder);
+    return this.binaryDecoder;
+  }
+
   /**
    * Obtain the Avro {@link Schema} of a Kafka record given the payload of the record.
    */
@@ -125,4 +199,14 @@ public abstract class KafkaAvroExtractor<K> extends KafkaExtractor<Schema, Gener
    * Obtain the Avro {@link Decoder} for a Kafka record given the payload of the record.
    */
   protected abstract Decoder getDecoder(byte[] payload);
+
+  /**
+   * Obtain the offset in the payload of a Kafka record at which the binary encoded Avro datum starts, i.e.,
+   * the length of any header preceding the datum. Records can only be passed through without decoding
+   * (see {@link #PASS_THROUGH_ENABLED_KEY}) if this method is implemented. The default implementation
+   * returns {@link Optional#absent()}.
+   */
+  protected Optional<Integer> getDatumOffset(byte[] payload) {
+    return Optional.absent();
+  }
 }
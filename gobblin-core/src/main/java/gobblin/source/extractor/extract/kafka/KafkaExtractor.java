@@ -25,18 +25,24 @@ import org.slf4j.LoggerFactory;
 
 import kafka.message.MessageAndOffset;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
 import gobblin.configuration.WorkUnitState;
 import gobblin.metrics.Tag;
+import gobblin.source.extractor.CheckpointableExtractor;
 import gobblin.source.extractor.DataRecordException;
 import gobblin.source.extractor.Extractor;
+import gobblin.source.extractor.JobCommitPolicy;
+import gobblin.source.extractor.Watermark;
 import gobblin.source.extractor.extract.EventBasedExtractor;
 
 
@@ -44,11 +50,30 @@ import gobblin.source.extractor.extract.EventBasedExtractor;
  * An implementation of {@link Extractor} for Apache Kafka. Each {@link KafkaExtractor} processes
  * one or more partitions of the same topic.
  *
+ * <p>
+ *   If {@link KafkaSource#WORK_STEALING_ENABLED} is set, the {@link KafkaExtractor}s of the same topic running in the
+ *   same JVM share their partitions through a {@link KafkaPartitionWorkPool}. Once a {@link KafkaExtractor} has
+ *   finished its own partitions, it takes over partitions other {@link KafkaExtractor}s have not started, or the
+ *   second half of the remaining offsets of partitions in progress. The watermark of each partition is still
+ *   committed by the {@link KafkaExtractor} the partition is assigned to, which waits in {@link #close()} until the
+ *   tasks of all ranges taken over from its partitions have committed or failed, and fails its own task if records
+ *   of its partitions were pulled by a task that failed. Since the records of a partition may then be written by
+ *   other tasks, work stealing is only enabled with {@link JobCommitPolicy#COMMIT_ON_FULL_SUCCESS} and without task
+ *   retries, so that a failed task fails the job rather than being retried without the ranges it took over.
+ * </p>
+ *
+ * <p>
+ *   The progress of a {@link KafkaExtractor} can be checkpointed as the next offset of each partition, unless work
+ *   stealing is enabled, in which case the records of the ranges taken over are not covered by these offsets.
+ * </p>
+ *
  * @author Ziyang Liu
  */
-public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
+public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D>
+    implements CheckpointableExtractor<S, D> {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaExtractor.class);
+  private static final Gson GSON = new Gson();
 
   protected static final int INITIAL_PARTITION_IDX = -1;
   protected static final Integer MAX_LOG_DECODING_ERRORS = 5;
@@ -74,6 +99,15 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
   private long currentPartitionRecordCount = 0;
   private long currentPartitionTotalSize = 0;
 
+  // Shared with other extractors of the same topic if work stealing is enabled
+  private final Optional<KafkaPartitionWorkPool> workPool;
+  private final List<KafkaPartitionWorkPool.PartitionRange> partitionRanges;
+  private final long minSplitSize;
+  // Ranges pulled by this extractor, completed in close() once its task has committed or failed
+  private final List<KafkaPartitionWorkPool.PartitionRange> pulledRanges = Lists.newArrayList();
+  private KafkaPartitionWorkPool.PartitionRange stolenRange = null;
+  private Iterator<MessageAndOffset> stolenMessageIterator = null;
+
   public KafkaExtractor(WorkUnitState state) {
     super(state);
     this.workUnitState = state;
@@ -93,6 +127,37 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
 
     // The actual high watermark starts with the low watermark
     this.workUnitState.setActualHighWatermark(this.lowWatermark);
+
+    this.partitionRanges = Lists.newArrayListWithCapacity(this.partitions.size());
+    this.minSplitSize =
+        state.getPropAsLong(KafkaSource.WORK_STEALING_MIN_SPLIT_SIZE, KafkaSource.DEFAULT_WORK_STEALING_MIN_SPLIT_SIZE);
+    if (isWorkStealingEnabled(state)) {
+      for (int i = 0; i < this.partitions.size(); i++) {
+        this.partitionRanges.add(new KafkaPartitionWorkPool.PartitionRange(this.partitions.get(i),
+            this.lowWatermark.get(i), this.highWatermark.get(i)));
+      }
+      this.workPool =
+          Optional.of(KafkaPartitionWorkPool.acquire(state.getProp(ConfigurationKeys.JOB_ID_KEY), this.topicName));
+      this.workPool.get().register(this.partitionRanges);
+    } else {
+      this.workPool = Optional.absent();
+    }
+  }
+
+  static boolean isWorkStealingEnabled(State state) {
+    if (!state.getPropAsBoolean(KafkaSource.WORK_STEALING_ENABLED, KafkaSource.DEFAULT_WORK_STEALING_ENABLED)) {
+      return false;
+    }
+    if (JobCommitPolicy.getCommitPolicy(state) != JobCommitPolicy.COMMIT_ON_FULL_SUCCESS) {
+      LOG.warn("Kafka work stealing is disabled since it requires job commit policy "
+          + JobCommitPolicy.COMMIT_ON_FULL_SUCCESS);
+      return false;
+    }
+    if (state.getPropAsInt(ConfigurationKeys.MAX_TASK_RETRIES_KEY, ConfigurationKeys.DEFAULT_MAX_TASK_RETRIES) > 0) {
+      LOG.warn("Kafka work stealing is disabled since it requires " + ConfigurationKeys.MAX_TASK_RETRIES_KEY + "=0");
+      return false;
+    }
+    return true;
   }
 
   @Override
@@ -141,6 +206,13 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
           continue;
         }
 
+        if (this.workPool.isPresent() && !this.partitionRanges.get(this.currentPartitionIdx)
+            .tryAdvance(nextValidMessage.offset(), nextValidMessage.nextOffset())) {
+          // The rest of the partition has been taken over by another extractor
+          this.nextWatermark.set(this.currentPartitionIdx, getCurrentHighWatermark());
+          break;
+        }
+
         this.nextWatermark.set(this.currentPartitionIdx, nextValidMessage.nextOffset());
         try {
           D record = decodeRecord(nextValidMessage);
@@ -157,10 +229,75 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
         }
       }
     }
+    if (this.workPool.isPresent()) {
+      D record = readStolenRecord();
+      if (record != null) {
+        return record;
+      }
+    }
     LOG.info("Finished pulling topic " + this.topicName);
     return null;
   }
 
+  /**
+   * Return the next decodable record from a range of offsets taken over from another {@link KafkaExtractor}, taking
+   * over another range if the current one has no more decodable record. Return null if there is nothing to take over.
+   */
+  private D readStolenRecord() {
+    while (true) {
+      if (this.stolenRange == null || this.stolenRange.isFinished()) {
+        if (this.stolenRange != null) {
+          finishStolenRange();
+        }
+        Optional<KafkaPartitionWorkPool.PartitionRange> range = this.workPool.get().steal(this.minSplitSize);
+        if (!range.isPresent()) {
+          return null;
+        }
+        this.stolenRange = range.get();
+        this.pulledRanges.add(this.stolenRange);
+        LOG.info("Took over offset range " + this.stolenRange);
+      }
+
+      if (this.stolenMessageIterator == null || !this.stolenMessageIterator.hasNext()) {
+        try {
+          this.stolenMessageIterator = this.kafkaWrapper.fetchNextMessageBuffer(this.stolenRange.getPartition(),
+              this.stolenRange.getNextOffset(), this.stolenRange.getEndOffset());
+        } catch (Exception e) {
+          LOG.error(String.format("Failed to fetch next message buffer for offset range %s. Will stop pulling it.",
+              this.stolenRange), e);
+          finishStolenRange();
+          continue;
+        }
+        if (this.stolenMessageIterator == null || !this.stolenMessageIterator.hasNext()) {
+          finishStolenRange();
+          continue;
+        }
+      }
+
+      while (this.stolenMessageIterator.hasNext()) {
+        MessageAndOffset nextValidMessage = this.stolenMessageIterator.next();
+        if (nextValidMessage.offset() < this.stolenRange.getNextOffset()) {
+          continue;
+        }
+        if (!this.stolenRange.tryAdvance(nextValidMessage.offset(), nextValidMessage.nextOffset())) {
+          break;
+        }
+        try {
+          return decodeRecord(nextValidMessage);
+        } catch (Throwable t) {
+          this.undecodableMessageCount++;
+          LOG.error(String.format("A record from offset range %s cannot be decoded.", this.stolenRange), t);
+        }
+      }
+    }
+  }
+
+  private void finishStolenRange() {
+    this.workPool.get().markPulled(this.stolenRange);
+    this.stolenRange = null;
+    this.stolenMessageIterator = null;
+  }
+
   private boolean allPartitionsFinished() {
     return this.currentPartitionIdx != INITIAL_PARTITION_IDX && this.currentPartitionIdx >= this.highWatermark.size();
   }
@@ -168,7 +305,7 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
   private boolean currentPartitionFinished() {
     if (this.currentPartitionIdx == INITIAL_PARTITION_IDX) {
       return true;
-    } else if (this.nextWatermark.get(this.currentPartitionIdx) >= this.highWatermark.get(this.currentPartitionIdx)) {
+    } else if (this.nextWatermark.get(this.currentPartitionIdx) >= getCurrentHighWatermark()) {
       LOG.info("Finished pulling partition " + this.getCurrentPartition());
       return true;
     } else {
@@ -176,6 +313,14 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
     }
   }
 
+  private boolean startPulling(KafkaPartitionWorkPool.PartitionRange range) {
+    if (range.start()) {
+      this.pulledRanges.add(range);
+      return true;
+    }
+    return false;
+  }
+
   /**
    * Record the avg time per record for the current partition, then increment this.currentPartitionIdx,
    * and switch metric context to the new partition.
@@ -186,6 +331,9 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
       this.currentPartitionIdx = 0;
     } else {
       this.stopwatch.stop();
+      if (this.workPool.isPresent()) {
+        this.workPool.get().markPulled(this.partitionRanges.get(this.currentPartitionIdx));
+      }
       if (this.currentPartitionRecordCount != 0) {
         double avgMillisForCurrentPartition =
             (double) this.stopwatch.elapsed(TimeUnit.MILLISECONDS) / (double) this.currentPartitionRecordCount;
@@ -200,11 +348,18 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
       this.stopwatch.reset();
     }
 
+    // Skip partitions that have been taken over by other extractors
+    while (this.workPool.isPresent() && this.currentPartitionIdx < this.partitions.size()
+        && !startPulling(this.partitionRanges.get(this.currentPartitionIdx))) {
+      LOG.info(String.format("Partition %s has been taken over by another extractor", this.getCurrentPartition()));
+      this.currentPartitionIdx++;
+    }
+
     this.messageIterator = null;
     if (this.currentPartitionIdx < this.partitions.size()) {
       LOG.info(String.format("Pulling partition %s from offset %d to %d, range=%d", this.getCurrentPartition(),
-          this.nextWatermark.get(this.currentPartitionIdx), this.highWatermark.get(this.currentPartitionIdx),
-          this.highWatermark.get(this.currentPartitionIdx) - this.nextWatermark.get(this.currentPartitionIdx)));
+          this.nextWatermark.get(this.currentPartitionIdx), getCurrentHighWatermark(),
+          getCurrentHighWatermark() - this.nextWatermark.get(this.currentPartitionIdx)));
       switchMetricContextToCurrentPartition();
     }
     this.stopwatch.start();
@@ -220,7 +375,16 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
 
   private Iterator<MessageAndOffset> fetchNextMessageBuffer() {
     return this.kafkaWrapper.fetchNextMessageBuffer(this.partitions.get(this.currentPartitionIdx),
-        this.nextWatermark.get(this.currentPartitionIdx), this.highWatermark.get(this.currentPartitionIdx));
+        this.nextWatermark.get(this.currentPartitionIdx), getCurrentHighWatermark());
+  }
+
+  /**
+   * Get the high watermark of the current partition, which may be lowered if the partition is split with another
+   * extractor when work stealing is enabled.
+   */
+  private long getCurrentHighWatermark() {
+    return this.workPool.isPresent() ? this.partitionRanges.get(this.currentPartitionIdx).getEndOffset()
+        : this.highWatermark.get(this.currentPartitionIdx);
   }
 
   private boolean shouldLogError() {
@@ -251,6 +415,9 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
 
   @Override
   public void close() throws IOException {
+    if (this.workPool.isPresent()) {
+      completeWorkStealing();
+    }
 
     // Add error partition count and error message count to workUnitState
     this.workUnitState.setProp(ConfigurationKeys.ERROR_PARTITION_COUNT, this.errorPartitions.size());
@@ -276,6 +443,59 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
     this.closer.close();
   }
 
+  /**
+   * Stop pulling and taking over offset ranges, complete the ranges pulled by this extractor according to whether
+   * its task has committed, wait until the ranges taken over from the partitions of this extractor are completed, and
+   * update the next watermark of each partition with the offset up to which all of its records have been committed.
+   * The task is failed if there is no such offset for a partition.
+   */
+  private void completeWorkStealing() {
+    KafkaPartitionWorkPool pool = this.workPool.get();
+    for (KafkaPartitionWorkPool.PartitionRange range : this.partitionRanges) {
+      // Partitions neither pulled by this extractor nor taken over are no longer available to other extractors
+      startPulling(range);
+    }
+    WorkUnitState.WorkingState workingState = this.workUnitState.getWorkingState();
+    boolean committed = workingState == WorkUnitState.WorkingState.SUCCESSFUL
+        || workingState == WorkUnitState.WorkingState.COMMITTED;
+    for (KafkaPartitionWorkPool.PartitionRange range : this.pulledRanges) {
+      pool.complete(range, committed);
+    }
+    this.stolenRange = null;
+    this.stolenMessageIterator = null;
+
+    try {
+      for (int i = 0; i < this.partitionRanges.size(); i++) {
+        Optional<Long> committableOffset = pool.awaitCommittableOffset(this.partitionRanges.get(i));
+        if (!committableOffset.isPresent()) {
+          failWorkStealing(String.format("Records of partition %s were pulled by a task that failed, "
+              + "or past offsets that were not pulled", this.partitions.get(i)));
+          return;
+        }
+        if (committableOffset.get() != this.nextWatermark.get(i)) {
+          LOG.info(String.format("Next watermark of partition %s is %d after work stealing", this.partitions.get(i),
+              committableOffset.get()));
+          this.nextWatermark.set(i, committableOffset.get());
+        }
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      failWorkStealing("Interrupted while waiting for offset ranges taken over by other extractors");
+    } finally {
+      KafkaPartitionWorkPool.release(pool);
+    }
+  }
+
+  /**
+   * Fail the task of this extractor, whose partitions cannot be committed consistently with the other tasks. Since
+   * work stealing requires {@link JobCommitPolicy#COMMIT_ON_FULL_SUCCESS}, nothing of the job is committed then.
+   */
+  private void failWorkStealing(String message) {
+    LOG.error(message);
+    this.workUnitState.setWorkingState(WorkUnitState.WorkingState.FAILED);
+    this.workUnitState.setProp(ConfigurationKeys.TASK_FAILURE_EXCEPTION_KEY, message);
+  }
+
   protected static byte[] getBytes(ByteBuffer buf) {
     byte[] bytes = null;
     if (buf != null) {
@@ -286,6 +506,25 @@ public abstract class KafkaExtractor<S, D> extends EventBasedExtractor<S, D> {
     return bytes;
   }
 
+  @Override
+  public Watermark getCheckpointWatermark() {
+    return this.workPool.isPresent() ? null : new MultiLongWatermark(this.nextWatermark);
+  }
+
+  @Override
+  public void resumeFrom(JsonElement checkpointWatermark) throws IOException {
+    MultiLongWatermark checkpoint = GSON.fromJson(checkpointWatermark, MultiLongWatermark.class);
+    if (checkpoint.size() != this.nextWatermark.size()) {
+      throw new IOException(String.format("Checkpoint %s does not match the %d partitions of topic %s", checkpoint,
+          this.partitions.size(), this.topicName));
+    }
+    for (int i = 0; i < checkpoint.size(); i++) {
+      this.nextWatermark.set(i,
+          Math.max(this.nextWatermark.get(i), Math.min(checkpoint.get(i), this.highWatermark.get(i))));
+    }
+    LOG.info(String.format("Resuming topic %s from checkpoint %s", this.topicName, this.nextWatermark));
+  }
+
   @Deprecated
   @Override
   public long getHighWatermark() {
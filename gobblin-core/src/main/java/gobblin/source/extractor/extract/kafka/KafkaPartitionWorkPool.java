@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka;
+
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+
+/**
+ * A pool of offset ranges of Kafka partitions shared by the {@link KafkaExtractor}s of the same job and topic
+ * running in the same JVM, which allows a {@link KafkaExtractor} that has finished its own partitions to take over
+ * work from the others.
+ *
+ * <p>
+ *   Each {@link KafkaExtractor} registers a {@link PartitionRange} for each of its partitions. An idle
+ *   {@link KafkaExtractor} can {@link #steal(long)} a {@link PartitionRange} that has not been started by its
+ *   owner, or split off the second half of the remaining offsets of a {@link PartitionRange} in progress. The
+ *   {@link PartitionRange}s of a partition form a chain ordered by offsets, which the owner of the partition uses
+ *   in {@link #awaitCommittableOffset(PartitionRange)} to get the offset up to which all records of the partition
+ *   have been committed, so that the watermark of each partition is still committed by its owner.
+ * </p>
+ *
+ * <p>
+ *   A {@link PartitionRange} goes through the following states: it is started by the {@link KafkaExtractor} that
+ *   pulls it, marked as pulled once that {@link KafkaExtractor} stops pulling it, after which it can no longer be
+ *   taken over or split, and completed when the task of that {@link KafkaExtractor} has either committed or failed.
+ *   The records of a {@link PartitionRange} whose task failed are not committed by anyone, so the chain of its
+ *   partition has no committable offset and the owner of the partition has to fail as well.
+ * </p>
+ *
+ * <p>
+ *   Methods of a {@link PartitionRange} are synchronized on the {@link PartitionRange}, and methods of a
+ *   {@link KafkaPartitionWorkPool} are synchronized on the {@link KafkaPartitionWorkPool}, which may in turn lock a
+ *   {@link PartitionRange} but never the other way around.
+ * </p>
+ */
+class KafkaPartitionWorkPool {
+
+  private static final Map<String, KafkaPartitionWorkPool> POOLS = Maps.newHashMap();
+
+  private final String key;
+  // Ranges that can still be taken over or split, in the order they are registered or split off
+  private final List<PartitionRange> ranges = Lists.newArrayList();
+  private int refCount = 0;
+
+  private KafkaPartitionWorkPool(String key) {
+    this.key = key;
+  }
+
+  /**
+   * Get the {@link KafkaPartitionWorkPool} for the given job and topic, creating it if it does not exist yet.
+   * Each call must be matched by a call to {@link #release(KafkaPartitionWorkPool)}.
+   */
+  static KafkaPartitionWorkPool acquire(String jobId, String topic) {
+    String key = jobId + ":" + topic;
+    synchronized (POOLS) {
+      KafkaPartitionWorkPool pool = POOLS.get(key);
+      if (pool == null) {
+        pool = new KafkaPartitionWorkPool(key);
+        POOLS.put(key, pool);
+      }
+      pool.refCount++;
+      return pool;
+    }
+  }
+
+  static void release(KafkaPartitionWorkPool pool) {
+    synchronized (POOLS) {
+      if (--pool.refCount == 0) {
+        POOLS.remove(pool.key);
+      }
+    }
+  }
+
+  synchronized void register(List<PartitionRange> partitionRanges) {
+    this.ranges.addAll(partitionRanges);
+  }
+
+  /**
+   * Take over a {@link PartitionRange} that has not been started, or otherwise split off the second half of the
+   * remaining offsets of the {@link PartitionRange} with the most remaining offsets, if it has at least
+   * 2 * minSplitSize remaining offsets. The returned {@link PartitionRange} is started.
+   */
+  synchronized Optional<PartitionRange> steal(long minSplitSize) {
+    for (PartitionRange range : this.ranges) {
+      if (range.start()) {
+        return Optional.of(range);
+      }
+    }
+
+    PartitionRange largestRange = null;
+    long largestRemaining = 0;
+    for (PartitionRange range : this.ranges) {
+      long remaining = range.getRemaining();
+      if (remaining > largestRemaining) {
+        largestRange = range;
+        largestRemaining = remaining;
+      }
+    }
+    if (largestRange == null || largestRemaining < 2 * minSplitSize) {
+      return Optional.absent();
+    }
+
+    Optional<PartitionRange> splitRange = largestRange.split();
+    if (splitRange.isPresent()) {
+      this.ranges.add(splitRange.get());
+    }
+    return splitRange;
+  }
+
+  /**
+   * Mark a {@link PartitionRange} as pulled, after which it is no longer pulled, taken over or split. The offsets
+   * of the {@link PartitionRange} that have not been pulled are left to the next run of the job.
+   */
+  synchronized void markPulled(PartitionRange range) {
+    range.markPulled();
+    this.ranges.remove(range);
+  }
+
+  /**
+   * Mark a {@link PartitionRange} as pulled and completed.
+   *
+   * @param committed whether the records pulled from the {@link PartitionRange} have been committed by the task
+   *                  that pulled them
+   */
+  synchronized void complete(PartitionRange range, boolean committed) {
+    range.markPulled();
+    range.complete(committed);
+    this.ranges.remove(range);
+    notifyAll();
+  }
+
+  /**
+   * Wait until every {@link PartitionRange} in the chain starting with the given {@link PartitionRange} is
+   * completed, and return the offset up to which all records in the chain have been committed.
+   *
+   * @return the committable offset, or {@link Optional#absent()} if the records of a {@link PartitionRange} in the
+   *         chain have not been committed, or if records have been pulled past a {@link PartitionRange} that was not
+   *         pulled to its end, in which case no offset can be committed without losing or duplicating records
+   */
+  synchronized Optional<Long> awaitCommittableOffset(PartitionRange head) throws InterruptedException {
+    for (PartitionRange range = head; range != null; range = range.getNextRange()) {
+      while (!range.isCompleted()) {
+        wait();
+      }
+      if (!range.isCommitted()) {
+        return Optional.absent();
+      }
+    }
+
+    PartitionRange range = head;
+    while (range.isFinished() && range.getNextRange() != null) {
+      range = range.getNextRange();
+    }
+    for (PartitionRange gapRange = range.getNextRange(); gapRange != null; gapRange = gapRange.getNextRange()) {
+      if (gapRange.getNextOffset() > gapRange.getStartOffset()) {
+        return Optional.absent();
+      }
+    }
+    return Optional.of(range.getNextOffset());
+  }
+
+  /**
+   * A range of offsets [startOffset, endOffset) of a Kafka partition to be pulled by a single {@link KafkaExtractor},
+   * of which the offsets before nextOffset have been pulled.
+   */
+  static class PartitionRange {
+
+    private final KafkaPartition partition;
+    private final long startOffset;
+    private long nextOffset;
+    private long endOffset;
+    private boolean started = false;
+    private boolean pulled = false;
+    private boolean completed = false;
+    private boolean committed = false;
+    // The range split off right after this one, if any
+    private PartitionRange nextRange = null;
+
+    PartitionRange(KafkaPartition partition, long startOffset, long endOffset) {
+      this.partition = partition;
+      this.startOffset = startOffset;
+      this.nextOffset = startOffset;
+      this.endOffset = endOffset;
+    }
+
+    KafkaPartition getPartition() {
+      return this.partition;
+    }
+
+    long getStartOffset() {
+      return this.startOffset;
+    }
+
+    synchronized long getNextOffset() {
+      return this.nextOffset;
+    }
+
+    synchronized long getEndOffset() {
+      return this.endOffset;
+    }
+
+    synchronized PartitionRange getNextRange() {
+      return this.nextRange;
+    }
+
+    /**
+     * Start pulling this {@link PartitionRange}.
+     *
+     * @return {@code false} if this {@link PartitionRange} has already been started
+     */
+    synchronized boolean start() {
+      if (this.started) {
+        return false;
+      }
+      this.started = true;
+      return true;
+    }
+
+    /**
+     * Advance this {@link PartitionRange} past the record at the given offset.
+     *
+     * @return {@code false} if the offset is beyond the end of this {@link PartitionRange}, in which case there is
+     *         no record left in this {@link PartitionRange} and the record must not be pulled by its caller
+     */
+    synchronized boolean tryAdvance(long offset, long nextOffset) {
+      if (offset >= this.endOffset) {
+        this.nextOffset = Math.max(this.nextOffset, this.endOffset);
+        return false;
+      }
+      this.nextOffset = nextOffset;
+      return true;
+    }
+
+    synchronized boolean isFinished() {
+      return this.nextOffset >= this.endOffset;
+    }
+
+    private synchronized boolean isCompleted() {
+      return this.completed;
+    }
+
+    private synchronized boolean isCommitted() {
+      return this.committed;
+    }
+
+    private synchronized void markPulled() {
+      this.started = true;
+      this.pulled = true;
+    }
+
+    private synchronized void complete(boolean committed) {
+      this.completed = true;
+      this.committed = committed;
+    }
+
+    private synchronized long getRemaining() {
+      return this.started && !this.pulled ? this.endOffset - this.nextOffset : 0;
+    }
+
+    private synchronized Optional<PartitionRange> split() {
+      if (this.pulled || this.endOffset - this.nextOffset < 2) {
+        return Optional.absent();
+      }
+      long splitOffset = this.nextOffset + (this.endOffset - this.nextOffset) / 2;
+      PartitionRange splitRange = new PartitionRange(this.partition, splitOffset, this.endOffset);
+      splitRange.started = true;
+      splitRange.nextRange = this.nextRange;
+      this.nextRange = splitRange;
+      this.endOffset = splitOffset;
+      return Optional.of(splitRange);
+    }
+
+    @Override
+    public synchronized String toString() {
+      return String.format("%s[%d, %d)", this.partition, this.nextOffset, this.endOffset);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka;
+
+import java.util.Arrays;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.commons.codec.binary.Hex;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+import gobblin.configuration.WorkUnitState;
+import gobblin.metrics.kafka.KafkaAvroSchemaRegistry;
+import gobblin.metrics.kafka.SchemaRegistryException;
+
+
+/**
+ * A {@link KafkaAvroExtractor} for Kafka messages whose payload is a {@link KafkaAvroSchemaRegistry#MAGIC_BYTE}
+ * followed by the {@link KafkaAvroSchemaRegistry#SCHEMA_ID_LENGTH_BYTE}-byte ID of the writer schema in a
+ * {@link KafkaAvroSchemaRegistry} and the binary encoded Avro datum, e.g., messages written by
+ * {@link gobblin.metrics.reporter.util.SchemaRegistryVersionWriter}.
+ *
+ * <p>
+ *   The writer schema is looked up in the schema registry configured by
+ *   {@link gobblin.metrics.kafka.KafkaSchemaRegistry#KAFKA_SCHEMA_REGISTRY_CLASS}, whose keys are the hex encoded
+ *   schema IDs. A single {@link org.apache.avro.io.BinaryDecoder} is reused for decoding all records. Records written
+ *   with the latest schema of the topic are not decoded at all if {@link #PASS_THROUGH_ENABLED_KEY} is set to true.
+ * </p>
+ */
+public class KafkaSchemaRegistryAvroExtractor extends KafkaAvroExtractor<String> {
+
+  private static final int DATUM_OFFSET = 1 + KafkaAvroSchemaRegistry.SCHEMA_ID_LENGTH_BYTE;
+
+  public KafkaSchemaRegistryAvroExtractor(WorkUnitState state) {
+    super(state);
+  }
+
+  @Override
+  protected Schema getRecordSchema(byte[] payload) {
+    Preconditions.checkArgument(payload.length >= DATUM_OFFSET && payload[0] == KafkaAvroSchemaRegistry.MAGIC_BYTE,
+        "Payload does not start with the magic byte and a schema ID");
+    String schemaId = Hex.encodeHexString(Arrays.copyOfRange(payload, 1, DATUM_OFFSET));
+    try {
+      return this.schemaRegistry.get().getSchemaByKey(schemaId);
+    } catch (SchemaRegistryException sre) {
+      throw new RuntimeException(String.format("Failed to get schema %s for topic %s", schemaId, this.topicName),
+          sre);
+    }
+  }
+
+  @Override
+  protected Decoder getDecoder(byte[] payload) {
+    return getBinaryDecoder(payload, DATUM_OFFSET, payload.length - DATUM_OFFSET);
+  }
+
+  @Override
+  protected Optional<Integer> getDatumOffset(byte[] payload) {
+    return Optional.of(DATUM_OFFSET);
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+
+import gobblin.configuration.WorkUnitState;
+import gobblin.source.extractor.Extractor;
+
+
+/**
+ * A {@link KafkaSource} that extracts Avro records using a {@link KafkaSchemaRegistryAvroExtractor}.
+ */
+public class KafkaSchemaRegistryAvroSource extends KafkaSource<Schema, GenericRecord> {
+
+  @Override
+  public Extractor<Schema, GenericRecord> getExtractor(WorkUnitState state) throws IOException {
+    return new KafkaSchemaRegistryAvroExtractor(state);
+  }
+}
@@ -80,6 +80,12 @@ public abstract class KafkaSource<S, D> extends EventBasedSource<S, D> {
   public static final String ALL_TOPICS = "all";
   public static final String AVG_RECORD_SIZE = "avg.record.size";
   public static final String AVG_RECORD_MILLIS = "avg.record.millis";
+  public static final String AVG_RECORD_MILLIS_EWMA = "avg.record.millis.ewma";
+  public static final String AVG_RECORD_MILLIS_VARIANCE = "avg.record.millis.variance";
+  public static final String WORK_STEALING_ENABLED = "kafka.work.stealing.enabled";
+  public static final boolean DEFAULT_WORK_STEALING_ENABLED = false;
+  public static final String WORK_STEALING_MIN_SPLIT_SIZE = "kafka.work.stealing.min.split.size";
+  public static final long DEFAULT_WORK_STEALING_MIN_SPLIT_SIZE = 10000;
 
   private final Set<String> moveToLatestTopics = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
   private final Map<KafkaPartition, Long> previousOffsets = Maps.newConcurrentMap();
@@ -147,4 +147,42 @@ public class KafkaUtils {
         getPartitionPropName(partition.getTopicName(), partition.getId()) + "." + KafkaSource.AVG_RECORD_MILLIS,
         millis);
   }
+
+  /**
+   * Determines whether the given {@link State} contains "[topicname].[partitionid].avg.record.millis.ewma".
+   */
+  public static boolean containsPartitionAvgRecordMillisEwma(State state, KafkaPartition partition) {
+    return state.contains(
+        getPartitionPropName(partition.getTopicName(), partition.getId()) + "." + KafkaSource.AVG_RECORD_MILLIS_EWMA);
+  }
+
+  /**
+   * Get the exponentially weighted moving average of the average time to pull a record of a partition across runs,
+   * which is stored in property "[topicname].[partitionid].avg.record.millis.ewma".
+   */
+  public static double getPartitionAvgRecordMillisEwma(State state, KafkaPartition partition) {
+    return state.getPropAsDouble(
+        getPartitionPropName(partition.getTopicName(), partition.getId()) + "." + KafkaSource.AVG_RECORD_MILLIS_EWMA);
+  }
+
+  /**
+   * Get the exponentially weighted moving variance of the average time to pull a record of a partition across runs,
+   * which is stored in property "[topicname].[partitionid].avg.record.millis.variance".
+   */
+  public static double getPartitionAvgRecordMillisVariance(State state, KafkaPartition partition) {
+    return state.getPropAsDouble(getPartitionPropName(partition.getTopicName(), partition.getId()) + "."
+        + KafkaSource.AVG_RECORD_MILLIS_VARIANCE, 0.0);
+  }
+
+  /**
+   * Set the exponentially weighted moving average and variance of the average time to pull a record of a partition,
+   * which will be stored in properties "[topicname].[partitionid].avg.record.millis.ewma" and
+   * "[topicname].[partitionid].avg.record.millis.variance".
+   */
+  public static void setPartitionAvgRecordMillisEwma(State state, KafkaPartition partition, double ewma,
+      double variance) {
+    String partitionPropName = getPartitionPropName(partition.getTopicName(), partition.getId());
+    state.setProp(partitionPropName + "." + KafkaSource.AVG_RECORD_MILLIS_EWMA, ewma);
+    state.setProp(partitionPropName + "." + KafkaSource.AVG_RECORD_MILLIS_VARIANCE, variance);
+  }
 }
@@ -74,7 +74,7 @@ public class KafkaAvgRecordTimeBasedWorkUnitSizeEstimator implements KafkaWorkUn
    * Calculate the geometric mean of a {@link List} of double numbers. Numbers smaller than {@link #EPS} will be
    * treated as {@link #EPS}.
    */
-  private static double geometricMean(List<Double> numbers) {
+  static double geometricMean(List<Double> numbers) {
     Preconditions.checkArgument(!numbers.isEmpty());
 
     double[] numberArray = new double[numbers.size()];
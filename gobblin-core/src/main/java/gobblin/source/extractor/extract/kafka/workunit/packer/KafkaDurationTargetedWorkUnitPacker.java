@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Maps;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.SourceState;
+import gobblin.configuration.WorkUnitState;
+import gobblin.source.extractor.extract.AbstractSource;
+import gobblin.source.extractor.extract.kafka.KafkaPartition;
+import gobblin.source.extractor.extract.kafka.KafkaUtils;
+import gobblin.source.extractor.extract.kafka.MultiLongWatermark;
+import gobblin.source.workunit.MultiWorkUnit;
+import gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * An implementation of {@link KafkaWorkUnitPacker} that packs {@link WorkUnit}s into {@link MultiWorkUnit}s
+ * targeting a wall-clock duration per container, using the per-partition history kept by
+ * {@link KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator} to estimate the time to pull each {@link WorkUnit}.
+ *
+ * If {@link #TARGET_CONTAINER_DURATION_MILLIS} is set, the number of {@link MultiWorkUnit}s is the number needed for
+ * the estimated total pull time to fit in containers of the target duration, capped at the given number of
+ * containers. Otherwise all the given containers are used. The {@link WorkUnit}s are then packed the same way as
+ * in {@link KafkaSingleLevelWorkUnitPacker}.
+ *
+ * Each {@link WorkUnit} records the index and the predicted duration of its {@link MultiWorkUnit}. In the next run,
+ * the predicted durations are compared with the actual pull times of the {@link MultiWorkUnit}s, computed from the
+ * avg time per record and the number of records pulled of each partition, and the predicted and actual skews, i.e.,
+ * the ratios of the longest to the average duration, are logged and added to the {@link SourceState}.
+ */
+public class KafkaDurationTargetedWorkUnitPacker extends KafkaSingleLevelWorkUnitPacker {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KafkaDurationTargetedWorkUnitPacker.class);
+
+  public static final String TARGET_CONTAINER_DURATION_MILLIS =
+      "kafka.workunit.packer.target.container.duration.millis";
+
+  public static final String PREVIOUS_PREDICTED_SKEW = "kafka.workunit.packer.previous.predicted.skew";
+  public static final String PREVIOUS_ACTUAL_SKEW = "kafka.workunit.packer.previous.actual.skew";
+
+  private static final String MULTIWORKUNIT_INDEX = "kafka.multiworkunit.index";
+  private static final String MULTIWORKUNIT_PREDICTED_MILLIS = "kafka.multiworkunit.predicted.millis";
+
+  protected KafkaDurationTargetedWorkUnitPacker(AbstractSource<?, ?> source, SourceState state) {
+    super(source, state, new KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator(state));
+  }
+
+  @Override
+  public List<WorkUnit> pack(Map<String, List<WorkUnit>> workUnitsByTopic, int numContainers) {
+    reportPreviousRunSkew();
+    return super.pack(workUnitsByTopic, numContainers);
+  }
+
+  @Override
+  protected List<WorkUnit> worstFitDecreasingBinPacking(List<WorkUnit> groups, int numOfMultiWorkUnits) {
+    int numOfMultiWorkUnitsToUse = numOfMultiWorkUnits;
+    if (this.state.contains(TARGET_CONTAINER_DURATION_MILLIS)) {
+      long targetMillis = this.state.getPropAsLong(TARGET_CONTAINER_DURATION_MILLIS);
+      double totalEstMillis = 0;
+      for (WorkUnit group : groups) {
+        totalEstMillis += getWorkUnitEstSize(group);
+      }
+      int neededMultiWorkUnits = (int) Math.max(1, Math.ceil(totalEstMillis / targetMillis));
+      numOfMultiWorkUnitsToUse = Math.min(numOfMultiWorkUnits, neededMultiWorkUnits);
+      LOG.info(String.format("Estimated total pull time is %f milliseconds; using %d of %d containers for a target "
+          + "duration of %d milliseconds per container", totalEstMillis, numOfMultiWorkUnitsToUse, numOfMultiWorkUnits,
+          targetMillis));
+    }
+
+    List<WorkUnit> multiWorkUnits = super.worstFitDecreasingBinPacking(groups, numOfMultiWorkUnitsToUse);
+
+    for (int i = 0; i < multiWorkUnits.size(); i++) {
+      MultiWorkUnit multiWorkUnit = (MultiWorkUnit) multiWorkUnits.get(i);
+      double predictedMillis = getWorkUnitEstSize(multiWorkUnit);
+      for (WorkUnit workUnit : multiWorkUnit.getWorkUnits()) {
+        workUnit.setProp(MULTIWORKUNIT_INDEX, i);
+        workUnit.setProp(MULTIWORKUNIT_PREDICTED_MILLIS, predictedMillis);
+      }
+    }
+    return multiWorkUnits;
+  }
+
+  /**
+   * Compare the predicted duration of each {@link MultiWorkUnit} of the previous run with its actual pull time,
+   * and report the predicted and actual skews of the previous run.
+   */
+  private void reportPreviousRunSkew() {
+    Map<Integer, Double> predictedMillis = Maps.newHashMap();
+    Map<Integer, Double> actualMillis = Maps.newHashMap();
+
+    for (WorkUnitState workUnitState : this.state.getPreviousWorkUnitStates()) {
+      if (!workUnitState.contains(MULTIWORKUNIT_INDEX)) {
+        continue;
+      }
+      int index = workUnitState.getPropAsInt(MULTIWORKUNIT_INDEX);
+      predictedMillis.put(index, workUnitState.getPropAsDouble(MULTIWORKUNIT_PREDICTED_MILLIS));
+
+      double millis = actualMillis.containsKey(index) ? actualMillis.get(index) : 0.0;
+      List<KafkaPartition> partitions = KafkaUtils.getPartitions(workUnitState);
+      MultiLongWatermark lowWatermark = workUnitState.getWorkunit().getLowWatermark(MultiLongWatermark.class);
+      MultiLongWatermark actualHighWatermark = workUnitState.getActualHighWatermark(MultiLongWatermark.class);
+      for (int i = 0; i < partitions.size(); i++) {
+        if (KafkaUtils.containsPartitionAvgRecordMillis(workUnitState, partitions.get(i))
+            && actualHighWatermark.get(i) != ConfigurationKeys.DEFAULT_WATERMARK_VALUE) {
+          millis += KafkaUtils.getPartitionAvgRecordMillis(workUnitState, partitions.get(i))
+              * Math.max(0, actualHighWatermark.get(i) - lowWatermark.get(i));
+        }
+      }
+      actualMillis.put(index, millis);
+    }
+
+    if (predictedMillis.isEmpty()) {
+      return;
+    }
+
+    for (Map.Entry<Integer, Double> entry : predictedMillis.entrySet()) {
+      LOG.info(String.format("MultiWorkUnit %d of the previous run: predicted duration=%f ms, actual pull time=%f ms",
+          entry.getKey(), entry.getValue(), actualMillis.get(entry.getKey())));
+    }
+
+    double predictedSkew = getSkew(predictedMillis.values());
+    double actualSkew = getSkew(actualMillis.values());
+    LOG.info(String.format("Skew of MultiWorkUnits in the previous run: predicted=%f, actual=%f", predictedSkew,
+        actualSkew));
+    this.state.setProp(PREVIOUS_PREDICTED_SKEW, predictedSkew);
+    this.state.setProp(PREVIOUS_ACTUAL_SKEW, actualSkew);
+  }
+
+  /**
+   * Get the ratio of the longest to the average of the given durations.
+   */
+  private static double getSkew(Iterable<Double> durations) {
+    double max = 0;
+    double total = 0;
+    int count = 0;
+    for (double duration : durations) {
+      max = Math.max(max, duration);
+      total += duration;
+      count++;
+    }
+    return total > 0 ? max / (total / count) : 1.0;
+  }
+}
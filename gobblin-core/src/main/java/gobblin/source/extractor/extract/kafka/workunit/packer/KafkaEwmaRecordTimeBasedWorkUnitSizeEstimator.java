@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.SourceState;
+import gobblin.configuration.WorkUnitState;
+import gobblin.source.extractor.extract.kafka.KafkaPartition;
+import gobblin.source.extractor.extract.kafka.KafkaUtils;
+import gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * An implementation of {@link KafkaWorkUnitSizeEstimator} which keeps, for each partition, an exponentially weighted
+ * moving average (EWMA) and variance of the avg time to pull a record across runs, and uses them to estimate the
+ * sizes of {@link WorkUnit}s in milliseconds.
+ *
+ * In each run, the EWMA and variance of a partition are updated with the avg time per record the partition recorded
+ * in the previous run. {@link #calcEstimatedSize(WorkUnit)} adds the updated values to the {@link WorkUnit} of the
+ * partition, and {@link KafkaWorkUnitPacker}s carry them over when they combine {@link WorkUnit}s, so they are
+ * persisted with the {@link WorkUnitState}s and can be read in the next run whichever packer is used. A partition
+ * that was not pulled in the previous run keeps its EWMA and variance.
+ *
+ * The estimated time per record of a partition is its EWMA plus a configurable multiple of its standard deviation,
+ * so that partitions with bursty pull times are estimated conservatively. For a partition without history, the
+ * estimated time per record is the geometric mean of the EWMAs of the other partitions of its topic, or if there is
+ * none, the geometric mean over all topics, or 1.0 if no partition has any history.
+ */
+public class KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator implements KafkaWorkUnitSizeEstimator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator.class);
+
+  /**
+   * Weight of the latest observation in the EWMA, between 0 (exclusive) and 1 (inclusive).
+   */
+  public static final String EWMA_ALPHA = "kafka.workunit.size.estimator.ewma.alpha";
+  public static final double DEFAULT_EWMA_ALPHA = 0.3;
+
+  /**
+   * Number of standard deviations added to the EWMA of the avg time per record when estimating sizes.
+   */
+  public static final String EWMA_STDDEV_WEIGHT = "kafka.workunit.size.estimator.ewma.stddev.weight";
+  public static final double DEFAULT_EWMA_STDDEV_WEIGHT = 1.0;
+
+  private final double alpha;
+  private final double stdDevWeight;
+
+  // EWMA and variance of the avg time per record of each partition, updated with the previous run
+  private final Map<KafkaPartition, Double> ewmas = Maps.newHashMap();
+  private final Map<KafkaPartition, Double> variances = Maps.newHashMap();
+
+  private final Map<String, Double> estAvgMillisForTopics = Maps.newHashMap();
+  private double avgEstAvgMillis = 1.0;
+
+  KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator(SourceState state) {
+    this.alpha = state.getPropAsDouble(EWMA_ALPHA, DEFAULT_EWMA_ALPHA);
+    Preconditions.checkArgument(this.alpha > 0 && this.alpha <= 1, EWMA_ALPHA + " must be in (0, 1]");
+    this.stdDevWeight = state.getPropAsDouble(EWMA_STDDEV_WEIGHT, DEFAULT_EWMA_STDDEV_WEIGHT);
+    updatePartitionStats(state);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   *   This also adds the EWMA and variance of the partition of the given {@link WorkUnit} to it through
+   *   {@link #setPartitionStats(WorkUnit)}.
+   * </p>
+   */
+  @Override
+  public double calcEstimatedSize(WorkUnit workUnit) {
+    setPartitionStats(workUnit);
+    long numOfRecords = workUnit.getPropAsLong(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY)
+        - workUnit.getPropAsLong(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY);
+    return getEstAvgMillis(KafkaUtils.getPartition(workUnit)) * numOfRecords;
+  }
+
+  /**
+   * Add the EWMA and variance of the avg time per record of each partition of the given {@link WorkUnit} to it,
+   * so that they are carried over to the next run.
+   */
+  public void setPartitionStats(WorkUnit workUnit) {
+    for (KafkaPartition partition : KafkaUtils.getPartitions(workUnit)) {
+      if (this.ewmas.containsKey(partition)) {
+        KafkaUtils.setPartitionAvgRecordMillisEwma(workUnit, partition, this.ewmas.get(partition),
+            this.variances.get(partition));
+      }
+    }
+  }
+
+  private double getEstAvgMillis(KafkaPartition partition) {
+    if (this.ewmas.containsKey(partition)) {
+      return this.ewmas.get(partition) + this.stdDevWeight * Math.sqrt(this.variances.get(partition));
+    }
+    if (this.estAvgMillisForTopics.containsKey(partition.getTopicName())) {
+      return this.estAvgMillisForTopics.get(partition.getTopicName());
+    }
+    return this.avgEstAvgMillis;
+  }
+
+  /**
+   * Update the EWMA and variance of each partition pulled in the previous run with the avg time per record it
+   * recorded, using the incremental formulas ewma += alpha * diff and variance = (1 - alpha) * (variance + alpha *
+   * diff^2), where diff is the difference between the recorded avg time per record and the previous EWMA.
+   */
+  private void updatePartitionStats(SourceState state) {
+    for (WorkUnitState workUnitState : state.getPreviousWorkUnitStates()) {
+      for (KafkaPartition partition : KafkaUtils.getPartitions(workUnitState)) {
+        boolean hasHistory = KafkaUtils.containsPartitionAvgRecordMillisEwma(workUnitState, partition);
+        boolean pulled = KafkaUtils.containsPartitionAvgRecordMillis(workUnitState, partition);
+
+        if (hasHistory && pulled) {
+          double ewma = KafkaUtils.getPartitionAvgRecordMillisEwma(workUnitState, partition);
+          double variance = KafkaUtils.getPartitionAvgRecordMillisVariance(workUnitState, partition);
+          double diff = KafkaUtils.getPartitionAvgRecordMillis(workUnitState, partition) - ewma;
+          this.ewmas.put(partition, ewma + this.alpha * diff);
+          this.variances.put(partition, (1 - this.alpha) * (variance + this.alpha * diff * diff));
+        } else if (hasHistory) {
+          this.ewmas.put(partition, KafkaUtils.getPartitionAvgRecordMillisEwma(workUnitState, partition));
+          this.variances.put(partition, KafkaUtils.getPartitionAvgRecordMillisVariance(workUnitState, partition));
+        } else if (pulled) {
+          this.ewmas.put(partition, KafkaUtils.getPartitionAvgRecordMillis(workUnitState, partition));
+          this.variances.put(partition, 0.0);
+        }
+      }
+    }
+
+    Map<String, List<Double>> ewmasByTopic = Maps.newHashMap();
+    for (Map.Entry<KafkaPartition, Double> entry : this.ewmas.entrySet()) {
+      String topic = entry.getKey().getTopicName();
+      if (!ewmasByTopic.containsKey(topic)) {
+        ewmasByTopic.put(topic, Lists.<Double> newArrayList());
+      }
+      ewmasByTopic.get(topic).add(entry.getValue());
+    }
+
+    if (!ewmasByTopic.isEmpty()) {
+      for (Map.Entry<String, List<Double>> entry : ewmasByTopic.entrySet()) {
+        double estAvgMillisForTopic = KafkaAvgRecordTimeBasedWorkUnitSizeEstimator.geometricMean(entry.getValue());
+        this.estAvgMillisForTopics.put(entry.getKey(), estAvgMillisForTopic);
+        LOG.info(String.format("Estimated avg time to pull a record for new partitions of topic %s is %f milliseconds",
+            entry.getKey(), estAvgMillisForTopic));
+      }
+      this.avgEstAvgMillis = KafkaAvgRecordTimeBasedWorkUnitSizeEstimator
+          .geometricMean(Lists.newArrayList(this.estAvgMillisForTopics.values()));
+    }
+    LOG.info(String.format("Tracking avg time per record of %d partitions; for topics without history, estimated avg "
+        + "time to pull a record is %f milliseconds", this.ewmas.size(), this.avgEstAvgMillis));
+  }
+}
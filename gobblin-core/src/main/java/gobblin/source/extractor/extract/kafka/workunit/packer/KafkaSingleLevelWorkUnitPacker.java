@@ -42,6 +42,11 @@ public class KafkaSingleLevelWorkUnitPacker extends KafkaWorkUnitPacker {
     super(source, state);
   }
 
+  protected KafkaSingleLevelWorkUnitPacker(AbstractSource<?, ?> source, SourceState state,
+      KafkaWorkUnitSizeEstimator sizeEstimator) {
+    super(source, state, sizeEstimator);
+  }
+
   @Override
   public List<WorkUnit> pack(Map<String, List<WorkUnit>> workUnitsByTopic, int numContainers) {
     setWorkUnitEstSizes(workUnitsByTopic);
@@ -54,12 +54,14 @@ public abstract class KafkaWorkUnitPacker {
 
   public enum PackerType {
     SINGLE_LEVEL,
-    BI_LEVEL
+    BI_LEVEL,
+    DURATION_TARGETED
   }
 
   public enum SizeEstimatorType {
     AVG_RECORD_TIME,
-    AVG_RECORD_SIZE
+    AVG_RECORD_SIZE,
+    EWMA_RECORD_TIME
   }
 
   public static final String KAFKA_WORKUNIT_PACKER_TYPE = "kafka.workunit.packer.type";
@@ -79,9 +81,14 @@ public abstract class KafkaWorkUnitPacker {
   protected final KafkaWorkUnitSizeEstimator sizeEstimator;
 
   protected KafkaWorkUnitPacker(AbstractSource<?, ?> source, SourceState state) {
+    this(source, state, getWorkUnitSizeEstimator(state));
+  }
+
+  protected KafkaWorkUnitPacker(AbstractSource<?, ?> source, SourceState state,
+      KafkaWorkUnitSizeEstimator sizeEstimator) {
     this.source = source;
     this.state = state;
-    this.sizeEstimator = getWorkUnitSizeEstimator();
+    this.sizeEstimator = sizeEstimator;
   }
 
   protected static final Comparator<WorkUnit> LOAD_ASC_COMPARATOR = new Comparator<WorkUnit>() {
@@ -113,27 +120,30 @@ public abstract class KafkaWorkUnitPacker {
     workUnit.setProp(ESTIMATED_WORKUNIT_SIZE, this.sizeEstimator.calcEstimatedSize(workUnit));
   }
 
-  private KafkaWorkUnitSizeEstimator getWorkUnitSizeEstimator() {
-    if (this.state.contains(KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE)) {
-      String sizeEstimatorTypeString = this.state.getProp(KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE);
+  private static KafkaWorkUnitSizeEstimator getWorkUnitSizeEstimator(SourceState state) {
+    if (state.contains(KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE)) {
+      String sizeEstimatorTypeString = state.getProp(KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE);
       Optional<SizeEstimatorType> sizeEstimatorType =
           Enums.getIfPresent(SizeEstimatorType.class, sizeEstimatorTypeString);
       if (sizeEstimatorType.isPresent()) {
-        return getWorkUnitSizeEstimator(sizeEstimatorType.get());
+        return getWorkUnitSizeEstimator(sizeEstimatorType.get(), state);
       } else {
         throw new IllegalArgumentException("WorkUnit size estimator type " + sizeEstimatorType + " not found");
       }
     } else {
-      return getWorkUnitSizeEstimator(DEFAULT_SIZE_ESTIMATOR_TYPE);
+      return getWorkUnitSizeEstimator(DEFAULT_SIZE_ESTIMATOR_TYPE, state);
     }
   }
 
-  private KafkaWorkUnitSizeEstimator getWorkUnitSizeEstimator(SizeEstimatorType sizeEstimatorType) {
+  private static KafkaWorkUnitSizeEstimator getWorkUnitSizeEstimator(SizeEstimatorType sizeEstimatorType,
+      SourceState state) {
     switch (sizeEstimatorType) {
       case AVG_RECORD_TIME:
-        return new KafkaAvgRecordTimeBasedWorkUnitSizeEstimator(this.state);
+        return new KafkaAvgRecordTimeBasedWorkUnitSizeEstimator(state);
       case AVG_RECORD_SIZE:
-        return new KafkaAvgRecordSizeBasedWorkUnitSizeEstimator(this.state);
+        return new KafkaAvgRecordSizeBasedWorkUnitSizeEstimator(state);
+      case EWMA_RECORD_TIME:
+        return new KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator(state);
       default:
         throw new IllegalArgumentException("WorkUnit size estimator type " + sizeEstimatorType + " not found");
     }
@@ -215,6 +225,7 @@ public abstract class KafkaWorkUnitPacker {
         partitions.get(0).getTopicName());
     WorkUnit workUnit = WorkUnit.create(extract, interval);
     populateMultiPartitionWorkUnit(partitions, workUnit);
+    copyPartitionStats(multiWorkUnit, workUnit);
     workUnit.setProp(ESTIMATED_WORKUNIT_SIZE, multiWorkUnit.getProp(ESTIMATED_WORKUNIT_SIZE));
     LOG.info(String.format("Created MultiWorkUnit for partitions %s", partitions));
     return workUnit;
@@ -237,6 +248,22 @@ public abstract class KafkaWorkUnitPacker {
     }
   }
 
+  /**
+   * Copy the per-partition stats kept across runs, i.e., the EWMA and variance of the avg time per record added by
+   * {@link KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator}, of the {@link WorkUnit}s in the {@link MultiWorkUnit}
+   * to the {@link WorkUnit} combining them.
+   */
+  private static void copyPartitionStats(MultiWorkUnit multiWorkUnit, WorkUnit workUnit) {
+    for (WorkUnit partitionWorkUnit : multiWorkUnit.getWorkUnits()) {
+      KafkaPartition partition = KafkaUtils.getPartition(partitionWorkUnit);
+      if (KafkaUtils.containsPartitionAvgRecordMillisEwma(partitionWorkUnit, partition)) {
+        KafkaUtils.setPartitionAvgRecordMillisEwma(workUnit, partition,
+            KafkaUtils.getPartitionAvgRecordMillisEwma(partitionWorkUnit, partition),
+            KafkaUtils.getPartitionAvgRecordMillisVariance(partitionWorkUnit, partition));
+      }
+    }
+  }
+
   private static List<KafkaPartition> getPartitionsFromMultiWorkUnit(MultiWorkUnit multiWorkUnit) {
     List<KafkaPartition> partitions = Lists.newArrayList();
 
@@ -323,6 +350,8 @@ public abstract class KafkaWorkUnitPacker {
         return new KafkaSingleLevelWorkUnitPacker(source, state);
       case BI_LEVEL:
         return new KafkaBiLevelWorkUnitPacker(source, state);
+      case DURATION_TARGETED:
+        return new KafkaDurationTargetedWorkUnitPacker(source, state);
       default:
         throw new IllegalArgumentException("WorkUnit packer type " + packerType + " not found");
     }
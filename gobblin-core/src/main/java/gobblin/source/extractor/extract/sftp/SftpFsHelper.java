@@ -13,14 +13,19 @@
 package gobblin.source.extractor.extract.sftp;
 
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.ChannelSftp;
@@ -29,11 +34,18 @@ import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.ProxyHTTP;
 import com.jcraft.jsch.Session;
+import com.jcraft.jsch.SftpATTRS;
 import com.jcraft.jsch.SftpException;
 import com.jcraft.jsch.SftpProgressMonitor;
 import com.jcraft.jsch.UserInfo;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.PooledObjectFactory;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
@@ -48,20 +60,50 @@ import gobblin.configuration.State;
 import gobblin.password.PasswordManager;
 import gobblin.source.extractor.filebased.FileBasedHelperException;
 import gobblin.source.extractor.filebased.TimestampAwareFileBasedHelper;
+import gobblin.util.AutoReturnableObject;
 
 
 /**
  * Connects to a source via SFTP and executes a given list of SFTP commands
+ *
+ * <p>
+ *   The commands of the {@link gobblin.source.extractor.filebased.FileBasedHelper} methods run on {@link ChannelSftp}s
+ *   borrowed from a pool of at most {@link ConfigurationKeys#SOURCE_CONN_MAX_CHANNELS} channels on the session, so
+ *   channels are reused across commands and files can be downloaded concurrently. The channel of a file stream is
+ *   returned to the pool when the stream is closed. A command fails if no channel becomes available within
+ *   {@link ConfigurationKeys#SOURCE_CONN_MAX_CHANNEL_WAIT_MS}, e.g., because file streams are not closed. The sizes
+ *   and modification times of the files listed by {@link #ls(String)} are kept from the listing, so they are not
+ *   looked up again one file at a time.
+ * </p>
+ *
  * @author stakiar
  */
 public class SftpFsHelper implements TimestampAwareFileBasedHelper {
   private static Logger log = LoggerFactory.getLogger(SftpFsHelper.class);
   private Session session;
   private State state;
+  private GenericObjectPool<ChannelSftp> channelPool;
+  // Attributes of the entries of the most recent listing, keyed by path
+  private volatile Map<String, SftpATTRS> lastListing = Collections.emptyMap();
 
   public SftpFsHelper(State state) {
 
     this.state = state;
+
+    // Each file being prefetched holds a channel, and so does the file being read, so with too few channels the
+    // extractor would wait for the channel wait timeout instead of failing here
+    int prefetchFiles = state.getPropAsInt(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_FILES,
+        ConfigurationKeys.DEFAULT_SOURCE_FILEBASED_PREFETCH_FILES);
+    int maxChannels = state.getPropAsInt(ConfigurationKeys.SOURCE_CONN_MAX_CHANNELS,
+        ConfigurationKeys.DEFAULT_SOURCE_CONN_MAX_CHANNELS);
+    Preconditions.checkArgument(prefetchFiles <= 0 || maxChannels > prefetchFiles,
+        String.format("%s (%d) must be at least %s (%d) plus 1", ConfigurationKeys.SOURCE_CONN_MAX_CHANNELS,
+            maxChannels, ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_FILES, prefetchFiles));
+  }
+
+  SftpFsHelper(State state, GenericObjectPool<ChannelSftp> channelPool) {
+    this.state = state;
+    this.channelPool = channelPool;
   }
 
   /**
@@ -187,6 +229,8 @@ public class SftpFsHelper implements TimestampAwareFileBasedHelper {
       session.setDaemonThread(true);
       session.connect();
 
+      this.channelPool = createChannelPool(new SftpChannelFactory(session), state);
+
       log.info("Finished connecting to source");
     } catch (JSchException e) {
       if (session != null) {
@@ -197,6 +241,23 @@ public class SftpFsHelper implements TimestampAwareFileBasedHelper {
     }
   }
 
+  /**
+   * Create a pool of at most {@link ConfigurationKeys#SOURCE_CONN_MAX_CHANNELS} channels, from which borrowing a
+   * channel fails after waiting for {@link ConfigurationKeys#SOURCE_CONN_MAX_CHANNEL_WAIT_MS}.
+   */
+  static GenericObjectPool<ChannelSftp> createChannelPool(PooledObjectFactory<ChannelSftp> channelFactory,
+      State state) {
+    int maxChannels = state.getPropAsInt(ConfigurationKeys.SOURCE_CONN_MAX_CHANNELS,
+        ConfigurationKeys.DEFAULT_SOURCE_CONN_MAX_CHANNELS);
+    GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+    poolConfig.setMaxTotal(maxChannels);
+    poolConfig.setMaxIdle(maxChannels);
+    poolConfig.setMaxWaitMillis(state.getPropAsLong(ConfigurationKeys.SOURCE_CONN_MAX_CHANNEL_WAIT_MS,
+        ConfigurationKeys.DEFAULT_SOURCE_CONN_MAX_CHANNEL_WAIT_MS));
+    poolConfig.setTestOnBorrow(true);
+    return new GenericObjectPool<>(channelFactory, poolConfig);
+  }
+
   /**
    * Executes a get SftpCommand and returns an input stream to the file
    * @param cmd is the command to execute
@@ -206,9 +267,33 @@ public class SftpFsHelper implements TimestampAwareFileBasedHelper {
   public InputStream getFileStream(String file)
       throws FileBasedHelperException {
     SftpGetMonitor monitor = new SftpGetMonitor();
+    final ChannelSftp channel;
+    try {
+      channel = this.channelPool.borrowObject();
+    } catch (Exception e) {
+      throw new FileBasedHelperException("Cannot get a channel to download file " + file + " due to " + e.getMessage(),
+          e);
+    }
+
     try {
-      return getSftpChannel().get(file, monitor);
+      return new FilterInputStream(channel.get(file, monitor)) {
+        private boolean closed = false;
+
+        @Override
+        public void close() throws IOException {
+          if (this.closed) {
+            return;
+          }
+          this.closed = true;
+          try {
+            super.close();
+          } finally {
+            SftpFsHelper.this.channelPool.returnObject(channel);
+          }
+        }
+      };
     } catch (SftpException e) {
+      this.channelPool.returnObject(channel);
       throw new FileBasedHelperException("Cannot download file " + file + " due to " + e.getMessage(), e);
     }
   }
@@ -217,22 +302,53 @@ public class SftpFsHelper implements TimestampAwareFileBasedHelper {
   @SuppressWarnings("unchecked")
   public List<String> ls(String path)
       throws FileBasedHelperException {
-    try {
+    try (AutoReturnableObject<ChannelSftp> channel = new AutoReturnableObject<>(this.channelPool)) {
       List<String> list = new ArrayList<String>();
-      ChannelSftp channel = getSftpChannel();
-      Vector<LsEntry> vector = channel.ls(path);
+      Map<String, SftpATTRS> listing = Maps.newHashMap();
+      String parent = getListedDirectory(path);
+      Vector<LsEntry> vector = channel.get().ls(path);
       for (LsEntry entry : vector) {
         list.add(entry.getFilename());
+        listing.put(parent.isEmpty() ? entry.getFilename() : parent + "/" + entry.getFilename(), entry.getAttrs());
       }
-      channel.disconnect();
+      this.lastListing = listing;
       return list;
-    } catch (SftpException e) {
+    } catch (SftpException | IOException e) {
       throw new FileBasedHelperException("Cannot execute ls command on sftp connection", e);
     }
   }
 
+  /**
+   * Get the directory of the entries listed by {@link #ls(String)} on the given path, which is the parent of the path
+   * if its last component is a glob pattern, and the path itself otherwise.
+   */
+  private static String getListedDirectory(String path) {
+    int lastSlash = path.lastIndexOf('/');
+    String lastComponent = path.substring(lastSlash + 1);
+    if (lastComponent.contains("*") || lastComponent.contains("?")) {
+      return lastSlash < 0 ? "" : path.substring(0, lastSlash);
+    }
+    return path;
+  }
+
+  /**
+   * Get the attributes of a file from the most recent listing if it was listed, or using lstat otherwise.
+   */
+  private SftpATTRS getFileAttributes(String filePath) throws SftpException, IOException {
+    SftpATTRS attrs = this.lastListing.get(filePath);
+    if (attrs != null) {
+      return attrs;
+    }
+    try (AutoReturnableObject<ChannelSftp> channel = new AutoReturnableObject<>(this.channelPool)) {
+      return channel.get().lstat(filePath);
+    }
+  }
+
   @Override
   public void close() {
+    if (this.channelPool != null) {
+      this.channelPool.close();
+    }
     if (session != null) {
       session.disconnect();
     }
@@ -241,11 +357,8 @@ public class SftpFsHelper implements TimestampAwareFileBasedHelper {
   @Override
   public long getFileSize(String filePath) throws FileBasedHelperException {
     try {
-      ChannelSftp channelSftp = getSftpChannel();
-      long fileSize = channelSftp.lstat(filePath).getSize();
-      channelSftp.disconnect();
-      return fileSize;
-    } catch (SftpException e) {
+      return getFileAttributes(filePath).getSize();
+    } catch (SftpException | IOException e) {
       throw new FileBasedHelperException(String.format("Failed to get size for file at path %s due to error %s",
           filePath, e.getMessage()), e);
     }
@@ -451,11 +564,44 @@ public class SftpFsHelper implements TimestampAwareFileBasedHelper {
   @Override
   public long getFileMTime(String filePath) throws FileBasedHelperException {
     try {
-      ChannelSftp channelSftp = getSftpChannel();
-      return channelSftp.lstat(filePath).getMTime();
-    } catch (SftpException e) {
+      return getFileAttributes(filePath).getMTime();
+    } catch (SftpException | IOException e) {
       throw new FileBasedHelperException(String.format(
           "Failed to get modified timestamp for file at path %s due to error %s", filePath, e.getMessage()), e);
     }
   }
+
+  /**
+   * A factory of the connected {@link ChannelSftp}s of the channel pool of a {@link Session}.
+   */
+  private static class SftpChannelFactory extends BasePooledObjectFactory<ChannelSftp> {
+
+    private final Session session;
+
+    private SftpChannelFactory(Session session) {
+      this.session = session;
+    }
+
+    @Override
+    public ChannelSftp create() throws Exception {
+      ChannelSftp channelSftp = (ChannelSftp) this.session.openChannel("sftp");
+      channelSftp.connect();
+      return channelSftp;
+    }
+
+    @Override
+    public PooledObject<ChannelSftp> wrap(ChannelSftp channelSftp) {
+      return new DefaultPooledObject<>(channelSftp);
+    }
+
+    @Override
+    public boolean validateObject(PooledObject<ChannelSftp> pooledChannel) {
+      return pooledChannel.getObject().isConnected() && !pooledChannel.getObject().isClosed();
+    }
+
+    @Override
+    public void destroyObject(PooledObject<ChannelSftp> pooledChannel) {
+      pooledChannel.getObject().disconnect();
+    }
+  }
 }
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import lombok.Getter;
 
@@ -69,11 +70,14 @@ public class FileBasedExtractor<S, D> extends InstrumentedExtractor<S, D> {
   protected final SizeAwareFileBasedHelper fsHelper;
 
   protected enum CounterNames {
-    FileBytesRead;
+    FileBytesRead,
+    FileReadBlockedMillis;
   }
 
   protected Counters<CounterNames> counters = new Counters<CounterNames>();
 
+  private long reportedBlockedTimeNanos = 0;
+
   @SuppressWarnings("unchecked")
   public FileBasedExtractor(WorkUnitState workUnitState, FileBasedHelper fsHelper) {
     super(workUnitState);
@@ -85,11 +89,16 @@ public class FileBasedExtractor<S, D> extends InstrumentedExtractor<S, D> {
         ConfigurationKeys.DEFAULT_FILEBASED_REPORT_STATUS_ON_COUNT);
     this.shouldSkipFirstRecord = this.workUnitState.getPropAsBoolean(ConfigurationKeys.SOURCE_SKIP_FIRST_RECORD, false);
 
-    if (fsHelper instanceof SizeAwareFileBasedHelper) {
-      this.fsHelper = (SizeAwareFileBasedHelper) fsHelper;
-    } else {
-      this.fsHelper = new SizeAwareFileBasedHelperDecorator(fsHelper);
+    SizeAwareFileBasedHelper sizeAwareFsHelper = fsHelper instanceof SizeAwareFileBasedHelper
+        ? (SizeAwareFileBasedHelper) fsHelper : new SizeAwareFileBasedHelperDecorator(fsHelper);
+    int prefetchFiles = workUnitState.getPropAsInt(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_FILES,
+        ConfigurationKeys.DEFAULT_SOURCE_FILEBASED_PREFETCH_FILES);
+    if (prefetchFiles > 0) {
+      sizeAwareFsHelper = new PrefetchingFileBasedHelper(sizeAwareFsHelper, this.filesToPull, prefetchFiles,
+          workUnitState.getPropAsLong(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_BUFFER_SIZE,
+              ConfigurationKeys.DEFAULT_SOURCE_FILEBASED_PREFETCH_BUFFER_SIZE));
     }
+    this.fsHelper = sizeAwareFsHelper;
 
     try {
       this.fsHelper.connect();
@@ -149,12 +158,13 @@ public class FileBasedExtractor<S, D> extends InstrumentedExtractor<S, D> {
 
   /**
    * If a previous file has been read, first close that file. Then search through {@link #filesToPull} to find the first
-   * non-empty file.
+   * non-empty file, closing each empty file before opening the next one, so that at most one file is open at a time.
    */
   private void getNextFileToRead() throws IOException {
     if (this.currentFile != null && this.currentFileItr != null) {
       closeCurrentFile();
       incrementBytesReadCounter();
+      incrementBlockedTimeCounter();
     }
 
     while (!this.hasNext && !this.filesToPull.isEmpty()) {
@@ -162,6 +172,9 @@ public class FileBasedExtractor<S, D> extends InstrumentedExtractor<S, D> {
       this.currentFileItr = downloadFile(this.currentFile);
       this.hasNext = this.currentFileItr == null ? false : this.currentFileItr.hasNext();
       LOG.info("Will start downloading file: " + this.currentFile);
+      if (!this.hasNext) {
+        closeCurrentFile();
+      }
     }
   }
 
@@ -221,6 +234,7 @@ public class FileBasedExtractor<S, D> extends InstrumentedExtractor<S, D> {
 
   @Override
   public void close() {
+    closeCurrentFile();
     try {
       this.fsHelper.close();
     } catch (FileBasedHelperException e) {
@@ -228,6 +242,19 @@ public class FileBasedExtractor<S, D> extends InstrumentedExtractor<S, D> {
     }
   }
 
+  /**
+   * Add the time spent blocked on reading files since the previous call to the
+   * {@link CounterNames#FileReadBlockedMillis} counter, if files are prefetched.
+   */
+  private void incrementBlockedTimeCounter() {
+    if (this.fsHelper instanceof PrefetchingFileBasedHelper) {
+      long blockedTimeNanos = ((PrefetchingFileBasedHelper) this.fsHelper).getBlockedTimeNanos();
+      long blockedTimeMillis = TimeUnit.NANOSECONDS.toMillis(blockedTimeNanos - this.reportedBlockedTimeNanos);
+      this.counters.inc(CounterNames.FileReadBlockedMillis, blockedTimeMillis);
+      this.reportedBlockedTimeNanos += TimeUnit.MILLISECONDS.toNanos(blockedTimeMillis);
+    }
+  }
+
   private void incrementBytesReadCounter() {
     try {
       this.counters.inc(CounterNames.FileBytesRead, fsHelper.getFileSize(currentFile));
@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.filebased;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+
+import gobblin.util.Decorator;
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * A decorator of {@link SizeAwareFileBasedHelper} that opens the next files to be pulled in the background and
+ * buffers their first bytes in memory, so that a {@link FileBasedExtractor} does not idle while each file is opened
+ * and first read.
+ *
+ * <p>
+ *   The files are prefetched in the order of the given list of files, and at most a given number of files are
+ *   prefetched at a time. {@link #getFileStream(String)} returns the prefetched stream of a file if the file is the
+ *   next one in the list, which is the case when files are read in order, e.g., by a {@link SingleFileDownloader} or
+ *   a {@link GZIPFileDownloader}, and opens the file directly otherwise. The returned stream replays the buffered
+ *   bytes and then continues with the rest of the file, so records are read the same as without prefetching.
+ * </p>
+ *
+ * <p>
+ *   The memory used by prefetching is bounded by the given buffer size, which is split evenly among the prefetched
+ *   files. The time spent blocked on waiting for a file to be opened or read is available from
+ *   {@link #getBlockedTimeNanos()}.
+ * </p>
+ */
+public class PrefetchingFileBasedHelper implements SizeAwareFileBasedHelper, Decorator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(PrefetchingFileBasedHelper.class);
+
+  private final SizeAwareFileBasedHelper fileBasedHelper;
+  private final Iterator<String> filesToPrefetch;
+  private final int prefetchFiles;
+  private final int bufferSizePerFile;
+  private final ExecutorService executor;
+  private final Deque<PrefetchedFile> prefetchedFiles = new ArrayDeque<>();
+  private final AtomicLong blockedTimeNanos = new AtomicLong();
+
+  /**
+   * @param fileBasedHelper the {@link SizeAwareFileBasedHelper} to decorate
+   * @param filesToPull the files to be pulled, in the order they will be read
+   * @param prefetchFiles the maximum number of files prefetched at a time
+   * @param bufferSize the maximum number of bytes buffered for all the prefetched files
+   */
+  public PrefetchingFileBasedHelper(SizeAwareFileBasedHelper fileBasedHelper, List<String> filesToPull,
+      int prefetchFiles, long bufferSize) {
+    Preconditions.checkArgument(prefetchFiles > 0, "Number of files to prefetch must be positive");
+    this.fileBasedHelper = fileBasedHelper;
+    this.filesToPrefetch = ImmutableList.copyOf(filesToPull).iterator();
+    this.prefetchFiles = prefetchFiles;
+    this.bufferSizePerFile = (int) Math.min(Integer.MAX_VALUE, Math.max(1, bufferSize / prefetchFiles));
+    this.executor = Executors.newFixedThreadPool(prefetchFiles,
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG), Optional.of("FilePrefetcher-%d")));
+  }
+
+  @Override
+  public void connect() throws FileBasedHelperException {
+    this.fileBasedHelper.connect();
+  }
+
+  @Override
+  public List<String> ls(String path) throws FileBasedHelperException {
+    return this.fileBasedHelper.ls(path);
+  }
+
+  @Override
+  public InputStream getFileStream(String path) throws FileBasedHelperException {
+    fillPrefetchQueue();
+
+    PrefetchedFile prefetchedFile = this.prefetchedFiles.peek();
+    if (prefetchedFile == null || !prefetchedFile.path.equals(path)) {
+      LOG.info("File " + path + " was not prefetched, opening it directly");
+      long startTime = System.nanoTime();
+      try {
+        return new TimedInputStream(this.fileBasedHelper.getFileStream(path));
+      } finally {
+        this.blockedTimeNanos.addAndGet(System.nanoTime() - startTime);
+      }
+    }
+
+    this.prefetchedFiles.poll();
+    long startTime = System.nanoTime();
+    try {
+      InputStream inputStream = prefetchedFile.stream.get();
+      fillPrefetchQueue();
+      return new TimedInputStream(inputStream);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new FileBasedHelperException("Interrupted while waiting for file " + path + " to be prefetched", ie);
+    } catch (ExecutionException ee) {
+      if (ee.getCause() instanceof FileBasedHelperException) {
+        throw (FileBasedHelperException) ee.getCause();
+      }
+      throw new FileBasedHelperException("Failed to prefetch file " + path, (Exception) ee.getCause());
+    } finally {
+      this.blockedTimeNanos.addAndGet(System.nanoTime() - startTime);
+    }
+  }
+
+  @Override
+  public long getFileSize(String path) throws FileBasedHelperException {
+    return this.fileBasedHelper.getFileSize(path);
+  }
+
+  /**
+   * @return the total time in nanoseconds spent blocked on opening and reading files
+   */
+  public long getBlockedTimeNanos() {
+    return this.blockedTimeNanos.get();
+  }
+
+  private void fillPrefetchQueue() {
+    while (this.prefetchedFiles.size() < this.prefetchFiles && this.filesToPrefetch.hasNext()) {
+      final PrefetchedFile prefetchedFile = new PrefetchedFile(this.filesToPrefetch.next());
+      prefetchedFile.stream = this.executor.submit(new Callable<InputStream>() {
+        @Override
+        public InputStream call() throws Exception {
+          return prefetch(prefetchedFile);
+        }
+      });
+      this.prefetchedFiles.add(prefetchedFile);
+    }
+  }
+
+  /**
+   * Open a file and buffer up to {@link #bufferSizePerFile} bytes of it. The file is closed if it is read entirely.
+   * The open stream of the file is kept in the {@link PrefetchedFile}, so {@link #close()} can close it even if the
+   * prefetch is cancelled after the file is opened.
+   */
+  private InputStream prefetch(PrefetchedFile prefetchedFile) throws FileBasedHelperException, IOException {
+    InputStream inputStream = this.fileBasedHelper.getFileStream(prefetchedFile.path);
+    prefetchedFile.openedStream = inputStream;
+    try {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      long bufferedBytes = ByteStreams.copy(ByteStreams.limit(inputStream, this.bufferSizePerFile), buffer);
+      InputStream bufferedStream = new ByteArrayInputStream(buffer.toByteArray());
+      if (bufferedBytes < this.bufferSizePerFile) {
+        prefetchedFile.openedStream = null;
+        inputStream.close();
+        return bufferedStream;
+      }
+      return new SequenceInputStream(bufferedStream, inputStream);
+    } catch (IOException ioe) {
+      prefetchedFile.openedStream = null;
+      inputStream.close();
+      throw ioe;
+    }
+  }
+
+  @Override
+  public void close() throws FileBasedHelperException {
+    try {
+      for (PrefetchedFile prefetchedFile : this.prefetchedFiles) {
+        prefetchedFile.stream.cancel(true);
+      }
+      ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(LOG), 10, TimeUnit.SECONDS);
+      for (PrefetchedFile prefetchedFile : this.prefetchedFiles) {
+        closePrefetchedStream(prefetchedFile);
+      }
+      this.prefetchedFiles.clear();
+    } finally {
+      this.fileBasedHelper.close();
+    }
+  }
+
+  private static void closePrefetchedStream(PrefetchedFile prefetchedFile) {
+    // The stream opened by the prefetch, whether or not the prefetch completed or was cancelled
+    InputStream openedStream = prefetchedFile.openedStream;
+    if (openedStream == null) {
+      return;
+    }
+    try {
+      openedStream.close();
+    } catch (IOException ioe) {
+      LOG.debug("Failed to close prefetched file " + prefetchedFile.path, ioe);
+    }
+  }
+
+  @Override
+  public Object getDecoratedObject() {
+    return this.fileBasedHelper;
+  }
+
+  /**
+   * A file being prefetched.
+   */
+  private static class PrefetchedFile {
+
+    private final String path;
+    private Future<InputStream> stream;
+    // The stream of the file opened by the prefetch and not closed by it, which is null before the file is opened
+    private volatile InputStream openedStream;
+
+    private PrefetchedFile(String path) {
+      this.path = path;
+    }
+  }
+
+  /**
+   * An {@link InputStream} adding the time spent in reads to {@link #blockedTimeNanos}.
+   */
+  private class TimedInputStream extends FilterInputStream {
+
+    private TimedInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    @Override
+    public int read() throws IOException {
+      long startTime = System.nanoTime();
+      try {
+        return super.read();
+      } finally {
+        PrefetchingFileBasedHelper.this.blockedTimeNanos.addAndGet(System.nanoTime() - startTime);
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      long startTime = System.nanoTime();
+      try {
+        return super.read(b, off, len);
+      } finally {
+        PrefetchingFileBasedHelper.this.blockedTimeNanos.addAndGet(System.nanoTime() - startTime);
+      }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long startTime = System.nanoTime();
+      try {
+        return super.skip(n);
+      } finally {
+        PrefetchingFileBasedHelper.this.blockedTimeNanos.addAndGet(System.nanoTime() - startTime);
+      }
+    }
+  }
+}
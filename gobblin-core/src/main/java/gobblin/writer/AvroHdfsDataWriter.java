@@ -29,6 +29,7 @@ import com.google.common.base.Preconditions;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
+import gobblin.util.EncodedAvroRecord;
 import gobblin.util.ForkOperatorUtils;
 import gobblin.util.WriterUtils;
 
@@ -41,6 +42,11 @@ import gobblin.util.WriterUtils;
  *   property {@link ConfigurationKeys#WRITER_CODEC_TYPE}. By default, the deflate codec is used.
  * </p>
  *
+ * <p>
+ *   {@link EncodedAvroRecord}s that have not been decoded and have the same schema as this writer are
+ *   appended to the output file in their binary encoding, without being encoded again.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
@@ -53,6 +59,9 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
   // Number of records successfully written
   protected final AtomicLong count = new AtomicLong(0);
 
+  // The last schema of an EncodedAvroRecord found to be equal to the writer schema
+  private Schema lastEncodedRecordSchema;
+
   public AvroHdfsDataWriter(FsDataWriterBuilder<Schema, GenericRecord> builder, State state) throws IOException {
     super(builder, state);
 
@@ -78,7 +87,11 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
   public void write(GenericRecord record) throws IOException {
     Preconditions.checkNotNull(record);
 
-    this.writer.append(record);
+    if (record instanceof EncodedAvroRecord && canAppendEncoded((EncodedAvroRecord) record)) {
+      this.writer.appendEncoded(((EncodedAvroRecord) record).getEncodedDatum());
+    } else {
+      this.writer.append(record);
+    }
     // Only increment when write is successful
     this.count.incrementAndGet();
   }
@@ -88,13 +101,33 @@ public class AvroHdfsDataWriter extends FsDataWriter<GenericRecord> {
     return this.count.get();
   }
 
+  /**
+   * {@inheritDoc}.
+   *
+   * <p>
+   *   This is the position of the output stream of the staging file rather than the length of the file, so it can
+   *   be called after each write, e.g., to limit the bytes written, without calling the {@link FileSystem}. Records
+   *   are counted as the {@link DataFileWriter} flushes the block they are in.
+   * </p>
+   */
   @Override
-  public synchronized long bytesWritten() throws IOException {
-    if (!this.fs.exists(this.outputFile)) {
-      return 0;
-    }
+  public long bytesWritten() throws IOException {
+    return getStagingFilePosition();
+  }
 
-    return this.fs.getFileStatus(this.outputFile).getLen();
+  private boolean canAppendEncoded(EncodedAvroRecord record) {
+    if (record.isDecoded()) {
+      return false;
+    }
+    Schema recordSchema = record.getSchema();
+    if (recordSchema == this.schema || recordSchema == this.lastEncodedRecordSchema) {
+      return true;
+    }
+    if (recordSchema.equals(this.schema)) {
+      this.lastEncodedRecordSchema = recordSchema;
+      return true;
+    }
+    return false;
   }
 
   /**
@@ -16,6 +16,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.permission.FsPermission;
@@ -67,6 +68,9 @@ public abstract class FsDataWriter<D> implements DataWriter<D>, FinalState {
   protected final Optional<String> group;
   protected final Closer closer = Closer.create();
 
+  // The output stream of the staging file, whose position is the number of bytes written to the staging file
+  private Optional<FSDataOutputStream> stagingFileStream = Optional.absent();
+
   public FsDataWriter(FsDataWriterBuilder<?, D> builder, State properties) throws IOException {
     this.properties = properties;
     this.id = builder.getWriterId();
@@ -129,8 +133,21 @@ public abstract class FsDataWriter<D> implements DataWriter<D>, FinalState {
    * @throws IOException if it fails to create the file and the {@link OutputStream}
    */
   protected OutputStream createStagingFileOutputStream() throws IOException {
-    return this.closer.register(this.fs.create(this.stagingFile, this.filePermission, true, this.bufferSize,
-        this.replicationFactor, this.blockSize, null));
+    FSDataOutputStream stream = this.closer.register(this.fs.create(this.stagingFile, this.filePermission, true,
+        this.bufferSize, this.replicationFactor, this.blockSize, null));
+    this.stagingFileStream = Optional.of(stream);
+    return stream;
+  }
+
+  /**
+   * Get the number of bytes written to the staging file, i.e., the position of the {@link OutputStream} returned by
+   * {@link #createStagingFileOutputStream()}, which is known without calling the {@link FileSystem}. Bytes buffered by
+   * the writer that have not reached the {@link OutputStream} yet are not counted.
+   *
+   * @return the number of bytes written to the staging file, or 0 if no staging file has been created
+   */
+  protected long getStagingFilePosition() throws IOException {
+    return this.stagingFileStream.isPresent() ? this.stagingFileStream.get().getPos() : 0L;
   }
 
   /**
@@ -39,6 +39,8 @@ public class HiveWritableHdfsDataWriter extends FsDataWriter<Writable> {
 
   protected final RecordWriter writer;
   protected final AtomicLong count = new AtomicLong(0);
+  // The bytes written are only known once the output file is committed, as the RecordWriter hides its output stream
+  private volatile boolean committed = false;
 
   public HiveWritableHdfsDataWriter(HiveWritableHdfsDataWriterBuilder<?> builder, State properties) throws IOException {
     super(builder, properties);
@@ -77,9 +79,17 @@ public class HiveWritableHdfsDataWriter extends FsDataWriter<Writable> {
     return this.count.get();
   }
 
+  /**
+   * {@inheritDoc}.
+   *
+   * <p>
+   *   This is 0 until the output file is committed, without calling the {@link org.apache.hadoop.fs.FileSystem}, so
+   *   it can be called after each write.
+   * </p>
+   */
   @Override
   public long bytesWritten() throws IOException {
-    if (!this.fs.exists(this.outputFile)) {
+    if (!this.committed || !this.fs.exists(this.outputFile)) {
       return 0;
     }
 
@@ -90,5 +100,6 @@ public class HiveWritableHdfsDataWriter extends FsDataWriter<Writable> {
   public void commit() throws IOException {
     this.writer.close(false);
     super.commit();
+    this.committed = true;
   }
 }
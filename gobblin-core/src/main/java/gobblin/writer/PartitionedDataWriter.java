@@ -36,6 +36,8 @@ import gobblin.instrumented.writer.InstrumentedDataWriterDecorator;
 import gobblin.instrumented.writer.InstrumentedPartitionedDataWriterDecorator;
 import gobblin.util.AvroUtils;
 import gobblin.util.FinalState;
+import gobblin.util.RecordBatch;
+import gobblin.util.RecordBatches;
 import gobblin.writer.partitioner.WriterPartitioner;
 
 
@@ -46,7 +48,7 @@ import gobblin.writer.partitioner.WriterPartitioner;
  * @param <D> record type.
  */
 @Slf4j
-public class PartitionedDataWriter<S, D> implements DataWriter<D>, FinalState {
+public class PartitionedDataWriter<S, D> implements BatchDataWriter<D>, FinalState {
 
   private static final GenericRecord NON_PARTITIONED_WRITER_KEY =
       new GenericData.Record(SchemaBuilder.record("Dummy").fields().endRecord());
@@ -111,6 +113,26 @@ public class PartitionedDataWriter<S, D> implements DataWriter<D>, FinalState {
     }
   }
 
+  /**
+   * Write a batch of records. Without partitioning the batch is handed to the single underlying writer as a whole,
+   * otherwise each record is sent to the writer of its partition.
+   */
+  @Override
+  public void writeBatch(RecordBatch<D> records) throws IOException {
+    if (this.shouldPartition) {
+      for (int i = 0; i < records.size(); i++) {
+        write(records.get(i));
+      }
+      return;
+    }
+
+    try {
+      RecordBatches.writeBatch(this.partitionWriters.get(NON_PARTITIONED_WRITER_KEY), records);
+    } catch (ExecutionException ee) {
+      throw new IOException(ee);
+    }
+  }
+
   @Override
   public void commit() throws IOException {
     int writersCommitted = 0;
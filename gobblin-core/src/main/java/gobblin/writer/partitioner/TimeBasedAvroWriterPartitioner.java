@@ -17,10 +17,11 @@ import java.util.List;
 import org.apache.avro.generic.GenericRecord;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
-import gobblin.util.AvroUtils;
+import gobblin.util.AvroFieldAccessor;
 import gobblin.util.ForkOperatorUtils;
 
 
@@ -39,7 +40,7 @@ public class TimeBasedAvroWriterPartitioner extends TimeBasedWriterPartitioner<G
 
   public static final String WRITER_PARTITION_COLUMNS = ConfigurationKeys.WRITER_PREFIX + ".partition.columns";
 
-  private final Optional<List<String>> partitionColumns;
+  private final Optional<List<AvroFieldAccessor>> partitionColumns;
 
   public TimeBasedAvroWriterPartitioner(State state) {
     this(state, 1, 0);
@@ -50,9 +51,17 @@ public class TimeBasedAvroWriterPartitioner extends TimeBasedWriterPartitioner<G
     this.partitionColumns = getWriterPartitionColumns(state, numBranches, branchId);
   }
 
-  private static Optional<List<String>> getWriterPartitionColumns(State state, int numBranches, int branchId) {
+  private static Optional<List<AvroFieldAccessor>> getWriterPartitionColumns(State state, int numBranches,
+      int branchId) {
     String propName = ForkOperatorUtils.getPropertyNameForBranch(WRITER_PARTITION_COLUMNS, numBranches, branchId);
-    return state.contains(propName) ? Optional.of(state.getPropAsList(propName)) : Optional.<List<String>> absent();
+    if (!state.contains(propName)) {
+      return Optional.absent();
+    }
+    ImmutableList.Builder<AvroFieldAccessor> partitionColumns = ImmutableList.builder();
+    for (String partitionColumn : state.getPropAsList(propName)) {
+      partitionColumns.add(new AvroFieldAccessor(partitionColumn));
+    }
+    return Optional.<List<AvroFieldAccessor>> of(partitionColumns.build());
   }
 
   @Override
@@ -76,8 +85,8 @@ public class TimeBasedAvroWriterPartitioner extends TimeBasedWriterPartitioner<G
       return Optional.absent();
     }
 
-    for (String partitionColumn : this.partitionColumns.get()) {
-      Optional<Object> fieldValue = AvroUtils.getFieldValue(record, partitionColumn);
+    for (AvroFieldAccessor partitionColumn : this.partitionColumns.get()) {
+      Optional<Object> fieldValue = partitionColumn.getFieldValue(record);
       if (fieldValue.isPresent()) {
         return fieldValue;
       }
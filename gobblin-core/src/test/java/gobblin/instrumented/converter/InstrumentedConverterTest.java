@@ -65,6 +65,22 @@ public class InstrumentedConverterTest {
     testBase(nonInstrumentedConverter);
   }
 
+  @Test
+  public void testSingleRecordDecorator() throws DataConversionException {
+    InstrumentedSingleRecordConverterDecorator<Object, Object, Object, Object> converter =
+        new InstrumentedSingleRecordConverterDecorator<>(new IdentityConverter());
+    WorkUnitState state = new WorkUnitState();
+    state.setProp(ConfigurationKeys.METRICS_ENABLED_KEY, Boolean.toString(true));
+    converter.init(state);
+
+    Assert.assertEquals(converter.convertSingleRecord("schema", "record", new WorkUnitState()), "record");
+
+    Map<String, Long> metrics = MetricsHelper.dumpMetrics(converter.getMetricContext());
+    Assert.assertEquals(metrics.get(MetricNames.ConverterMetrics.RECORDS_IN_METER), Long.valueOf(1));
+    Assert.assertEquals(metrics.get(MetricNames.ConverterMetrics.RECORDS_OUT_METER), Long.valueOf(1));
+    Assert.assertEquals(metrics.get(MetricNames.ConverterMetrics.CONVERT_TIMER), Long.valueOf(1));
+  }
+
   public void testBase(InstrumentedConverterBase<String, String, String, String> converter)
       throws DataConversionException {
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.policies.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import gobblin.configuration.State;
+import gobblin.qualitychecker.row.RowLevelPolicy;
+import gobblin.qualitychecker.row.RowLevelPolicyCheckResults;
+import gobblin.qualitychecker.row.RowLevelPolicyChecker;
+
+
+/**
+ * Unit tests for {@link AvroHeaderGuidPolicy} and {@link AvroHeaderTimestampPolicy}.
+ */
+@Test(groups = { "gobblin.policies" })
+public class AvroHeaderPoliciesTest {
+
+  private static final Schema NULLABLE_HEADER_SCHEMA = new Schema.Parser().parse("{\"type\": \"record\", "
+      + "\"name\": \"Event\", \"fields\": [{\"name\": \"header\", \"type\": [\"null\", {\"type\": \"record\", "
+      + "\"name\": \"Header\", \"fields\": [{\"name\": \"guid\", \"type\": [\"null\", \"string\"]}, "
+      + "{\"name\": \"time\", \"type\": [\"null\", \"long\"]}]}]}]}");
+
+  private static final Schema REQUIRED_HEADER_SCHEMA = new Schema.Parser().parse("{\"type\": \"record\", "
+      + "\"name\": \"Event\", \"fields\": [{\"name\": \"header\", \"type\": {\"type\": \"record\", "
+      + "\"name\": \"Header\", \"fields\": [{\"name\": \"guid\", \"type\": \"string\"}, "
+      + "{\"name\": \"timestamp\", \"type\": [\"null\", \"long\"]}]}}]}");
+
+  @Test
+  public void testPrepareForSchema() {
+    State state = new State();
+
+    Assert.assertFalse(new AvroHeaderGuidPolicy(state, RowLevelPolicy.Type.FAIL).prepareForSchema(null));
+    Assert.assertFalse(
+        new AvroHeaderGuidPolicy(state, RowLevelPolicy.Type.FAIL).prepareForSchema(NULLABLE_HEADER_SCHEMA));
+    Assert.assertTrue(
+        new AvroHeaderGuidPolicy(state, RowLevelPolicy.Type.FAIL).prepareForSchema(REQUIRED_HEADER_SCHEMA));
+    Assert.assertFalse(
+        new AvroHeaderTimestampPolicy(state, RowLevelPolicy.Type.FAIL).prepareForSchema(REQUIRED_HEADER_SCHEMA));
+  }
+
+  @Test
+  public void testExecutePolicyWithResolvedFields() {
+    State state = new State();
+    AvroHeaderGuidPolicy guidPolicy = new AvroHeaderGuidPolicy(state, RowLevelPolicy.Type.OPTIONAL);
+    AvroHeaderTimestampPolicy timestampPolicy = new AvroHeaderTimestampPolicy(state, RowLevelPolicy.Type.OPTIONAL);
+    guidPolicy.prepareForSchema(NULLABLE_HEADER_SCHEMA);
+    timestampPolicy.prepareForSchema(NULLABLE_HEADER_SCHEMA);
+
+    GenericRecord record = createRecord(NULLABLE_HEADER_SCHEMA, "guid", null);
+    Assert.assertEquals(guidPolicy.executePolicy(record), RowLevelPolicy.Result.PASSED);
+    Assert.assertEquals(timestampPolicy.executePolicy(record), RowLevelPolicy.Result.FAILED);
+
+    record = createRecord(NULLABLE_HEADER_SCHEMA, null, 1L);
+    Assert.assertEquals(guidPolicy.executePolicy(record), RowLevelPolicy.Result.FAILED);
+    Assert.assertEquals(timestampPolicy.executePolicy(record), RowLevelPolicy.Result.PASSED);
+
+    record = new GenericData.Record(NULLABLE_HEADER_SCHEMA);
+    Assert.assertEquals(guidPolicy.executePolicy(record), RowLevelPolicy.Result.FAILED);
+    Assert.assertEquals(timestampPolicy.executePolicy(record), RowLevelPolicy.Result.FAILED);
+
+    // Records of a schema other than the one the policies are prepared for
+    record = createRecord(REQUIRED_HEADER_SCHEMA, "guid", 1L);
+    Assert.assertEquals(guidPolicy.executePolicy(record), RowLevelPolicy.Result.PASSED);
+    Assert.assertEquals(timestampPolicy.executePolicy(record), RowLevelPolicy.Result.PASSED);
+  }
+
+  @Test
+  public void testCheckerSkipsPoliciesGuaranteedToPass() throws Exception {
+    State state = new State();
+    RowLevelPolicyChecker checker = new RowLevelPolicyChecker(
+        ImmutableList.<RowLevelPolicy> of(new AvroHeaderGuidPolicy(state, RowLevelPolicy.Type.OPTIONAL),
+            new AvroHeaderTimestampPolicy(state, RowLevelPolicy.Type.OPTIONAL)),
+        "test", FileSystem.getLocal(new Configuration()));
+    checker.prepareForSchema(REQUIRED_HEADER_SCHEMA);
+
+    RowLevelPolicyCheckResults results = new RowLevelPolicyCheckResults();
+    Assert.assertTrue(checker.executePolicies(createRecord(REQUIRED_HEADER_SCHEMA, "guid", 1L), results));
+    Assert.assertTrue(checker.executePolicies(createRecord(REQUIRED_HEADER_SCHEMA, "guid", 2L), results));
+    Assert.assertFalse(checker.executePolicies(createRecord(REQUIRED_HEADER_SCHEMA, "guid", null), results));
+    checker.close();
+
+    String report = results.getResults();
+    Assert.assertTrue(report.contains(AvroHeaderGuidPolicy.class.getName() + " processed 2 record(s) with result "
+        + RowLevelPolicy.Result.PASSED));
+    Assert.assertTrue(report.contains(AvroHeaderTimestampPolicy.class.getName()
+        + " processed 2 record(s) with result " + RowLevelPolicy.Result.PASSED));
+    Assert.assertTrue(report.contains(AvroHeaderTimestampPolicy.class.getName()
+        + " processed 1 record(s) with result " + RowLevelPolicy.Result.FAILED));
+  }
+
+  private static GenericRecord createRecord(Schema schema, String guid, Long timestamp) {
+    Schema headerSchema = schema.getField("header").schema();
+    if (headerSchema.getType() == Schema.Type.UNION) {
+      headerSchema = headerSchema.getTypes().get(1);
+    }
+    GenericRecord header = new GenericData.Record(headerSchema);
+    header.put("guid", guid);
+    header.put(headerSchema.getField("time") != null ? "time" : "timestamp", timestamp);
+
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("header", header);
+    return record;
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+import gobblin.source.extractor.extract.kafka.KafkaPartitionWorkPool.PartitionRange;
+
+
+/**
+ * Unit tests for {@link KafkaPartitionWorkPool}.
+ */
+@Test(groups = {"gobblin.source.extractor.extract.kafka"})
+public class KafkaPartitionWorkPoolTest {
+
+  private static final String TOPIC = "testTopic";
+
+  @Test
+  public void testStealUnstartedRange() throws Exception {
+    KafkaPartitionWorkPool pool = KafkaPartitionWorkPool.acquire("testStealUnstartedRange", TOPIC);
+    PartitionRange range0 = newRange(0, 0, 100);
+    PartitionRange range1 = newRange(1, 0, 100);
+    pool.register(ImmutableList.of(range0, range1));
+
+    Assert.assertTrue(range0.start());
+    Optional<PartitionRange> stolen = pool.steal(10);
+    Assert.assertSame(stolen.get(), range1);
+    // The owner no longer pulls a range that has been taken over
+    Assert.assertFalse(range1.start());
+    KafkaPartitionWorkPool.release(pool);
+  }
+
+  @Test
+  public void testSplit() throws Exception {
+    KafkaPartitionWorkPool pool = KafkaPartitionWorkPool.acquire("testSplit", TOPIC);
+    PartitionRange range = newRange(0, 0, 100);
+    pool.register(ImmutableList.of(range));
+    Assert.assertTrue(range.start());
+    Assert.assertTrue(range.tryAdvance(0, 20));
+
+    // 80 offsets remaining are not enough to split off ranges of at least 50 offsets
+    Assert.assertFalse(pool.steal(50).isPresent());
+
+    PartitionRange splitRange = pool.steal(10).get();
+    Assert.assertSame(range.getNextRange(), splitRange);
+    Assert.assertEquals(range.getEndOffset(), 60);
+    Assert.assertEquals(splitRange.getStartOffset(), 60);
+    Assert.assertEquals(splitRange.getEndOffset(), 100);
+
+    // The owner stops at the split offset
+    Assert.assertTrue(range.tryAdvance(59, 60));
+    Assert.assertFalse(range.tryAdvance(60, 61));
+    Assert.assertTrue(range.isFinished());
+
+    // A range that has been pulled is no longer split
+    pool.markPulled(range);
+    pool.markPulled(splitRange);
+    Assert.assertFalse(pool.steal(1).isPresent());
+    KafkaPartitionWorkPool.release(pool);
+  }
+
+  @Test
+  public void testCommittableOffsetAwaitsStolenRange() throws Exception {
+    final KafkaPartitionWorkPool pool =
+        KafkaPartitionWorkPool.acquire("testCommittableOffsetAwaitsStolenRange", TOPIC);
+    final PartitionRange range = newRange(0, 0, 100);
+    pool.register(ImmutableList.of(range));
+    Assert.assertTrue(range.start());
+    PartitionRange splitRange = pool.steal(10).get();
+    pullAll(range);
+    pullAll(splitRange);
+    pool.complete(range, true);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Optional<Long>> committableOffset = executor.submit(new Callable<Optional<Long>>() {
+        @Override
+        public Optional<Long> call() throws Exception {
+          return pool.awaitCommittableOffset(range);
+        }
+      });
+
+      // A stolen range pulled to its end is not committable until the task that pulled it has committed
+      pool.markPulled(splitRange);
+      try {
+        committableOffset.get(100, TimeUnit.MILLISECONDS);
+        Assert.fail("The committable offset should not be available before the stolen range is completed");
+      } catch (TimeoutException te) {
+        // Expected
+      }
+
+      pool.complete(splitRange, true);
+      Assert.assertEquals(committableOffset.get(10, TimeUnit.SECONDS), Optional.of(100L));
+    } finally {
+      executor.shutdownNow();
+      KafkaPartitionWorkPool.release(pool);
+    }
+  }
+
+  @Test
+  public void testFailedStealer() throws Exception {
+    KafkaPartitionWorkPool pool = KafkaPartitionWorkPool.acquire("testFailedStealer", TOPIC);
+    PartitionRange range = newRange(0, 0, 100);
+    pool.register(ImmutableList.of(range));
+    Assert.assertTrue(range.start());
+    PartitionRange splitRange = pool.steal(10).get();
+    pullAll(range);
+    pullAll(splitRange);
+
+    // The records of the stolen range are not committed if the task that pulled them failed, e.g., to be retried,
+    // so no offset of the partition can be committed and the owner has to fail
+    pool.complete(splitRange, false);
+    pool.complete(range, true);
+    Assert.assertFalse(pool.awaitCommittableOffset(range).isPresent());
+    KafkaPartitionWorkPool.release(pool);
+  }
+
+  @Test
+  public void testFailedFetch() throws Exception {
+    KafkaPartitionWorkPool pool = KafkaPartitionWorkPool.acquire("testFailedFetch", TOPIC);
+    PartitionRange range = newRange(0, 0, 100);
+    pool.register(ImmutableList.of(range));
+    Assert.assertTrue(range.start());
+    PartitionRange splitRange = pool.steal(10).get();
+
+    // The owner fails to fetch records after offset 20, and the stolen range has no record pulled
+    Assert.assertTrue(range.tryAdvance(19, 20));
+    pool.complete(range, true);
+    pool.complete(splitRange, true);
+    Assert.assertEquals(pool.awaitCommittableOffset(range), Optional.of(20L));
+    KafkaPartitionWorkPool.release(pool);
+
+    pool = KafkaPartitionWorkPool.acquire("testFailedFetch", TOPIC);
+    range = newRange(0, 0, 100);
+    pool.register(ImmutableList.of(range));
+    Assert.assertTrue(range.start());
+    splitRange = pool.steal(10).get();
+
+    // Records of the stolen range have been pulled past the offsets the owner failed to fetch
+    Assert.assertTrue(range.tryAdvance(19, 20));
+    pullAll(splitRange);
+    pool.complete(range, true);
+    pool.complete(splitRange, true);
+    Assert.assertFalse(pool.awaitCommittableOffset(range).isPresent());
+    KafkaPartitionWorkPool.release(pool);
+  }
+
+  @Test
+  public void testWorkStealingEnabled() {
+    State state = new State();
+    Assert.assertFalse(KafkaExtractor.isWorkStealingEnabled(state));
+
+    state.setProp(KafkaSource.WORK_STEALING_ENABLED, true);
+    state.setProp(ConfigurationKeys.JOB_COMMIT_POLICY_KEY, "full");
+    // A retried task would no longer pull the ranges it took over
+    Assert.assertFalse(KafkaExtractor.isWorkStealingEnabled(state));
+
+    state.setProp(ConfigurationKeys.MAX_TASK_RETRIES_KEY, 0);
+    Assert.assertTrue(KafkaExtractor.isWorkStealingEnabled(state));
+  }
+
+  private static PartitionRange newRange(int partitionId, long startOffset, long endOffset) {
+    KafkaPartition partition = new KafkaPartition.Builder().withTopicName(TOPIC).withId(partitionId).build();
+    return new PartitionRange(partition, startOffset, endOffset);
+  }
+
+  private static void pullAll(PartitionRange range) {
+    for (long offset = range.getNextOffset(); offset < range.getEndOffset(); offset++) {
+      Assert.assertTrue(range.tryAdvance(offset, offset + 1));
+    }
+    Assert.assertTrue(range.isFinished());
+  }
+}
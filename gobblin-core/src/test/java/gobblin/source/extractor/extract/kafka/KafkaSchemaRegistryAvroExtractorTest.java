@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.Properties;
+
+import kafka.message.Message;
+import kafka.message.MessageAndOffset;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.commons.codec.binary.Hex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.WorkUnitState;
+import gobblin.metrics.kafka.KafkaAvroSchemaRegistry;
+import gobblin.metrics.kafka.KafkaSchemaRegistry;
+import gobblin.metrics.kafka.SchemaRegistryException;
+import gobblin.source.extractor.WatermarkInterval;
+import gobblin.source.workunit.WorkUnit;
+import gobblin.util.EncodedAvroRecord;
+
+
+/**
+ * Unit tests for {@link KafkaSchemaRegistryAvroExtractor}.
+ */
+@Test(groups = {"gobblin.source.extractor.extract.kafka"})
+public class KafkaSchemaRegistryAvroExtractorTest {
+
+  private static final String TOPIC = "testTopic";
+
+  private static final Schema SCHEMA_V1 = SchemaBuilder.record("TestRecord").namespace("gobblin.test").fields()
+      .requiredString("name").endRecord();
+  private static final Schema SCHEMA_V2 = SchemaBuilder.record("TestRecord").namespace("gobblin.test").fields()
+      .requiredString("name").name("count").type().longType().longDefault(0L).endRecord();
+
+  private static final String SCHEMA_V1_ID = "00000000000000000000000000000001";
+  private static final String SCHEMA_V2_ID = "00000000000000000000000000000002";
+  private static final Map<String, Schema> SCHEMAS = ImmutableMap.of(SCHEMA_V1_ID, SCHEMA_V1, SCHEMA_V2_ID, SCHEMA_V2);
+
+  @Test
+  public void testPassThroughLatestSchemaRecords() throws Exception {
+    KafkaSchemaRegistryAvroExtractor extractor = newExtractor(true);
+
+    GenericRecord record = newRecord(SCHEMA_V2, "record");
+    record.put("count", 5L);
+    GenericRecord extracted = extractor.decodeRecord(toMessage(SCHEMA_V2_ID, record));
+
+    Assert.assertTrue(extracted instanceof EncodedAvroRecord);
+    Assert.assertFalse(((EncodedAvroRecord) extracted).isDecoded());
+    Assert.assertEquals(extracted.getSchema(), SCHEMA_V2);
+    // The datum is decoded once a field is accessed
+    Assert.assertEquals(extracted.get("name").toString(), "record");
+    Assert.assertEquals(extracted.get("count"), 5L);
+  }
+
+  @Test
+  public void testDecodeOlderSchemaRecords() throws Exception {
+    KafkaSchemaRegistryAvroExtractor extractor = newExtractor(true);
+
+    // Records of an older schema are decoded into the extractor schema with a reused decoder
+    for (int i = 0; i < 3; i++) {
+      GenericRecord extracted = extractor.decodeRecord(toMessage(SCHEMA_V1_ID, newRecord(SCHEMA_V1, "record" + i)));
+      Assert.assertFalse(extracted instanceof EncodedAvroRecord);
+      Assert.assertEquals(extracted.getSchema(), SCHEMA_V2);
+      Assert.assertEquals(extracted.get("name").toString(), "record" + i);
+      Assert.assertEquals(extracted.get("count"), 0L);
+    }
+  }
+
+  @Test
+  public void testDecodeWithoutPassThrough() throws Exception {
+    KafkaSchemaRegistryAvroExtractor extractor = newExtractor(false);
+
+    GenericRecord extracted = extractor.decodeRecord(toMessage(SCHEMA_V2_ID, newRecord(SCHEMA_V2, "record")));
+    Assert.assertFalse(extracted instanceof EncodedAvroRecord);
+    Assert.assertEquals(extracted.get("name").toString(), "record");
+  }
+
+  private KafkaSchemaRegistryAvroExtractor newExtractor(boolean passThroughEnabled) {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setWatermarkInterval(new WatermarkInterval(new MultiLongWatermark(ImmutableList.of(0L)),
+        new MultiLongWatermark(ImmutableList.of(10L))));
+    workUnit.setProp(ConfigurationKeys.KAFKA_BROKERS, "localhost:9092");
+    workUnit.setProp(KafkaSource.TOPIC_NAME, TOPIC);
+    workUnit.setProp(KafkaSource.PARTITION_ID, 0);
+    workUnit.setProp(KafkaSource.LEADER_ID, 0);
+    workUnit.setProp(KafkaSource.LEADER_HOSTANDPORT, "localhost:9092");
+    workUnit.setProp(KafkaSchemaRegistry.KAFKA_SCHEMA_REGISTRY_CLASS, TestSchemaRegistry.class.getName());
+    workUnit.setProp(KafkaAvroExtractor.PASS_THROUGH_ENABLED_KEY, passThroughEnabled);
+    return new KafkaSchemaRegistryAvroExtractor(new WorkUnitState(workUnit));
+  }
+
+  private static GenericRecord newRecord(Schema schema, String name) {
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("name", name);
+    return record;
+  }
+
+  private static MessageAndOffset toMessage(String schemaId, GenericRecord record) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(KafkaAvroSchemaRegistry.MAGIC_BYTE);
+    out.write(Hex.decodeHex(schemaId.toCharArray()));
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new GenericDatumWriter<GenericRecord>(record.getSchema()).write(record, encoder);
+    encoder.flush();
+    return new MessageAndOffset(new Message(out.toByteArray()), 0L);
+  }
+
+  /**
+   * A {@link KafkaSchemaRegistry} serving {@link #SCHEMAS}, with {@link #SCHEMA_V2} as the latest schema.
+   */
+  public static class TestSchemaRegistry extends KafkaSchemaRegistry<String, Schema> {
+
+    public TestSchemaRegistry(Properties props) {
+      super(props);
+    }
+
+    @Override
+    protected Schema fetchSchemaByKey(String key) throws SchemaRegistryException {
+      if (!SCHEMAS.containsKey(key)) {
+        throw new SchemaRegistryException("Unknown schema " + key);
+      }
+      return SCHEMAS.get(key);
+    }
+
+    @Override
+    public Schema getLatestSchemaByTopic(String topic) throws SchemaRegistryException {
+      return SCHEMA_V2;
+    }
+
+    @Override
+    public String register(Schema schema) throws SchemaRegistryException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String register(Schema schema, String name) throws SchemaRegistryException {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
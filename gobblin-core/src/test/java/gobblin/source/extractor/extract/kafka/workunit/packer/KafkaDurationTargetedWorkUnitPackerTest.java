@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import gobblin.configuration.SourceState;
+import gobblin.configuration.State;
+import gobblin.configuration.WorkUnitState;
+import gobblin.source.extractor.extract.kafka.KafkaPartition;
+import gobblin.source.extractor.extract.kafka.KafkaSchemaRegistryAvroSource;
+import gobblin.source.extractor.extract.kafka.KafkaUtils;
+import gobblin.source.extractor.extract.kafka.MultiLongWatermark;
+import gobblin.source.workunit.MultiWorkUnit;
+import gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * Unit tests for {@link KafkaDurationTargetedWorkUnitPacker}.
+ */
+@Test(groups = {"gobblin.source.extractor.extract.kafka"})
+public class KafkaDurationTargetedWorkUnitPackerTest {
+
+  private static final String TOPIC = "topic";
+
+  @Test
+  public void testTargetContainerDuration() {
+    // Without history each partition is estimated at 1 ms per record, i.e., 400 ms in total
+    State properties = new State();
+    properties.setProp(KafkaDurationTargetedWorkUnitPacker.TARGET_CONTAINER_DURATION_MILLIS, 150);
+    KafkaDurationTargetedWorkUnitPacker packer = newPacker(properties, Lists.<WorkUnitState> newArrayList());
+    Assert.assertEquals(packer.pack(newWorkUnitsByTopic(100, 100, 100, 100), 10).size(), 3);
+
+    // The number of containers is an upper bound
+    packer = newPacker(properties, Lists.<WorkUnitState> newArrayList());
+    Assert.assertEquals(packer.pack(newWorkUnitsByTopic(100, 100, 100, 100), 2).size(), 2);
+
+    // Without a target duration all containers are used
+    packer = newPacker(new State(), Lists.<WorkUnitState> newArrayList());
+    Assert.assertEquals(packer.pack(newWorkUnitsByTopic(100, 100, 100, 100), 4).size(), 4);
+  }
+
+  @Test
+  public void testReportPreviousRunSkew() {
+    List<WorkUnit> previousMultiWorkUnits =
+        newPacker(new State(), Lists.<WorkUnitState> newArrayList()).pack(newWorkUnitsByTopic(100, 100), 2);
+    Assert.assertEquals(previousMultiWorkUnits.size(), 2);
+
+    // Both containers were predicted to take 100 ms, but one took 100 ms and the other 300 ms
+    List<WorkUnitState> previous = Lists.newArrayList();
+    for (WorkUnit multiWorkUnit : previousMultiWorkUnits) {
+      for (WorkUnit workUnit : ((MultiWorkUnit) multiWorkUnit).getWorkUnits()) {
+        WorkUnitState workUnitState = new WorkUnitState(workUnit);
+        KafkaPartition partition = KafkaUtils.getPartition(workUnit);
+        KafkaUtils.setPartitionAvgRecordMillis(workUnitState, partition, partition.getId() == 0 ? 1.0 : 3.0);
+        workUnitState.setActualHighWatermark(new MultiLongWatermark(ImmutableList.of(100L)));
+        previous.add(workUnitState);
+      }
+    }
+
+    KafkaDurationTargetedWorkUnitPacker packer = newPacker(new State(), previous);
+    List<WorkUnit> multiWorkUnits = packer.pack(newWorkUnitsByTopic(100, 100), 2);
+    Assert.assertEquals(packer.state.getPropAsDouble(KafkaDurationTargetedWorkUnitPacker.PREVIOUS_PREDICTED_SKEW),
+        1.0, 1e-6);
+    Assert.assertEquals(packer.state.getPropAsDouble(KafkaDurationTargetedWorkUnitPacker.PREVIOUS_ACTUAL_SKEW), 1.5,
+        1e-6);
+
+    // The slower partition is now estimated to take longer and the updated history is carried over
+    for (WorkUnit multiWorkUnit : multiWorkUnits) {
+      for (WorkUnit workUnit : ((MultiWorkUnit) multiWorkUnit).getWorkUnits()) {
+        KafkaPartition partition = KafkaUtils.getPartition(workUnit);
+        Assert.assertEquals(KafkaUtils.getPartitionAvgRecordMillisEwma(workUnit, partition),
+            partition.getId() == 0 ? 1.0 : 3.0, 1e-6);
+      }
+    }
+  }
+
+  @Test
+  public void testPartitionStatsCarriedOverByOtherPackers() {
+    List<WorkUnitState> previous = Lists.newArrayList();
+    for (int i = 0; i < 2; i++) {
+      WorkUnitState workUnitState = new WorkUnitState(newWorkUnit(i, 0));
+      KafkaUtils.setPartitionAvgRecordMillis(workUnitState, partition(i), i + 1.0);
+      previous.add(workUnitState);
+    }
+
+    State properties = new State();
+    properties.setProp(KafkaWorkUnitPacker.KAFKA_WORKUNIT_SIZE_ESTIMATOR_TYPE,
+        KafkaWorkUnitPacker.SizeEstimatorType.EWMA_RECORD_TIME.name());
+    KafkaWorkUnitPacker packer = KafkaWorkUnitPacker.getInstance(KafkaWorkUnitPacker.PackerType.BI_LEVEL,
+        new KafkaSchemaRegistryAvroSource(), new SourceState(properties, previous));
+
+    // The bi-level packer combines both partitions into a single work unit, which keeps the stats of both
+    List<WorkUnit> multiWorkUnits = packer.pack(newWorkUnitsByTopic(100, 100), 1);
+    Assert.assertEquals(multiWorkUnits.size(), 1);
+    List<WorkUnit> workUnits = ((MultiWorkUnit) multiWorkUnits.get(0)).getWorkUnits();
+    Assert.assertEquals(workUnits.size(), 1);
+    Assert.assertEquals(KafkaUtils.getPartitions(workUnits.get(0)).size(), 2);
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(KafkaUtils.getPartitionAvgRecordMillisEwma(workUnits.get(0), partition(i)), i + 1.0, 1e-6);
+    }
+  }
+
+  private static KafkaDurationTargetedWorkUnitPacker newPacker(State properties, List<WorkUnitState> previous) {
+    return new KafkaDurationTargetedWorkUnitPacker(new KafkaSchemaRegistryAvroSource(),
+        new SourceState(properties, previous));
+  }
+
+  private static KafkaPartition partition(int id) {
+    return KafkaEwmaRecordTimeBasedWorkUnitSizeEstimatorTest.partition(TOPIC, id);
+  }
+
+  private static WorkUnit newWorkUnit(int id, long numRecords) {
+    return KafkaEwmaRecordTimeBasedWorkUnitSizeEstimatorTest.newWorkUnit(TOPIC, id, numRecords);
+  }
+
+  private static Map<String, List<WorkUnit>> newWorkUnitsByTopic(long... numRecords) {
+    List<WorkUnit> workUnits = Lists.newArrayList();
+    for (int i = 0; i < numRecords.length; i++) {
+      workUnits.add(newWorkUnit(i, numRecords[i]));
+    }
+    Map<String, List<WorkUnit>> workUnitsByTopic = Maps.newHashMap();
+    workUnitsByTopic.put(TOPIC, workUnits);
+    return workUnitsByTopic;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.kafka.workunit.packer;
+
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.SourceState;
+import gobblin.configuration.State;
+import gobblin.configuration.WorkUnitState;
+import gobblin.source.extractor.extract.kafka.KafkaPartition;
+import gobblin.source.extractor.extract.kafka.KafkaSource;
+import gobblin.source.extractor.extract.kafka.KafkaUtils;
+import gobblin.source.workunit.WorkUnit;
+
+
+/**
+ * Unit tests for {@link KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator}.
+ */
+@Test(groups = {"gobblin.source.extractor.extract.kafka"})
+public class KafkaEwmaRecordTimeBasedWorkUnitSizeEstimatorTest {
+
+  private static final double DELTA = 1e-6;
+
+  @Test
+  public void testNoHistory() {
+    KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator estimator = newEstimator(Lists.<WorkUnitState> newArrayList());
+
+    WorkUnit workUnit = newWorkUnit("topic", 0, 100);
+    Assert.assertEquals(estimator.calcEstimatedSize(workUnit), 100.0, DELTA);
+    Assert.assertFalse(KafkaUtils.containsPartitionAvgRecordMillisEwma(workUnit, KafkaUtils.getPartition(workUnit)));
+  }
+
+  @Test
+  public void testFirstObservation() {
+    WorkUnitState previous = newPreviousWorkUnitState("topic", 0);
+    KafkaUtils.setPartitionAvgRecordMillis(previous, partition("topic", 0), 2.0);
+    KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator estimator = newEstimator(Lists.newArrayList(previous));
+
+    WorkUnit workUnit = newWorkUnit("topic", 0, 100);
+    Assert.assertEquals(estimator.calcEstimatedSize(workUnit), 200.0, DELTA);
+    assertPartitionStats(workUnit, 2.0, 0.0);
+  }
+
+  @Test
+  public void testEwmaUpdate() {
+    WorkUnitState previous = newPreviousWorkUnitState("topic", 0);
+    KafkaUtils.setPartitionAvgRecordMillisEwma(previous, partition("topic", 0), 2.0, 0.0);
+    KafkaUtils.setPartitionAvgRecordMillis(previous, partition("topic", 0), 4.0);
+    KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator estimator = newEstimator(Lists.newArrayList(previous));
+
+    // ewma = 2 + 0.5 * 2 = 3, variance = 0.5 * (0 + 0.5 * 2^2) = 1, estimate = ewma + 1 * sqrt(variance) = 4
+    WorkUnit workUnit = newWorkUnit("topic", 0, 10);
+    Assert.assertEquals(estimator.calcEstimatedSize(workUnit), 40.0, DELTA);
+    assertPartitionStats(workUnit, 3.0, 1.0);
+  }
+
+  @Test
+  public void testPartitionNotPulledKeepsHistory() {
+    WorkUnitState previous = newPreviousWorkUnitState("topic", 0);
+    KafkaUtils.setPartitionAvgRecordMillisEwma(previous, partition("topic", 0), 5.0, 4.0);
+    KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator estimator = newEstimator(Lists.newArrayList(previous));
+
+    WorkUnit workUnit = newWorkUnit("topic", 0, 10);
+    Assert.assertEquals(estimator.calcEstimatedSize(workUnit), 70.0, DELTA);
+    assertPartitionStats(workUnit, 5.0, 4.0);
+  }
+
+  @Test
+  public void testPartitionsWithoutHistory() {
+    List<WorkUnitState> previous = Lists.newArrayList();
+    previous.add(newPreviousWorkUnitState("topic1", 0));
+    KafkaUtils.setPartitionAvgRecordMillis(previous.get(0), partition("topic1", 0), 2.0);
+    previous.add(newPreviousWorkUnitState("topic1", 1));
+    KafkaUtils.setPartitionAvgRecordMillis(previous.get(1), partition("topic1", 1), 8.0);
+    previous.add(newPreviousWorkUnitState("topic2", 0));
+    KafkaUtils.setPartitionAvgRecordMillis(previous.get(2), partition("topic2", 0), 1.0);
+    KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator estimator = newEstimator(previous);
+
+    // A new partition of a known topic uses the geometric mean of the topic, i.e., sqrt(2 * 8) = 4
+    Assert.assertEquals(estimator.calcEstimatedSize(newWorkUnit("topic1", 2, 10)), 40.0, DELTA);
+    // A partition of a new topic uses the geometric mean over the topics, i.e., sqrt(4 * 1) = 2
+    Assert.assertEquals(estimator.calcEstimatedSize(newWorkUnit("topic3", 0, 10)), 20.0, DELTA);
+  }
+
+  private static KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator newEstimator(List<WorkUnitState> previous) {
+    State properties = new State();
+    properties.setProp(KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator.EWMA_ALPHA, 0.5);
+    properties.setProp(KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator.EWMA_STDDEV_WEIGHT, 1.0);
+    return new KafkaEwmaRecordTimeBasedWorkUnitSizeEstimator(new SourceState(properties, previous));
+  }
+
+  private static void assertPartitionStats(WorkUnit workUnit, double ewma, double variance) {
+    KafkaPartition partition = KafkaUtils.getPartition(workUnit);
+    Assert.assertEquals(KafkaUtils.getPartitionAvgRecordMillisEwma(workUnit, partition), ewma, DELTA);
+    Assert.assertEquals(KafkaUtils.getPartitionAvgRecordMillisVariance(workUnit, partition), variance, DELTA);
+  }
+
+  static KafkaPartition partition(String topic, int id) {
+    return new KafkaPartition.Builder().withTopicName(topic).withId(id).withLeaderId(0)
+        .withLeaderHostAndPort("localhost:9092").build();
+  }
+
+  static WorkUnit newWorkUnit(String topic, int id, long numRecords) {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.setProp(KafkaSource.TOPIC_NAME, topic);
+    workUnit.setProp(KafkaSource.PARTITION_ID, id);
+    workUnit.setProp(KafkaSource.LEADER_ID, 0);
+    workUnit.setProp(KafkaSource.LEADER_HOSTANDPORT, "localhost:9092");
+    workUnit.setProp(ConfigurationKeys.WORK_UNIT_LOW_WATER_MARK_KEY, 0L);
+    workUnit.setProp(ConfigurationKeys.WORK_UNIT_HIGH_WATER_MARK_KEY, numRecords);
+    return workUnit;
+  }
+
+  private static WorkUnitState newPreviousWorkUnitState(String topic, int id) {
+    return new WorkUnitState(newWorkUnit(topic, id, 0));
+  }
+}
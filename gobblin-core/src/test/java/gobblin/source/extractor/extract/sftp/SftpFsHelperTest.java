@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.source.extractor.extract.sftp;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpProgressMonitor;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+import gobblin.source.extractor.filebased.FileBasedHelperException;
+
+
+/**
+ * Unit tests for the channel pool of {@link SftpFsHelper}.
+ */
+@Test(groups = {"gobblin.source.extractor.extract.sftp"})
+public class SftpFsHelperTest {
+
+  @Test
+  public void testChannelReturnedOnStreamClose() throws Exception {
+    GenericObjectPool<ChannelSftp> channelPool = newChannelPool(1, 100);
+    SftpFsHelper fsHelper = new SftpFsHelper(new State(), channelPool);
+
+    InputStream stream = fsHelper.getFileStream("file1");
+    Assert.assertEquals(channelPool.getNumActive(), 1);
+    stream.close();
+    // Closing a stream again does not return its channel twice
+    stream.close();
+    Assert.assertEquals(channelPool.getNumActive(), 0);
+
+    // The only channel is reused for the next file
+    fsHelper.getFileStream("file2").close();
+    Assert.assertEquals(channelPool.getCreatedCount(), 1);
+    fsHelper.close();
+  }
+
+  @Test
+  public void testChannelWaitTimeout() throws Exception {
+    GenericObjectPool<ChannelSftp> channelPool = newChannelPool(1, 100);
+    SftpFsHelper fsHelper = new SftpFsHelper(new State(), channelPool);
+
+    InputStream stream = fsHelper.getFileStream("file1");
+    long startTime = System.currentTimeMillis();
+    try {
+      fsHelper.getFileStream("file2");
+      Assert.fail("Getting a stream should fail if no channel becomes available");
+    } catch (FileBasedHelperException fbhe) {
+      // Expected
+    }
+    Assert.assertTrue(System.currentTimeMillis() - startTime >= 100);
+
+    stream.close();
+    fsHelper.getFileStream("file2").close();
+    fsHelper.close();
+  }
+
+  @Test
+  public void testMaxChannelsForPrefetching() {
+    State state = new State();
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_FILES, 4);
+    state.setProp(ConfigurationKeys.SOURCE_CONN_MAX_CHANNELS, 5);
+    new SftpFsHelper(state);
+
+    // The file being read needs a channel in addition to those of the prefetched files
+    state.setProp(ConfigurationKeys.SOURCE_CONN_MAX_CHANNELS, 4);
+    try {
+      new SftpFsHelper(state);
+      Assert.fail("Creating the helper should fail with fewer channels than prefetched files plus 1");
+    } catch (IllegalArgumentException iae) {
+      // Expected
+    }
+  }
+
+  private static GenericObjectPool<ChannelSftp> newChannelPool(int maxChannels, long maxWaitMillis) {
+    State state = new State();
+    state.setProp(ConfigurationKeys.SOURCE_CONN_MAX_CHANNELS, maxChannels);
+    state.setProp(ConfigurationKeys.SOURCE_CONN_MAX_CHANNEL_WAIT_MS, maxWaitMillis);
+    return SftpFsHelper.createChannelPool(new BasePooledObjectFactory<ChannelSftp>() {
+      @Override
+      public ChannelSftp create() throws Exception {
+        ChannelSftp channel = Mockito.mock(ChannelSftp.class);
+        Mockito.when(channel.get(Mockito.anyString(), Mockito.any(SftpProgressMonitor.class)))
+            .thenReturn(new ByteArrayInputStream(new byte[0]));
+        return channel;
+      }
+
+      @Override
+      public PooledObject<ChannelSftp> wrap(ChannelSftp channel) {
+        return new DefaultPooledObject<>(channel);
+      }
+    }, state);
+  }
+}
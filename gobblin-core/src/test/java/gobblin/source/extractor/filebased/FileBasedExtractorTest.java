@@ -12,13 +12,23 @@
 
 package gobblin.source.extractor.filebased;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.apache.commons.io.IOUtils;
 
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -96,6 +106,113 @@ public class FileBasedExtractorTest {
     Assert.assertEquals(getNumRecords(extractor), 5);
   }
 
+  public void testReadRecordWithPrefetching() throws DataRecordException, IOException, FileBasedHelperException {
+    String file1 = "file1.txt";
+    String file2 = "file2.txt";
+    String file3 = "file3.txt";
+
+    WorkUnitState state = new WorkUnitState();
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FILES_TO_PULL, Joiner.on(",").join(file1, file2, file3));
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_FILES, 2);
+    // Buffer only part of the non-empty files, so the rest is read from the underlying streams
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_BUFFER_SIZE, 10);
+
+    FileBasedHelper fsHelper = Mockito.mock(FileBasedHelper.class);
+    Mockito.when(fsHelper.getFileStream(file1)).thenReturn(IOUtils.toInputStream("record1\nrecord2"));
+    Mockito.when(fsHelper.getFileStream(file2)).thenReturn(IOUtils.toInputStream(""));
+    Mockito.when(fsHelper.getFileStream(file3)).thenReturn(IOUtils.toInputStream("record3\nrecord4\nrecord5"));
+
+    FileBasedExtractor<String, String> extractor = new DummyFileBasedExtractor<String, String>(state, fsHelper);
+    Assert.assertTrue(extractor.getFsHelper() instanceof PrefetchingFileBasedHelper);
+
+    List<String> records = Lists.newArrayList();
+    String record;
+    while ((record = extractor.readRecord(null)) != null) {
+      records.add(record);
+    }
+    extractor.close();
+
+    Assert.assertEquals(records, ImmutableList.of("record1", "record2", "record3", "record4", "record5"));
+    Mockito.verify(fsHelper).getFileStream(file1);
+    Mockito.verify(fsHelper).getFileStream(file2);
+    Mockito.verify(fsHelper).getFileStream(file3);
+    Mockito.verify(fsHelper).close();
+  }
+
+  public void testFileClosedBeforeNextFileOpened() throws DataRecordException, IOException, FileBasedHelperException {
+    WorkUnitState state = new WorkUnitState();
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FILES_TO_PULL, "file1.txt,file2.txt,file3.txt,file4.txt");
+
+    final List<TrackedInputStream> streams = Lists.newArrayList();
+    FileBasedHelper fsHelper = Mockito.mock(FileBasedHelper.class);
+    Mockito.when(fsHelper.getFileStream(Mockito.anyString())).thenAnswer(new Answer<InputStream>() {
+      @Override
+      public InputStream answer(InvocationOnMock invocation) throws Throwable {
+        // Streams hold resources like SFTP channels, so no two files should be open at the same time
+        for (TrackedInputStream stream : streams) {
+          Assert.assertTrue(stream.closed);
+        }
+        String file = (String) invocation.getArguments()[0];
+        TrackedInputStream stream = new TrackedInputStream(file.equals("file2.txt") ? "" : file + "-record");
+        streams.add(stream);
+        return stream;
+      }
+    });
+
+    FileBasedExtractor<String, String> extractor = new DummyFileBasedExtractor<String, String>(state, fsHelper);
+    Assert.assertEquals(getNumRecords(extractor), 3);
+    Assert.assertEquals(streams.size(), 4);
+    Assert.assertTrue(streams.get(3).closed);
+  }
+
+  public void testCloseClosesCurrentFile() throws DataRecordException, IOException, FileBasedHelperException {
+    WorkUnitState state = new WorkUnitState();
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FILES_TO_PULL, "file1.txt");
+
+    TrackedInputStream stream = new TrackedInputStream("record1\nrecord2");
+    FileBasedHelper fsHelper = Mockito.mock(FileBasedHelper.class);
+    Mockito.when(fsHelper.getFileStream("file1.txt")).thenReturn(stream);
+
+    FileBasedExtractor<String, String> extractor = new DummyFileBasedExtractor<String, String>(state, fsHelper);
+    Assert.assertEquals(extractor.readRecord(null), "record1");
+    Assert.assertFalse(stream.closed);
+    extractor.close();
+    Assert.assertTrue(stream.closed);
+  }
+
+  public void testCloseClosesCancelledPrefetchedFile() throws Exception {
+    WorkUnitState state = new WorkUnitState();
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_FILES_TO_PULL, "file1.txt,file2.txt");
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_FILES, 1);
+    state.setProp(ConfigurationKeys.SOURCE_FILEBASED_PREFETCH_BUFFER_SIZE, 10);
+
+    // A read that does not respond to interrupts, like a read from a socket, so the prefetch of the file completes
+    // after it is cancelled
+    final TrackedInputStream stream2 = new TrackedInputStream("record2\nrecord3\nrecord4") {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+        return super.read(b, off, len);
+      }
+    };
+    final CountDownLatch file2Opened = new CountDownLatch(1);
+    FileBasedHelper fsHelper = Mockito.mock(FileBasedHelper.class);
+    Mockito.when(fsHelper.getFileStream("file1.txt")).thenReturn(new TrackedInputStream("record1"));
+    Mockito.when(fsHelper.getFileStream("file2.txt")).thenAnswer(new Answer<InputStream>() {
+      @Override
+      public InputStream answer(InvocationOnMock invocation) throws Throwable {
+        file2Opened.countDown();
+        return stream2;
+      }
+    });
+
+    FileBasedExtractor<String, String> extractor = new DummyFileBasedExtractor<String, String>(state, fsHelper);
+    Assert.assertEquals(extractor.readRecord(null), "record1");
+    file2Opened.await();
+    extractor.close();
+    Assert.assertTrue(stream2.closed);
+  }
+
   private int getNumRecords(Extractor<?, ?> extractor) throws DataRecordException, IOException {
     int numRecords = 0;
     while (extractor.readRecord(null) != null) {
@@ -104,6 +221,21 @@ public class FileBasedExtractorTest {
     return numRecords;
   }
 
+  private static class TrackedInputStream extends ByteArrayInputStream {
+
+    private boolean closed = false;
+
+    private TrackedInputStream(String content) {
+      super(content.getBytes());
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.closed = true;
+      super.close();
+    }
+  }
+
   private static class DummyFileBasedExtractor<S, D> extends FileBasedExtractor<S, D> {
 
     public DummyFileBasedExtractor(WorkUnitState workUnitState, FileBasedHelper fsHelper) {
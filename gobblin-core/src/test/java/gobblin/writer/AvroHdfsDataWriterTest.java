@@ -15,6 +15,7 @@ package gobblin.writer;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import org.apache.avro.Schema;
@@ -35,6 +36,8 @@ import com.google.gson.reflect.TypeToken;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
+import gobblin.util.AvroUtils;
+import gobblin.util.EncodedAvroRecord;
 
 
 /**
@@ -48,6 +51,7 @@ public class AvroHdfsDataWriterTest {
   private static final Type FIELD_ENTRY_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
 
   private Schema schema;
+  private State properties;
   private DataWriter<GenericRecord> writer;
   private String filePath;
 
@@ -68,18 +72,15 @@ public class AvroHdfsDataWriterTest {
     this.filePath = TestConstants.TEST_EXTRACT_NAMESPACE.replaceAll("\\.", "/") + "/" + TestConstants.TEST_EXTRACT_TABLE
         + "/" + TestConstants.TEST_EXTRACT_ID + "_" + TestConstants.TEST_EXTRACT_PULL_TYPE;
 
-    State properties = new State();
-    properties.setProp(ConfigurationKeys.WRITER_BUFFER_SIZE, ConfigurationKeys.DEFAULT_BUFFER_SIZE);
-    properties.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, TestConstants.TEST_FS_URI);
-    properties.setProp(ConfigurationKeys.WRITER_STAGING_DIR, TestConstants.TEST_STAGING_DIR);
-    properties.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, TestConstants.TEST_OUTPUT_DIR);
-    properties.setProp(ConfigurationKeys.WRITER_FILE_PATH, this.filePath);
-    properties.setProp(ConfigurationKeys.WRITER_FILE_NAME, TestConstants.TEST_FILE_NAME);
+    this.properties = new State();
+    this.properties.setProp(ConfigurationKeys.WRITER_BUFFER_SIZE, ConfigurationKeys.DEFAULT_BUFFER_SIZE);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, TestConstants.TEST_FS_URI);
+    this.properties.setProp(ConfigurationKeys.WRITER_STAGING_DIR, TestConstants.TEST_STAGING_DIR);
+    this.properties.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, TestConstants.TEST_OUTPUT_DIR);
+    this.properties.setProp(ConfigurationKeys.WRITER_FILE_PATH, this.filePath);
 
     // Build a writer to write test records
-    this.writer = new AvroDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, properties))
-        .writeInFormat(WriterOutputFormat.AVRO).withWriterId(TestConstants.TEST_WRITER_ID).withSchema(this.schema)
-        .withBranches(1).forBranch(0).build();
+    this.writer = buildWriter(TestConstants.TEST_FILE_NAME);
   }
 
   @Test
@@ -119,6 +120,69 @@ public class AvroHdfsDataWriterTest {
     reader.close();
   }
 
+  @Test
+  public void testWriteEncodedRecords() throws IOException {
+    String fileName = "encoded." + TestConstants.TEST_FILE_EXTENSION;
+    DataWriter<GenericRecord> encodedRecordWriter = buildWriter(fileName);
+
+    // Write the first test record as is, the second one as a decoded EncodedAvroRecord
+    // and the third one as an EncodedAvroRecord that is appended in its binary encoding
+    for (int i = 0; i < TestConstants.JSON_RECORDS.length; i++) {
+      GenericRecord record = convertRecord(TestConstants.JSON_RECORDS[i]);
+      if (i > 0) {
+        EncodedAvroRecord encodedRecord = new EncodedAvroRecord(this.schema,
+            ByteBuffer.wrap(AvroUtils.recordToByteArray(record)), new GenericDatumReader<GenericRecord>(this.schema));
+        if (i == 1) {
+          Assert.assertEquals(encodedRecord.get("name").toString(), "Ben");
+        }
+        Assert.assertEquals(encodedRecord.isDecoded(), i == 1);
+        record = encodedRecord;
+      }
+      encodedRecordWriter.write(record);
+    }
+
+    Assert.assertEquals(encodedRecordWriter.recordsWritten(), 3);
+
+    encodedRecordWriter.close();
+    encodedRecordWriter.commit();
+
+    // Read the records back and assert they are identical to the ones written
+    File outputFile = new File(TestConstants.TEST_OUTPUT_DIR + Path.SEPARATOR + this.filePath, fileName);
+    try (DataFileReader<GenericRecord> reader =
+        new DataFileReader<>(outputFile, new GenericDatumReader<GenericRecord>(this.schema))) {
+      for (String jsonRecord : TestConstants.JSON_RECORDS) {
+        GenericRecord expected = convertRecord(jsonRecord);
+        GenericRecord actual = reader.next();
+        Assert.assertEquals(actual.get("name").toString(), expected.get("name"));
+        Assert.assertEquals(actual.get("favorite_number"), ((Double) expected.get("favorite_number")).intValue());
+        Assert.assertEquals(actual.get("favorite_color").toString(), expected.get("favorite_color"));
+      }
+      Assert.assertFalse(reader.hasNext());
+    }
+  }
+
+  @Test
+  public void testBytesWrittenWithoutFileSystemCalls() throws IOException {
+    String fileName = "counted." + TestConstants.TEST_FILE_EXTENSION;
+    DataWriter<GenericRecord> countedWriter = buildWriter(fileName, CountingLocalFileSystem.SCHEME + ":///");
+
+    // The bytes written are reported after each write without getting the status of the staging or output file
+    CountingLocalFileSystem.resetFileStatusCalls();
+    long lastBytesWritten = 0;
+    for (int i = 0; i < 10000; i++) {
+      countedWriter.write(convertRecord(TestConstants.JSON_RECORDS[i % TestConstants.JSON_RECORDS.length]));
+      long bytesWritten = countedWriter.bytesWritten();
+      Assert.assertTrue(bytesWritten >= lastBytesWritten);
+      lastBytesWritten = bytesWritten;
+    }
+    Assert.assertEquals(CountingLocalFileSystem.getFileStatusCalls(), 0);
+
+    countedWriter.close();
+    countedWriter.commit();
+    File outputFile = new File(TestConstants.TEST_OUTPUT_DIR + Path.SEPARATOR + this.filePath, fileName);
+    Assert.assertEquals(countedWriter.bytesWritten(), outputFile.length());
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     // Clean up the staging and/or output directories if necessary
@@ -128,6 +192,20 @@ public class AvroHdfsDataWriterTest {
     }
   }
 
+  private DataWriter<GenericRecord> buildWriter(String fileName) throws IOException {
+    return buildWriter(fileName, TestConstants.TEST_FS_URI);
+  }
+
+  private DataWriter<GenericRecord> buildWriter(String fileName, String fsUri) throws IOException {
+    State writerProperties = new State();
+    writerProperties.addAll(this.properties);
+    writerProperties.setProp(ConfigurationKeys.WRITER_FILE_NAME, fileName);
+    writerProperties.setProp(ConfigurationKeys.WRITER_FILE_SYSTEM_URI, fsUri);
+    return new AvroDataWriterBuilder().writeTo(Destination.of(Destination.DestinationType.HDFS, writerProperties))
+        .writeInFormat(WriterOutputFormat.AVRO).withWriterId(TestConstants.TEST_WRITER_ID).withSchema(this.schema)
+        .withBranches(1).forBranch(0).build();
+  }
+
   private GenericRecord convertRecord(String inputRecord) {
     Gson gson = new Gson();
     JsonElement element = gson.fromJson(inputRecord, JsonElement.class);
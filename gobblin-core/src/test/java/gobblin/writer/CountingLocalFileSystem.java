@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.writer;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+
+
+/**
+ * A {@link LocalFileSystem} registered for the scheme {@link #SCHEME} that counts the calls getting the status of a
+ * file, used to check that writers do not call the file system on each write.
+ */
+public class CountingLocalFileSystem extends LocalFileSystem {
+
+  public static final String SCHEME = "countinglocal";
+
+  private static final AtomicInteger FILE_STATUS_CALLS = new AtomicInteger();
+
+  @Override
+  public String getScheme() {
+    return SCHEME;
+  }
+
+  @Override
+  public boolean exists(Path f) throws IOException {
+    FILE_STATUS_CALLS.incrementAndGet();
+    return super.exists(f);
+  }
+
+  @Override
+  public FileStatus getFileStatus(Path f) throws IOException {
+    FILE_STATUS_CALLS.incrementAndGet();
+    return super.getFileStatus(f);
+  }
+
+  public static int getFileStatusCalls() {
+    return FILE_STATUS_CALLS.get();
+  }
+
+  public static void resetFileStatusCalls() {
+    FILE_STATUS_CALLS.set(0);
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+package gobblin.data.management.convertion.hive;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.hive.ql.metadata.Partition;
+
+/**
+ * A {@link HiveUnitUpdateProvider} that can find the update times of many {@link Partition}s at once, e.g., with
+ * one listing of the directory containing the data locations of the {@link Partition}s.
+ */
+public interface BatchHiveUnitUpdateProvider extends HiveUnitUpdateProvider {
+
+  /**
+   * Get the data update times of a list of {@link Partition}s
+   *
+   * @return a map from the complete name of each {@link Partition} to its update time
+   */
+  public Map<String, Long> getUpdateTimes(List<Partition> partitions);
+
+}
@@ -11,26 +11,40 @@
  */
 package gobblin.data.management.convertion.hive;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.metadata.Partition;
 import org.apache.hadoop.hive.ql.metadata.Table;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+
 import gobblin.hive.HivePartition;
 import gobblin.hive.HiveTable;
 
 
 /**
  * Uses the file modification time of the data location of a {@link HiveTable} or {@link HivePartition} on HDFS
+ *
+ * <p>
+ * The update times of many {@link Partition}s are found by listing the parent directories of their data locations
+ * once, instead of getting the status of each data location.
+ * </p>
  */
 @Slf4j
 @AllArgsConstructor
-public class HdfsBasedUpdateProvider implements HiveUnitUpdateProvider {
+public class HdfsBasedUpdateProvider implements BatchHiveUnitUpdateProvider {
 
   private FileSystem fs;
 
@@ -73,11 +87,73 @@ public class HdfsBasedUpdateProvider implements HiveUnitUpdateProvider {
     return 0;
   }
 
+  /**
+   * Get the update times of a list of {@link Partition}s. The data locations of {@link Partition}s sharing the same
+   * parent directory are found with a single listing of the parent directory. A {@link Partition} whose data location
+   * is not in the listing falls back to {@link #getUpdateTime(Partition)}.
+   *
+   * @return a map from the complete name of each {@link Partition} to its update time if available, 0 otherwise
+   *
+   * {@inheritDoc}
+   * @see gobblin.data.management.convertion.hive.BatchHiveUnitUpdateProvider#getUpdateTimes(java.util.List)
+   */
+  @Override
+  public Map<String, Long> getUpdateTimes(List<Partition> partitions) {
+    Map<String, Long> updateTimes = Maps.newHashMapWithExpectedSize(partitions.size());
+
+    ListMultimap<Path, Partition> partitionsByParent = ArrayListMultimap.create();
+    for (Partition partition : partitions) {
+      Path location = partition.getDataLocation();
+      if (location == null || location.getParent() == null) {
+        updateTimes.put(partition.getCompleteName(), getUpdateTime(partition));
+      } else {
+        partitionsByParent.put(this.fs.makeQualified(location.getParent()), partition);
+      }
+    }
+
+    for (Map.Entry<Path, Collection<Partition>> entry : partitionsByParent.asMap().entrySet()) {
+      if (entry.getValue().size() == 1) {
+        Partition partition = entry.getValue().iterator().next();
+        updateTimes.put(partition.getCompleteName(), getUpdateTime(partition));
+        continue;
+      }
+
+      // Children are matched by name, since the listed paths and the data locations may spell the authority differently
+      Map<String, Long> modificationTimes = Maps.newHashMap();
+      try {
+        for (FileStatus status : this.fs.listStatus(entry.getKey())) {
+          modificationTimes.put(status.getPath().getName(), status.getModificationTime());
+        }
+      } catch (FileNotFoundException fnfe) {
+        // None of the data locations exist
+        for (Partition partition : entry.getValue()) {
+          updateTimes.put(partition.getCompleteName(), 0L);
+        }
+        continue;
+      } catch (IOException e) {
+        log.warn(String.format("Failed to list %s. Will get the update time of each partition", entry.getKey()), e);
+        for (Partition partition : entry.getValue()) {
+          updateTimes.put(partition.getCompleteName(), getUpdateTime(partition));
+        }
+        continue;
+      }
+
+      for (Partition partition : entry.getValue()) {
+        Long modificationTime = modificationTimes.get(partition.getDataLocation().getName());
+        updateTimes.put(partition.getCompleteName(),
+            modificationTime == null ? getUpdateTime(partition) : modificationTime);
+      }
+    }
+
+    return updateTimes;
+  }
+
   private long getUpdateTime(Path path) throws IOException {
 
-    if (this.fs.exists(path)) {
+    try {
       return this.fs.getFileStatus(path).getModificationTime();
+    } catch (FileNotFoundException fnfe) {
+      return 0;
     }
-    return 0;
   }
 }
@@ -11,10 +11,16 @@
  */
 package gobblin.data.management.convertion.hive;
 
+import java.util.List;
+import java.util.Map;
+
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.avro.Schema;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
 import gobblin.configuration.WorkUnitState;
 import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
@@ -25,6 +31,11 @@ import gobblin.converter.SingleRecordIterable;
 /**
  * Builds the Hive avro to Orc conversion query. The record type for this converter is {@link QueryBasedHiveConversionEntity}. A {@link QueryBasedHiveConversionEntity}
  * can be a hive table or a hive partition.
+ *
+ * <p>
+ * The query of a hive partition is a multi-insert query overwriting the same partition of the orc table, so that the
+ * queries of several partitions of a table can be coalesced by the {@link HiveQueryExecutionWriter}.
+ * </p>
  */
 @Slf4j
 public class HiveAvroToOrcConverter extends
@@ -43,13 +54,45 @@ public class HiveAvroToOrcConverter extends
   @Override
   public Iterable<QueryBasedHiveConversionEntity> convertRecord(Schema outputSchema,
       QueryBasedHiveConversionEntity conversionEntity, WorkUnitState workUnit) throws DataConversionException {
-    conversionEntity.appendQuery("Insert into table ").appendQuery(conversionEntity.getHiveUnit().getDbName())
-        .appendQuery(".").appendQuery(conversionEntity.getHiveUnit().getTableName()).appendQuery("_orc ")
-        .appendQuery("select * from ").appendQuery(conversionEntity.getHiveUnit().getDbName()).appendQuery(".")
-        .appendQuery(conversionEntity.getHiveUnit().getTableName());
+    if (conversionEntity.getPartitionSpec().isPresent()) {
+      String sourceTable =
+          conversionEntity.getHiveUnit().getDbName() + "." + conversionEntity.getHiveUnit().getTableName();
+      List<String> partitionPredicates = Lists.newArrayList();
+      for (Map.Entry<String, String> entry : conversionEntity.getPartitionSpec().get().entrySet()) {
+        partitionPredicates.add(String.format("`%s`='%s'", entry.getKey(), escapeValue(entry.getValue())));
+      }
+      conversionEntity.setMultiInsertQuery(sourceTable,
+          String.format("INSERT OVERWRITE TABLE %s_orc PARTITION (%s) SELECT %s WHERE %s", sourceTable,
+              Joiner.on(", ").join(partitionPredicates), getSelectColumns(conversionEntity.getHiveUnitSchema()),
+              Joiner.on(" AND ").join(partitionPredicates)));
+    } else {
+      conversionEntity.appendQuery("Insert into table ").appendQuery(conversionEntity.getHiveUnit().getDbName())
+          .appendQuery(".").appendQuery(conversionEntity.getHiveUnit().getTableName()).appendQuery("_orc ")
+          .appendQuery("select * from ").appendQuery(conversionEntity.getHiveUnit().getDbName()).appendQuery(".")
+          .appendQuery(conversionEntity.getHiveUnit().getTableName());
+    }
 
     log.info("Conversion Query " + conversionEntity.getConversionQuery());
     return new SingleRecordIterable<QueryBasedHiveConversionEntity>(conversionEntity);
   }
 
+  /**
+   * Select the fields of the avro {@link Schema}, which excludes the partition columns, or all columns if the
+   * {@link Schema} is not known
+   */
+  private static String getSelectColumns(Schema schema) {
+    if (schema == null || schema.getType() != Schema.Type.RECORD) {
+      return "*";
+    }
+    List<String> columns = Lists.newArrayList();
+    for (Schema.Field field : schema.getFields()) {
+      columns.add("`" + field.name() + "`");
+    }
+    return Joiner.on(", ").join(columns);
+  }
+
+  private static String escapeValue(String value) {
+    return value.replace("\\", "\\\\").replace("'", "\\'");
+  }
+
 }
@@ -12,13 +12,18 @@
 package gobblin.data.management.convertion.hive;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.avro.Schema;
 import org.apache.hadoop.fs.FileSystem;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
+import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
 import gobblin.hive.HivePartition;
 import gobblin.hive.HiveRegistrationUnit;
@@ -39,6 +44,10 @@ import gobblin.util.reflection.GobblinConstructorUtils;
  * at {@link HiveSource#HIVE_UNIT_SERIALIZED_KEY} to build a {@link QueryBasedHiveConversionEntity}. Uses a {@link HiveAvroSchemaProvider}
  * to get the avro {@link Schema} of the {@link HiveTable} or {@link HivePartition} being extracted.
  * </p>
+ * <p>
+ * A workunit converting several partitions of a table, serialized at {@link HiveSource#HIVE_UNITS_SERIALIZED_KEY},
+ * is extracted as one {@link QueryBasedHiveConversionEntity} per partition.
+ * </p>
  */
 public class HiveConvertExtractor implements Extractor<Schema, QueryBasedHiveConversionEntity> {
 
@@ -46,18 +55,34 @@ public class HiveConvertExtractor implements Extractor<Schema, QueryBasedHiveCon
   private static final String DEFAULT_HIVE_AVRO_SCHEMA_PROVIDER_CLASS = HdfsBasedSchemaProvider.class.getName();
 
   /**
-   * Even though each extractor only processes one {@link HiveRegistrationUnit}, We use a list with one {@link HiveRegistrationUnit}
-   * so that {@link #readRecord(QueryBasedHiveConversionEntity)} knows when to stop.
+   * The {@link HiveRegistrationUnit}s to be extracted, with their complete names. Each {@link HiveRegistrationUnit}
+   * is removed from the lists after it is read so that {@link #readRecord(QueryBasedHiveConversionEntity)} knows
+   * when to stop.
    */
   private final List<HiveRegistrationUnit> hiveUnits;
+  private final List<String> completeNames;
+  private final List<String> partitionKeys;
+  private final int expectedRecordCount;
   private final HiveAvroSchemaProvider hiveAvroSchemaProvider;
 
   public HiveConvertExtractor(WorkUnitState state, FileSystem fs) {
-    HiveRegistrationUnit hiveUnit =
-        HiveSource.GENERICS_AWARE_GSON.fromJson(state.getProp(HiveSource.HIVE_UNIT_SERIALIZED_KEY),
-            HiveRegistrationUnit.class);
+    if (state.contains(HiveSource.HIVE_UNITS_SERIALIZED_KEY)) {
+      List<HivePartition> hivePartitions = HiveSource.GENERICS_AWARE_GSON.fromJson(
+          state.getProp(HiveSource.HIVE_UNITS_SERIALIZED_KEY), HiveSource.HIVE_PARTITION_LIST_TYPE);
+      this.hiveUnits = Lists.<HiveRegistrationUnit> newArrayList(hivePartitions);
+      this.completeNames = HiveSource.GENERICS_AWARE_GSON.fromJson(
+          state.getProp(HiveSource.PARTITION_COMPLETE_NAMES_KEY), HiveSource.STRING_LIST_TYPE);
+    } else {
+      HiveRegistrationUnit hiveUnit =
+          HiveSource.GENERICS_AWARE_GSON.fromJson(state.getProp(HiveSource.HIVE_UNIT_SERIALIZED_KEY),
+              HiveRegistrationUnit.class);
+      this.hiveUnits = Lists.newArrayList(hiveUnit);
+      this.completeNames = Lists.newArrayList(state.getProp(HiveSource.PARTITION_COMPLETE_NAME_KEY,
+          state.getProp(ConfigurationKeys.DATASET_URN_KEY, hiveUnit.getDbName() + "@" + hiveUnit.getTableName())));
+    }
+    this.partitionKeys = state.getPropAsList(HiveSource.PARTITION_KEYS_KEY, "");
+    this.expectedRecordCount = this.hiveUnits.size();
 
-    this.hiveUnits = Lists.newArrayList(hiveUnit);
     this.hiveAvroSchemaProvider =
         GobblinConstructorUtils.invokeConstructor(HiveAvroSchemaProvider.class,
             state.getProp(OPTIONAL_HIVE_AVRO_SCHEMA_PROVIDER_CLASS_KEY, DEFAULT_HIVE_AVRO_SCHEMA_PROVIDER_CLASS), fs);
@@ -82,12 +107,29 @@ public class HiveConvertExtractor implements Extractor<Schema, QueryBasedHiveCon
       return null;
     }
     HiveRegistrationUnit hiveUnit = this.hiveUnits.remove(0);
-    return new QueryBasedHiveConversionEntity(hiveUnit, this.hiveAvroSchemaProvider.getSchema(hiveUnit));
+    return new QueryBasedHiveConversionEntity(hiveUnit, this.hiveAvroSchemaProvider.getSchema(hiveUnit),
+        this.completeNames.remove(0), getPartitionSpec(hiveUnit));
+  }
+
+  private Optional<Map<String, String>> getPartitionSpec(HiveRegistrationUnit hiveUnit) {
+    if (!(hiveUnit instanceof HivePartition) || this.partitionKeys.isEmpty()) {
+      return Optional.absent();
+    }
+    List<String> values = ((HivePartition) hiveUnit).getValues();
+    if (values.size() != this.partitionKeys.size()) {
+      return Optional.absent();
+    }
+    Map<String, String> partitionSpec = Maps.newLinkedHashMap();
+    Iterator<String> valueIterator = values.iterator();
+    for (String partitionKey : this.partitionKeys) {
+      partitionSpec.put(partitionKey, valueIterator.next());
+    }
+    return Optional.of(partitionSpec);
   }
 
   @Override
   public long getExpectedRecordCount() {
-    return 1;
+    return this.expectedRecordCount;
   }
 
   /**
@@ -13,7 +13,13 @@ package gobblin.data.management.convertion.hive;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
+import lombok.extern.slf4j.Slf4j;
+
+import com.google.common.collect.ImmutableList;
+
+import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
 import gobblin.configuration.WorkUnitState;
 import gobblin.configuration.WorkUnitState.WorkingState;
@@ -23,7 +29,14 @@ import gobblin.source.extractor.extract.LongWatermark;
 
 /**
  * A simple {@link DataPublisher} updates the watermark and working state
+ *
+ * <p>
+ * The watermark of a workunit is only committed if all the tables or partitions of the workunit were converted, as
+ * reported by the {@link HiveQueryExecutionWriter} at {@link HiveQueryExecutionWriter#CONVERTED_UNITS_KEY}. The
+ * watermark of other workunits is backed off to their low watermark, so they are converted again by the next run.
+ * </p>
  */
+@Slf4j
 public class HiveConvertPublisher extends DataPublisher {
   public HiveConvertPublisher(State state) {
     super(state);
@@ -35,10 +48,38 @@ public class HiveConvertPublisher extends DataPublisher {
   @Override
   public void publishData(Collection<? extends WorkUnitState> states) throws IOException {
     for (WorkUnitState wus : states) {
-      wus.setWorkingState(WorkingState.COMMITTED);
-      wus.setActualHighWatermark(
-          TableLevelWatermarker.GSON.fromJson(wus.getWorkunit().getExpectedHighWatermark(), LongWatermark.class));
+      if (isConverted(wus)) {
+        wus.setWorkingState(WorkingState.COMMITTED);
+        wus.setActualHighWatermark(
+            TableLevelWatermarker.GSON.fromJson(wus.getWorkunit().getExpectedHighWatermark(), LongWatermark.class));
+      } else {
+        log.warn(String.format("Not committing watermark of %s as not all its units were converted",
+            wus.getProp(ConfigurationKeys.DATASET_URN_KEY)));
+        wus.backoffActualHighWatermark();
+      }
+    }
+  }
+
+  /**
+   * Whether all the tables or partitions of a workunit were converted. If the writer did not report the converted
+   * units, the workunit is converted if its task succeeded.
+   */
+  private static boolean isConverted(WorkUnitState wus) {
+    if (!wus.contains(HiveQueryExecutionWriter.CONVERTED_UNITS_KEY)) {
+      return wus.getWorkingState() == WorkingState.SUCCESSFUL;
+    }
+
+    List<String> convertedUnits = HiveSource.GENERICS_AWARE_GSON.fromJson(
+        wus.getProp(HiveQueryExecutionWriter.CONVERTED_UNITS_KEY), HiveSource.STRING_LIST_TYPE);
+    List<String> expectedUnits;
+    if (wus.contains(HiveSource.PARTITION_COMPLETE_NAMES_KEY)) {
+      expectedUnits = HiveSource.GENERICS_AWARE_GSON.fromJson(wus.getProp(HiveSource.PARTITION_COMPLETE_NAMES_KEY),
+          HiveSource.STRING_LIST_TYPE);
+    } else {
+      expectedUnits = ImmutableList.of(wus.getProp(HiveSource.PARTITION_COMPLETE_NAME_KEY,
+          wus.getProp(ConfigurationKeys.DATASET_URN_KEY)));
     }
+    return convertedUnits.containsAll(expectedUnits);
   }
 
   @Override
@@ -13,33 +13,138 @@ package gobblin.data.management.convertion.hive;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
-import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import gobblin.configuration.State;
 import gobblin.hive.util.HiveJdbcConnector;
+import gobblin.state.ConstructState;
+import gobblin.util.FinalState;
 import gobblin.writer.DataWriter;
 
 /**
  * The {@link HiveQueryExecutionWriter} is responsible for running the hive query available at
  * {@link QueryBasedHiveConversionEntity#getConversionQuery()}
+ *
+ * <p>
+ * If queries are coalesced, the {@link QueryBasedHiveConversionEntity}s are buffered until {@link #commit()}, and the
+ * multi-insert queries with the same source table are run as a single query, i.e., a single Hive job. If the
+ * coalesced query fails, the query of each {@link QueryBasedHiveConversionEntity} is run separately, so that the
+ * entities that can be converted still are. The complete names of the converted entities are reported in the final
+ * state at {@value #CONVERTED_UNITS_KEY}, so that the {@link HiveConvertPublisher} only commits fully converted
+ * workunits.
+ * </p>
  */
-@AllArgsConstructor
-public class HiveQueryExecutionWriter implements DataWriter<QueryBasedHiveConversionEntity> {
+@Slf4j
+public class HiveQueryExecutionWriter implements DataWriter<QueryBasedHiveConversionEntity>, FinalState {
+
+  /** Serialized json list of the complete names of the converted tables or partitions */
+  public static final String CONVERTED_UNITS_KEY = "hive.conversion.convertedUnits";
 
   private final HiveJdbcConnector hiveJdbcConnector;
+  private final boolean coalesceQueries;
+  private final List<QueryBasedHiveConversionEntity> pendingEntities = Lists.newArrayList();
+  private final List<String> convertedUnits = Lists.newArrayList();
+
+  public HiveQueryExecutionWriter(HiveJdbcConnector hiveJdbcConnector) {
+    this(hiveJdbcConnector, false);
+  }
+
+  public HiveQueryExecutionWriter(HiveJdbcConnector hiveJdbcConnector, boolean coalesceQueries) {
+    this.hiveJdbcConnector = hiveJdbcConnector;
+    this.coalesceQueries = coalesceQueries;
+  }
 
   @Override
   public void write(QueryBasedHiveConversionEntity hiveConversionEntity) throws IOException {
 
+    if (this.coalesceQueries) {
+      this.pendingEntities.add(hiveConversionEntity);
+      return;
+    }
+
     try {
-      this.hiveJdbcConnector.executeStatements(hiveConversionEntity.getConversionQuery());
+      execute(hiveConversionEntity);
     } catch (SQLException e) {
       throw new IOException(e);
     }
   }
 
   @Override
-  public void commit() throws IOException {}
+  public void commit() throws IOException {
+    Map<String, List<QueryBasedHiveConversionEntity>> entitiesBySource = Maps.newLinkedHashMap();
+    List<QueryBasedHiveConversionEntity> singleEntities = Lists.newArrayList();
+    for (QueryBasedHiveConversionEntity entity : this.pendingEntities) {
+      if (entity.getMultiInsertSource().isPresent()) {
+        String source = entity.getMultiInsertSource().get();
+        if (!entitiesBySource.containsKey(source)) {
+          entitiesBySource.put(source, Lists.<QueryBasedHiveConversionEntity> newArrayList());
+        }
+        entitiesBySource.get(source).add(entity);
+      } else {
+        singleEntities.add(entity);
+      }
+    }
+    this.pendingEntities.clear();
+
+    List<String> failedUnits = Lists.newArrayList();
+    for (Map.Entry<String, List<QueryBasedHiveConversionEntity>> entry : entitiesBySource.entrySet()) {
+      if (entry.getValue().size() == 1) {
+        singleEntities.addAll(entry.getValue());
+        continue;
+      }
+
+      List<String> insertClauses = Lists.newArrayList();
+      for (QueryBasedHiveConversionEntity entity : entry.getValue()) {
+        insertClauses.add(entity.getInsertClause().get());
+      }
+      String query = "FROM " + entry.getKey() + " " + Joiner.on(" ").join(insertClauses);
+      log.info(String.format("Coalesced conversion query of %d units: %s", entry.getValue().size(), query));
+      try {
+        this.hiveJdbcConnector.executeStatements(query);
+        for (QueryBasedHiveConversionEntity entity : entry.getValue()) {
+          this.convertedUnits.add(entity.getCompleteName());
+        }
+      } catch (SQLException e) {
+        log.warn(String.format("Coalesced conversion query from %s failed. Will convert each unit separately",
+            entry.getKey()), e);
+        singleEntities.addAll(entry.getValue());
+      }
+    }
+
+    for (QueryBasedHiveConversionEntity entity : singleEntities) {
+      try {
+        execute(entity);
+      } catch (SQLException e) {
+        log.error("Failed to convert " + entity.getCompleteName(), e);
+        failedUnits.add(entity.getCompleteName());
+      }
+    }
+
+    if (!failedUnits.isEmpty()) {
+      throw new IOException("Failed to convert " + failedUnits);
+    }
+  }
+
+  private void execute(QueryBasedHiveConversionEntity entity) throws SQLException {
+    this.hiveJdbcConnector.executeStatements(entity.getConversionQuery());
+    this.convertedUnits.add(entity.getCompleteName());
+  }
+
+  @Override
+  public State getFinalState() {
+    ConstructState state = new ConstructState();
+    state.addOverwriteProperties(ImmutableMap.of(CONVERTED_UNITS_KEY,
+        HiveSource.GENERICS_AWARE_GSON.toJson(this.convertedUnits, HiveSource.STRING_LIST_TYPE)));
+    return state;
+  }
 
   @Override
   public void close() throws IOException {
@@ -51,7 +156,7 @@ public class HiveQueryExecutionWriter implements DataWriter<QueryBasedHiveConver
 
   @Override
   public long recordsWritten() {
-    return 0;
+    return this.convertedUnits.size();
   }
 
   @Override
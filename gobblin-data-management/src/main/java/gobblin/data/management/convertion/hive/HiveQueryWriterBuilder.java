@@ -16,6 +16,7 @@ import java.sql.SQLException;
 
 import org.apache.avro.Schema;
 
+import gobblin.configuration.State;
 import gobblin.hive.util.HiveJdbcConnector;
 import gobblin.writer.DataWriter;
 import gobblin.writer.DataWriterBuilder;
@@ -25,10 +26,19 @@ import gobblin.writer.DataWriterBuilder;
  */
 public class HiveQueryWriterBuilder extends DataWriterBuilder<Schema, QueryBasedHiveConversionEntity>{
 
+  /**
+   * Whether the conversion queries of the same source table in a workunit are coalesced into a single query. Disabled
+   * by default, since coalesced queries are only run when the writer is committed instead of as each unit is written.
+   */
+  public static final String COALESCE_QUERIES_KEY = "hive.conversion.coalesceQueries";
+  public static final boolean DEFAULT_COALESCE_QUERIES = false;
+
   @Override
   public DataWriter<QueryBasedHiveConversionEntity> build() throws IOException {
     try {
-      return new HiveQueryExecutionWriter(HiveJdbcConnector.newConnectorWithProps(this.destination.getProperties().getProperties()));
+      State properties = this.destination.getProperties();
+      return new HiveQueryExecutionWriter(HiveJdbcConnector.newConnectorWithProps(properties.getProperties()),
+          properties.getPropAsBoolean(COALESCE_QUERIES_KEY, DEFAULT_COALESCE_QUERIES));
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
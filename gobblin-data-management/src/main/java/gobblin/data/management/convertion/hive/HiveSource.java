@@ -12,19 +12,32 @@
 package gobblin.data.management.convertion.hive;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.ql.metadata.Partition;
 import org.apache.hadoop.hive.ql.metadata.Table;
 import org.joda.time.DateTime;
 
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.SourceState;
@@ -32,6 +45,7 @@ import gobblin.configuration.WorkUnitState;
 import gobblin.data.management.copy.hive.HiveDataset;
 import gobblin.data.management.copy.hive.HiveDatasetFinder;
 import gobblin.data.management.copy.hive.HiveUtils;
+import gobblin.data.management.copy.hive.PartitionFilterGenerator;
 import gobblin.dataset.IterableDatasetFinder;
 import gobblin.hive.HivePartition;
 import gobblin.hive.HiveTable;
@@ -41,7 +55,10 @@ import gobblin.source.extractor.Extractor;
 import gobblin.source.extractor.WatermarkInterval;
 import gobblin.source.extractor.extract.LongWatermark;
 import gobblin.source.workunit.WorkUnit;
+import gobblin.util.AutoReturnableObject;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.HadoopUtils;
+import gobblin.util.executors.IteratorExecutor;
 import gobblin.util.io.GsonInterfaceAdapter;
 import gobblin.util.reflection.GobblinConstructorUtils;
 
@@ -55,6 +72,10 @@ import gobblin.util.reflection.GobblinConstructorUtils;
  *  <li>The update time of a hive {@link Table} or a hive {@link Partition} if found using {@link HiveUnitUpdateProvider}
  *  <li>The update time from the previous run is used as previous hive watermark.{@link HiveSourceWatermarker} is
  *  used to get previous hive watermarks
+ *  <li>Partitions can be pruned by the metastore using a filter set at {@value #PARTITION_FILTER_CONSTANT_KEY} or
+ *  generated by a {@link PartitionFilterGenerator} set at {@value #PARTITION_FILTER_GENERATOR_KEY}
+ *  <li>Tables are processed concurrently by {@value #DISCOVERY_THREADS_KEY} threads
+ *  <li>Up to {@value #PARTITIONS_PER_WORKUNIT_KEY} partitions of a table are converted by the same workunit
  * </ul>
  *
  *{@link WorkUnit}s are created if the previous high watermark of a {@link Partition}
@@ -78,6 +99,29 @@ public class HiveSource implements Source {
 
   public static final String HIVE_UNIT_SERIALIZED_KEY = "hive.unit.serialized";
   public static final String PARTITION_COMPLETE_NAME_KEY = "hive.partition.completeName";
+  /** Serialized json list of the {@link HivePartition}s of a workunit converting several partitions of a table */
+  public static final String HIVE_UNITS_SERIALIZED_KEY = "hive.units.serialized";
+  /** Serialized json list of the complete names of the partitions at {@value #HIVE_UNITS_SERIALIZED_KEY} */
+  public static final String PARTITION_COMPLETE_NAMES_KEY = "hive.partition.completeNames";
+  /** Comma separated names of the partition keys of the table of a partition workunit */
+  public static final String PARTITION_KEYS_KEY = "hive.table.partitionKeys";
+
+  public static final Type HIVE_PARTITION_LIST_TYPE = new TypeToken<List<HivePartition>>() {}.getType();
+  public static final Type STRING_LIST_TYPE = new TypeToken<List<String>>() {}.getType();
+
+  /** Number of tables whose partitions are discovered concurrently. The {@link HiveUnitUpdateProvider} must be
+   * thread-safe if more than 1. */
+  public static final String DISCOVERY_THREADS_KEY = "hive.source.discovery.threads";
+  public static final int DEFAULT_DISCOVERY_THREADS = 1;
+  /** A filter to select the partitions to convert, evaluated by the metastore */
+  public static final String PARTITION_FILTER_CONSTANT_KEY = "hive.source.partition.filter.constant";
+  /** Use an implementation of {@link PartitionFilterGenerator} to dynamically create the partition filter of each
+   * table. The value should be the name of the implementation to use. */
+  public static final String PARTITION_FILTER_GENERATOR_KEY = "hive.source.partition.filter.generator";
+  /** Maximum number of partitions of a table converted by a single workunit, so their conversion queries can be
+   * coalesced by the {@link HiveQueryExecutionWriter} */
+  public static final String PARTITIONS_PER_WORKUNIT_KEY = "hive.source.partitions.per.workunit";
+  public static final int DEFAULT_PARTITIONS_PER_WORKUNIT = 1;
 
   @Override
   public List<WorkUnit> getWorkunits(SourceState state) {
@@ -86,72 +130,172 @@ public class HiveSource implements Source {
     try {
 
       // Initialize
-      HiveSourceWatermarker watermaker = new TableLevelWatermarker(state);
+      final HiveSourceWatermarker watermaker = new TableLevelWatermarker(state);
       HiveUnitUpdateProviderFactory updateProviderFactory =
           GobblinConstructorUtils.invokeConstructor(HiveUnitUpdateProviderFactory.class, state.getProp(
               OPTIONAL_HIVE_UNIT_UPDATE_PROVIDER_FACTORY_CLASS_KEY, DEFAULT_HIVE_UNIT_UPDATE_PROVIDER_FACTORY_CLASS));
-      HiveUnitUpdateProvider updateProvider = updateProviderFactory.create(state);
+      final HiveUnitUpdateProvider updateProvider = updateProviderFactory.create(state);
+      final Optional<PartitionFilterGenerator> partitionFilterGenerator = getPartitionFilterGenerator(state);
+      final Optional<String> partitionFilter = Optional.fromNullable(state.getProp(PARTITION_FILTER_CONSTANT_KEY));
+      final int partitionsPerWorkunit =
+          state.getPropAsInt(PARTITIONS_PER_WORKUNIT_KEY, DEFAULT_PARTITIONS_PER_WORKUNIT);
       IterableDatasetFinder<HiveDataset> datasetFinder = new HiveDatasetFinder(getSourceFs(), state.getProperties());
 
       // Find hive tables
-      Iterator<HiveDataset> iterator = datasetFinder.getDatasetsIterator();
-
-      while (iterator.hasNext()) {
-        HiveDataset hiveDataset = iterator.next();
-        LongWatermark expectedDatasetHighWatermark = new LongWatermark(new DateTime().getMillis());
-
-        // Create workunits for partitions
-        if (HiveUtils.isPartitioned(hiveDataset.getTable())) {
-          List<Partition> sourcePartitions = HiveUtils.getPartitions(hiveDataset.getClientPool().getClient().get(),
-              hiveDataset.getTable(), Optional.<String> absent());
-
-          for (Partition sourcePartition : sourcePartitions) {
-            LongWatermark lowWatermark = watermaker.getPreviousHighWatermark(sourcePartition);
-            long updateTime = updateProvider.getUpdateTime(sourcePartition);
-            if (Long.compare(updateTime, lowWatermark.getValue()) > 0) {
-
-              HivePartition hivePartition = HiveMetaStoreUtils.getHivePartition(sourcePartition.getTPartition());
-              WorkUnit workUnit = WorkUnit.createEmpty();
-
-              workUnit.setProp(HIVE_UNIT_SERIALIZED_KEY,
-                  GENERICS_AWARE_GSON.toJson(hivePartition, HivePartition.class));
-              workUnit.setWatermarkInterval(new WatermarkInterval(lowWatermark, expectedDatasetHighWatermark));
-              workUnit.setProp(PARTITION_COMPLETE_NAME_KEY, sourcePartition.getCompleteName());
-              workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, hiveDataset.getTable().getCompleteName());
-              workunits.add(workUnit);
-            } else {
-              // If watermark tracking at a partition level is necessary, create a dummy workunit for this partition here.
-              log.info(String.format(
-                  "Not creating workunit for partition %s as updateTime %s is lesser than low watermark %s",
-                  sourcePartition.getCompleteName(), updateTime, lowWatermark.getValue()));
+      Iterator<Callable<List<WorkUnit>>> callableIterator = Iterators.transform(datasetFinder.getDatasetsIterator(),
+          new Function<HiveDataset, Callable<List<WorkUnit>>>() {
+            @Override
+            public Callable<List<WorkUnit>> apply(final HiveDataset hiveDataset) {
+              return new Callable<List<WorkUnit>>() {
+                @Override
+                public List<WorkUnit> call() throws Exception {
+                  return createWorkunits(hiveDataset, watermaker, updateProvider, partitionFilterGenerator.isPresent()
+                      ? Optional.of(partitionFilterGenerator.get().getFilter(hiveDataset)) : partitionFilter,
+                      partitionsPerWorkunit);
+                }
+              };
             }
-          }
+          });
+
+      List<Future<List<WorkUnit>>> futures = new IteratorExecutor<>(callableIterator,
+          state.getPropAsInt(DISCOVERY_THREADS_KEY, DEFAULT_DISCOVERY_THREADS),
+          ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("HiveSourceDiscovery-%d"))).execute();
+
+      for (Future<List<WorkUnit>> future : futures) {
+        workunits.addAll(future.get());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while creating workunits", e);
+    }
+
+    return workunits;
+  }
+
+  /**
+   * Create the workunits of a {@link HiveDataset}, one per {@link Partition} that was updated since the previous run
+   * if the {@link Table} is partitioned, or one for the {@link Table} if it was updated since the previous run.
+   * Updated {@link Partition}s are grouped into workunits of up to <code>partitionsPerWorkunit</code> partitions.
+   */
+  private static List<WorkUnit> createWorkunits(HiveDataset hiveDataset, HiveSourceWatermarker watermaker,
+      HiveUnitUpdateProvider updateProvider, Optional<String> partitionFilter, int partitionsPerWorkunit)
+      throws IOException {
+
+    List<WorkUnit> workunits = Lists.newArrayList();
+    LongWatermark expectedDatasetHighWatermark = new LongWatermark(new DateTime().getMillis());
+
+    // Create workunits for partitions
+    if (HiveUtils.isPartitioned(hiveDataset.getTable())) {
+      List<Partition> sourcePartitions;
+      try (AutoReturnableObject<IMetaStoreClient> client = hiveDataset.getClientPool().getClient()) {
+        sourcePartitions = HiveUtils.getPartitions(client.get(), hiveDataset.getTable(), partitionFilter);
+      }
+
+      Map<String, Long> updateTimes = updateProvider instanceof BatchHiveUnitUpdateProvider
+          ? ((BatchHiveUnitUpdateProvider) updateProvider).getUpdateTimes(sourcePartitions)
+          : Collections.<String, Long> emptyMap();
+
+      List<Partition> updatedPartitions = Lists.newArrayList();
+      Map<String, LongWatermark> lowWatermarks = Maps.newHashMap();
+      for (Partition sourcePartition : sourcePartitions) {
+        LongWatermark lowWatermark = watermaker.getPreviousHighWatermark(sourcePartition);
+        Long updateTime = updateTimes.get(sourcePartition.getCompleteName());
+        if (updateTime == null) {
+          updateTime = updateProvider.getUpdateTime(sourcePartition);
+        }
+        if (Long.compare(updateTime, lowWatermark.getValue()) > 0) {
+          updatedPartitions.add(sourcePartition);
+          lowWatermarks.put(sourcePartition.getCompleteName(), lowWatermark);
         } else {
+          // If watermark tracking at a partition level is necessary, create a dummy workunit for this partition here.
+          log.info(String.format(
+              "Not creating workunit for partition %s as updateTime %s is lesser than low watermark %s",
+              sourcePartition.getCompleteName(), updateTime, lowWatermark.getValue()));
+        }
+      }
+
+      String partitionKeys = Joiner.on(",").join(Lists.transform(hiveDataset.getTable().getPartitionKeys(),
+          new Function<FieldSchema, String>() {
+            @Override
+            public String apply(FieldSchema partitionKey) {
+              return partitionKey.getName();
+            }
+          }));
 
-          // Create workunits for tables
-          long updateTime = updateProvider.getUpdateTime(hiveDataset.getTable());
-          LongWatermark lowWatermark = watermaker.getPreviousHighWatermark(hiveDataset.getTable());
-          if (Long.compare(updateTime, lowWatermark.getValue()) > 0) {
-            HiveTable hiveTable = HiveMetaStoreUtils.getHiveTable(hiveDataset.getTable().getTTable());
-            WorkUnit workUnit = WorkUnit.createEmpty();
-            workUnit.setProp(HIVE_UNIT_SERIALIZED_KEY, GENERICS_AWARE_GSON.toJson(hiveTable, HiveTable.class));
-            workUnit.setWatermarkInterval(new WatermarkInterval(lowWatermark, expectedDatasetHighWatermark));
-            workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, hiveDataset.getTable().getCompleteName());
-            workunits.add(workUnit);
-          } else {
-            log.info(
-                String.format("Not creating workunit for table %s as updateTime %s is lesser than low watermark %s",
-                    hiveDataset.getTable().getCompleteName(), updateTime, lowWatermark.getValue()));
+      for (List<Partition> partitions : Lists.partition(updatedPartitions, Math.max(1, partitionsPerWorkunit))) {
+        WorkUnit workUnit = WorkUnit.createEmpty();
+        LongWatermark lowWatermark = null;
+        for (Partition sourcePartition : partitions) {
+          LongWatermark partitionLowWatermark = lowWatermarks.get(sourcePartition.getCompleteName());
+          if (lowWatermark == null || partitionLowWatermark.compareTo(lowWatermark) < 0) {
+            lowWatermark = partitionLowWatermark;
           }
         }
+
+        if (partitions.size() == 1) {
+          Partition sourcePartition = partitions.get(0);
+          HivePartition hivePartition = HiveMetaStoreUtils.getHivePartition(sourcePartition.getTPartition());
+          workUnit.setProp(HIVE_UNIT_SERIALIZED_KEY,
+              GENERICS_AWARE_GSON.toJson(hivePartition, HivePartition.class));
+          workUnit.setProp(PARTITION_COMPLETE_NAME_KEY, sourcePartition.getCompleteName());
+        } else {
+          List<HivePartition> hivePartitions = Lists.newArrayListWithCapacity(partitions.size());
+          List<String> completeNames = Lists.newArrayListWithCapacity(partitions.size());
+          for (Partition sourcePartition : partitions) {
+            hivePartitions.add(HiveMetaStoreUtils.getHivePartition(sourcePartition.getTPartition()));
+            completeNames.add(sourcePartition.getCompleteName());
+          }
+          workUnit.setProp(HIVE_UNITS_SERIALIZED_KEY,
+              GENERICS_AWARE_GSON.toJson(hivePartitions, HIVE_PARTITION_LIST_TYPE));
+          workUnit.setProp(PARTITION_COMPLETE_NAMES_KEY, GENERICS_AWARE_GSON.toJson(completeNames, STRING_LIST_TYPE));
+        }
+
+        workUnit.setWatermarkInterval(new WatermarkInterval(lowWatermark, expectedDatasetHighWatermark));
+        workUnit.setProp(PARTITION_KEYS_KEY, partitionKeys);
+        workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, hiveDataset.getTable().getCompleteName());
+        workunits.add(workUnit);
+      }
+    } else {
+
+      // Create workunits for tables
+      long updateTime = updateProvider.getUpdateTime(hiveDataset.getTable());
+      LongWatermark lowWatermark = watermaker.getPreviousHighWatermark(hiveDataset.getTable());
+      if (Long.compare(updateTime, lowWatermark.getValue()) > 0) {
+        HiveTable hiveTable = HiveMetaStoreUtils.getHiveTable(hiveDataset.getTable().getTTable());
+        WorkUnit workUnit = WorkUnit.createEmpty();
+        workUnit.setProp(HIVE_UNIT_SERIALIZED_KEY, GENERICS_AWARE_GSON.toJson(hiveTable, HiveTable.class));
+        workUnit.setWatermarkInterval(new WatermarkInterval(lowWatermark, expectedDatasetHighWatermark));
+        workUnit.setProp(ConfigurationKeys.DATASET_URN_KEY, hiveDataset.getTable().getCompleteName());
+        workunits.add(workUnit);
+      } else {
+        log.info(
+            String.format("Not creating workunit for table %s as updateTime %s is lesser than low watermark %s",
+                hiveDataset.getTable().getCompleteName(), updateTime, lowWatermark.getValue()));
       }
-    } catch (IOException e) {
-      throw new RuntimeException(e);
     }
 
     return workunits;
   }
 
+  @SuppressWarnings("unchecked")
+  private static Optional<PartitionFilterGenerator> getPartitionFilterGenerator(SourceState state)
+      throws IOException {
+    if (!state.contains(PARTITION_FILTER_GENERATOR_KEY)) {
+      return Optional.absent();
+    }
+    try {
+      return Optional.of(GobblinConstructorUtils.invokeFirstConstructor(
+          (Class<PartitionFilterGenerator>) Class.forName(state.getProp(PARTITION_FILTER_GENERATOR_KEY)),
+          Lists.<Object> newArrayList(state.getProperties()), Lists.newArrayList()));
+    } catch (ReflectiveOperationException roe) {
+      throw new IOException(roe);
+    }
+  }
+
   @Override
   public Extractor getExtractor(WorkUnitState state) throws IOException {
     return new HiveConvertExtractor(state, getSourceFs());
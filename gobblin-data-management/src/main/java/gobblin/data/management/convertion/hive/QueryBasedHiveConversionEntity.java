@@ -11,10 +11,14 @@
  */
 package gobblin.data.management.convertion.hive;
 
+import java.util.Map;
+
 import lombok.Getter;
 
 import org.apache.avro.Schema;
 
+import com.google.common.base.Optional;
+
 import gobblin.converter.Converter;
 import gobblin.hive.HivePartition;
 import gobblin.hive.HiveRegistrationUnit;
@@ -35,12 +39,26 @@ import gobblin.source.extractor.Extractor;
  *  {@link QueryBasedHiveConversionEntity#hiveUnitSchema}.
  *  <li> The {@link HiveQueryExecutionWriter} executes the hive query at {@link QueryBasedHiveConversionEntity#getConversionQuery()}
  * </ul>
+ *
+ * <p>
+ * A conversion query can be set as a multi-insert query, i.e., a source table and an insert clause, using
+ * {@link #setMultiInsertQuery(String, String)}. The insert clauses of {@link QueryBasedHiveConversionEntity}s with the
+ * same source table can then be coalesced into a single query by the {@link HiveQueryExecutionWriter}.
+ * </p>
  */
 public class QueryBasedHiveConversionEntity {
 
   public QueryBasedHiveConversionEntity(HiveRegistrationUnit hiveUnit, Schema hiveUnitSchema) {
+    this(hiveUnit, hiveUnitSchema, hiveUnit.getDbName() + "@" + hiveUnit.getTableName(),
+        Optional.<Map<String, String>> absent());
+  }
+
+  public QueryBasedHiveConversionEntity(HiveRegistrationUnit hiveUnit, Schema hiveUnitSchema, String completeName,
+      Optional<Map<String, String>> partitionSpec) {
     this.hiveUnit = hiveUnit;
     this.hiveUnitSchema = hiveUnitSchema;
+    this.completeName = completeName;
+    this.partitionSpec = partitionSpec;
     this.query = new StringBuilder();
   }
 
@@ -61,6 +79,30 @@ public class QueryBasedHiveConversionEntity {
   @Getter
   private Schema hiveUnitSchema;
 
+  /**
+   * Complete name of the {@link HiveTable} or {@link HivePartition}, e.g., db@table@key=value
+   */
+  @Getter
+  private String completeName;
+
+  /**
+   * Ordered map from partition keys to values of the {@link HivePartition}, absent for a {@link HiveTable}
+   */
+  @Getter
+  private Optional<Map<String, String>> partitionSpec;
+
+  /**
+   * Source table of the conversion query if it is a multi-insert query
+   */
+  @Getter
+  private Optional<String> multiInsertSource = Optional.absent();
+
+  /**
+   * Insert clause of the conversion query if it is a multi-insert query
+   */
+  @Getter
+  private Optional<String> insertClause = Optional.absent();
+
   /**
    * Append <code>query</code> to the end of existing query
    * @return the instance with query appended
@@ -70,6 +112,18 @@ public class QueryBasedHiveConversionEntity {
     return this;
   }
 
+  /**
+   * Set the conversion query to the multi-insert query <code>FROM source insertClause</code>, replacing any existing
+   * query
+   * @return the instance with query set
+   */
+  public QueryBasedHiveConversionEntity setMultiInsertQuery(String source, String insertClause) {
+    this.multiInsertSource = Optional.of(source);
+    this.insertClause = Optional.of(insertClause);
+    this.query = new StringBuilder("FROM ").append(source).append(" ").append(insertClause);
+    return this;
+  }
+
   /**
    * Get the final constructed hive query for conversion
    */
@@ -58,6 +58,7 @@ import gobblin.source.workunit.Extract;
 import gobblin.source.workunit.WorkUnit;
 import gobblin.util.ExecutorsUtils;
 import gobblin.util.HadoopUtils;
+import gobblin.util.SnapshotFileSystem;
 import gobblin.util.WriterUtils;
 import gobblin.util.binpacking.FieldWeighter;
 import gobblin.source.workunit.WorkUnitWeighter;
@@ -118,7 +119,8 @@ public class CopySource extends AbstractSource<String, FileAwareInputStream> {
 
     try {
 
-      final FileSystem sourceFs = getSourceFileSystem(state);
+      final FileSystem sourceFs =
+          SnapshotFileSystem.getOptionallySnapshottedFileSystem(getSourceFileSystem(state), state.getProperties());
       final FileSystem targetFs = getTargetFileSystem(state);
       long maxSizePerBin = state.getPropAsLong(MAX_SIZE_MULTI_WORKUNITS, 0);
       long maxWorkUnitsPerMultiWorkUnit = state.getPropAsLong(MAX_WORK_UNITS_PER_BIN, 50);
@@ -256,23 +256,33 @@ public class CopyableFile extends CopyEntity implements File {
   public static OwnerAndPermission resolveReplicatedOwnerAndPermission(FileSystem fs, Path path,
       CopyConfiguration copyConfiguration) throws IOException {
 
-    PreserveAttributes preserve = copyConfiguration.getPreserve();
     Optional<FileStatus> originFileStatus = copyConfiguration.getCopyContext().getFileStatus(fs, path);
 
     if (!originFileStatus.isPresent()) {
       throw new IOException(String.format("Origin path %s does not exist.", originFileStatus));
     }
 
+    return resolveReplicatedOwnerAndPermission(originFileStatus.get(), copyConfiguration);
+  }
+
+  /**
+   * Computes the correct {@link OwnerAndPermission} for an already fetched origin {@link FileStatus}.
+   */
+  private static OwnerAndPermission resolveReplicatedOwnerAndPermission(FileStatus originFileStatus,
+      CopyConfiguration copyConfiguration) {
+
+    PreserveAttributes preserve = copyConfiguration.getPreserve();
+
     String group = null;
     if (copyConfiguration.getTargetGroup().isPresent()) {
       group = copyConfiguration.getTargetGroup().get();
     } else if (preserve.preserve(Option.GROUP)) {
-      group = originFileStatus.get().getGroup();
+      group = originFileStatus.getGroup();
     }
 
     return new OwnerAndPermission(
-        preserve.preserve(Option.OWNER) ? originFileStatus.get().getOwner() : null, group,
-        preserve.preserve(Option.PERMISSION) ? originFileStatus.get().getPermission() : null);
+        preserve.preserve(Option.OWNER) ? originFileStatus.getOwner() : null, group,
+        preserve.preserve(Option.PERMISSION) ? originFileStatus.getPermission() : null);
   }
 
   /**
@@ -300,6 +310,34 @@ public class CopyableFile extends CopyEntity implements File {
     return ownerAndPermissions;
   }
 
+  /**
+   * Same as {@link #resolveReplicatedOwnerAndPermissionsRecursively(FileSystem, Path, Path, CopyConfiguration)}, but
+   * uses the already listed {@link FileStatus} of fromPath. Only the ancestors of fromPath are looked up, through the
+   * {@link CopyContext} of the job, so each ancestor directory is fetched once for all the files below it.
+   */
+  public static List<OwnerAndPermission> resolveReplicatedOwnerAndPermissionsRecursively(FileSystem fs,
+      FileStatus fromStatus, Path toPath, CopyConfiguration copyConfiguration) throws IOException {
+
+    Path fromPath = fromStatus.getPath();
+    if (!PathUtils.isAncestor(toPath, fromPath)) {
+      throw new IOException(String.format("toPath %s must be an ancestor of fromPath %s.", toPath, fromPath));
+    }
+
+    List<OwnerAndPermission> ownerAndPermissions = Lists.newArrayList();
+    if (!PathUtils.isAncestor(toPath, fromPath.getParent())) {
+      return ownerAndPermissions;
+    }
+    ownerAndPermissions.add(resolveReplicatedOwnerAndPermission(fromStatus, copyConfiguration));
+
+    Path currentPath = fromPath.getParent();
+    while (PathUtils.isAncestor(toPath, currentPath.getParent())) {
+      ownerAndPermissions.add(resolveReplicatedOwnerAndPermission(fs, currentPath, copyConfiguration));
+      currentPath = currentPath.getParent();
+    }
+
+    return ownerAndPermissions;
+  }
+
   @Override
   public FileStatus getFileStatus() {
     return this.origin;
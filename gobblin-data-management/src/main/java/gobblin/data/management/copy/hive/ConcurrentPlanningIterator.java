@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.data.management.copy.hive;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Queues;
+
+import gobblin.util.ExecutorsUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * An {@link Iterator} over the results of a sequence of planning {@link Callable}s, which runs up to a given number
+ * of the {@link Callable}s ahead of the consumer on an {@link ExecutorService}. Results are returned in the order of
+ * the {@link Callable}s regardless of the order in which they complete.
+ *
+ * <p>
+ *   If a {@link Callable} fails, {@link #next()} throws a {@link RuntimeException} caused by its failure when its
+ *   result is reached, the {@link Callable}s planned ahead of it are cancelled, and no further result is returned.
+ *   The {@link ExecutorService} is shut down once all results have been returned or a {@link Callable} has failed.
+ * </p>
+ *
+ * @param <T> type of the planned results
+ */
+@Slf4j
+class ConcurrentPlanningIterator<T> implements Iterator<T> {
+
+  private final Iterator<Callable<T>> plans;
+  private final ExecutorService executor;
+  private final int prefetch;
+  private final Deque<Future<T>> pending = Queues.newArrayDeque();
+  private boolean failed = false;
+
+  /**
+   * @param plans {@link Callable}s computing the results, in the order the results are to be returned
+   * @param executor {@link ExecutorService} to run the {@link Callable}s on
+   * @param prefetch maximum number of {@link Callable}s submitted but not yet consumed
+   */
+  ConcurrentPlanningIterator(Iterator<Callable<T>> plans, ExecutorService executor, int prefetch) {
+    Preconditions.checkArgument(prefetch > 0, "Prefetch should be positive");
+    this.plans = plans;
+    this.executor = executor;
+    this.prefetch = prefetch;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !this.failed && (this.plans.hasNext() || !this.pending.isEmpty());
+  }
+
+  /**
+   * Submit {@link Callable}s until {@link #prefetch} of them are pending. This is also done by {@link #next()}.
+   */
+  void prefetch() {
+    while (!this.failed && this.plans.hasNext() && this.pending.size() < this.prefetch) {
+      this.pending.add(this.executor.submit(this.plans.next()));
+    }
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    prefetch();
+    try {
+      T result = this.pending.poll().get();
+      if (!hasNext()) {
+        ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(log));
+      }
+      return result;
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      cancel();
+      throw new RuntimeException("Interrupted while waiting for a planned result", ie);
+    } catch (ExecutionException ee) {
+      cancel();
+      throw new RuntimeException("Failed to compute a planned result", ee.getCause());
+    }
+  }
+
+  /**
+   * @return whether a {@link Callable} has failed, after which no further result is returned
+   */
+  boolean hasFailed() {
+    return this.failed;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  private void cancel() {
+    this.failed = true;
+    for (Future<T> future : this.pending) {
+      future.cancel(true);
+    }
+    this.pending.clear();
+    this.executor.shutdownNow();
+  }
+}
@@ -21,6 +21,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -36,6 +39,7 @@ import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.thrift.TException;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
@@ -67,8 +71,10 @@ import gobblin.hive.spec.HiveSpec;
 import gobblin.hive.spec.SimpleHiveSpec;
 import gobblin.metrics.event.EventSubmitter;
 import gobblin.metrics.event.MultiTimingEvent;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.PathUtils;
 import gobblin.util.commit.DeleteFileCommitStep;
+import gobblin.util.executors.ScalingThreadPoolExecutor;
 import gobblin.util.reflection.GobblinConstructorUtils;
 
 import lombok.Builder;
@@ -148,6 +154,13 @@ public class HiveCopyEntityHelper {
   public static final String DELETE_FILES_ON_DEREGISTER =
       HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.deregister.fileDeleteMethod";
   public static final DeregisterFileDeleteMethod DEFAULT_DEREGISTER_DELETE_METHOD = DeregisterFileDeleteMethod.NO_DELETE;
+  /** Number of partitions whose copy entities are computed concurrently. With 1, partitions are processed serially. */
+  public static final String PARTITION_PLANNING_THREADS_KEY =
+      HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.partition.planning.threads";
+  public static final int DEFAULT_PARTITION_PLANNING_THREADS = 1;
+  /** Maximum number of partitions being planned ahead of the consumer. Defaults to twice the number of threads. */
+  public static final String PARTITION_PLANNING_PREFETCH_KEY =
+      HiveDatasetFinder.HIVE_DATASET_PREFIX + ".copy.partition.planning.prefetch";
 
   private static final String databaseToken = "$DB";
   private static final String tableToken = "$TABLE";
@@ -172,6 +185,8 @@ public class HiveCopyEntityHelper {
     public static final String COMPUTE_DELETE_PATHS = "ComputeDeletePaths";
     public static final String GET_TABLES = "GetTables";
     public static final String COMPUTE_TARGETS = "ComputeTargets";
+    public static final String SUBMIT_PARTITION_COPIES = "SubmitPartitionCopies";
+    public static final String AWAIT_PARTITION_COPY = "AwaitPartitionCopy";
   }
 
   private final long startTime;
@@ -195,6 +210,8 @@ public class HiveCopyEntityHelper {
   private final Optional<Predicate<PartitionCopy>> fastPartitionSkip;
   
   private final DeregisterFileDeleteMethod deleteMethod;
+  private final int partitionPlanningThreads;
+  private final int partitionPlanningPrefetch;
 
   private final Optional<CommitStep> tableRegistrationStep;
   private final Map<List<String>, Partition> sourcePartitions;
@@ -282,6 +299,12 @@ public class HiveCopyEntityHelper {
           ? DeregisterFileDeleteMethod.valueOf(this.dataset.getProperties().getProperty(DELETE_FILES_ON_DEREGISTER).toUpperCase())
           : DEFAULT_DEREGISTER_DELETE_METHOD;
 
+      this.partitionPlanningThreads = Math.max(1, Integer.parseInt(this.dataset.getProperties().getProperty(
+          PARTITION_PLANNING_THREADS_KEY, Integer.toString(DEFAULT_PARTITION_PLANNING_THREADS))));
+      this.partitionPlanningPrefetch = Math.max(this.partitionPlanningThreads, Integer.parseInt(
+          this.dataset.getProperties().getProperty(PARTITION_PLANNING_PREFETCH_KEY,
+              Integer.toString(2 * this.partitionPlanningThreads))));
+
       if (this.dataset.getProperties().containsKey(COPY_PARTITION_FILTER_GENERATOR)) {
         try {
           PartitionFilterGenerator generator = GobblinConstructorUtils.invokeFirstConstructor(
@@ -334,8 +357,10 @@ public class HiveCopyEntityHelper {
         if (HiveUtils.isPartitioned(this.dataset.table)) {
           this.sourcePartitions =
               HiveUtils.getPartitionsMap(multiClient.getClient(source_client), this.dataset.table, this.partitionFilter);
-          this.targetPartitions = this.existingTargetTable.isPresent() ? HiveUtils.getPartitionsMap(multiClient.getClient(target_client),
-              this.existingTargetTable.get(), this.partitionFilter) : Maps.<List<String>, Partition>newHashMap();
+          // Partitions are planned concurrently and remove themselves from this map, so it must be thread safe
+          this.targetPartitions = this.existingTargetTable.isPresent() ? new ConcurrentHashMap<>(HiveUtils.getPartitionsMap(
+              multiClient.getClient(target_client), this.existingTargetTable.get(), this.partitionFilter))
+              : Maps.<List<String>, Partition>newConcurrentMap();
         } else {
           this.sourcePartitions = Maps.newHashMap();
           this.targetPartitions = Maps.newHashMap();
@@ -388,33 +413,59 @@ public class HiveCopyEntityHelper {
   /**
    * An iterator producing a {@link FileSet} of {@link CopyEntity} for each partition in this table. The files
    * are not scanned or the {@link FileSet} materialized until {@link #next} is called.
+   *
+   * <p>
+   *   If {@link #PARTITION_PLANNING_THREADS_KEY} is larger than 1, up to {@link #PARTITION_PLANNING_PREFETCH_KEY}
+   *   partitions are planned ahead on a bounded thread pool, so the source and target listings of upcoming partitions
+   *   overlap with the consumption of the current one. {@link FileSet}s are still returned in partition order.
+   * </p>
    */
   private class PartitionIterator implements Iterator<FileSet<CopyEntity>> {
 
     private final Iterator<Map.Entry<List<String>, Partition>> partitionIterator;
+    private final Optional<ConcurrentPlanningIterator<FileSet<CopyEntity>>> concurrentIterator;
 
     public PartitionIterator(Map<List<String>, Partition> partitionMap) {
       this.partitionIterator = partitionMap.entrySet().iterator();
+      if (partitionPlanningThreads > 1) {
+        ExecutorService executor = ScalingThreadPoolExecutor.newScalingThreadPool(0, partitionPlanningThreads, 100,
+            ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("Hive-partition-copy-%d")));
+        Iterator<Callable<FileSet<CopyEntity>>> plans = Iterators.transform(this.partitionIterator,
+            new Function<Map.Entry<List<String>, Partition>, Callable<FileSet<CopyEntity>>>() {
+              @Override
+              public Callable<FileSet<CopyEntity>> apply(final Map.Entry<List<String>, Partition> partitionEntry) {
+                return new Callable<FileSet<CopyEntity>>() {
+                  @Override
+                  public FileSet<CopyEntity> call() throws Exception {
+                    return getPartitionFileSet(partitionEntry);
+                  }
+                };
+              }
+            });
+        this.concurrentIterator = Optional.of(
+            new ConcurrentPlanningIterator<>(plans, executor, partitionPlanningPrefetch));
+      } else {
+        this.concurrentIterator = Optional.absent();
+      }
     }
 
     @Override
     public boolean hasNext() {
-      return this.partitionIterator.hasNext() || !targetPartitions.isEmpty();
+      if (this.concurrentIterator.isPresent() && this.concurrentIterator.get().hasFailed()) {
+        // Do not deregister target partitions whose source partitions were not planned because of the failure
+        return false;
+      }
+      return hasNextPartition() || !targetPartitions.isEmpty();
     }
 
     @Override
     public FileSet<CopyEntity> next() {
-      if (this.partitionIterator.hasNext()) {
-        Map.Entry<List<String>, Partition> partitionEntry = partitionIterator.next();
-        List<CopyEntity> copyEntities = Lists.newArrayList();
-        try {
-          copyEntities = new PartitionCopy(partitionEntry.getValue(), dataset.properties).getCopyEntities();
-        } catch (IOException ioe) {
-          log.error("Could not generate work units to copy partition " + partitionEntry.getValue().getCompleteName(),
-              ioe);
-        }
-        targetPartitions.remove(partitionEntry.getKey());
-        return new FileSet.Builder<>(partitionEntry.getValue().getCompleteName(), dataset).add(copyEntities).build();
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      } else if (this.concurrentIterator.isPresent() && this.concurrentIterator.get().hasNext()) {
+        return nextConcurrently(this.concurrentIterator.get());
+      } else if (!this.concurrentIterator.isPresent() && this.partitionIterator.hasNext()) {
+        return getPartitionFileSet(this.partitionIterator.next());
       } else if (!targetPartitions.isEmpty()) {
         List<CopyEntity> deregisterCopyEntities = Lists.newArrayList();
         int priority = 1;
@@ -438,6 +489,40 @@ public class HiveCopyEntityHelper {
     public void remove() {
       throw new UnsupportedOperationException();
     }
+
+    private boolean hasNextPartition() {
+      return this.concurrentIterator.isPresent() ? this.concurrentIterator.get().hasNext()
+          : this.partitionIterator.hasNext();
+    }
+
+    private FileSet<CopyEntity> nextConcurrently(ConcurrentPlanningIterator<FileSet<CopyEntity>> iterator) {
+      try (Closer closer = Closer.create()) {
+        MultiTimingEvent multiTimer = closer.register(new MultiTimingEvent(eventSubmitter, "PartitionIterator", true));
+
+        multiTimer.nextStage(Stages.SUBMIT_PARTITION_COPIES);
+        iterator.prefetch();
+
+        multiTimer.nextStage(Stages.AWAIT_PARTITION_COPY);
+        return iterator.next();
+      } catch (RuntimeException re) {
+        throw new RuntimeException("Failed to compute copy entities for " + dataset.table.getCompleteName(),
+            re.getCause() != null ? re.getCause() : re);
+      } catch (IOException ioe) {
+        throw new RuntimeException(ioe);
+      }
+    }
+
+    private FileSet<CopyEntity> getPartitionFileSet(Map.Entry<List<String>, Partition> partitionEntry) {
+      List<CopyEntity> copyEntities = Lists.newArrayList();
+      try {
+        copyEntities = new PartitionCopy(partitionEntry.getValue(), dataset.properties).getCopyEntities();
+      } catch (IOException ioe) {
+        log.error("Could not generate work units to copy partition " + partitionEntry.getValue().getCompleteName(),
+            ioe);
+      }
+      targetPartitions.remove(partitionEntry.getKey());
+      return new FileSet.Builder<>(partitionEntry.getValue().getCompleteName(), dataset).add(copyEntities).build();
+    }
   }
 
   /**
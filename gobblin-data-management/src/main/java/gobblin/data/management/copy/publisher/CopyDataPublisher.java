@@ -263,6 +263,8 @@ public class CopyDataPublisher extends DataPublisher implements UnpublishedHandl
 
   @Override
   public void close() throws IOException {
+    // The job is done, so the output directories its writers found in this JVM are no longer needed
+    FileAwareInputStreamDataWriter.clearExistingDirectories(this.state.getProp(ConfigurationKeys.JOB_ID_KEY));
   }
 
   @Override
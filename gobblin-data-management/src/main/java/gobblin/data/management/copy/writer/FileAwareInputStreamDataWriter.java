@@ -36,6 +36,9 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import lombok.extern.slf4j.Slf4j;
@@ -52,6 +55,8 @@ import org.apache.hadoop.fs.permission.FsPermission;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterators;
 import com.google.common.io.Closer;
 
@@ -62,6 +67,16 @@ import com.google.common.io.Closer;
 @Slf4j
 public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInputStream>, FinalState {
 
+  /**
+   * Output directories known to exist, keyed by job ID and shared by the writers of a job in this JVM. Each writer
+   * commits a single file, so without this cache the ancestors of every file would be checked again for every file in
+   * the same directory. The directories of a job are dropped by {@link #clearExistingDirectories(String)} at the end of
+   * the job, or once the job has not used them for an hour if the job does not end in this JVM.
+   */
+  private static final Cache<String, Cache<Path, Boolean>> EXISTING_DIRECTORIES =
+      CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.HOURS).build();
+  private static final int MAX_EXISTING_DIRECTORIES_PER_JOB = 10000;
+
   protected final AtomicLong bytesWritten = new AtomicLong();
   protected final AtomicLong filesWritten = new AtomicLong();
   protected final State state;
@@ -77,6 +92,7 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
    * that was written by this writer.
    */
   protected Optional<CopyableFile> actualProcessedCopyableFile;
+  private final Optional<Cache<Path, Boolean>> existingDirectories;
 
   public FileAwareInputStreamDataWriter(State state, int numBranches, int branchId) throws IOException {
 
@@ -97,6 +113,32 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
         CopyableDatasetMetadata.deserialize(state.getProp(CopySource.SERIALIZED_COPYABLE_DATASET));
     this.recoveryHelper = new RecoveryHelper(this.fs, state);
     this.actualProcessedCopyableFile = Optional.absent();
+    this.existingDirectories = getExistingDirectories(state.getProp(ConfigurationKeys.JOB_ID_KEY));
+  }
+
+  private static Optional<Cache<Path, Boolean>> getExistingDirectories(String jobId) throws IOException {
+    if (Strings.isNullOrEmpty(jobId)) {
+      return Optional.absent();
+    }
+    try {
+      return Optional.of(EXISTING_DIRECTORIES.get(jobId, new Callable<Cache<Path, Boolean>>() {
+        @Override
+        public Cache<Path, Boolean> call() {
+          return CacheBuilder.newBuilder().maximumSize(MAX_EXISTING_DIRECTORIES_PER_JOB).<Path, Boolean>build();
+        }
+      }));
+    } catch (ExecutionException ee) {
+      throw new IOException(ee.getCause());
+    }
+  }
+
+  /**
+   * Drop the output directories known to exist for a job. Called once the job is done.
+   */
+  public static void clearExistingDirectories(String jobId) {
+    if (!Strings.isNullOrEmpty(jobId)) {
+      EXISTING_DIRECTORIES.invalidate(jobId);
+    }
   }
 
   @Override
@@ -298,7 +340,10 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
       ensureDirectoryExists(this.fs, outputFilePath.getParent(), ancestorOwnerAndPermissionIt);
 
       if (!this.fs.rename(stagingFilePath, outputFilePath)) {
-        // target exists
+        // target exists, or the cached parent directory was removed
+        if (this.existingDirectories.isPresent()) {
+          this.existingDirectories.get().invalidate(this.fs.makeQualified(outputFilePath.getParent()));
+        }
         throw new IOException(String.format("Could not commit file %s.", outputFilePath));
       }
     } catch (IOException ioe) {
@@ -317,7 +362,13 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
   private void ensureDirectoryExists(FileSystem fs, Path path, Iterator<OwnerAndPermission> ownerAndPermissionIterator)
       throws IOException {
 
+    Path qualifiedPath = fs.makeQualified(path);
+    if (this.existingDirectories.isPresent() && this.existingDirectories.get().getIfPresent(qualifiedPath) != null) {
+      return;
+    }
+
     if (fs.exists(path)) {
+      markDirectoryExists(qualifiedPath);
       return;
     }
 
@@ -330,6 +381,7 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
 
       if (!fs.mkdirs(path)) {
         // fs.mkdirs returns false if path already existed. Do not overwrite permissions
+        markDirectoryExists(qualifiedPath);
         return;
       }
 
@@ -347,6 +399,13 @@ public class FileAwareInputStreamDataWriter implements DataWriter<FileAwareInput
     } else {
       fs.mkdirs(path);
     }
+    markDirectoryExists(qualifiedPath);
+  }
+
+  private void markDirectoryExists(Path qualifiedPath) {
+    if (this.existingDirectories.isPresent()) {
+      this.existingDirectories.get().put(qualifiedPath, Boolean.TRUE);
+    }
   }
 
   @Override
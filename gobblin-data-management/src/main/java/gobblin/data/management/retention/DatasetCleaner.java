@@ -51,6 +51,7 @@ import gobblin.metrics.Tag;
 import gobblin.metrics.event.EventSubmitter;
 import gobblin.util.ExecutorsUtils;
 import gobblin.util.RateControlledFileSystem;
+import gobblin.util.SnapshotFileSystem;
 import gobblin.util.executors.ScalingThreadPoolExecutor;
 
 
@@ -93,6 +94,7 @@ public class DatasetCleaner implements Instrumentable, Closeable {
                 .getProperty(DATASET_CLEAN_HDFS_CALLS_PER_SECOND_LIMIT))));
         ((RateControlledFileSystem) optionalRateControlledFs).startRateControl();
       }
+      optionalRateControlledFs = SnapshotFileSystem.getOptionallySnapshottedFileSystem(optionalRateControlledFs, props);
       this.datasetFinder = new MultiCleanableDatasetFinder(optionalRateControlledFs, props);
     } catch (NumberFormatException exception) {
       throw new IOException(exception);
@@ -36,6 +36,7 @@ import gobblin.dataset.Dataset;
 import gobblin.dataset.DatasetsFinder;
 import gobblin.util.ConfigUtils;
 import gobblin.util.PathUtils;
+import gobblin.util.SnapshotFileSystem;
 
 
 /**
@@ -93,6 +94,12 @@ public abstract class ConfigurableGlobDatasetFinder<T extends Dataset> implement
 
     this.commonRoot = PathUtils.deepestNonGlobPath(this.datasetPattern);
     this.props = jobProps;
+
+    // Serve dataset and version globs under the common root from a single listing
+    Optional<SnapshotFileSystem> snapshotFs = SnapshotFileSystem.getSnapshotFileSystem(this.fs);
+    if (snapshotFs.isPresent()) {
+      snapshotFs.get().addSnapshotRoot(this.commonRoot);
+    }
   }
 
   public ConfigurableGlobDatasetFinder(FileSystem fs, Properties props) throws IOException {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.data.management.conversion.hive;
+
+import java.io.FileNotFoundException;
+import java.util.Map;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import gobblin.data.management.convertion.hive.HdfsBasedUpdateProvider;
+
+
+@Test(groups = { "gobblin.data.management.conversion" })
+public class HdfsBasedUpdateProviderTest {
+
+  @Test
+  public void testGetUpdateTimes() throws Exception {
+    FileSystem fs = Mockito.mock(FileSystem.class);
+    Mockito.doAnswer(new Answer<Path>() {
+      @Override
+      public Path answer(InvocationOnMock invocation) throws Throwable {
+        return (Path) invocation.getArguments()[0];
+      }
+    }).when(fs).makeQualified(Mockito.any(Path.class));
+
+    // The data locations carry an explicit port, the listing does not
+    Path parent = new Path("hdfs://nn:8020/db/table");
+    Mockito.doReturn(new FileStatus[] { newStatus("hdfs://nn/db/table/p=1", 10),
+        newStatus("hdfs://nn/db/table/p=2", 20), newStatus("hdfs://nn/db/table/_tmp", 99) }).when(fs)
+        .listStatus(parent);
+
+    // Created after the parent was listed
+    Path lateLocation = new Path(parent, "p=3");
+    Mockito.doReturn(newStatus(lateLocation.toString(), 30)).when(fs).getFileStatus(lateLocation);
+    Path missingLocation = new Path(parent, "p=4");
+    Mockito.doThrow(new FileNotFoundException()).when(fs).getFileStatus(missingLocation);
+
+    Map<String, Long> updateTimes = new HdfsBasedUpdateProvider(fs).getUpdateTimes(ImmutableList.of(
+        newPartition("db@table@p=1", new Path(parent, "p=1")), newPartition("db@table@p=2", new Path(parent, "p=2")),
+        newPartition("db@table@p=3", lateLocation), newPartition("db@table@p=4", missingLocation)));
+
+    Assert.assertEquals(updateTimes.size(), 4);
+    Assert.assertEquals(updateTimes.get("db@table@p=1").longValue(), 10);
+    Assert.assertEquals(updateTimes.get("db@table@p=2").longValue(), 20);
+    Assert.assertEquals(updateTimes.get("db@table@p=3").longValue(), 30);
+    Assert.assertEquals(updateTimes.get("db@table@p=4").longValue(), 0);
+
+    // Only the unlisted partitions are looked up one by one
+    Mockito.verify(fs).listStatus(parent);
+    Mockito.verify(fs).getFileStatus(lateLocation);
+    Mockito.verify(fs).getFileStatus(missingLocation);
+    Mockito.verify(fs, Mockito.never()).getFileStatus(new Path(parent, "p=1"));
+    Mockito.verify(fs, Mockito.never()).getFileStatus(new Path(parent, "p=2"));
+  }
+
+  private static FileStatus newStatus(String path, long modificationTime) {
+    return new FileStatus(0, true, 0, 0, modificationTime, new Path(path));
+  }
+
+  private static Partition newPartition(String completeName, Path location) {
+    Partition partition = Mockito.mock(Partition.class);
+    Mockito.doReturn(completeName).when(partition).getCompleteName();
+    Mockito.doReturn(location).when(partition).getDataLocation();
+    return partition;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.data.management.conversion.hive;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import gobblin.data.management.convertion.hive.HiveQueryExecutionWriter;
+import gobblin.data.management.convertion.hive.HiveSource;
+import gobblin.data.management.convertion.hive.QueryBasedHiveConversionEntity;
+import gobblin.hive.HiveRegistrationUnit;
+import gobblin.hive.util.HiveJdbcConnector;
+import gobblin.state.ConstructState;
+
+
+@Test(groups = { "gobblin.data.management.conversion" })
+public class HiveQueryExecutionWriterTest {
+
+  private static final String SOURCE = "db.source";
+  private static final String COALESCED_QUERY = "FROM db.source INSERT INTO p1 SELECT 1 INSERT INTO p2 SELECT 2";
+
+  @Test
+  public void testWithoutCoalescing() throws Exception {
+    HiveJdbcConnector connector = Mockito.mock(HiveJdbcConnector.class);
+    HiveQueryExecutionWriter writer = new HiveQueryExecutionWriter(connector, false);
+
+    writer.write(newMultiInsertEntity("db@table@p=1", "INSERT INTO p1 SELECT 1"));
+    // The query is run as the entity is written
+    Mockito.verify(connector).executeStatements("FROM db.source INSERT INTO p1 SELECT 1");
+
+    writer.commit();
+    Mockito.verifyNoMoreInteractions(connector);
+    Assert.assertEquals(getConvertedUnits(writer), ImmutableList.of("db@table@p=1"));
+    Assert.assertEquals(writer.recordsWritten(), 1);
+  }
+
+  @Test
+  public void testCoalescedQueries() throws Exception {
+    HiveJdbcConnector connector = Mockito.mock(HiveJdbcConnector.class);
+    HiveQueryExecutionWriter writer = new HiveQueryExecutionWriter(connector, true);
+
+    writer.write(newMultiInsertEntity("db@table@p=1", "INSERT INTO p1 SELECT 1"));
+    writer.write(newMultiInsertEntity("db@table@p=2", "INSERT INTO p2 SELECT 2"));
+    writer.write(newEntity("db@other").appendQuery("INSERT INTO other SELECT 3"));
+    // Nothing is run until the writer is committed
+    Mockito.verifyZeroInteractions(connector);
+
+    writer.commit();
+    Mockito.verify(connector).executeStatements(COALESCED_QUERY);
+    Mockito.verify(connector).executeStatements("INSERT INTO other SELECT 3");
+    Mockito.verifyNoMoreInteractions(connector);
+    Assert.assertEquals(getConvertedUnits(writer), ImmutableList.of("db@table@p=1", "db@table@p=2", "db@other"));
+  }
+
+  @Test
+  public void testFallbackToQueryPerPartition() throws Exception {
+    HiveJdbcConnector connector = Mockito.mock(HiveJdbcConnector.class);
+    Mockito.doThrow(new SQLException("Coalesced query failed")).when(connector).executeStatements(COALESCED_QUERY);
+    Mockito.doThrow(new SQLException("Query failed")).when(connector)
+        .executeStatements("FROM db.source INSERT INTO p2 SELECT 2");
+    HiveQueryExecutionWriter writer = new HiveQueryExecutionWriter(connector, true);
+
+    writer.write(newMultiInsertEntity("db@table@p=1", "INSERT INTO p1 SELECT 1"));
+    writer.write(newMultiInsertEntity("db@table@p=2", "INSERT INTO p2 SELECT 2"));
+    try {
+      writer.commit();
+      Assert.fail("Commit should fail if a unit cannot be converted");
+    } catch (IOException ioe) {
+      Assert.assertTrue(ioe.getMessage().contains("db@table@p=2"));
+    }
+
+    // Each partition is converted separately after the coalesced query failed, and only converted ones are reported
+    Mockito.verify(connector).executeStatements(COALESCED_QUERY);
+    Mockito.verify(connector).executeStatements("FROM db.source INSERT INTO p1 SELECT 1");
+    Mockito.verify(connector).executeStatements("FROM db.source INSERT INTO p2 SELECT 2");
+    Assert.assertEquals(getConvertedUnits(writer), ImmutableList.of("db@table@p=1"));
+  }
+
+  private static QueryBasedHiveConversionEntity newEntity(String completeName) {
+    return new QueryBasedHiveConversionEntity(Mockito.mock(HiveRegistrationUnit.class), null, completeName,
+        Optional.<Map<String, String>> absent());
+  }
+
+  private static QueryBasedHiveConversionEntity newMultiInsertEntity(String completeName, String insertClause) {
+    return newEntity(completeName).setMultiInsertQuery(SOURCE, insertClause);
+  }
+
+  private static List<String> getConvertedUnits(HiveQueryExecutionWriter writer) {
+    // The converted units are set as overwrite properties of the task state
+    ConstructState finalState = (ConstructState) writer.getFinalState();
+    return HiveSource.GENERICS_AWARE_GSON.fromJson(
+        finalState.getOverwritePropertiesMap().get(HiveQueryExecutionWriter.CONVERTED_UNITS_KEY),
+        HiveSource.STRING_LIST_TYPE);
+  }
+}
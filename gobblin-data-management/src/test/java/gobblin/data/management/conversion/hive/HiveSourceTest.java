@@ -160,6 +160,75 @@ public class HiveSourceTest {
 
   }
 
+  @Test
+  public void testGetWorkUnitsForFilteredPartitions() throws Exception {
+
+    String dbName = "testdb5";
+    String tableName = "testtable5";
+    String tableSdLoc = "/tmp/testtable5";
+
+    this.localMetastoreClient.dropDatabase(dbName, false, true, true);
+
+    SourceState testState = getTestState(dbName);
+    testState.setProp(HiveSource.DISCOVERY_THREADS_KEY, 2);
+    testState.setProp(HiveSource.PARTITION_FILTER_CONSTANT_KEY, "field = \"f2\"");
+
+    Table tbl = createTestTable(dbName, tableName, tableSdLoc, Optional.of("field"));
+
+    addTestPartition(tbl, ImmutableList.of("f1"));
+    addTestPartition(tbl, ImmutableList.of("f2"));
+
+    this.updateProvider.addMockUpdateTime("testdb5@testtable5@field=f1", 2);
+    this.updateProvider.addMockUpdateTime("testdb5@testtable5@field=f2", 2);
+
+    List<WorkUnit> workUnits = this.hiveSource.getWorkunits(testState);
+
+    Assert.assertEquals(workUnits.size(), 1);
+    Assert.assertEquals(workUnits.get(0).getProp(HiveSource.PARTITION_COMPLETE_NAME_KEY),
+        "testdb5@testtable5@field=f2");
+  }
+
+  @Test
+  public void testGetWorkUnitsForBatchedPartitions() throws Exception {
+
+    String dbName = "testdb6";
+    String tableName = "testtable6";
+    String tableSdLoc = "/tmp/testtable6";
+
+    this.localMetastoreClient.dropDatabase(dbName, false, true, true);
+
+    SourceState testState = getTestState(dbName);
+    testState.setProp(HiveSource.PARTITIONS_PER_WORKUNIT_KEY, 2);
+
+    Table tbl = createTestTable(dbName, tableName, tableSdLoc, Optional.of("field"));
+
+    addTestPartition(tbl, ImmutableList.of("f1"));
+    addTestPartition(tbl, ImmutableList.of("f2"));
+    addTestPartition(tbl, ImmutableList.of("f3"));
+
+    this.updateProvider.addMockUpdateTime("testdb6@testtable6@field=f1", 2);
+    this.updateProvider.addMockUpdateTime("testdb6@testtable6@field=f2", 2);
+    this.updateProvider.addMockUpdateTime("testdb6@testtable6@field=f3", 2);
+
+    List<WorkUnit> workUnits = this.hiveSource.getWorkunits(testState);
+
+    Assert.assertEquals(workUnits.size(), 2);
+    WorkUnit wu = workUnits.get(0);
+    Assert.assertEquals(wu.getProp(HiveSource.PARTITION_KEYS_KEY), "field");
+    List<HivePartition> hivePartitions = HiveSource.GENERICS_AWARE_GSON
+        .fromJson(wu.getProp(HiveSource.HIVE_UNITS_SERIALIZED_KEY), HiveSource.HIVE_PARTITION_LIST_TYPE);
+    Assert.assertEquals(hivePartitions.size(), 2);
+    Assert.assertEquals(hivePartitions.get(0).getValues().get(0), "f1");
+    Assert.assertEquals(hivePartitions.get(1).getValues().get(0), "f2");
+    List<String> completeNames = HiveSource.GENERICS_AWARE_GSON
+        .fromJson(wu.getProp(HiveSource.PARTITION_COMPLETE_NAMES_KEY), HiveSource.STRING_LIST_TYPE);
+    Assert.assertEquals(completeNames,
+        ImmutableList.of("testdb6@testtable6@field=f1", "testdb6@testtable6@field=f2"));
+
+    Assert.assertEquals(workUnits.get(1).getProp(HiveSource.PARTITION_COMPLETE_NAME_KEY),
+        "testdb6@testtable6@field=f3");
+  }
+
   private static WorkUnitState createPreviousWus(String dbName, String tableName, long watermark) {
 
     WorkUnitState wus = new WorkUnitState();
@@ -235,4 +235,37 @@ public class CopyableFileTest {
     Assert.assertEquals(ownerAndPermission.getFsPermission(), FsPermission.getDefault());
 
   }
+
+  @Test
+  public void testResolveOwnerAndPermissionsRecursivelyFetchesAncestorsOnce() throws Exception {
+
+    Path root = new Path("/root");
+    Path dir = new Path("/root/dir");
+
+    FileStatus dirStatus = new FileStatus(0, true, 0, 0, 0, 0, FsPermission.getDefault(), "dirOwner", "dirGroup", dir);
+
+    FileSystem fs = Mockito.mock(FileSystem.class);
+    Mockito.doReturn(dirStatus).when(fs).getFileStatus(dir);
+    Mockito.doReturn(dir).when(fs).makeQualified(dir);
+    Mockito.doReturn(new URI("hdfs://uri")).when(fs).getUri();
+
+    Properties properties = new Properties();
+    properties.put(ConfigurationKeys.DATA_PUBLISHER_FINAL_DIR, "/final/dir");
+    CopyConfiguration copyConfiguration = new CopyConfiguration.CopyConfigurationBuilder(fs, properties).
+        preserve(PreserveAttributes.fromMnemonicString("ug")).build();
+
+    for (int i = 0; i < 10; i++) {
+      Path file = new Path(dir, "file" + i);
+      FileStatus fileStatus =
+          new FileStatus(1, false, 0, 0, 0, 0, FsPermission.getDefault(), "fileOwner", "fileGroup", file);
+      List<OwnerAndPermission> ownerAndPermissions =
+          CopyableFile.resolveReplicatedOwnerAndPermissionsRecursively(fs, fileStatus, root, copyConfiguration);
+      Assert.assertEquals(ownerAndPermissions.size(), 2);
+      Assert.assertEquals(ownerAndPermissions.get(0).getOwner(), "fileOwner");
+      Assert.assertEquals(ownerAndPermissions.get(1).getOwner(), "dirOwner");
+    }
+
+    // Files themselves are never fetched, and the shared ancestor is fetched once
+    Mockito.verify(fs, Mockito.times(1)).getFileStatus(Mockito.any(Path.class));
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.data.management.copy.hive;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+
+public class ConcurrentPlanningIteratorTest {
+
+  @Test
+  public void testResultsInPlanOrder() throws Exception {
+    // Later plans complete first, results must still come back in plan order on every run
+    for (int run = 0; run < 5; run++) {
+      List<Callable<Integer>> plans = Lists.newArrayList();
+      for (int i = 0; i < 10; i++) {
+        plans.add(new SleepingPlan(i, 10 - i));
+      }
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      ConcurrentPlanningIterator<Integer> iterator = new ConcurrentPlanningIterator<>(plans.iterator(), executor, 8);
+      List<Integer> results = Lists.newArrayList();
+      while (iterator.hasNext()) {
+        results.add(iterator.next());
+      }
+
+      Assert.assertEquals(results, Lists.newArrayList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+      Assert.assertTrue(executor.isShutdown());
+    }
+  }
+
+  @Test
+  public void testPrefetchBound() throws Exception {
+    final AtomicInteger started = new AtomicInteger();
+    List<Callable<Integer>> plans = Lists.newArrayList();
+    for (int i = 0; i < 10; i++) {
+      final int value = i;
+      plans.add(new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          started.incrementAndGet();
+          return value;
+        }
+      });
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    ConcurrentPlanningIterator<Integer> iterator = new ConcurrentPlanningIterator<>(plans.iterator(), executor, 3);
+    Assert.assertEquals(iterator.next().intValue(), 0);
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+    // Only the plans within the prefetch bound have been submitted
+    Assert.assertEquals(started.get(), 3);
+  }
+
+  @Test
+  public void testFailurePropagated() throws Exception {
+    final IOException failure = new IOException("Planning failed");
+    List<Callable<Integer>> plans = Lists.newArrayList();
+    plans.add(new SleepingPlan(0, 0));
+    plans.add(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        throw failure;
+      }
+    });
+    for (int i = 2; i < 10; i++) {
+      plans.add(new SleepingPlan(i, 50));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    ConcurrentPlanningIterator<Integer> iterator = new ConcurrentPlanningIterator<>(plans.iterator(), executor, 4);
+    Assert.assertEquals(iterator.next().intValue(), 0);
+    try {
+      iterator.next();
+      Assert.fail("Failure of a planning thread should be propagated");
+    } catch (RuntimeException re) {
+      Assert.assertSame(re.getCause(), failure);
+    }
+
+    // No further result is returned once a plan failed
+    Assert.assertTrue(iterator.hasFailed());
+    Assert.assertFalse(iterator.hasNext());
+    Assert.assertTrue(executor.isShutdown());
+  }
+
+  private static class SleepingPlan implements Callable<Integer> {
+
+    private final int value;
+    private final long sleepMillis;
+
+    SleepingPlan(int value, long sleepMillis) {
+      this.value = value;
+      this.sleepMillis = sleepMillis;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+      Thread.sleep(this.sleepMillis);
+      return this.value;
+    }
+  }
+}
@@ -187,6 +187,45 @@ public class FileAwareInputStreamDataWriterTest {
     Assert.assertFalse(this.fs.exists(writer.stagingDir));
   }
 
+  @Test
+  public void testExistingDirectoriesScopedToJob() throws Exception {
+    Path outputDir = new Path(testTempPath, "jobScopedOutput");
+    String fileDir = "/" + RandomStringUtils.randomAlphabetic(5);
+
+    Path writtenFile = writeFile("job1", outputDir, new Path(fileDir, "file1"));
+    Assert.assertTrue(this.fs.exists(writtenFile));
+
+    // A directory the previous job found may be deleted before the next job runs
+    this.fs.delete(outputDir, true);
+
+    writtenFile = writeFile("job2", outputDir, new Path(fileDir, "file2"));
+    Assert.assertTrue(this.fs.exists(writtenFile));
+
+    FileAwareInputStreamDataWriter.clearExistingDirectories("job1");
+    FileAwareInputStreamDataWriter.clearExistingDirectories("job2");
+  }
+
+  private Path writeFile(String jobId, Path outputDir, Path destination) throws IOException {
+    FileStatus status = fs.getFileStatus(testTempPath);
+    OwnerAndPermission ownerAndPermission = new OwnerAndPermission(status.getOwner(), status.getGroup(),
+        new FsPermission(FsAction.ALL, FsAction.ALL, FsAction.ALL));
+    CopyableFile cf = CopyableFileUtils.getTestCopyableFile(null, destination.toString(), null, ownerAndPermission);
+    CopyableDatasetMetadata metadata = new CopyableDatasetMetadata(new TestCopyableDataset(new Path("/source")));
+
+    WorkUnitState state = new WorkUnitState();
+    state.setProp(ConfigurationKeys.JOB_ID_KEY, jobId);
+    state.setProp(ConfigurationKeys.WRITER_STAGING_DIR, new Path(testTempPath, "staging").toString());
+    state.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, outputDir.toString());
+    state.setProp(ConfigurationKeys.WRITER_FILE_PATH, RandomStringUtils.randomAlphabetic(5));
+    CopySource.serializeCopyEntity(state, cf);
+    CopySource.serializeCopyableDataset(state, metadata);
+
+    FileAwareInputStreamDataWriter dataWriter = new FileAwareInputStreamDataWriter(state, 1, 0);
+    dataWriter.write(new FileAwareInputStream(cf, StreamUtils.convertStream(IOUtils.toInputStream("testContents"))));
+    dataWriter.commit();
+    return new Path(new Path(outputDir, cf.getDatasetAndPartition(metadata).identifier()), cf.getDestination());
+  }
+
   @Test
   public void testAddExecutePermission() {
     Assert.assertEquals(FileAwareInputStreamDataWriter.addExecutePermissionToOwner(new FsPermission("000")),
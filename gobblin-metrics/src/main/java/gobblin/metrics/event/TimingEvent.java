@@ -30,6 +30,7 @@ public class TimingEvent {
     public static final String JOB_START = "JobStartTimer";
     public static final String JOB_RUN = "JobRunTimer";
     public static final String JOB_COMMIT = "JobCommitTimer";
+    public static final String DATASET_COMMIT = "DatasetCommitTimer";
     public static final String JOB_CLEANUP = "JobCleanupTimer";
     public static final String JOB_CANCEL = "JobCancelTimer";
     public static final String JOB_COMPLETE = "JobCompleteTimer";
@@ -629,17 +629,24 @@ public abstract class AbstractJobLauncher implements JobLauncher {
 
     logger.info(
         String.format("Waiting for submitted tasks of job %s to complete in container %s...", jobId, containerId));
-    while (countDownLatch.getCount() > 0) {
-      logger.info(String.format("%d out of %d tasks of job %s are running in container %s", countDownLatch.getCount(),
-          workUnits.size(), jobId, containerId));
-      if (countDownLatch.await(10, TimeUnit.SECONDS)) {
-        break;
+    try {
+      while (countDownLatch.getCount() > 0) {
+        logger.info(String.format("%d out of %d tasks of job %s are running in container %s",
+            countDownLatch.getCount(), workUnits.size(), jobId, containerId));
+        if (countDownLatch.await(10, TimeUnit.SECONDS)) {
+          break;
+        }
       }
+    } finally {
+      stopTaskSpeculation(tasks);
     }
     logger.info(String.format("All assigned tasks of job %s have completed in container %s", jobId, containerId));
 
     boolean hasTaskFailure = false;
-    for (Task task : tasks) {
+    for (int i = 0; i < tasks.size(); i++) {
+      // Write the state of the attempt of each task that completed, which may be a speculative attempt
+      Task task = tasks.get(i).getCompletedAttempt();
+      tasks.set(i, task);
       logger.info("Writing task state for task " + task.getTaskId());
       taskStateStore.put(task.getJobId(), task.getTaskId() + AbstractJobLauncher.TASK_STATE_STORE_TABLE_SUFFIX,
           task.getTaskState());
@@ -667,6 +674,8 @@ public abstract class AbstractJobLauncher implements JobLauncher {
    * <p>
    *   This method assumes that the given list of {@link WorkUnit}s have already been flattened and
    *   each {@link WorkUnit} contains the task ID in the property {@link ConfigurationKeys#TASK_ID_KEY}.
+   *   If {@link ConfigurationKeys#TASK_SPECULATION_ENABLED_KEY} is set, straggler {@link Task}s are run
+   *   speculatively by a {@link TaskSpeculator}.
    * </p>
    *
    * @param jobId the job ID
@@ -679,6 +688,10 @@ public abstract class AbstractJobLauncher implements JobLauncher {
   public static List<Task> runWorkUnits(String jobId, JobState jobState, List<WorkUnit> workUnits,
       TaskStateTracker stateTracker, TaskExecutor taskExecutor, CountDownLatch countDownLatch) {
 
+    Optional<TaskSpeculator> taskSpeculator = TaskSpeculator.isEnabled(jobState)
+        ? Optional.of(new TaskSpeculator(jobId, jobState, stateTracker, taskExecutor, countDownLatch))
+        : Optional.<TaskSpeculator> absent();
+
     List<Task> tasks = Lists.newArrayList();
     for (WorkUnit workUnit : workUnits) {
       String taskId = workUnit.getProp(ConfigurationKeys.TASK_ID_KEY);
@@ -688,18 +701,43 @@ public abstract class AbstractJobLauncher implements JobLauncher {
       workUnitState.setProp(ConfigurationKeys.TASK_ID_KEY, taskId);
 
       // Create a new task from the work unit and submit the task to run
-      Task task = new Task(new TaskContext(workUnitState), stateTracker, taskExecutor, Optional.of(countDownLatch));
+      Task task = new Task(new TaskContext(workUnitState), stateTracker, taskExecutor, Optional.of(countDownLatch),
+          taskSpeculator.isPresent() ? Optional.of(taskSpeculator.get().newTaskGroup())
+              : Optional.<TaskSpeculator.SpeculativeTaskGroup> absent());
       stateTracker.registerNewTask(task);
       tasks.add(task);
+      if (taskSpeculator.isPresent()) {
+        taskSpeculator.get().addTask(task);
+      }
       taskExecutor.execute(task);
     }
 
+    if (taskSpeculator.isPresent()) {
+      taskSpeculator.get().start();
+    }
+
     new EventSubmitter.Builder(JobMetrics.get(jobId).getMetricContext(), "gobblin.runtime").build()
         .submit(JobEvent.TASKS_SUBMITTED, "tasksCount", Integer.toString(workUnits.size()));
 
     return tasks;
   }
 
+  /**
+   * Stop the {@link TaskSpeculator} of the given {@link Task}s returned by
+   * {@link #runWorkUnits(String, JobState, List, TaskStateTracker, TaskExecutor, CountDownLatch)}, if any. This
+   * should be called once the {@link Task}s are no longer waited on, including when the job is cancelled or
+   * interrupted before all the {@link Task}s complete.
+   */
+  public static void stopTaskSpeculation(List<Task> tasks) {
+    for (Task task : tasks) {
+      if (task.getSpeculativeTaskGroup().isPresent()) {
+        // All the tasks of a job share the same speculator
+        task.getSpeculativeTaskGroup().get().getTaskSpeculator().stop();
+        return;
+      }
+    }
+  }
+
   /**
    * Cleanup the left-over staging data possibly from the previous run of the job that may have failed
    * and not cleaned up its staging data.
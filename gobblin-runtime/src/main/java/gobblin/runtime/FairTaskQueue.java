@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+
+/**
+ * A {@link BlockingQueue} of the {@link Task}s waiting for a thread of a {@link TaskExecutor} that orders them by
+ * weighted fair queuing among their scheduling groups, e.g., among the jobs sharing the {@link TaskExecutor}.
+ *
+ * <p>
+ *   Each scheduling group has a virtual time that advances by the inverse of the group's weight every time one of
+ *   its {@link Entry}s is taken, so a group of weight 2 gets twice as many threads as a group of weight 1 while both
+ *   have waiting {@link Entry}s. A group that becomes active again starts from the virtual time of the last
+ *   {@link Entry} taken, so it does not get a burst for the time it was idle. {@link Entry}s of a higher priority
+ *   are taken before any {@link Entry} of a lower priority, and a group that has its maximum number of concurrently
+ *   running {@link Entry}s is skipped until {@link #onCompletion(Runnable)} is called for one of them.
+ * </p>
+ *
+ * <p>
+ *   {@link Entry}s of the same group are taken in FIFO order. The weight, priority, and concurrency limit of a
+ *   group are those of its first waiting {@link Entry}.
+ * </p>
+ */
+class FairTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+  static final String DEFAULT_SCHEDULING_GROUP = "default";
+
+  private final ReentrantLock lock = new ReentrantLock();
+  // Signaled when an entry is added or a running entry completes, either of which may make an entry eligible
+  private final Condition eligible = this.lock.newCondition();
+
+  private final Map<String, SchedulingGroup> groups = Maps.newHashMap();
+  private double virtualTime = 0;
+  private int count = 0;
+
+  /**
+   * Called once an {@link Entry} taken from this queue has completed running.
+   */
+  void onCompletion(Runnable runnable) {
+    if (!(runnable instanceof Entry)) {
+      return;
+    }
+
+    Entry entry = (Entry) runnable;
+    this.lock.lock();
+    try {
+      if (!entry.taken) {
+        return;
+      }
+      SchedulingGroup group = this.groups.get(entry.group);
+      if (group != null) {
+        group.running--;
+        removeIfIdle(group);
+      }
+      this.eligible.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(Runnable runnable) {
+    Entry entry = runnable instanceof Entry ? (Entry) runnable : new Entry(runnable, DEFAULT_SCHEDULING_GROUP,
+        1.0, 0, 0, Optional.<Timer>absent());
+
+    this.lock.lock();
+    try {
+      SchedulingGroup group = this.groups.get(entry.group);
+      if (group == null) {
+        group = new SchedulingGroup();
+        this.groups.put(entry.group, group);
+      }
+      if (group.entries.isEmpty()) {
+        group.virtualTime = Math.max(group.virtualTime, this.virtualTime);
+      }
+      group.entries.addLast(entry);
+      this.count++;
+      this.eligible.signal();
+      return true;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public void put(Runnable runnable) {
+    offer(runnable);
+  }
+
+  @Override
+  public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+    return offer(runnable);
+  }
+
+  @Override
+  public Runnable take() throws InterruptedException {
+    this.lock.lockInterruptibly();
+    try {
+      Entry entry;
+      while ((entry = dequeue()) == null) {
+        this.eligible.await();
+      }
+      return entry;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    this.lock.lockInterruptibly();
+    try {
+      Entry entry;
+      while ((entry = dequeue()) == null) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = this.eligible.awaitNanos(nanos);
+      }
+      return entry;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll() {
+    this.lock.lock();
+    try {
+      return dequeue();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable peek() {
+    this.lock.lock();
+    try {
+      SchedulingGroup group = nextGroup();
+      return group == null ? null : group.entries.peekFirst();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    this.lock.lock();
+    try {
+      for (SchedulingGroup group : this.groups.values()) {
+        if (group.entries.remove(o)) {
+          this.count--;
+          removeIfIdle(group);
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    this.lock.lock();
+    try {
+      return this.count;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Drain all waiting {@link Entry}s regardless of the concurrency limits of their groups.
+   */
+  @Override
+  public int drainTo(Collection<? super Runnable> collection) {
+    return drainTo(collection, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> collection, int maxElements) {
+    Preconditions.checkArgument(collection != this);
+
+    this.lock.lock();
+    try {
+      int drained = 0;
+      Iterator<SchedulingGroup> groupIterator = this.groups.values().iterator();
+      while (groupIterator.hasNext() && drained < maxElements) {
+        SchedulingGroup group = groupIterator.next();
+        while (!group.entries.isEmpty() && drained < maxElements) {
+          collection.add(group.entries.pollFirst());
+          this.count--;
+          drained++;
+        }
+        if (group.entries.isEmpty() && group.running == 0) {
+          groupIterator.remove();
+        }
+      }
+      return drained;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Get an {@link Iterator} over a snapshot of the waiting {@link Entry}s.
+   */
+  @Override
+  public Iterator<Runnable> iterator() {
+    List<Runnable> snapshot = Lists.newArrayList();
+    this.lock.lock();
+    try {
+      for (SchedulingGroup group : this.groups.values()) {
+        snapshot.addAll(group.entries);
+      }
+    } finally {
+      this.lock.unlock();
+    }
+
+    final Iterator<Runnable> snapshotIterator = snapshot.iterator();
+    return new Iterator<Runnable>() {
+      private Runnable last;
+
+      @Override
+      public boolean hasNext() {
+        return snapshotIterator.hasNext();
+      }
+
+      @Override
+      public Runnable next() {
+        this.last = snapshotIterator.next();
+        return this.last;
+      }
+
+      @Override
+      public void remove() {
+        Preconditions.checkState(this.last != null);
+        FairTaskQueue.this.remove(this.last);
+        this.last = null;
+      }
+    };
+  }
+
+  /**
+   * Take the first {@link Entry} of the next group to be served. Must be called while holding the lock.
+   */
+  private Entry dequeue() {
+    SchedulingGroup group = nextGroup();
+    if (group == null) {
+      return null;
+    }
+
+    Entry entry = group.entries.pollFirst();
+    this.virtualTime = group.virtualTime;
+    group.virtualTime += 1.0 / entry.weight;
+    group.running++;
+    entry.taken = true;
+    this.count--;
+    return entry;
+  }
+
+  /**
+   * Get the group of the highest priority and then the lowest virtual time among the groups that have waiting
+   * {@link Entry}s and are below their concurrency limits. Must be called while holding the lock.
+   */
+  private SchedulingGroup nextGroup() {
+    SchedulingGroup next = null;
+    for (SchedulingGroup group : this.groups.values()) {
+      Entry head = group.entries.peekFirst();
+      if (head == null || (head.maxConcurrentTasks > 0 && group.running >= head.maxConcurrentTasks)) {
+        continue;
+      }
+      if (next == null) {
+        next = group;
+        continue;
+      }
+      int nextPriority = next.entries.peekFirst().priority;
+      if (head.priority > nextPriority
+          || (head.priority == nextPriority && group.virtualTime < next.virtualTime)) {
+        next = group;
+      }
+    }
+    return next;
+  }
+
+  private void removeIfIdle(SchedulingGroup group) {
+    if (group.entries.isEmpty() && group.running == 0) {
+      this.groups.values().remove(group);
+    }
+  }
+
+  /**
+   * A {@link Runnable} in a {@link FairTaskQueue} with the scheduling group, weight, priority, and concurrency
+   * limit it is scheduled by.
+   *
+   * <p>
+   *   The time the {@link Runnable} waited between being created and starting to run is recorded in the
+   *   optional {@link Timer}.
+   * </p>
+   */
+  static class Entry implements Runnable {
+
+    private final Runnable runnable;
+    private final String group;
+    private final double weight;
+    private final int priority;
+    private final int maxConcurrentTasks;
+    private final Optional<Timer> waitTimer;
+    private final long createTimeNanos;
+
+    // Whether this entry has been taken from the queue to run, guarded by the lock of the queue
+    private boolean taken = false;
+
+    Entry(Runnable runnable, String group, double weight, int priority, int maxConcurrentTasks,
+        Optional<Timer> waitTimer) {
+      Preconditions.checkArgument(weight > 0, "Scheduling weight should be positive");
+      this.runnable = runnable;
+      this.group = group;
+      this.weight = weight;
+      this.priority = priority;
+      this.maxConcurrentTasks = maxConcurrentTasks;
+      this.waitTimer = waitTimer;
+      this.createTimeNanos = System.nanoTime();
+    }
+
+    String getGroup() {
+      return this.group;
+    }
+
+    @Override
+    public void run() {
+      if (this.waitTimer.isPresent()) {
+        this.waitTimer.get().update(System.nanoTime() - this.createTimeNanos, TimeUnit.NANOSECONDS);
+      }
+      this.runnable.run();
+    }
+  }
+
+  private static class SchedulingGroup {
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private double virtualTime = 0;
+    private int running = 0;
+  }
+}
@@ -18,6 +18,9 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +36,7 @@ import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
 import gobblin.instrumented.Instrumented;
 import gobblin.metrics.GobblinMetrics;
+import gobblin.metrics.MetricNames;
 import gobblin.metrics.Tag;
 import gobblin.publisher.TaskPublisher;
 import gobblin.qualitychecker.row.RowLevelPolicyCheckResults;
@@ -40,8 +44,15 @@ import gobblin.qualitychecker.row.RowLevelPolicyChecker;
 import gobblin.qualitychecker.task.TaskLevelPolicyCheckResults;
 import gobblin.runtime.util.TaskMetrics;
 import gobblin.state.ConstructState;
+import gobblin.util.FileListUtils;
 import gobblin.util.FinalState;
 import gobblin.util.ForkOperatorUtils;
+import gobblin.util.HadoopUtils;
+import gobblin.util.PathUtils;
+import gobblin.util.RecordBatch;
+import gobblin.util.RecordBatches;
+import gobblin.util.WriterUtils;
+import gobblin.util.limiter.DefaultLimiterFactory;
 import gobblin.writer.DataWriter;
 import gobblin.writer.DataWriterBuilder;
 import gobblin.writer.Destination;
@@ -93,6 +104,9 @@ public class Fork implements Closeable, Runnable, FinalState {
   private final RowLevelPolicyChecker rowLevelPolicyChecker;
   private final RowLevelPolicyCheckResults rowLevelPolicyCheckingResult;
 
+  // Number of records converted, quality-checked and written at a time
+  private final int recordBatchSize;
+
   // A bounded blocking queue in between the parent task and this fork
   private final BoundedBlockingRecordQueue<Object> recordQueue;
 
@@ -100,6 +114,18 @@ public class Fork implements Closeable, Runnable, FinalState {
 
   // The writer will be lazily created when the first data record arrives
   private Optional<DataWriter<Object>> writer = Optional.absent();
+  // The last writer committed, whose final state is reported once the current writer is committed
+  private Optional<DataWriter<Object>> committedWriter = Optional.absent();
+
+  // Number of the last checkpoint of the parent task before the records of the current writer, used to give each
+  // writer its own writer ID that a retry resuming from the checkpoint uses again
+  private int writerSegment;
+  // Directory the writers commit to if the parent task takes checkpoints, with a subdirectory for each segment.
+  // The output is moved to the writer output directory once this fork commits after passing quality checking.
+  private final Optional<Path> checkpointOutputDir;
+  // Numbers of records and bytes written by the writers committed at checkpoints
+  private long checkpointedRecordsWritten = 0;
+  private long checkpointedBytesWritten = 0;
 
   // This is used by the parent task to signal that it has done pulling records and this fork
   // should not expect any new incoming data records. This is written by the parent task and
@@ -112,8 +138,17 @@ public class Fork implements Closeable, Runnable, FinalState {
   private final AtomicReference<ForkState> forkState;
 
   private static final String FORK_METRICS_BRANCH_NAME_KEY = "forkBranchName";
+  private static final String CHECKPOINT_OUTPUT_DIR_NAME = "_checkpoints";
 
   public Fork(TaskContext taskContext, Object schema, int branches, int index) throws Exception {
+    this(taskContext, schema, branches, index, false);
+  }
+
+  /**
+   * @param checkpointsEnabled whether the parent task puts {@link TaskCheckpoint}s into the record queue
+   */
+  Fork(TaskContext taskContext, Object schema, int branches, int index, boolean checkpointsEnabled)
+      throws Exception {
     this.logger = LoggerFactory.getLogger(Fork.class.getName() + "-" + index);
 
     this.taskContext = taskContext;
@@ -129,7 +164,24 @@ public class Fork implements Closeable, Runnable, FinalState {
         this.closer.register(new MultiConverter(this.taskContext.getConverters(this.index, this.forkTaskState)));
     this.convertedSchema = Optional.fromNullable(this.converter.convertSchema(schema, this.taskState));
     this.rowLevelPolicyChecker = this.closer.register(this.taskContext.getRowLevelPolicyChecker(this.index));
+    this.rowLevelPolicyChecker.prepareForSchema(this.convertedSchema.orNull());
     this.rowLevelPolicyCheckingResult = new RowLevelPolicyCheckResults();
+    // The writer may be replaced at checkpoints, so the current writer is closed rather than the first one
+    this.closer.register(new Closeable() {
+      @Override
+      public void close() throws IOException {
+        if (Fork.this.writer.isPresent()) {
+          Fork.this.writer.get().close();
+        }
+      }
+    });
+    this.writerSegment = this.taskState.getPropAsInt(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY, 0);
+    this.checkpointOutputDir = getCheckpointOutputDir(checkpointsEnabled);
+    if (this.checkpointOutputDir.isPresent()) {
+      deleteUnrecordedSegments();
+    }
+    this.recordBatchSize = this.taskState.getPropAsInt(ConfigurationKeys.TASK_RECORD_BATCH_SIZE_KEY,
+        ConfigurationKeys.DEFAULT_TASK_RECORD_BATCH_SIZE);
 
     boolean useEagerWriterInitialization = this.taskState.getPropAsBoolean(
         ConfigurationKeys.WRITER_EAGER_INITIALIZATION_KEY, ConfigurationKeys.DEFAULT_WRITER_EAGER_INITIALIZATION);
@@ -193,8 +245,9 @@ public class Fork implements Closeable, Runnable, FinalState {
       state.addConstructState(Constructs.ROW_QUALITY_CHECKER,
           new ConstructState(this.rowLevelPolicyChecker.getFinalState()));
     }
-    if (this.writer.isPresent() && this.writer.get() instanceof FinalState) {
-      state.addConstructState(Constructs.WRITER, new ConstructState(((FinalState) this.writer.get()).getFinalState()));
+    Optional<DataWriter<Object>> finalWriter = this.writer.or(this.committedWriter);
+    if (finalWriter.isPresent() && finalWriter.get() instanceof FinalState) {
+      state.addConstructState(Constructs.WRITER, new ConstructState(((FinalState) finalWriter.get()).getFinalState()));
     }
     return state;
   }
@@ -234,8 +287,8 @@ public class Fork implements Closeable, Runnable, FinalState {
    * Update record-level metrics.
    */
   public void updateRecordMetrics() {
-    if (this.writer.isPresent()) {
-      this.taskState.updateRecordMetrics(this.writer.get().recordsWritten(), this.index);
+    if (this.writer.isPresent() || this.checkpointedRecordsWritten > 0) {
+      this.taskState.updateRecordMetrics(getRecordsWritten(), this.index);
     }
   }
 
@@ -243,8 +296,10 @@ public class Fork implements Closeable, Runnable, FinalState {
    * Update byte-level metrics.
    */
   public void updateByteMetrics() throws IOException {
-    if (this.writer.isPresent()) {
-      this.taskState.updateByteMetrics(this.writer.get().bytesWritten(), this.index);
+    if (this.writer.isPresent() || this.checkpointedBytesWritten > 0) {
+      this.taskState.updateByteMetrics(
+          this.checkpointedBytesWritten + (this.writer.isPresent() ? this.writer.get().bytesWritten() : 0L),
+          this.index);
     }
   }
 
@@ -344,7 +399,7 @@ public class Fork implements Closeable, Runnable, FinalState {
    * @return the number of records written by this {@link Fork}
    */
   long getRecordsWritten() {
-    return this.writer.isPresent() ? this.writer.get().recordsWritten() : 0L;
+    return this.checkpointedRecordsWritten + (this.writer.isPresent() ? this.writer.get().recordsWritten() : 0L);
   }
 
   /**
@@ -354,7 +409,7 @@ public class Fork implements Closeable, Runnable, FinalState {
    */
   long getBytesWritten() {
     try {
-      return this.writer.isPresent() ? this.writer.get().bytesWritten() : 0L;
+      return this.checkpointedBytesWritten + (this.writer.isPresent() ? this.writer.get().bytesWritten() : 0L);
     } catch (Throwable t) {
 
       // Return 0 if the writer does not implement bytesWritten();
@@ -366,24 +421,152 @@ public class Fork implements Closeable, Runnable, FinalState {
    * Build a {@link gobblin.writer.DataWriter} for writing fetched data records.
    */
   private DataWriter<Object> buildWriter() throws IOException {
+    State writerState = this.taskState;
+    if (this.checkpointOutputDir.isPresent()) {
+      writerState = new TaskState(this.taskState);
+      writerState.setProp(getWriterOutputDirKey(), getSegmentOutputDir(this.writerSegment).toString());
+    }
+
     DataWriterBuilder<Object, Object> builder = this.taskContext.getDataWriterBuilder(this.branches, this.index)
-        .writeTo(Destination.of(this.taskContext.getDestinationType(this.branches, this.index), this.taskState))
-        .writeInFormat(this.taskContext.getWriterOutputFormat(this.branches, this.index)).withWriterId(this.taskId)
+        .writeTo(Destination.of(this.taskContext.getDestinationType(this.branches, this.index), writerState))
+        .writeInFormat(this.taskContext.getWriterOutputFormat(this.branches, this.index))
+        .withWriterId(getWriterId())
         .withSchema(this.convertedSchema.orNull()).withBranches(this.branches).forBranch(this.index);
 
-    return new PartitionedDataWriter<>(builder, this.taskContext.getTaskState());
+    DataWriter<Object> writer = new PartitionedDataWriter<>(builder, this.taskContext.getTaskState());
+    if (this.taskState.getPropAsBoolean(ConfigurationKeys.WRITER_LIMIT_ENABLED_KEY,
+        ConfigurationKeys.DEFAULT_WRITER_LIMIT_ENABLED)) {
+      writer = new LimitingDataWriterDecorator<>(writer,
+          DefaultLimiterFactory.getLimiter(this.taskState, DefaultLimiterFactory.WRITER_LIMIT_PREFIX),
+          this.taskState.getPropAsBoolean(ConfigurationKeys.WRITER_LIMIT_ESTIMATE_SIZE_KEY,
+              ConfigurationKeys.DEFAULT_WRITER_LIMIT_ESTIMATE_SIZE),
+          this.taskContext.getThrottledTimer(MetricNames.DataWriterMetrics.THROTTLED_TIMER));
+    }
+    return writer;
+  }
+
+  /**
+   * Get the ID of the current writer, which is suffixed with the number of the last checkpoint before its records, if
+   * any, so a writer committed again by a retry resuming from the same checkpoint overwrites the earlier output.
+   */
+  private String getWriterId() {
+    String writerId = this.taskState.getProp(ConfigurationKeys.TASK_ATTEMPT_ID_KEY, this.taskId);
+    return this.writerSegment > 0 ? writerId + "_" + this.writerSegment : writerId;
   }
 
   private void buildWriterIfNotPresent() throws IOException {
     if (!this.writer.isPresent()) {
-      this.writer = Optional.of(this.closer.register(buildWriter()));
+      this.writer = Optional.of(buildWriter());
+    }
+  }
+
+  /**
+   * Commit the output of the records before a {@link TaskCheckpoint} of the parent task into the checkpoint output
+   * directory, if any. The records after the {@link TaskCheckpoint} are written by a new writer.
+   */
+  private void checkpoint(TaskCheckpoint checkpoint) throws IOException {
+    commitWriter();
+    // Set even if there was no writer, so the segments are numbered the same by all forks and retries
+    this.writerSegment = checkpoint.getCheckpointCount();
+    checkpoint.onForkCommitted();
+  }
+
+  /**
+   * Commit and close the current writer, if any, so the following records are written by a new writer.
+   */
+  private void commitWriter() throws IOException {
+    if (!this.writer.isPresent()) {
+      return;
+    }
+
+    DataWriter<Object> writerToCommit = this.writer.get();
+    this.writer = Optional.absent();
+    this.committedWriter = Optional.of(writerToCommit);
+    try {
+      writerToCommit.commit();
+      this.checkpointedRecordsWritten += writerToCommit.recordsWritten();
+      this.checkpointedBytesWritten += writerToCommit.bytesWritten();
+    } finally {
+      writerToCommit.close();
+    }
+  }
+
+  /**
+   * Get the directory the writers of this {@link Fork} commit to if the parent task takes checkpoints. It is under
+   * the writer staging directory so it is cleaned up along with the staging data of the task. Writers that are not
+   * configured with a writer output directory, i.e., that do not write files, still commit at each checkpoint.
+   */
+  private Optional<Path> getCheckpointOutputDir(boolean checkpointsEnabled) {
+    String writerStagingDirKey =
+        ForkOperatorUtils.getPropertyNameForBranch(ConfigurationKeys.WRITER_STAGING_DIR, this.branches, this.index);
+    if (!checkpointsEnabled || !this.taskState.contains(writerStagingDirKey)
+        || !this.taskState.contains(getWriterOutputDirKey())) {
+      return Optional.absent();
     }
+    return Optional.of(new Path(new Path(new Path(WriterUtils.getWriterStagingDir(this.taskState, this.branches,
+        this.index), CHECKPOINT_OUTPUT_DIR_NAME), this.taskId), Integer.toString(this.index)));
+  }
+
+  private Path getSegmentOutputDir(int segment) {
+    return new Path(this.checkpointOutputDir.get(), Integer.toString(segment));
+  }
+
+  private String getWriterOutputDirKey() {
+    return ForkOperatorUtils.getPropertyNameForBranch(ConfigurationKeys.WRITER_OUTPUT_DIR, this.branches, this.index);
+  }
+
+  /**
+   * Delete the segments committed by a previous run of the parent task after its last recorded checkpoint. The
+   * records of those segments are written again from the checkpoint, possibly into fewer segments.
+   */
+  private void deleteUnrecordedSegments() throws IOException {
+    FileSystem fs = WriterUtils.getWriterFS(this.taskState, this.branches, this.index);
+    if (!fs.exists(this.checkpointOutputDir.get())) {
+      return;
+    }
+
+    for (FileStatus segmentDir : fs.listStatus(this.checkpointOutputDir.get())) {
+      if (Integer.parseInt(segmentDir.getPath().getName()) >= this.writerSegment) {
+        this.logger.info("Deleting output committed after the last checkpoint: " + segmentDir.getPath());
+        HadoopUtils.deletePath(fs, segmentDir.getPath(), true);
+      }
+    }
+  }
+
+  /**
+   * Move the output of all segments in the checkpoint output directory into the writer output directory, keeping
+   * their paths relative to the segment directories, and record the moved files as the writer output files.
+   */
+  private void moveCheckpointOutput() throws IOException {
+    FileSystem fs = WriterUtils.getWriterFS(this.taskState, this.branches, this.index);
+    if (!fs.exists(this.checkpointOutputDir.get())) {
+      return;
+    }
+
+    Path writerOutputDir = new Path(this.taskState.getProp(getWriterOutputDirKey()));
+    String outputFilesKey = ForkOperatorUtils.getPropertyNameForBranch(
+        ConfigurationKeys.WRITER_FINAL_OUTPUT_FILE_PATHS, this.branches, this.index);
+    for (FileStatus segmentDir : fs.listStatus(this.checkpointOutputDir.get())) {
+      for (FileStatus file : FileListUtils.listFilesRecursively(fs, segmentDir.getPath())) {
+        Path outputFile = new Path(writerOutputDir, PathUtils.relativizePath(file.getPath(), segmentDir.getPath()));
+        WriterUtils.mkdirsWithRecursivePermission(fs, outputFile.getParent(),
+            HadoopUtils.deserializeWriterDirPermissions(this.taskState, this.branches, this.index));
+        HadoopUtils.renamePath(fs, file.getPath(), outputFile, true);
+        this.taskState.appendToSetProp(outputFilesKey, outputFile.toString());
+      }
+    }
+    HadoopUtils.deletePath(fs, this.checkpointOutputDir.get(), true);
   }
 
   /**
    * Get new records off the record queue and process them.
    */
   private void processRecords() throws IOException, DataConversionException {
+    if (this.recordBatchSize > 1) {
+      processRecordBatches();
+      return;
+    }
+
     while (true) {
       try {
         Object record = this.recordQueue.get();
@@ -392,6 +575,8 @@ public class Fork implements Closeable, Runnable, FinalState {
           if (this.parentTaskDone) {
             return;
           }
+        } else if (record instanceof TaskCheckpoint) {
+          checkpoint((TaskCheckpoint) record);
         } else {
           buildWriterIfNotPresent();
 
@@ -409,6 +594,56 @@ public class Fork implements Closeable, Runnable, FinalState {
     }
   }
 
+  /**
+   * Get new records off the record queue and process them a batch at a time. A batch is processed once it is full
+   * or no new record arrives before the queue times out, so records do not wait for a batch to fill up indefinitely.
+   */
+  private void processRecordBatches() throws IOException, DataConversionException {
+    RecordBatch<Object> records = new RecordBatch<>(this.recordBatchSize);
+    RecordBatch<Object> convertedRecords = new RecordBatch<>(this.recordBatchSize);
+    RecordBatch<Object> passedRecords = new RecordBatch<>(this.recordBatchSize);
+
+    while (true) {
+      try {
+        Object record = this.recordQueue.get();
+        TaskCheckpoint checkpoint = null;
+        if (record instanceof TaskCheckpoint) {
+          // Write the records before the checkpoint first
+          checkpoint = (TaskCheckpoint) record;
+        } else if (record != null) {
+          records.add(record);
+          if (!records.isFull()) {
+            continue;
+          }
+        }
+
+        if (!records.isEmpty()) {
+          buildWriterIfNotPresent();
+
+          // Convert the records, check their data quality, and finally write out those passing quality checking.
+          RecordBatches.convertBatch(this.converter, this.convertedSchema, records, convertedRecords,
+              this.taskState);
+          records.clear();
+          this.rowLevelPolicyChecker.executePolicies(convertedRecords, passedRecords,
+              this.rowLevelPolicyCheckingResult);
+          convertedRecords.clear();
+          RecordBatches.writeBatch(this.writer.get(), passedRecords);
+          passedRecords.clear();
+        } else if (checkpoint == null && this.parentTaskDone) {
+          // The parent task has already done pulling records so no new record means this fork is done
+          return;
+        }
+
+        if (checkpoint != null) {
+          checkpoint(checkpoint);
+        }
+      } catch (InterruptedException ie) {
+        this.logger.warn("Interrupted while trying to get a record off the queue", ie);
+        Throwables.propagate(ie);
+      }
+    }
+  }
+
   /**
    * Check data quality.
    *
@@ -424,13 +659,8 @@ public class Fork implements Closeable, Runnable, FinalState {
 
     String writerRecordsWrittenKey =
         ForkOperatorUtils.getPropertyNameForBranch(ConfigurationKeys.WRITER_RECORDS_WRITTEN, this.branches, this.index);
-    if (this.writer.isPresent()) {
-      this.forkTaskState.setProp(ConfigurationKeys.WRITER_ROWS_WRITTEN, this.writer.get().recordsWritten());
-      this.taskState.setProp(writerRecordsWrittenKey, this.writer.get().recordsWritten());
-    } else {
-      this.forkTaskState.setProp(ConfigurationKeys.WRITER_ROWS_WRITTEN, 0L);
-      this.taskState.setProp(writerRecordsWrittenKey, 0L);
-    }
+    this.forkTaskState.setProp(ConfigurationKeys.WRITER_ROWS_WRITTEN, getRecordsWritten());
+    this.taskState.setProp(writerRecordsWrittenKey, getRecordsWritten());
 
     if (schema.isPresent()) {
       this.forkTaskState.setProp(ConfigurationKeys.EXTRACT_SCHEMA, schema.get().toString());
@@ -469,7 +699,12 @@ public class Fork implements Closeable, Runnable, FinalState {
    * Commit task data.
    */
   private void commitData() throws IOException {
-    if (this.writer.isPresent()) {
+    if (this.checkpointOutputDir.isPresent()) {
+      // The last writer is closed, which may rename its output file, before its output is moved along with the
+      // output committed at checkpoints
+      commitWriter();
+      moveCheckpointOutput();
+    } else if (this.writer.isPresent()) {
       // Not to catch the exception this may throw so it gets propagated
       this.writer.get().commit();
     }
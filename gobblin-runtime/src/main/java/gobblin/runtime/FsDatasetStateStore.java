@@ -221,6 +221,23 @@ public class FsDatasetStateStore extends FsStateStore<JobState.DatasetState> {
     createAlias(jobName, tableName, getAliasName(datasetUrn));
   }
 
+  /**
+   * Bring the {@link JobState.DatasetState}s of the given job persisted through {@link #persistDatasetState(String,
+   * JobState.DatasetState)} into the form that is read most efficiently. This is called once the datasets of a job
+   * run are committed.
+   *
+   * <p>
+   *   This is a no-op here since {@link #persistDatasetState(String, JobState.DatasetState)} writes each
+   *   {@link JobState.DatasetState} to its final location right away.
+   * </p>
+   *
+   * @param jobName the job name
+   * @throws IOException if there's something wrong writing the {@link JobState.DatasetState}s
+   */
+  public void flush(String jobName) throws IOException {
+    // Nothing to do
+  }
+
   private static String getAliasName(String datasetUrn) {
     return Strings.isNullOrEmpty(datasetUrn) ? CURRENT_DATASET_STATE_FILE_SUFFIX + DATASET_STATE_STORE_TABLE_SUFFIX
         : datasetUrn + "-" + CURRENT_DATASET_STATE_FILE_SUFFIX + DATASET_STATE_STORE_TABLE_SUFFIX;
@@ -0,0 +1,426 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.io.MapFile;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.util.HadoopUtils;
+
+
+/**
+ * An extension of {@link FsDatasetStateStore} that keeps the latest {@link JobState.DatasetState}s of all the
+ * datasets of a job in a single indexed file instead of one file per dataset per run.
+ *
+ * <p>
+ *   The latest {@link JobState.DatasetState}s of a job are stored in a Hadoop {@link MapFile} named
+ *   {@link #DATASET_STATE_INDEX_NAME} under the directory of the job, keyed and sorted by dataset URN. Reading
+ *   the latest {@link JobState.DatasetState}s of a job when the job starts reads a single file, and
+ *   {@link #getLatestDatasetState(String, String)} is a point lookup using the index of the {@link MapFile}.
+ * </p>
+ *
+ * <p>
+ *   {@link #persistDatasetState(String, JobState.DatasetState)} writes the {@link JobState.DatasetState} right away
+ *   to a small pending file of its dataset under {@link #PENDING_DATASET_STATE_DIR_NAME}, so the state of a dataset
+ *   is durable once its commit completes even if the job fails before committing the other datasets. Persisting
+ *   the state of a dataset only writes the file of that dataset, so datasets committed in parallel do not contend
+ *   on the index. Pending {@link JobState.DatasetState}s take precedence over the index when reading, and
+ *   {@link #flush(String)} merges them into a new index once per job run and then deletes them.
+ * </p>
+ *
+ * <p>
+ *   Both the index and the pending files are written to uniquely named temporary files and swapped in using
+ *   renames, and the file being replaced is kept as a backup until the swap completes, so a failure at any point
+ *   leaves either the old or the new {@link JobState.DatasetState} readable. Readers in the same process wait for a
+ *   swap in progress, so they do not miss a file moved to its backup while the new file is not yet in place.
+ * </p>
+ *
+ * <p>
+ *   For a job that has no index yet, the latest {@link JobState.DatasetState}s are read from the per-dataset
+ *   {@code current.jst} files written by {@link FsDatasetStateStore}, and are merged into the index the first
+ *   time it is written, which migrates the job to this store. The per-dataset files are left in place but are
+ *   no longer read once the index exists.
+ * </p>
+ */
+public class IndexedFsDatasetStateStore extends FsDatasetStateStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexedFsDatasetStateStore.class);
+
+  public static final String DATASET_STATE_INDEX_NAME = "current.dsi";
+  public static final String PENDING_DATASET_STATE_DIR_NAME = DATASET_STATE_INDEX_NAME + ".pending";
+
+  private static final String PENDING_DATASET_STATE_FILE_SUFFIX = ".dsp";
+  private static final String BACKUP_FILE_SUFFIX = ".bak";
+
+  // Reading and persisting dataset states of a job share the lock of the job. Merging pending dataset states into
+  // the index holds it exclusively, so no pending dataset state persisted while the index is written is deleted
+  // and readers never see the new index with the merged pending dataset states deleted or vice versa
+  private static final Striped<ReadWriteLock> JOB_LOCKS = Striped.lazyWeakReadWriteLock(Integer.MAX_VALUE);
+  // Swapping in the pending dataset state of a dataset holds the lock of its pending file exclusively, so readers
+  // never look for the pending file between moving the old file to its backup and moving the new file in place
+  private static final Striped<ReadWriteLock> PENDING_FILE_LOCKS = Striped.lazyWeakReadWriteLock(Integer.MAX_VALUE);
+
+  public IndexedFsDatasetStateStore(String fsUri, String storeRootDir) throws IOException {
+    super(fsUri, storeRootDir);
+  }
+
+  public IndexedFsDatasetStateStore(FileSystem fs, String storeRootDir) throws IOException {
+    super(fs, storeRootDir);
+  }
+
+  @Override
+  public Map<String, JobState.DatasetState> getLatestDatasetStatesByUrns(String jobName) throws IOException {
+    Map<String, JobState.DatasetState> datasetStatesByUrns;
+    Lock lock = getJobLock(jobName).readLock();
+    lock.lock();
+    try {
+      datasetStatesByUrns = Maps.newHashMap(readIndex(jobName));
+      datasetStatesByUrns.putAll(readPendingDatasetStates(jobName).datasetStatesByUrns);
+    } finally {
+      lock.unlock();
+    }
+
+    // Keep the behavior of FsDatasetStateStore for jobs that transitioned from the job-level state
+    if (datasetStatesByUrns.size() > 1) {
+      datasetStatesByUrns.remove(ConfigurationKeys.DEFAULT_DATASET_URN);
+    }
+
+    return datasetStatesByUrns;
+  }
+
+  @Override
+  public JobState.DatasetState getLatestDatasetState(String storeName, String datasetUrn) throws IOException {
+    String key = Strings.nullToEmpty(datasetUrn);
+    Lock lock = getJobLock(storeName).readLock();
+    lock.lock();
+    try {
+      JobState.DatasetState pendingDatasetState = readPendingDatasetState(getPendingDatasetStatePath(storeName, key));
+      if (pendingDatasetState != null) {
+        return pendingDatasetState;
+      }
+
+      Optional<Path> indexPath = getReadablePath(getIndexPath(storeName));
+      if (!indexPath.isPresent()) {
+        return super.getLatestDatasetState(storeName, datasetUrn);
+      }
+
+      try (MapFile.Reader reader = new MapFile.Reader(indexPath.get(), this.conf)) {
+        return (JobState.DatasetState) reader.get(new Text(key), new JobState.DatasetState());
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   *   The {@link JobState.DatasetState} is written to the pending file of its dataset, replacing the pending
+   *   {@link JobState.DatasetState} persisted before if any, and is merged into the index on
+   *   {@link #flush(String)}.
+   * </p>
+   */
+  @Override
+  public void persistDatasetState(String datasetUrn, JobState.DatasetState datasetState) throws IOException {
+    String jobName = datasetState.getJobName();
+    String key = Strings.nullToEmpty(datasetUrn);
+    Path pendingPath = getPendingDatasetStatePath(jobName, key);
+    Path tmpPendingPath = getTmpPath(pendingPath);
+
+    Lock lock = getJobLock(jobName).readLock();
+    lock.lock();
+    try {
+      try (SequenceFile.Writer writer = SequenceFile.createWriter(this.conf, SequenceFile.Writer.file(tmpPendingPath),
+          SequenceFile.Writer.keyClass(Text.class), SequenceFile.Writer.valueClass(JobState.DatasetState.class),
+          SequenceFile.Writer.compression(SequenceFile.CompressionType.BLOCK, new DefaultCodec()))) {
+        writer.append(new Text(key), datasetState);
+      }
+
+      Lock pendingFileLock = PENDING_FILE_LOCKS.get(pendingPath).writeLock();
+      pendingFileLock.lock();
+      try {
+        swap(tmpPendingPath, pendingPath);
+      } finally {
+        pendingFileLock.unlock();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Merge the pending {@link JobState.DatasetState}s of the given job into the index of the job.
+   *
+   * <p>
+   *   The pending {@link JobState.DatasetState}s are durable already, so a failure here loses no state and the
+   *   merge is retried by the next {@link #flush(String)}.
+   * </p>
+   */
+  @Override
+  public void flush(String jobName) throws IOException {
+    Lock lock = getJobLock(jobName).writeLock();
+    lock.lock();
+    try {
+      PendingDatasetStates pending = readPendingDatasetStates(jobName);
+      if (pending.datasetStatesByUrns.isEmpty()) {
+        return;
+      }
+
+      writeIndex(jobName, pending.datasetStatesByUrns);
+      for (Path path : pending.paths) {
+        HadoopUtils.deleteIfExists(this.fs, path, false);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Write a new index of the given job with the given {@link JobState.DatasetState}s merged into the existing
+   * index, or into the latest per-dataset {@link JobState.DatasetState}s if the job has no index yet.
+   */
+  private void writeIndex(String jobName, Map<String, JobState.DatasetState> datasetStatesByUrns)
+      throws IOException {
+    Path indexPath = getIndexPath(jobName);
+    Path tmpIndexPath = getTmpPath(indexPath);
+
+    Optional<Path> existingIndexPath = getReadablePath(indexPath);
+
+    // Keys of a MapFile must be appended in sorted order
+    SortedMap<Text, JobState.DatasetState> sortedDatasetStates = Maps.newTreeMap();
+    if (!existingIndexPath.isPresent()) {
+      Map<String, JobState.DatasetState> migratedDatasetStates = super.getLatestDatasetStatesByUrns(jobName);
+      if (!migratedDatasetStates.isEmpty()) {
+        LOGGER.info(String.format("Migrating the latest states of %d datasets of job %s to %s",
+            migratedDatasetStates.size(), jobName, indexPath));
+      }
+      for (Map.Entry<String, JobState.DatasetState> entry : migratedDatasetStates.entrySet()) {
+        sortedDatasetStates.put(new Text(Strings.nullToEmpty(entry.getKey())), entry.getValue());
+      }
+    }
+    for (Map.Entry<String, JobState.DatasetState> entry : datasetStatesByUrns.entrySet()) {
+      sortedDatasetStates.put(new Text(entry.getKey()), entry.getValue());
+    }
+
+    try (MapFile.Writer writer = new MapFile.Writer(this.conf, tmpIndexPath, MapFile.Writer.keyClass(Text.class),
+        MapFile.Writer.valueClass(JobState.DatasetState.class),
+        SequenceFile.Writer.compression(SequenceFile.CompressionType.BLOCK, new DefaultCodec()))) {
+      Iterator<Map.Entry<Text, JobState.DatasetState>> iterator = sortedDatasetStates.entrySet().iterator();
+      Map.Entry<Text, JobState.DatasetState> next = iterator.hasNext() ? iterator.next() : null;
+
+      if (existingIndexPath.isPresent()) {
+        try (MapFile.Reader reader = new MapFile.Reader(existingIndexPath.get(), this.conf)) {
+          Text key = new Text();
+          JobState.DatasetState existingDatasetState = new JobState.DatasetState();
+          while (reader.next(key, existingDatasetState)) {
+            while (next != null && next.getKey().compareTo(key) < 0) {
+              writer.append(next.getKey(), next.getValue());
+              next = iterator.hasNext() ? iterator.next() : null;
+            }
+            if (next != null && next.getKey().equals(key)) {
+              writer.append(next.getKey(), next.getValue());
+              next = iterator.hasNext() ? iterator.next() : null;
+            } else {
+              writer.append(key, existingDatasetState);
+            }
+            existingDatasetState = new JobState.DatasetState();
+          }
+        }
+      }
+
+      while (next != null) {
+        writer.append(next.getKey(), next.getValue());
+        next = iterator.hasNext() ? iterator.next() : null;
+      }
+    }
+
+    LOGGER.info(String.format("Persisting the states of %d datasets of job %s to %s", datasetStatesByUrns.size(),
+        jobName, indexPath));
+    swap(tmpIndexPath, indexPath);
+  }
+
+  private Map<String, JobState.DatasetState> readIndex(String jobName) throws IOException {
+    Optional<Path> indexPath = getReadablePath(getIndexPath(jobName));
+    if (!indexPath.isPresent()) {
+      return super.getLatestDatasetStatesByUrns(jobName);
+    }
+
+    Map<String, JobState.DatasetState> datasetStatesByUrns = Maps.newHashMap();
+    try (MapFile.Reader reader = new MapFile.Reader(indexPath.get(), this.conf)) {
+      Text key = new Text();
+      JobState.DatasetState datasetState = new JobState.DatasetState();
+      while (reader.next(key, datasetState)) {
+        datasetStatesByUrns.put(key.toString(), datasetState);
+        datasetState = new JobState.DatasetState();
+      }
+    }
+    return datasetStatesByUrns;
+  }
+
+  private PendingDatasetStates readPendingDatasetStates(String jobName) throws IOException {
+    PendingDatasetStates pending = new PendingDatasetStates();
+    Path pendingDirPath = new Path(getJobPath(jobName), PENDING_DATASET_STATE_DIR_NAME);
+    if (!this.fs.exists(pendingDirPath)) {
+      return pending;
+    }
+
+    FileStatus[] statuses = this.fs.listStatus(pendingDirPath, new PathFilter() {
+      @Override
+      public boolean accept(Path path) {
+        return !path.getName().startsWith(TMP_FILE_PREFIX);
+      }
+    });
+    Set<Path> pendingPaths = Sets.newHashSet();
+    for (FileStatus status : statuses) {
+      String name = status.getPath().getName();
+      pending.paths.add(status.getPath());
+      // Built from the directory path like the paths written to, since the lock of a pending file is keyed by its path
+      pendingPaths.add(new Path(pendingDirPath, name.endsWith(BACKUP_FILE_SUFFIX)
+          ? name.substring(0, name.length() - BACKUP_FILE_SUFFIX.length()) : name));
+    }
+
+    for (Path pendingPath : pendingPaths) {
+      JobState.DatasetState datasetState = readPendingDatasetState(pendingPath);
+      if (datasetState != null) {
+        pending.datasetStatesByUrns.put(Strings.nullToEmpty(datasetState.getDatasetUrn()), datasetState);
+      }
+    }
+    return pending;
+  }
+
+  /**
+   * Read the pending {@link JobState.DatasetState} at the given {@link Path}, or its backup.
+   *
+   * @return the pending {@link JobState.DatasetState}, or {@code null} if there is none
+   */
+  private JobState.DatasetState readPendingDatasetState(Path pendingPath) throws IOException {
+    Lock lock = PENDING_FILE_LOCKS.get(pendingPath).readLock();
+    lock.lock();
+    try {
+      Optional<Path> readablePath = getReadablePath(pendingPath);
+      if (!readablePath.isPresent()) {
+        return null;
+      }
+
+      try (SequenceFile.Reader reader =
+          new SequenceFile.Reader(this.conf, SequenceFile.Reader.file(readablePath.get()))) {
+        Text key = new Text();
+        JobState.DatasetState datasetState = new JobState.DatasetState();
+        return reader.next(key, datasetState) ? datasetState : null;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replace the file at the given {@link Path} with the given temporary file, keeping the replaced file as a backup
+   * until the temporary file is in place.
+   */
+  private void swap(Path tmpPath, Path path) throws IOException {
+    Path backupPath = getBackupPath(path);
+    if (this.fs.exists(path)) {
+      // A backup left behind by a swap that failed after the new file was in place is stale
+      HadoopUtils.deleteIfExists(this.fs, backupPath, true);
+      HadoopUtils.renamePath(this.fs, path, backupPath);
+    }
+    HadoopUtils.renamePath(this.fs, tmpPath, path);
+    HadoopUtils.deleteIfExists(this.fs, backupPath, true);
+  }
+
+  /**
+   * Get the given {@link Path} if it exists, or its backup if a swap failed before the new file was in place.
+   */
+  private Optional<Path> getReadablePath(Path path) throws IOException {
+    if (this.fs.exists(path)) {
+      return Optional.of(path);
+    }
+
+    Path backupPath = getBackupPath(path);
+    if (this.fs.exists(backupPath)) {
+      return Optional.of(backupPath);
+    }
+
+    return Optional.absent();
+  }
+
+  private Path getJobPath(String jobName) {
+    return this.fs.makeQualified(new Path(this.storeRootDir, jobName));
+  }
+
+  private Path getIndexPath(String jobName) {
+    return new Path(getJobPath(jobName), DATASET_STATE_INDEX_NAME);
+  }
+
+  /**
+   * Dataset URNs are hashed into the names of the pending files since they may contain characters that are not
+   * allowed in file names.
+   */
+  private Path getPendingDatasetStatePath(String jobName, String datasetUrn) {
+    return new Path(new Path(getJobPath(jobName), PENDING_DATASET_STATE_DIR_NAME),
+        Hashing.sha1().hashString(datasetUrn, Charsets.UTF_8).toString() + PENDING_DATASET_STATE_FILE_SUFFIX);
+  }
+
+  private static Path getBackupPath(Path path) {
+    return new Path(path.getParent(), path.getName() + BACKUP_FILE_SUFFIX);
+  }
+
+  /**
+   * Get a uniquely named temporary {@link Path} for writing the file at the given {@link Path}, so concurrent
+   * writers never write to the same temporary file.
+   */
+  private static Path getTmpPath(Path path) {
+    return new Path(path.getParent(), TMP_FILE_PREFIX + UUID.randomUUID() + "-" + path.getName());
+  }
+
+  private static ReadWriteLock getJobLock(String jobName) {
+    return JOB_LOCKS.get(jobName);
+  }
+
+  /**
+   * The pending {@link JobState.DatasetState}s of a job and the files they were read from.
+   */
+  private static class PendingDatasetStates {
+    private final Map<String, JobState.DatasetState> datasetStatesByUrns = Maps.newHashMap();
+    private final List<Path> paths = Lists.newArrayList();
+  }
+}
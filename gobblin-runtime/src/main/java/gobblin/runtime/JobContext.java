@@ -17,6 +17,11 @@ import java.net.URI;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import lombok.Getter;
 
@@ -49,6 +54,9 @@ import gobblin.instrumented.Instrumented;
 import gobblin.metastore.JobHistoryStore;
 import gobblin.metastore.MetaStoreModule;
 import gobblin.metrics.GobblinMetrics;
+import gobblin.metrics.event.EventSubmitter;
+import gobblin.metrics.event.JobEvent;
+import gobblin.metrics.event.TimingEvent;
 import gobblin.publisher.CommitSequencePublisher;
 import gobblin.publisher.DataPublisher;
 import gobblin.publisher.UnpublishedHandling;
@@ -58,6 +66,7 @@ import gobblin.runtime.commit.FsCommitSequenceStore;
 import gobblin.runtime.util.JobMetrics;
 import gobblin.source.Source;
 import gobblin.source.extractor.JobCommitPolicy;
+import gobblin.util.ExecutorsUtils;
 import gobblin.util.HadoopUtils;
 import gobblin.util.JobLauncherUtils;
 
@@ -74,12 +83,16 @@ public class JobContext {
   private static final String TASK_STAGING_DIR_NAME = "task-staging";
   private static final String TASK_OUTPUT_DIR_NAME = "task-output";
 
+  private static final String METADATA_DATASET_URN = "datasetUrn";
+  private static final String METADATA_DATASET_COMMIT_SUCCESS = "success";
+
   private final String jobName;
   private final String jobId;
   private final JobState jobState;
   private final JobCommitPolicy jobCommitPolicy;
   private final boolean jobLockEnabled;
   private final Optional<JobMetrics> jobMetricsOptional;
+  private final Optional<EventSubmitter> eventSubmitter;
   private final Source<?, ?> source;
 
   // State store for persisting job states
@@ -126,6 +139,9 @@ public class JobContext {
     if (jobProps.containsKey(ConfigurationKeys.STATE_STORE_ENABLED) &&
         !Boolean.parseBoolean(jobProps.getProperty(ConfigurationKeys.STATE_STORE_ENABLED))) {
       this.datasetStateStore = new NoopDatasetStateStore(stateStoreFs, stateStoreRootDir);
+    } else if (Boolean.parseBoolean(jobProps.getProperty(ConfigurationKeys.STATE_STORE_INDEXED_ENABLED_KEY,
+        Boolean.toString(ConfigurationKeys.DEFAULT_STATE_STORE_INDEXED_ENABLED)))) {
+      this.datasetStateStore = new IndexedFsDatasetStateStore(stateStoreFs, stateStoreRootDir);
     } else {
       this.datasetStateStore = new FsDatasetStateStore(stateStoreFs, stateStoreRootDir);
     }
@@ -149,8 +165,11 @@ public class JobContext {
     if (GobblinMetrics.isEnabled(jobProps)) {
       this.jobMetricsOptional = Optional.of(JobMetrics.get(this.jobState));
       this.jobState.setProp(Instrumented.METRIC_CONTEXT_NAME_KEY, this.jobMetricsOptional.get().getName());
+      this.eventSubmitter = Optional.of(
+          new EventSubmitter.Builder(this.jobMetricsOptional.get().getMetricContext(), "gobblin.runtime").build());
     } else {
       this.jobMetricsOptional = Optional.absent();
+      this.eventSubmitter = Optional.absent();
     }
 
     this.semantics = DeliverySemantics.parse(this.jobState);
@@ -342,20 +361,70 @@ public class JobContext {
 
   /**
    * Commit the job on a per-dataset basis.
+   *
+   * <p>
+   *   Datasets are committed concurrently using up to {@link ConfigurationKeys#JOB_COMMIT_THREADS_KEY} threads.
+   *   The commit of each dataset, including the execution of its {@link CommitSequence} when
+   *   {@link DeliverySemantics#EXACTLY_ONCE} is used, runs entirely in a single thread, and a failure to commit
+   *   one dataset does not affect the commit of the other datasets.
+   * </p>
    */
   void commit() throws IOException {
     this.datasetStatesByUrns = Optional.of(this.jobState.createDatasetStatesByUrns());
     boolean allDatasetsCommit = true;
-    boolean shouldCommitDataInJob = shouldCommitDataInJob(this.jobState);
-    DeliverySemantics deliverySemantics = DeliverySemantics.parse(this.jobState);
+    final boolean shouldCommitDataInJob = shouldCommitDataInJob(this.jobState);
+    final DeliverySemantics deliverySemantics = DeliverySemantics.parse(this.jobState);
+    int numCommitThreads = Math.min(this.jobState.getPropAsInt(ConfigurationKeys.JOB_COMMIT_THREADS_KEY,
+        ConfigurationKeys.DEFAULT_JOB_COMMIT_THREADS), this.datasetStatesByUrns.get().size());
 
     if (!shouldCommitDataInJob) {
       this.logger.info("Job will not commit data since data are committed by tasks.");
     }
 
-    for (Map.Entry<String, JobState.DatasetState> entry : this.datasetStatesByUrns.get().entrySet()) {
-      allDatasetsCommit &=
-          processDatasetCommit(shouldCommitDataInJob, deliverySemantics, entry.getKey(), entry.getValue());
+    if (numCommitThreads <= 1) {
+      for (Map.Entry<String, JobState.DatasetState> entry : this.datasetStatesByUrns.get().entrySet()) {
+        allDatasetsCommit &=
+            timeDatasetCommit(shouldCommitDataInJob, deliverySemantics, entry.getKey(), entry.getValue());
+      }
+    } else {
+      this.logger.info(String.format("Committing %d datasets of job %s using %d threads",
+          this.datasetStatesByUrns.get().size(), this.jobId, numCommitThreads));
+      ExecutorService commitExecutor = Executors.newFixedThreadPool(numCommitThreads,
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("DatasetCommit-%d")));
+      try {
+        Map<String, Future<Boolean>> commitFutures = Maps.newLinkedHashMap();
+        for (final Map.Entry<String, JobState.DatasetState> entry : this.datasetStatesByUrns.get().entrySet()) {
+          commitFutures.put(entry.getKey(), commitExecutor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+              return timeDatasetCommit(shouldCommitDataInJob, deliverySemantics, entry.getKey(), entry.getValue());
+            }
+          }));
+        }
+
+        for (Map.Entry<String, Future<Boolean>> entry : commitFutures.entrySet()) {
+          try {
+            allDatasetsCommit &= entry.getValue().get();
+          } catch (ExecutionException ee) {
+            this.logger.error(
+                String.format("Failed to commit dataset %s of job %s", entry.getKey(), this.jobId), ee.getCause());
+            allDatasetsCommit = false;
+          }
+        }
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        this.jobState.setState(JobState.RunningState.FAILED);
+        throw new IOException("Interrupted while committing datasets of job " + this.jobId, ie);
+      } finally {
+        ExecutorsUtils.shutdownExecutorService(commitExecutor, Optional.of(LOG));
+      }
+    }
+
+    try {
+      this.datasetStateStore.flush(this.jobName);
+    } catch (IOException ioe) {
+      // The dataset states are persisted already, flushing them again is left to the next run
+      this.logger.warn("Failed to flush dataset states of job " + this.jobId, ioe);
     }
 
     if (!allDatasetsCommit) {
@@ -365,6 +434,27 @@ public class JobContext {
     this.jobState.setState(JobState.RunningState.COMMITTED);
   }
 
+  /**
+   * Commit a dataset through {@link #processDatasetCommit(boolean, DeliverySemantics, String, JobState.DatasetState)}
+   * and emit a {@link TimingEvent} for the latency of the commit if metrics are enabled.
+   */
+  private boolean timeDatasetCommit(boolean shouldCommitDataInJob, DeliverySemantics deliverySemantics,
+      String datasetUrn, JobState.DatasetState datasetState) throws IOException {
+    Optional<TimingEvent> datasetCommitTimer = this.eventSubmitter.isPresent()
+        ? Optional.of(this.eventSubmitter.get().getTimingEvent(TimingEvent.LauncherTimings.DATASET_COMMIT))
+        : Optional.<TimingEvent> absent();
+    boolean success = false;
+    try {
+      success = processDatasetCommit(shouldCommitDataInJob, deliverySemantics, datasetUrn, datasetState);
+      return success;
+    } finally {
+      if (datasetCommitTimer.isPresent()) {
+        datasetCommitTimer.get().stop(ImmutableMap.of(METADATA_DATASET_URN, datasetUrn, JobEvent.METADATA_JOB_ID,
+            this.jobId, METADATA_DATASET_COMMIT_SUCCESS, Boolean.toString(success)));
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   boolean processDatasetCommit(boolean shouldCommitDataInJob, DeliverySemantics deliverySemantics, String datasetUrn,
       JobState.DatasetState datasetState) throws IOException {
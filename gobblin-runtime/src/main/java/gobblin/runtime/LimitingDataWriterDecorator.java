@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.io.IOException;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.io.Closer;
+
+import gobblin.configuration.State;
+import gobblin.util.Decorator;
+import gobblin.util.FinalState;
+import gobblin.util.RecordBatch;
+import gobblin.util.RecordBatches;
+import gobblin.util.limiter.Limiter;
+import gobblin.util.limiter.RecordSizeEstimator;
+import gobblin.writer.BatchDataWriter;
+import gobblin.writer.DataWriter;
+
+
+/**
+ * A decorator class for {@link DataWriter} that uses a {@link Limiter} to limit the number of bytes written.
+ *
+ * <p>
+ *   After each write, permits are acquired for the bytes written since the previous write as reported by
+ *   {@link DataWriter#bytesWritten()}, i.e., the position of the output stream of the writer, so the bytes are
+ *   limited as they reach the destination. {@link DataWriter#bytesWritten()} is called after every write, so it
+ *   should not call the destination, as {@link gobblin.writer.AvroHdfsDataWriter} does not. For writers that do not
+ *   report the bytes written until they are committed, e.g., {@link gobblin.writer.HiveWritableHdfsDataWriter}, or
+ *   whose output is buffered beyond the write operations, permits can instead be acquired for the size of each
+ *   record estimated by {@link RecordSizeEstimator}. The time blocked on the {@link Limiter} is optionally recorded
+ *   in a {@link Timer}.
+ * </p>
+ *
+ * <p>
+ *   The {@link Limiter} should not refuse permits, e.g., be a {@link gobblin.util.limiter.RateBasedLimiter}, as a
+ *   write that is already done cannot be undone. A refused permit fails the write with an {@link IOException}.
+ * </p>
+ *
+ * @param <D> data record type
+ */
+public class LimitingDataWriterDecorator<D> implements BatchDataWriter<D>, FinalState, Decorator {
+
+  private final DataWriter<D> writer;
+  private final Limiter limiter;
+  private final boolean estimateSize;
+  private final Optional<Timer> throttledTimer;
+  private long lastBytesWritten = 0;
+
+  /**
+   * @param writer the {@link DataWriter} to decorate
+   * @param limiter the {@link Limiter} of bytes written
+   * @param estimateSize whether to acquire permits for the estimated size of the records instead of the bytes
+   *                     reported by the {@link DataWriter}
+   * @param throttledTimer an optional {@link Timer} recording the time blocked on the {@link Limiter}
+   */
+  public LimitingDataWriterDecorator(DataWriter<D> writer, Limiter limiter, boolean estimateSize,
+      Optional<Timer> throttledTimer) {
+    this.writer = writer;
+    this.limiter = limiter;
+    this.estimateSize = estimateSize;
+    this.throttledTimer = throttledTimer;
+    this.limiter.start();
+  }
+
+  @Override
+  public void write(D record) throws IOException {
+    this.writer.write(record);
+    throttle(this.estimateSize ? RecordSizeEstimator.estimateSize(record) : 0);
+  }
+
+  @Override
+  public void writeBatch(RecordBatch<D> records) throws IOException {
+    RecordBatches.writeBatch(this.writer, records);
+    long estimatedSize = 0;
+    if (this.estimateSize) {
+      for (D record : records) {
+        estimatedSize += RecordSizeEstimator.estimateSize(record);
+      }
+    }
+    throttle(estimatedSize);
+  }
+
+  private void throttle(long estimatedSize) throws IOException {
+    long permits;
+    if (this.estimateSize) {
+      permits = Math.max(1, estimatedSize);
+    } else {
+      long bytesWritten = this.writer.bytesWritten();
+      permits = bytesWritten - this.lastBytesWritten;
+      this.lastBytesWritten = bytesWritten;
+    }
+    if (permits <= 0) {
+      return;
+    }
+
+    Timer.Context context = this.throttledTimer.isPresent() ? this.throttledTimer.get().time() : null;
+    try (Closer closer = Closer.create()) {
+      if (closer.register(this.limiter.acquirePermits(permits)) == null) {
+        throw new IOException(String.format("The writer limiter refused %d permits", permits));
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while trying to acquire the permits of written bytes", ie);
+    } finally {
+      if (context != null) {
+        context.stop();
+      }
+    }
+  }
+
+  @Override
+  public void commit() throws IOException {
+    this.writer.commit();
+  }
+
+  @Override
+  public void cleanup() throws IOException {
+    this.writer.cleanup();
+  }
+
+  @Override
+  public long recordsWritten() {
+    return this.writer.recordsWritten();
+  }
+
+  @Override
+  public long bytesWritten() throws IOException {
+    return this.writer.bytesWritten();
+  }
+
+  @Override
+  public State getFinalState() {
+    if (this.writer instanceof FinalState) {
+      return ((FinalState) this.writer).getFinalState();
+    }
+    return new State();
+  }
+
+  @Override
+  public Object getDecoratedObject() {
+    return this.writer;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.writer.close();
+    } finally {
+      this.limiter.stop();
+    }
+  }
+}
@@ -12,14 +12,18 @@
 
 package gobblin.runtime;
 
+import java.io.Closeable;
 import java.io.IOException;
 
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
 import com.google.common.io.Closer;
 
 import gobblin.source.extractor.DataRecordException;
 import gobblin.source.extractor.Extractor;
 import gobblin.util.Decorator;
 import gobblin.util.limiter.Limiter;
+import gobblin.util.limiter.RecordSizeEstimator;
 
 
 /**
@@ -33,6 +37,14 @@ import gobblin.util.limiter.Limiter;
  *   The first case is useful for throttling at above the task level, e.g., at the job level.
  * </p>
  *
+ * <p>
+ *   Permits are acquired either per record, before each record is read, or per byte, in which case the
+ *   {@link Limiter} is given the size of each record estimated by {@link RecordSizeEstimator} after the record is
+ *   read, since the size is not known before. In the latter case, no more record is read once the {@link Limiter}
+ *   refuses the permits of a record. The time blocked on the {@link Limiter} is optionally recorded in a
+ *   {@link Timer}.
+ * </p>
+ *
  * @param <S> output schema type
  * @param <D> output record type
  *
@@ -40,12 +52,31 @@ import gobblin.util.limiter.Limiter;
  */
 public class LimitingExtractorDecorator<S, D> implements Extractor<S, D>, Decorator {
 
+  /**
+   * Unit of the permits acquired from the {@link Limiter}.
+   */
+  public enum LimitUnit {
+    RECORDS,
+    BYTES
+  }
+
   private final Extractor<S, D> extractor;
   private final Limiter limiter;
+  private final LimitUnit limitUnit;
+  private final Optional<Timer> throttledTimer;
+  // Whether the limiter has refused the permits of a record in bytes
+  private boolean limitReached = false;
 
   public LimitingExtractorDecorator(Extractor<S, D> extractor, Limiter limiter) {
+    this(extractor, limiter, LimitUnit.RECORDS, Optional.<Timer> absent());
+  }
+
+  public LimitingExtractorDecorator(Extractor<S, D> extractor, Limiter limiter, LimitUnit limitUnit,
+      Optional<Timer> throttledTimer) {
     this.extractor = extractor;
     this.limiter = limiter;
+    this.limitUnit = limitUnit;
+    this.throttledTimer = throttledTimer;
     this.limiter.start();
   }
 
@@ -61,8 +92,12 @@ public class LimitingExtractorDecorator<S, D> implements Extractor<S, D>, Decora
 
   @Override
   public D readRecord(@Deprecated D reuse) throws DataRecordException, IOException {
+    if (this.limitUnit == LimitUnit.BYTES) {
+      return readRecordLimitingBytes(reuse);
+    }
+
     try (Closer closer = Closer.create()) {
-      if (closer.register(this.limiter.acquirePermits(1)) != null) {
+      if (closer.register(acquirePermits(1)) != null) {
         return this.extractor.readRecord(reuse);
       }
       return null;
@@ -72,6 +107,36 @@ public class LimitingExtractorDecorator<S, D> implements Extractor<S, D>, Decora
     }
   }
 
+  private D readRecordLimitingBytes(D reuse) throws DataRecordException, IOException {
+    if (this.limitReached) {
+      return null;
+    }
+
+    D record = this.extractor.readRecord(reuse);
+    if (record != null) {
+      try (Closer closer = Closer.create()) {
+        long permits = Math.max(1, RecordSizeEstimator.estimateSize(record));
+        this.limitReached = closer.register(acquirePermits(permits)) == null;
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while trying to acquire the permits of a record", ie);
+      }
+    }
+    return record;
+  }
+
+  private Closeable acquirePermits(long permits) throws InterruptedException {
+    if (!this.throttledTimer.isPresent()) {
+      return this.limiter.acquirePermits(permits);
+    }
+    Timer.Context context = this.throttledTimer.get().time();
+    try {
+      return this.limiter.acquirePermits(permits);
+    } finally {
+      context.stop();
+    }
+  }
+
   @Override
   public long getExpectedRecordCount() {
     return this.extractor.getExpectedRecordCount();
@@ -15,37 +15,54 @@ package gobblin.runtime;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 import gobblin.Constructs;
 import gobblin.configuration.State;
 import gobblin.configuration.WorkUnitState;
+import gobblin.converter.BatchConverter;
 import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.EmptyIterable;
-import gobblin.converter.IdentityConverter;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.state.ConstructState;
+import gobblin.util.RecordBatch;
+import gobblin.util.RecordBatches;
 
 
 /**
  * An implementation of {@link Converter} that applies a given list of {@link Converter}s in the given order.
  *
+ * <p>
+ *   Consecutive {@link Converter}s that implement {@link SingleRecordConverter} are fused into a single stage that
+ *   applies them to a record through direct calls to {@link SingleRecordConverter#convertSingleRecord}, without
+ *   creating an {@link Iterable} per {@link Converter} per record. If all the {@link Converter}s implement
+ *   {@link SingleRecordConverter}, each record is converted with a single sequence of direct calls when
+ *   {@link #convertRecord(Object, Object, WorkUnitState)} is called.
+ * </p>
+ *
+ * <p>
+ *   When converting a {@link RecordBatch} through {@link #convertBatch}, the whole batch goes through one stage
+ *   before the next, using a reusable intermediate {@link RecordBatch} per stage.
+ * </p>
+ *
  * @author Yinan Li
  */
 @SuppressWarnings("unchecked")
-public class MultiConverter extends Converter<Object, Object, Object, Object> {
+public class MultiConverter extends Converter<Object, Object, Object, Object>
+    implements BatchConverter<Object, Object, Object> {
 
   // The list of converters to be applied
   private final List<Converter<?, ?, ?, ?>> converters;
-  // Remember the mapping between converter and schema it generates
-  private final Map<Converter<?, ?, ?, ?>, Object> convertedSchemaMap = Maps.newHashMap();
+  // The stages the converters are applied in, set up when convertSchema is called
+  private List<ConverterStage> stages;
+  // The reusable batches holding the output of each stage but the last one, created when convertBatch is first called
+  private List<RecordBatch<Object>> intermediateBatches;
 
   public MultiConverter(List<Converter<?, ?, ?, ?>> converters) {
     // Make a copy to guard against changes to the converters from outside
@@ -62,13 +79,34 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
   @Override
   public Object convertSchema(Object inputSchema, WorkUnitState workUnit) throws SchemaConversionException {
 
+    List<ConverterStage> stages = Lists.newArrayList();
+    List<SingleRecordConverter> fusedConverters = Lists.newArrayList();
+    List<Object> fusedSchemas = Lists.newArrayList();
+
     Object schema = inputSchema;
     for (Converter converter : this.converters) {
       // Apply the converter and remember the output schema of this converter
       schema = converter.convertSchema(schema, workUnit);
-      this.convertedSchemaMap.put(converter, schema);
+
+      if (converter instanceof SingleRecordConverter) {
+        fusedConverters.add((SingleRecordConverter) converter);
+        fusedSchemas.add(schema);
+        continue;
+      }
+
+      if (!fusedConverters.isEmpty()) {
+        stages.add(new FusedConverterStage(fusedConverters, fusedSchemas));
+        fusedConverters.clear();
+        fusedSchemas.clear();
+      }
+      stages.add(new SingleConverterStage(converter, schema));
+    }
+    if (!fusedConverters.isEmpty()) {
+      stages.add(new FusedConverterStage(fusedConverters, fusedSchemas));
     }
 
+    this.stages = stages;
+    this.intermediateBatches = null;
     return schema;
   }
 
@@ -76,10 +114,18 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
   public Iterable<Object> convertRecord(Object outputSchema, final Object inputRecord, final WorkUnitState workUnit)
       throws DataConversionException {
 
-    if (this.convertedSchemaMap.size() != this.converters.size()) {
+    if (this.stages == null) {
       throw new RuntimeException("convertRecord should be called only after convertSchema is called");
     }
 
+    if (this.stages.isEmpty()) {
+      return new SingleRecordIterable<>(inputRecord);
+    }
+
+    if (this.stages.size() == 1) {
+      return this.stages.get(0).convert(inputRecord, workUnit);
+    }
+
     return new Iterable<Object>() {
       @Override
       public Iterator<Object> iterator() {
@@ -92,6 +138,46 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
     };
   }
 
+  @Override
+  public void convertBatch(Object outputSchema, RecordBatch<Object> inputRecords, RecordBatch<Object> outputRecords,
+      WorkUnitState workUnit) throws DataConversionException {
+
+    if (this.stages == null) {
+      throw new RuntimeException("convertBatch should be called only after convertSchema is called");
+    }
+
+    if (this.stages.isEmpty()) {
+      for (int i = 0; i < inputRecords.size(); i++) {
+        outputRecords.add(inputRecords.get(i));
+      }
+      return;
+    }
+
+    if (this.intermediateBatches == null) {
+      this.intermediateBatches = Lists.newArrayList();
+      for (int i = 1; i < this.stages.size(); i++) {
+        this.intermediateBatches.add(new RecordBatch<>(inputRecords.capacity()));
+      }
+    }
+
+    RecordBatch<Object> stageInput = inputRecords;
+    for (int i = 0; i < this.stages.size(); i++) {
+      boolean isLastStage = i == this.stages.size() - 1;
+      RecordBatch<Object> stageOutput = outputRecords;
+      if (!isLastStage) {
+        // Clear any records left over from a previous batch that failed to convert
+        stageOutput = this.intermediateBatches.get(i);
+        stageOutput.clear();
+      }
+      this.stages.get(i).convertBatch(stageInput, stageOutput, workUnit);
+      if (i > 0) {
+        // Release the records of the previous intermediate batch as soon as they are converted
+        stageInput.clear();
+      }
+      stageInput = stageOutput;
+    }
+  }
+
   @Override
   public State getFinalState() {
     ConstructState state = new ConstructState(super.getFinalState());
@@ -102,12 +188,94 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
     return state;
   }
 
+  /**
+   * A stage of converting a record, which applies one or more of the {@link Converter}s.
+   */
+  private interface ConverterStage {
+
+    Iterable<Object> convert(Object record, WorkUnitState workUnitState) throws DataConversionException;
+
+    void convertBatch(RecordBatch<Object> records, RecordBatch<Object> convertedRecords, WorkUnitState workUnitState)
+        throws DataConversionException;
+  }
+
+  /**
+   * A {@link ConverterStage} that applies a single {@link Converter} with an arbitrary number of output records.
+   */
+  private static class SingleConverterStage implements ConverterStage {
+
+    private final Converter converter;
+    private final Object outputSchema;
+
+    SingleConverterStage(Converter converter, Object outputSchema) {
+      this.converter = converter;
+      this.outputSchema = outputSchema;
+    }
+
+    @Override
+    public Iterable<Object> convert(Object record, WorkUnitState workUnitState) throws DataConversionException {
+      return this.converter.convertRecord(this.outputSchema, record, workUnitState);
+    }
+
+    @Override
+    public void convertBatch(RecordBatch<Object> records, RecordBatch<Object> convertedRecords,
+        WorkUnitState workUnitState) throws DataConversionException {
+      RecordBatches.convertBatch(this.converter, this.outputSchema, records, convertedRecords, workUnitState);
+    }
+  }
+
+  /**
+   * A {@link ConverterStage} that applies a sequence of {@link SingleRecordConverter}s through direct calls,
+   * stopping as soon as one of them filters out the record.
+   */
+  private static class FusedConverterStage implements ConverterStage {
+
+    private final SingleRecordConverter[] converters;
+    private final Object[] outputSchemas;
+
+    FusedConverterStage(List<SingleRecordConverter> converters, List<Object> outputSchemas) {
+      this.converters = converters.toArray(new SingleRecordConverter[converters.size()]);
+      this.outputSchemas = outputSchemas.toArray();
+    }
+
+    @Override
+    public Iterable<Object> convert(Object record, WorkUnitState workUnitState) throws DataConversionException {
+      Object convertedRecord = convertSingleRecord(record, workUnitState);
+      if (convertedRecord == null) {
+        return new EmptyIterable<>();
+      }
+      return new SingleRecordIterable<>(convertedRecord);
+    }
+
+    @Override
+    public void convertBatch(RecordBatch<Object> records, RecordBatch<Object> convertedRecords,
+        WorkUnitState workUnitState) throws DataConversionException {
+      for (int i = 0; i < records.size(); i++) {
+        Object convertedRecord = convertSingleRecord(records.get(i), workUnitState);
+        if (convertedRecord != null) {
+          convertedRecords.add(convertedRecord);
+        }
+      }
+    }
+
+    private Object convertSingleRecord(Object record, WorkUnitState workUnitState) throws DataConversionException {
+      Object convertedRecord = record;
+      for (int i = 0; i < this.converters.length; i++) {
+        convertedRecord = this.converters[i].convertSingleRecord(this.outputSchemas[i], convertedRecord, workUnitState);
+        if (convertedRecord == null) {
+          return null;
+        }
+      }
+      return convertedRecord;
+    }
+  }
+
   /**
    * A type of {@link java.util.Iterator} to be used with {@link MultiConverter}. The Converter uses the
    * {@link ChainedConverterIterator} to chain iterators together. The first {@link ChainedConverterIterator} created
-   * contains an iterator with only the inputRecord and the first converter in the converters list. Each subsequent
-   * {@link ChainedConverterIterator} is created using the previous {@link ChainedConverterIterator} along with the next
-   * converter in the converters list. By chaining the converters and iterators in this fashion, a reference to the last
+   * contains an iterator with only the inputRecord and the first {@link ConverterStage}. Each subsequent
+   * {@link ChainedConverterIterator} is created using the previous {@link ChainedConverterIterator} along with the
+   * next {@link ConverterStage}. By chaining the stages and iterators in this fashion, a reference to the last
    * {@link ChainedConverterIterator} will be sufficient to iterate through all the data.
    */
   private class MultiConverterIterator implements Iterator<Object> {
@@ -119,11 +287,11 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
     public MultiConverterIterator(Object inputRecord, WorkUnitState workUnitState) throws DataConversionException {
       this.workUnitState = workUnitState;
       this.chainedConverterIterator = new ChainedConverterIterator(new SingleRecordIterable<>(inputRecord).iterator(),
-          MultiConverter.this.converters.isEmpty() ? new IdentityConverter() : MultiConverter.this.converters.get(0));
+          MultiConverter.this.stages.get(0));
 
-      for (int i = 1; i < MultiConverter.this.converters.size(); i++) {
+      for (int i = 1; i < MultiConverter.this.stages.size(); i++) {
         this.chainedConverterIterator =
-            new ChainedConverterIterator(this.chainedConverterIterator, MultiConverter.this.converters.get(i));
+            new ChainedConverterIterator(this.chainedConverterIterator, MultiConverter.this.stages.get(i));
       }
     }
 
@@ -143,28 +311,28 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
     }
 
     /**
-     * A helper class that implements {@link Iterator}. It is constructed with a {@link Iterator} and a {@link Converter}.
-     * The class iterates through the results of each converted record from prevIterator. It iterates through each
-     * element in prevIterator, converts the result, and then stores the result in the currentIterator object. It
-     * returns every element in currentIterator until it is empty, and then it gets the next element from prevIterator,
-     * converts the object, and stores the result in currentIterator. This pattern continues until there are no more
-     * elements left in prevIterator.
+     * A helper class that implements {@link Iterator}. It is constructed with a {@link Iterator} and a
+     * {@link ConverterStage}. The class iterates through the results of each converted record from prevIterator. It
+     * iterates through each element in prevIterator, converts the result, and then stores the result in the
+     * currentIterator object. It returns every element in currentIterator until it is empty, and then it gets the next
+     * element from prevIterator, converts the object, and stores the result in currentIterator. This pattern continues
+     * until there are no more elements left in prevIterator.
      */
     private class ChainedConverterIterator implements Iterator<Object> {
 
-      private final Converter converter;
+      private final ConverterStage stage;
       private final Iterator<Object> prevIterator;
 
       private Iterator<Object> currentIterator;
 
-      public ChainedConverterIterator(Iterator<Object> prevIterator, Converter converter)
+      public ChainedConverterIterator(Iterator<Object> prevIterator, ConverterStage stage)
           throws DataConversionException {
-        this.converter = converter;
+        this.stage = stage;
         this.prevIterator = prevIterator;
 
         if (this.prevIterator.hasNext()) {
-          this.currentIterator = converter.convertRecord(MultiConverter.this.convertedSchemaMap.get(converter),
-              this.prevIterator.next(), MultiConverterIterator.this.workUnitState).iterator();
+          this.currentIterator =
+              stage.convert(this.prevIterator.next(), MultiConverterIterator.this.workUnitState).iterator();
         } else {
           this.currentIterator = new EmptyIterable<>().iterator();
         }
@@ -178,8 +346,7 @@ public class MultiConverter extends Converter<Object, Object, Object, Object> {
         while (this.prevIterator.hasNext()) {
           try {
             this.currentIterator =
-                this.converter.convertRecord(MultiConverter.this.convertedSchemaMap.get(this.converter),
-                    this.prevIterator.next(), MultiConverterIterator.this.workUnitState).iterator();
+                this.stage.convert(this.prevIterator.next(), MultiConverterIterator.this.workUnitState).iterator();
           } catch (DataConversionException e) {
             Throwables.propagate(e);
           }
@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,8 +26,10 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closer;
+import com.google.gson.JsonElement;
 
 import gobblin.Constructs;
 import gobblin.configuration.ConfigurationKeys;
@@ -41,8 +44,13 @@ import gobblin.publisher.DataPublisher;
 import gobblin.publisher.SingleTaskDataPublisher;
 import gobblin.qualitychecker.row.RowLevelPolicyCheckResults;
 import gobblin.qualitychecker.row.RowLevelPolicyChecker;
+import gobblin.source.extractor.CheckpointableExtractor;
+import gobblin.source.extractor.Extractor;
 import gobblin.source.extractor.JobCommitPolicy;
+import gobblin.source.extractor.Watermark;
 import gobblin.state.ConstructState;
+import gobblin.util.DecoratorUtils;
+import gobblin.util.RecordBatch;
 
 
 /**
@@ -79,13 +87,23 @@ public class Task implements Runnable {
 
   private final String jobId;
   private final String taskId;
+  private final String attemptId;
   private final TaskContext taskContext;
   private final TaskState taskState;
   private final TaskStateTracker taskStateTracker;
   private final TaskExecutor taskExecutor;
   private final Optional<CountDownLatch> countDownLatch;
+  private final Optional<TaskSpeculator.SpeculativeTaskGroup> speculativeTaskGroup;
   private final Map<Optional<Fork>, Optional<Future<?>>> forks = Maps.newLinkedHashMap();
 
+  // Number of records extracted so far, read by the TaskSpeculator to find straggler tasks
+  private final AtomicLong recordsExtracted = new AtomicLong();
+
+  // Interval of the checkpoints of this task, the number of checkpoints taken and the time of the last one
+  private final long checkpointIntervalMillis;
+  private int checkpointCount;
+  private long lastCheckpointTime;
+
   // Number of task retries
   private final AtomicInteger retryCount = new AtomicInteger();
 
@@ -99,13 +117,29 @@ public class Task implements Runnable {
    */
   public Task(TaskContext context, TaskStateTracker taskStateTracker, TaskExecutor taskExecutor,
       Optional<CountDownLatch> countDownLatch) {
+    this(context, taskStateTracker, taskExecutor, countDownLatch,
+        Optional.<TaskSpeculator.SpeculativeTaskGroup> absent());
+  }
+
+  /**
+   * Instantiate a new attempt of a {@link Task} that may be run speculatively.
+   *
+   * @param speculativeTaskGroup an optional {@link TaskSpeculator.SpeculativeTaskGroup} of the attempts of the task,
+   *                             of which only one commits its output
+   */
+  Task(TaskContext context, TaskStateTracker taskStateTracker, TaskExecutor taskExecutor,
+      Optional<CountDownLatch> countDownLatch, Optional<TaskSpeculator.SpeculativeTaskGroup> speculativeTaskGroup) {
     this.taskContext = context;
     this.taskState = context.getTaskState();
     this.jobId = this.taskState.getJobId();
     this.taskId = this.taskState.getTaskId();
+    this.attemptId = this.taskState.getProp(ConfigurationKeys.TASK_ATTEMPT_ID_KEY, this.taskId);
     this.taskStateTracker = taskStateTracker;
     this.taskExecutor = taskExecutor;
     this.countDownLatch = countDownLatch;
+    this.speculativeTaskGroup = speculativeTaskGroup;
+    this.checkpointIntervalMillis = this.taskState.getPropAsLong(ConfigurationKeys.TASK_CHECKPOINT_INTERVAL_MS_KEY,
+        ConfigurationKeys.DEFAULT_TASK_CHECKPOINT_INTERVAL_MS);
   }
 
   @Override
@@ -117,14 +151,20 @@ public class Task implements Runnable {
 
     // Clear the map so it starts with a fresh set of forks for each run/retry
     this.forks.clear();
+    this.recordsExtracted.set(0);
+    if (this.speculativeTaskGroup.isPresent()) {
+      this.speculativeTaskGroup.get().onAttemptStart(this);
+    }
 
     Closer closer = Closer.create();
-    Converter converter = null;
+    MultiConverter converter = null;
     InstrumentedExtractorBase extractor = null;
+    Optional<CheckpointableExtractor<?, ?>> checkpointableExtractor = Optional.absent();
     RowLevelPolicyChecker rowChecker = null;
     try {
-      extractor =
-          closer.register(new InstrumentedExtractorDecorator<>(this.taskState, this.taskContext.getExtractor()));
+      Extractor rawExtractor = this.taskContext.getExtractor();
+      extractor = closer.register(new InstrumentedExtractorDecorator<>(this.taskState, rawExtractor));
+      checkpointableExtractor = getCheckpointableExtractor(rawExtractor);
 
       converter = closer.register(new MultiConverter(this.taskContext.getConverters()));
 
@@ -151,7 +191,8 @@ public class Task implements Runnable {
       for (int i = 0; i < branches; i++) {
         if (forkedSchemas.get(i)) {
           Fork fork = closer.register(new Fork(this.taskContext,
-              schema instanceof Copyable ? ((Copyable) schema).copy() : schema, branches, i));
+              schema instanceof Copyable ? ((Copyable) schema).copy() : schema, branches, i,
+              checkpointableExtractor.isPresent()));
           // Run the Fork
           this.forks.put(Optional.of(fork), Optional.<Future<?>> of(this.taskExecutor.submit(fork)));
         } else {
@@ -161,15 +202,45 @@ public class Task implements Runnable {
 
       // Build the row-level quality checker
       rowChecker = closer.register(this.taskContext.getRowLevelPolicyChecker());
+      rowChecker.prepareForSchema(schema);
       RowLevelPolicyCheckResults rowResults = new RowLevelPolicyCheckResults();
 
+      int recordBatchSize = this.taskState.getPropAsInt(ConfigurationKeys.TASK_RECORD_BATCH_SIZE_KEY,
+          ConfigurationKeys.DEFAULT_TASK_RECORD_BATCH_SIZE);
       long recordsPulled = 0;
-      Object record;
-      // Extract, convert, and fork one source record at a time.
-      while ((record = extractor.readRecord(null)) != null) {
-        recordsPulled++;
-        for (Object convertedRecord : converter.convertRecord(schema, record, this.taskState)) {
-          processRecord(convertedRecord, forkOperator, rowChecker, rowResults, branches);
+      if (recordBatchSize > 1) {
+        // Extract, convert, and quality-check a batch of source records at a time, then fork the passed records.
+        RecordBatch<Object> records = new RecordBatch<>(recordBatchSize);
+        RecordBatch<Object> convertedRecords = new RecordBatch<>(recordBatchSize);
+        RecordBatch<Object> passedRecords = new RecordBatch<>(recordBatchSize);
+        int recordsRead;
+        while (!isLostAttempt() && (recordsRead = extractor.readBatch(records)) > 0) {
+          recordsPulled += recordsRead;
+          this.recordsExtracted.lazySet(recordsPulled);
+          converter.convertBatch(schema, records, convertedRecords, this.taskState);
+          records.clear();
+          rowChecker.executePolicies(convertedRecords, passedRecords, rowResults);
+          convertedRecords.clear();
+          for (int i = 0; i < passedRecords.size(); i++) {
+            forkRecord(passedRecords.get(i), forkOperator, branches);
+          }
+          passedRecords.clear();
+          if (checkpointableExtractor.isPresent()) {
+            checkpointIfDue(checkpointableExtractor.get());
+          }
+        }
+      } else {
+        Object record;
+        // Extract, convert, and fork one source record at a time.
+        while (!isLostAttempt() && (record = extractor.readRecord(null)) != null) {
+          recordsPulled++;
+          this.recordsExtracted.lazySet(recordsPulled);
+          for (Object convertedRecord : converter.convertRecord(schema, record, this.taskState)) {
+            processRecord(convertedRecord, forkOperator, rowChecker, rowResults, branches);
+          }
+          if (checkpointableExtractor.isPresent()) {
+            checkpointIfDue(checkpointableExtractor.get());
+          }
         }
       }
 
@@ -196,27 +267,35 @@ public class Task implements Runnable {
         }
       }
 
-      // Check if all forks succeeded
-      boolean allForksSucceeded = true;
-      for (Optional<Fork> fork : this.forks.keySet()) {
-        if (fork.isPresent()) {
-          if (fork.get().isSucceeded()) {
-            if (!fork.get().commit()) {
+      if (!tryCommitAttempt()) {
+        // Another attempt of this task has committed its output or may still do so, so the staging output of this
+        // attempt is discarded
+        LOG.info(String.format("Attempt %s of task %s leaves its output to another attempt", this.attemptId,
+            this.taskId));
+        this.taskState.setWorkingState(WorkUnitState.WorkingState.CANCELLED);
+      } else {
+        // Check if all forks succeeded
+        boolean allForksSucceeded = true;
+        for (Optional<Fork> fork : this.forks.keySet()) {
+          if (fork.isPresent()) {
+            if (fork.get().isSucceeded()) {
+              if (!fork.get().commit()) {
+                allForksSucceeded = false;
+              }
+            } else {
               allForksSucceeded = false;
             }
-          } else {
-            allForksSucceeded = false;
           }
         }
-      }
 
-      if (allForksSucceeded) {
-        // Set the task state to SUCCESSFUL. The state is not set to COMMITTED
-        // as the data publisher will do that upon successful data publishing.
-        this.taskState.setWorkingState(WorkUnitState.WorkingState.SUCCESSFUL);
-      } else {
-        LOG.error(String.format("Not all forks of task %s succeeded", this.taskId));
-        this.taskState.setWorkingState(WorkUnitState.WorkingState.FAILED);
+        if (allForksSucceeded) {
+          // Set the task state to SUCCESSFUL. The state is not set to COMMITTED
+          // as the data publisher will do that upon successful data publishing.
+          this.taskState.setWorkingState(WorkUnitState.WorkingState.SUCCESSFUL);
+        } else {
+          LOG.error(String.format("Not all forks of task %s succeeded", this.taskId));
+          this.taskState.setWorkingState(WorkUnitState.WorkingState.FAILED);
+        }
       }
 
     } catch (Throwable t) {
@@ -254,12 +333,109 @@ public class Task implements Runnable {
       } catch (IOException ioe) {
         failTask(ioe);
       } finally {
+        if (checkpointableExtractor.isPresent() && isSucceeded()) {
+          deleteCheckpoint();
+        }
         long endTime = System.currentTimeMillis();
         this.taskState.setEndTime(endTime);
         this.taskState.setTaskDuration(endTime - startTime);
-        this.taskStateTracker.onTaskCompletion(this);
+        if (!this.speculativeTaskGroup.isPresent() || this.speculativeTaskGroup.get().onAttemptCompletion(this)) {
+          this.taskStateTracker.onTaskCompletion(this);
+        }
+      }
+    }
+  }
+
+  private boolean isSucceeded() {
+    WorkUnitState.WorkingState workingState = this.taskState.getWorkingState();
+    return workingState == WorkUnitState.WorkingState.SUCCESSFUL
+        || workingState == WorkUnitState.WorkingState.COMMITTED;
+  }
+
+  /**
+   * Get the {@link CheckpointableExtractor} underlying the {@link Extractor} of this task if checkpoints are enabled,
+   * and make it resume from the last checkpoint of a previous run of this task, if any.
+   */
+  private Optional<CheckpointableExtractor<?, ?>> getCheckpointableExtractor(Extractor<?, ?> extractor)
+      throws IOException {
+    Object underlyingExtractor = DecoratorUtils.resolveUnderlyingObject(extractor);
+    if (this.checkpointIntervalMillis <= 0 || !(underlyingExtractor instanceof CheckpointableExtractor)) {
+      return Optional.absent();
+    }
+    if (this.speculativeTaskGroup.isPresent()) {
+      // Attempts of a task run speculatively would commit overlapping output at their checkpoints
+      LOG.warn(String.format("Checkpoints of task %s are disabled as it may be run speculatively", this.taskId));
+      return Optional.absent();
+    }
+
+    CheckpointableExtractor<?, ?> checkpointableExtractor = (CheckpointableExtractor<?, ?>) underlyingExtractor;
+    Optional<JsonElement> checkpointWatermark = TaskCheckpoint.getCheckpointWatermark(this.taskState);
+    if (checkpointWatermark.isPresent()) {
+      LOG.info(String.format("Resuming task %s from checkpoint %s", this.taskId, checkpointWatermark.get()));
+      checkpointableExtractor.resumeFrom(checkpointWatermark.get());
+    }
+    this.checkpointCount = this.taskState.getPropAsInt(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY, 0);
+    this.lastCheckpointTime = System.currentTimeMillis();
+    return Optional.<CheckpointableExtractor<?, ?>> of(checkpointableExtractor);
+  }
+
+  /**
+   * Put a {@link TaskCheckpoint} into the record queue of each {@link Fork} if the checkpoint interval has elapsed.
+   */
+  private void checkpointIfDue(CheckpointableExtractor<?, ?> extractor) throws InterruptedException {
+    long now = System.currentTimeMillis();
+    if (now - this.lastCheckpointTime < this.checkpointIntervalMillis) {
+      return;
+    }
+    this.lastCheckpointTime = now;
+
+    Watermark watermark = extractor.getCheckpointWatermark();
+    List<Fork> runningForks = Lists.newArrayList(Optional.presentInstances(this.forks.keySet()));
+    if (watermark == null || runningForks.isEmpty()) {
+      return;
+    }
+
+    TaskCheckpoint checkpoint =
+        new TaskCheckpoint(this.taskState, ++this.checkpointCount, watermark.toJson(), runningForks.size());
+    for (Fork fork : runningForks) {
+      while (!fork.putRecord(checkpoint)) {
+        // The put timed out, so retry it until the fork has room for the checkpoint
+      }
+    }
+  }
+
+  private void deleteCheckpoint() {
+    try {
+      TaskCheckpoint.deleteCheckpoint(this.taskState);
+    } catch (IOException ioe) {
+      LOG.warn("Failed to delete the checkpoint of task " + this.taskId, ioe);
+    }
+  }
+
+  /**
+   * Whether another attempt of this task has committed its output, in which case this attempt stops extracting.
+   */
+  private boolean isLostAttempt() {
+    return this.speculativeTaskGroup.isPresent() && this.speculativeTaskGroup.get().isLost(this);
+  }
+
+  /**
+   * Try to become the attempt of this task committing its output. An attempt whose {@link Fork}s did not all succeed
+   * commits nothing while another attempt is running, and otherwise commits the output of its succeeded
+   * {@link Fork}s and goes on to fail.
+   *
+   * @return {@code true} if this attempt should commit its output
+   */
+  private boolean tryCommitAttempt() {
+    if (!this.speculativeTaskGroup.isPresent()) {
+      return true;
+    }
+    for (Optional<Fork> fork : this.forks.keySet()) {
+      if (fork.isPresent() && !fork.get().isSucceeded()) {
+        return this.speculativeTaskGroup.get().tryCommitFailed(this);
       }
     }
+    return this.speculativeTaskGroup.get().tryCommit(this);
   }
 
   private void failTask(Throwable t) {
@@ -283,6 +459,11 @@ public class Task implements Runnable {
    * </p>
    */
   private boolean shouldPublishDataInTask() {
+    if (this.taskState.getWorkingState() == WorkUnitState.WorkingState.CANCELLED) {
+      // The output of an attempt that lost to another attempt of the task is not published
+      return false;
+    }
+
     boolean publishDataAtJobLevel = this.taskState.getPropAsBoolean(ConfigurationKeys.PUBLISH_DATA_AT_JOB_LEVEL,
         ConfigurationKeys.DEFAULT_PUBLISH_DATA_AT_JOB_LEVEL);
     if (publishDataAtJobLevel) {
@@ -354,6 +535,39 @@ public class Task implements Runnable {
     return this.taskId;
   }
 
+  /**
+   * Get the ID of this attempt of the task, which differs from the task ID for speculative attempts.
+   *
+   * @return ID of this attempt of the task
+   */
+  public String getAttemptId() {
+    return this.attemptId;
+  }
+
+  /**
+   * Get the attempt of this task whose completion was reported to the {@link TaskStateTracker}, which is this
+   * {@link Task} unless a speculative attempt of the task committed its output.
+   *
+   * @return the completed attempt of this task
+   */
+  public Task getCompletedAttempt() {
+    if (this.speculativeTaskGroup.isPresent()) {
+      return this.speculativeTaskGroup.get().getCompletedAttempt().or(this);
+    }
+    return this;
+  }
+
+  Optional<TaskSpeculator.SpeculativeTaskGroup> getSpeculativeTaskGroup() {
+    return this.speculativeTaskGroup;
+  }
+
+  /**
+   * Get the number of records extracted so far by the current run of this task.
+   */
+  long getRecordsExtracted() {
+    return this.recordsExtracted.get();
+  }
+
   /**
    * Get the {@link TaskContext} associated with this task.
    *
@@ -454,6 +668,13 @@ public class Task implements Runnable {
       return;
     }
 
+    forkRecord(convertedRecord, forkOperator, branches);
+  }
+
+  /**
+   * Fork a (possibly converted) record that has passed quality checking.
+   */
+  private void forkRecord(Object convertedRecord, ForkOperator forkOperator, int branches) throws Exception {
     List<Boolean> forkedRecords = forkOperator.forkDataRecord(this.taskState, convertedRecord);
     if (forkedRecords.size() != branches) {
       throw new ForkBranchMismatchException(
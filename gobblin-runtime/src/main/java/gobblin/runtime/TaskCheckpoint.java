@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.util.HadoopUtils;
+
+
+/**
+ * A checkpoint of the progress of a {@link Task} whose extractor is a
+ * {@link gobblin.source.extractor.CheckpointableExtractor}.
+ *
+ * <p>
+ *   A {@link TaskCheckpoint} is put into the record queue of each {@link Fork} of the {@link Task} after the records
+ *   it covers. Each {@link Fork} commits the output written so far when it gets the {@link TaskCheckpoint}, and
+ *   writes the following records with a new writer. File output committed at checkpoints is kept in a checkpoint
+ *   output directory until the {@link Fork} commits, so it is published only after passing quality checking. Once
+ *   all the {@link Fork}s have committed, the watermark and the number of checkpoints are recorded in the
+ *   {@link TaskState}, from which a retry of the {@link Task} resumes, and in a file
+ *   under {@link ConfigurationKeys#TASK_CHECKPOINT_DIR_KEY} if it is set, so that a rerun of the {@link Task} in a
+ *   new process, e.g., a new attempt of a mapper or a Helix task, also resumes from it.
+ * </p>
+ */
+class TaskCheckpoint {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TaskCheckpoint.class);
+
+  private static final String CHECKPOINT_FILE_EXTENSION = ".checkpoint";
+
+  private final TaskState taskState;
+  private final int checkpointCount;
+  private final JsonElement watermark;
+  private final AtomicInteger pendingForks;
+
+  /**
+   * @param taskState the {@link TaskState} of the {@link Task}
+   * @param checkpointCount the number of checkpoints of the {@link Task} including this one
+   * @param watermark the watermark covering the records before this checkpoint
+   * @param forks the number of {@link Fork}s that need to commit their output
+   */
+  TaskCheckpoint(TaskState taskState, int checkpointCount, JsonElement watermark, int forks) {
+    this.taskState = taskState;
+    this.checkpointCount = checkpointCount;
+    this.watermark = watermark;
+    this.pendingForks = new AtomicInteger(forks);
+  }
+
+  int getCheckpointCount() {
+    return this.checkpointCount;
+  }
+
+  /**
+   * Called by each {@link Fork} once it has committed the output of the records before this checkpoint. The
+   * checkpoint is recorded when the last {@link Fork} has committed.
+   */
+  void onForkCommitted() throws IOException {
+    if (this.pendingForks.decrementAndGet() > 0) {
+      return;
+    }
+
+    this.taskState.setProp(ConfigurationKeys.TASK_CHECKPOINT_WATERMARK_KEY, this.watermark.toString());
+    this.taskState.setProp(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY, this.checkpointCount);
+
+    Optional<Path> checkpointFile = getCheckpointFile(this.taskState);
+    if (checkpointFile.isPresent()) {
+      Properties properties = new Properties();
+      properties.setProperty(ConfigurationKeys.TASK_CHECKPOINT_WATERMARK_KEY, this.watermark.toString());
+      properties.setProperty(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY, Integer.toString(this.checkpointCount));
+
+      // Write to a temporary file first so a failure while writing does not corrupt the previous checkpoint
+      FileSystem fs = checkpointFile.get().getFileSystem(HadoopUtils.getConfFromState(this.taskState));
+      Path tmpFile = checkpointFile.get().suffix(".tmp");
+      try (OutputStream os = fs.create(tmpFile, true)) {
+        properties.store(os, null);
+      }
+      HadoopUtils.renamePath(fs, tmpFile, checkpointFile.get(), true);
+    }
+
+    LOG.info(String.format("Recorded checkpoint %d of task %s at watermark %s", this.checkpointCount,
+        this.taskState.getTaskId(), this.watermark));
+  }
+
+  /**
+   * Get the watermark of the last checkpoint of a {@link Task}, loading the checkpoint persisted by a previous run of
+   * the {@link Task} into the {@link TaskState} if the {@link TaskState} has none.
+   */
+  static Optional<JsonElement> getCheckpointWatermark(TaskState taskState) throws IOException {
+    Optional<Path> checkpointFile = getCheckpointFile(taskState);
+    if (!taskState.contains(ConfigurationKeys.TASK_CHECKPOINT_WATERMARK_KEY) && checkpointFile.isPresent()) {
+      FileSystem fs = checkpointFile.get().getFileSystem(HadoopUtils.getConfFromState(taskState));
+      if (fs.exists(checkpointFile.get())) {
+        Properties properties = new Properties();
+        try (InputStream is = fs.open(checkpointFile.get())) {
+          properties.load(is);
+        }
+        taskState.addAll(properties);
+      }
+    }
+
+    if (!taskState.contains(ConfigurationKeys.TASK_CHECKPOINT_WATERMARK_KEY)) {
+      return Optional.absent();
+    }
+    return Optional.of(new JsonParser().parse(taskState.getProp(ConfigurationKeys.TASK_CHECKPOINT_WATERMARK_KEY)));
+  }
+
+  /**
+   * Delete the checkpoint persisted for a {@link Task}, which is done once the {@link Task} has succeeded.
+   */
+  static void deleteCheckpoint(TaskState taskState) throws IOException {
+    Optional<Path> checkpointFile = getCheckpointFile(taskState);
+    if (checkpointFile.isPresent()) {
+      FileSystem fs = checkpointFile.get().getFileSystem(HadoopUtils.getConfFromState(taskState));
+      HadoopUtils.deleteIfExists(fs, checkpointFile.get(), false);
+    }
+  }
+
+  private static Optional<Path> getCheckpointFile(TaskState taskState) {
+    if (!taskState.contains(ConfigurationKeys.TASK_CHECKPOINT_DIR_KEY)) {
+      return Optional.absent();
+    }
+    return Optional.of(new Path(new Path(taskState.getProp(ConfigurationKeys.TASK_CHECKPOINT_DIR_KEY),
+        taskState.getJobId()), taskState.getTaskId() + CHECKPOINT_FILE_EXTENSION));
+  }
+}
@@ -16,17 +16,23 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Enums;
+import com.google.common.base.Optional;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
 import gobblin.converter.Converter;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.fork.ForkOperator;
 import gobblin.instrumented.Instrumented;
 import gobblin.instrumented.converter.InstrumentedConverterDecorator;
+import gobblin.instrumented.converter.InstrumentedSingleRecordConverterDecorator;
 import gobblin.instrumented.fork.InstrumentedForkOperatorDecorator;
+import gobblin.metrics.GobblinMetrics;
+import gobblin.metrics.MetricNames;
 import gobblin.publisher.TaskPublisher;
 import gobblin.publisher.TaskPublisherBuilderFactory;
 import gobblin.qualitychecker.row.RowLevelPolicyChecker;
@@ -38,6 +44,7 @@ import gobblin.runtime.util.TaskMetrics;
 import gobblin.source.Source;
 import gobblin.source.extractor.Extractor;
 import gobblin.source.workunit.WorkUnit;
+import gobblin.util.DecoratorUtils;
 import gobblin.util.limiter.DefaultLimiterFactory;
 import gobblin.util.limiter.Limiter;
 import gobblin.util.limiter.NonRefillableLimiter;
@@ -81,6 +88,20 @@ public class TaskContext {
     return this.taskMetrics;
   }
 
+  /**
+   * Get the {@link Timer} of the task with the given name for recording the time throttled by a
+   * {@link Limiter}, if metrics are enabled.
+   *
+   * @param name the name of the {@link Timer}
+   * @return an {@link Optional} of the {@link Timer}, absent if metrics are disabled
+   */
+  public Optional<Timer> getThrottledTimer(String name) {
+    if (!GobblinMetrics.isEnabled(this.taskState)) {
+      return Optional.absent();
+    }
+    return Optional.of(this.taskMetrics.getMetricContext().timer(name));
+  }
+
   /**
    * Get a {@link Source} instance used to get a list of {@link WorkUnit}s.
    *
@@ -109,12 +130,16 @@ public class TaskContext {
       boolean throttlingEnabled = this.taskState.getPropAsBoolean(ConfigurationKeys.EXTRACT_LIMIT_ENABLED_KEY,
           ConfigurationKeys.DEFAULT_EXTRACT_LIMIT_ENABLED);
       if (throttlingEnabled) {
-        Limiter limiter = DefaultLimiterFactory.newLimiter(this.taskState);
-        if (!(limiter instanceof NonRefillableLimiter)) {
+        Limiter limiter = DefaultLimiterFactory.getLimiter(this.taskState, DefaultLimiterFactory.EXTRACT_LIMIT_PREFIX);
+        if (!(DecoratorUtils.resolveUnderlyingObject(limiter) instanceof NonRefillableLimiter)) {
           throw new IllegalArgumentException("The Limiter used with an Extractor should be an instance of "
               + NonRefillableLimiter.class.getSimpleName());
         }
-        return new LimitingExtractorDecorator<>(getSource().getExtractor(this.taskState), limiter);
+        LimitingExtractorDecorator.LimitUnit limitUnit = LimitingExtractorDecorator.LimitUnit.valueOf(this.taskState
+            .getProp(ConfigurationKeys.EXTRACT_LIMIT_UNIT_KEY, ConfigurationKeys.DEFAULT_EXTRACT_LIMIT_UNIT)
+            .toUpperCase());
+        return new LimitingExtractorDecorator<>(getSource().getExtractor(this.taskState), limiter, limitUnit,
+            getThrottledTimer(MetricNames.ExtractorMetrics.THROTTLED_TIMER));
       }
       return getSource().getExtractor(this.taskState);
     } catch (IOException ioe) {
@@ -195,7 +220,13 @@ public class TaskContext {
         .split(this.taskState.getProp(converterClassKey))) {
       try {
         Converter<?, ?, ?, ?> converter = Converter.class.cast(Class.forName(converterClass).newInstance());
-        InstrumentedConverterDecorator instrumentedConverter = new InstrumentedConverterDecorator<>(converter);
+        InstrumentedConverterDecorator instrumentedConverter;
+        if (converter instanceof SingleRecordConverter) {
+          // Keep SingleRecordConverters recognizable through the decorator so MultiConverter can fuse them
+          instrumentedConverter = new InstrumentedSingleRecordConverterDecorator<>(converter);
+        } else {
+          instrumentedConverter = new InstrumentedConverterDecorator<>(converter);
+        }
         instrumentedConverter.init(forkTaskState);
         converters.add(instrumentedConverter);
       } catch (ClassNotFoundException cnfe) {
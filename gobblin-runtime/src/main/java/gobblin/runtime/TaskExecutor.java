@@ -16,6 +16,7 @@ import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -25,24 +26,45 @@ import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Timer;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.AbstractIdleService;
 
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.metrics.GobblinMetrics;
+import gobblin.runtime.util.JobMetrics;
+import gobblin.runtime.util.MetricGroup;
 import gobblin.util.ExecutorsUtils;
 
 
 /**
  * A class for executing {@link Task}s and retrying failed ones as well as for executing {@link Fork}s.
  *
+ * <p>
+ *   {@link Task}s waiting for a thread are run in the order they are submitted by default. With the
+ *   {@link SchedulingPolicy#FAIR} policy, they are run in the order given by a {@link FairTaskQueue} instead, so
+ *   a job with many {@link Task}s does not hold back the {@link Task}s of other jobs sharing this
+ *   {@link TaskExecutor}. The time each {@link Task} waits for a thread is recorded in a per-job {@link Timer}
+ *   under either policy.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class TaskExecutor extends AbstractIdleService {
 
   private static final Logger LOG = LoggerFactory.getLogger(TaskExecutor.class);
 
+  static final String TASK_QUEUE_WAIT_TIME = "taskQueueWaitTime";
+
+  /**
+   * Policies of scheduling {@link Task}s waiting for a thread.
+   */
+  public enum SchedulingPolicy {
+    FIFO,
+    FAIR
+  }
+
   // Thread pool executor for running tasks
   private final ExecutorService taskExecutor;
 
@@ -58,14 +80,36 @@ public class TaskExecutor extends AbstractIdleService {
   /**
    * Constructor used internally.
    */
-  private TaskExecutor(int taskExecutorThreadPoolSize, int coreRetryThreadPoolSize, long retryIntervalInSeconds) {
+  private TaskExecutor(int taskExecutorThreadPoolSize, int coreRetryThreadPoolSize, long retryIntervalInSeconds,
+      SchedulingPolicy schedulingPolicy) {
     Preconditions.checkArgument(taskExecutorThreadPoolSize > 0, "Task executor thread pool size should be positive");
     Preconditions.checkArgument(retryIntervalInSeconds > 0, "Task retry interval should be positive");
 
-    // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
-    this.taskExecutor = Executors.newFixedThreadPool(
-        taskExecutorThreadPoolSize,
-        ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d")));
+    if (schedulingPolicy == SchedulingPolicy.FAIR) {
+      final FairTaskQueue fairTaskQueue = new FairTaskQueue();
+      ThreadPoolExecutor fairTaskExecutor = new ThreadPoolExecutor(
+          taskExecutorThreadPoolSize,
+          taskExecutorThreadPoolSize,
+          0L,
+          TimeUnit.MILLISECONDS,
+          fairTaskQueue,
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d"))) {
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+          super.afterExecute(r, t);
+          // Let the next task of the scheduling group run if the group is at its concurrency limit
+          fairTaskQueue.onCompletion(r);
+        }
+      };
+      // Start all the threads upfront so every task goes through the queue instead of being handed to a new thread
+      fairTaskExecutor.prestartAllCoreThreads();
+      this.taskExecutor = fairTaskExecutor;
+    } else {
+      // Currently a fixed-size thread pool is used to execute tasks. We probably need to revisit this later.
+      this.taskExecutor = Executors.newFixedThreadPool(
+          taskExecutorThreadPoolSize,
+          ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("TaskExecutor-%d")));
+    }
 
     // Using a separate thread pool for task retries to achieve isolation
     // between normal task execution and task retries
@@ -98,7 +142,9 @@ public class TaskExecutor extends AbstractIdleService {
         Integer.parseInt(properties.getProperty(ConfigurationKeys.TASK_RETRY_THREAD_POOL_CORE_SIZE_KEY,
             Integer.toString(ConfigurationKeys.DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE))),
         Long.parseLong(properties.getProperty(ConfigurationKeys.TASK_RETRY_INTERVAL_IN_SEC_KEY,
-            Long.toString(ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC))));
+            Long.toString(ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC))),
+        SchedulingPolicy.valueOf(properties.getProperty(ConfigurationKeys.TASK_EXECUTOR_SCHEDULING_POLICY_KEY,
+            ConfigurationKeys.DEFAULT_TASK_EXECUTOR_SCHEDULING_POLICY).toUpperCase()));
   }
 
   /**
@@ -110,7 +156,9 @@ public class TaskExecutor extends AbstractIdleService {
         conf.getInt(ConfigurationKeys.TASK_RETRY_THREAD_POOL_CORE_SIZE_KEY,
             ConfigurationKeys.DEFAULT_TASK_RETRY_THREAD_POOL_CORE_SIZE),
         conf.getLong(ConfigurationKeys.TASK_RETRY_INTERVAL_IN_SEC_KEY,
-            ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC));
+            ConfigurationKeys.DEFAULT_TASK_RETRY_INTERVAL_IN_SEC),
+        SchedulingPolicy.valueOf(conf.get(ConfigurationKeys.TASK_EXECUTOR_SCHEDULING_POLICY_KEY,
+            ConfigurationKeys.DEFAULT_TASK_EXECUTOR_SCHEDULING_POLICY).toUpperCase()));
   }
 
   @Override
@@ -150,7 +198,7 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public void execute(Task task) {
     LOG.info(String.format("Executing task %s", task.getTaskId()));
-    this.taskExecutor.execute(task);
+    this.taskExecutor.execute(newQueueEntry(task, task));
   }
 
   /**
@@ -161,7 +209,9 @@ public class TaskExecutor extends AbstractIdleService {
    */
   public Future<?> submit(Task task) {
     LOG.info(String.format("Submitting task %s", task.getTaskId()));
-    return this.taskExecutor.submit(task);
+    FutureTask<?> future = new FutureTask<>(task, null);
+    this.taskExecutor.execute(newQueueEntry(future, task));
+    return future;
   }
 
   /**
@@ -205,4 +255,29 @@ public class TaskExecutor extends AbstractIdleService {
     LOG.info(String.format("Scheduled retry of failed task %s to run in %d seconds", task.getTaskId(), interval));
     task.incrementRetryCount();
   }
+
+  /**
+   * Wrap a {@link Runnable} running a {@link Task} into a {@link FairTaskQueue.Entry} carrying the scheduling
+   * configuration of the {@link Task}'s job.
+   */
+  private FairTaskQueue.Entry newQueueEntry(Runnable runnable, Task task) {
+    TaskState taskState = task.getTaskState();
+    String jobName = taskState.getProp(ConfigurationKeys.JOB_NAME_KEY);
+
+    Optional<Timer> waitTimer = Optional.absent();
+    if (GobblinMetrics.isEnabled(taskState.getWorkunit())) {
+      waitTimer = Optional.of(JobMetrics.get(jobName, task.getJobId())
+          .getTimer(MetricGroup.JOB.name(), task.getJobId(), TASK_QUEUE_WAIT_TIME));
+    }
+
+    return new FairTaskQueue.Entry(runnable,
+        taskState.getProp(ConfigurationKeys.TASK_SCHEDULING_GROUP_KEY, jobName != null ? jobName : task.getJobId()),
+        taskState.getPropAsDouble(ConfigurationKeys.TASK_SCHEDULING_WEIGHT_KEY,
+            ConfigurationKeys.DEFAULT_TASK_SCHEDULING_WEIGHT),
+        taskState.getPropAsInt(ConfigurationKeys.TASK_SCHEDULING_PRIORITY_KEY,
+            ConfigurationKeys.DEFAULT_TASK_SCHEDULING_PRIORITY),
+        taskState.getPropAsInt(ConfigurationKeys.TASK_SCHEDULING_MAX_CONCURRENT_TASKS_KEY,
+            ConfigurationKeys.DEFAULT_TASK_SCHEDULING_MAX_CONCURRENT_TASKS),
+        waitTimer);
+  }
 }
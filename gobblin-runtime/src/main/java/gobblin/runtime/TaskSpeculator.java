@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Counter;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.State;
+import gobblin.configuration.WorkUnitState;
+import gobblin.runtime.util.JobMetrics;
+import gobblin.runtime.util.MetricGroup;
+import gobblin.source.extractor.extract.kafka.KafkaSource;
+import gobblin.source.workunit.WorkUnit;
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * Runs speculative attempts of straggler {@link Task}s of a job, i.e., of {@link Task}s extracting records far more
+ * slowly than the other {@link Task}s of the job, e.g., because they read from a slow replica or run on a busy host.
+ *
+ * <p>
+ *   The extraction rate of each running {@link Task} is periodically compared with the median extraction rate of the
+ *   running and successfully completed {@link Task}s. A {@link Task} that has been running for at least
+ *   {@link ConfigurationKeys#TASK_SPECULATION_MIN_RUNTIME_MS_KEY} and whose rate is below
+ *   {@link ConfigurationKeys#TASK_SPECULATION_SLOWNESS_RATIO_KEY} times the median rate gets a speculative attempt,
+ *   which reads the same {@link WorkUnit} and writes with its own writer ID, so both attempts have separate staging
+ *   output. The attempts of a {@link Task} form a {@link SpeculativeTaskGroup}, in which only the first attempt to
+ *   finish successfully commits its output and has its completion reported to the {@link TaskStateTracker}. The
+ *   other attempt stops extracting, and its staging output is left to the cleanup of the job's staging data.
+ * </p>
+ *
+ * <p>
+ *   As the source of a speculated {@link Task} is read twice, speculative execution should only be enabled for jobs
+ *   whose sources can safely be read more than once. It is not enabled for jobs using Kafka work stealing, whose
+ *   extractors share offset ranges of their partitions with each other. The number of speculative attempts
+ *   launched and won are counted in the job's metrics.
+ * </p>
+ */
+class TaskSpeculator implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TaskSpeculator.class);
+
+  static final String SPECULATIVE_ATTEMPT_SUFFIX = "_speculative";
+  static final String SPECULATIVE_ATTEMPTS_LAUNCHED = "speculativeAttemptsLaunched";
+  static final String SPECULATIVE_ATTEMPTS_WON = "speculativeAttemptsWon";
+
+  private final String jobId;
+  private final JobState jobState;
+  private final TaskStateTracker taskStateTracker;
+  private final TaskExecutor taskExecutor;
+  private final CountDownLatch countDownLatch;
+  private final long checkIntervalMillis;
+  private final long minRuntimeMillis;
+  private final double slownessRatio;
+  private final int maxAttempts;
+  private final List<Task> tasks = Lists.newArrayList();
+  private int speculativeAttempts = 0;
+  private final Counter attemptsLaunched;
+  private final Counter attemptsWon;
+  private final ScheduledExecutorService executor;
+
+  TaskSpeculator(String jobId, JobState jobState, TaskStateTracker taskStateTracker, TaskExecutor taskExecutor,
+      CountDownLatch countDownLatch) {
+    this.jobId = jobId;
+    this.jobState = jobState;
+    this.taskStateTracker = taskStateTracker;
+    this.taskExecutor = taskExecutor;
+    this.countDownLatch = countDownLatch;
+    this.checkIntervalMillis = jobState.getPropAsLong(ConfigurationKeys.TASK_SPECULATION_CHECK_INTERVAL_MS_KEY,
+        ConfigurationKeys.DEFAULT_TASK_SPECULATION_CHECK_INTERVAL_MS);
+    this.minRuntimeMillis = jobState.getPropAsLong(ConfigurationKeys.TASK_SPECULATION_MIN_RUNTIME_MS_KEY,
+        ConfigurationKeys.DEFAULT_TASK_SPECULATION_MIN_RUNTIME_MS);
+    this.slownessRatio = jobState.getPropAsDouble(ConfigurationKeys.TASK_SPECULATION_SLOWNESS_RATIO_KEY,
+        ConfigurationKeys.DEFAULT_TASK_SPECULATION_SLOWNESS_RATIO);
+    this.maxAttempts = jobState.getPropAsInt(ConfigurationKeys.TASK_SPECULATION_MAX_ATTEMPTS_KEY,
+        ConfigurationKeys.DEFAULT_TASK_SPECULATION_MAX_ATTEMPTS);
+    JobMetrics jobMetrics = JobMetrics.get(jobId);
+    this.attemptsLaunched = jobMetrics.getCounter(MetricGroup.JOB.name(), jobId, SPECULATIVE_ATTEMPTS_LAUNCHED);
+    this.attemptsWon = jobMetrics.getCounter(MetricGroup.JOB.name(), jobId, SPECULATIVE_ATTEMPTS_WON);
+    this.executor = Executors.newSingleThreadScheduledExecutor(
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG), Optional.of("TaskSpeculator-%d")));
+  }
+
+  /**
+   * Whether speculative execution of straggler {@link Task}s is enabled for a job.
+   */
+  static boolean isEnabled(State jobState) {
+    if (!jobState.getPropAsBoolean(ConfigurationKeys.TASK_SPECULATION_ENABLED_KEY,
+        ConfigurationKeys.DEFAULT_TASK_SPECULATION_ENABLED)) {
+      return false;
+    }
+    if (jobState.getPropAsBoolean(KafkaSource.WORK_STEALING_ENABLED, KafkaSource.DEFAULT_WORK_STEALING_ENABLED)) {
+      LOG.warn("Speculative execution of tasks is disabled since " + KafkaSource.WORK_STEALING_ENABLED + " is set");
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Create a {@link SpeculativeTaskGroup} for the attempts of a new {@link Task}.
+   */
+  SpeculativeTaskGroup newTaskGroup() {
+    return new SpeculativeTaskGroup();
+  }
+
+  /**
+   * Add a {@link Task} created with a {@link SpeculativeTaskGroup} of {@link #newTaskGroup()} to be monitored.
+   * All the {@link Task}s should be added before {@link #start()} is called.
+   */
+  void addTask(Task task) {
+    this.tasks.add(task);
+  }
+
+  /**
+   * Start monitoring the {@link Task}s. The monitoring stops once all the {@link Task}s have completed, or when
+   * {@link #stop()} is called.
+   */
+  void start() {
+    LOG.info(String.format("Starting speculative execution of straggler tasks of job %s", this.jobId));
+    this.executor.scheduleAtFixedRate(this, this.checkIntervalMillis, this.checkIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop monitoring the {@link Task}s, e.g., because the job is cancelled or stopped waiting for its {@link Task}s,
+   * so the thread checking for stragglers does not keep running and holding the {@link Task}s. Speculative attempts
+   * already launched keep running.
+   */
+  void stop() {
+    if (!this.executor.isShutdown()) {
+      LOG.info(String.format("%d speculative attempts of tasks of job %s were launched", this.speculativeAttempts,
+          this.jobId));
+      // Cancels the periodic check without interrupting a check in progress
+      this.executor.shutdown();
+    }
+  }
+
+  boolean isStopped() {
+    return this.executor.isTerminated();
+  }
+
+  @Override
+  public void run() {
+    if (this.countDownLatch.getCount() == 0) {
+      stop();
+      return;
+    }
+
+    try {
+      speculateStragglers(System.currentTimeMillis());
+    } catch (Throwable t) {
+      LOG.error("Failed to check for straggler tasks of job " + this.jobId, t);
+    }
+  }
+
+  private void speculateStragglers(long now) {
+    List<Double> rates = Lists.newArrayList();
+    for (Task task : this.tasks) {
+      Optional<Double> rate = getExtractionRate(task, now);
+      if (rate.isPresent()) {
+        rates.add(rate.get());
+      }
+    }
+    if (rates.size() < 2) {
+      return;
+    }
+    Collections.sort(rates);
+    double medianRate = rates.get(rates.size() / 2);
+
+    for (Task task : this.tasks) {
+      if (this.speculativeAttempts >= this.maxAttempts) {
+        return;
+      }
+      TaskState taskState = task.getTaskState();
+      if (taskState.getWorkingState() != WorkUnitState.WorkingState.RUNNING
+          || now - taskState.getStartTime() < this.minRuntimeMillis
+          || task.getSpeculativeTaskGroup().get().hasSpeculativeAttempt()) {
+        continue;
+      }
+      Optional<Double> rate = getExtractionRate(task, now);
+      if (rate.isPresent() && rate.get() < medianRate * this.slownessRatio) {
+        LOG.info(String.format("Task %s extracts %.2f records/s against a median of %.2f records/s, speculating it",
+            task.getTaskId(), rate.get() * 1000, medianRate * 1000));
+        speculate(task);
+      }
+    }
+  }
+
+  /**
+   * Get the number of records extracted per millisecond by a running or successfully completed {@link Task}.
+   */
+  private static Optional<Double> getExtractionRate(Task task, long now) {
+    TaskState taskState = task.getTaskState();
+    long elapsedMillis;
+    switch (taskState.getWorkingState()) {
+      case RUNNING:
+        elapsedMillis = now - taskState.getStartTime();
+        break;
+      case SUCCESSFUL:
+      case COMMITTED:
+        elapsedMillis = taskState.getEndTime() - taskState.getStartTime();
+        break;
+      default:
+        return Optional.absent();
+    }
+    return Optional.of((double) task.getRecordsExtracted() / Math.max(1, elapsedMillis));
+  }
+
+  private void speculate(Task task) {
+    WorkUnitState workUnitState =
+        new WorkUnitState(WorkUnit.copyOf(task.getTaskState().getWorkunit()), this.jobState);
+    workUnitState.setId(task.getTaskId());
+    workUnitState.setProp(ConfigurationKeys.JOB_ID_KEY, this.jobId);
+    workUnitState.setProp(ConfigurationKeys.TASK_ID_KEY, task.getTaskId());
+    workUnitState.setProp(ConfigurationKeys.TASK_ATTEMPT_ID_KEY, task.getTaskId() + SPECULATIVE_ATTEMPT_SUFFIX);
+
+    // The attempt is not registered with the TaskStateTracker, whose reporter of the task is cancelled upon the
+    // completion of whichever attempt commits
+    Task attempt = new Task(new TaskContext(workUnitState), this.taskStateTracker, this.taskExecutor,
+        Optional.of(this.countDownLatch), task.getSpeculativeTaskGroup());
+    if (!task.getSpeculativeTaskGroup().get().tryLaunchSpeculativeAttempt(attempt)) {
+      LOG.info(String.format("Task %s completed before its speculative attempt was launched", task.getTaskId()));
+      return;
+    }
+    this.speculativeAttempts++;
+    this.attemptsLaunched.inc();
+    this.taskExecutor.execute(attempt);
+  }
+
+  /**
+   * The attempts of a {@link Task}, of which only the first attempt to finish successfully commits its output.
+   *
+   * <p>
+   *   The completion of an attempt is reported to the {@link TaskStateTracker} only if the attempt committed its
+   *   output, or if no attempt committed and it is the last attempt running, so that a failed attempt is retried or
+   *   counted as failed only if the other attempt also failed. A speculative attempt counts as running from the time
+   *   it is launched, so an attempt completing before the speculative attempt has started is not reported.
+   * </p>
+   */
+  class SpeculativeTaskGroup {
+
+    private volatile Task committedAttempt;
+    private Task speculativeAttempt;
+    // Whether the speculative attempt has been counted as running at launch but has not started yet
+    private boolean speculativeAttemptLaunching = false;
+    private Task completedAttempt;
+    private int runningAttempts = 0;
+
+    private SpeculativeTaskGroup() {
+    }
+
+    TaskSpeculator getTaskSpeculator() {
+      return TaskSpeculator.this;
+    }
+
+    synchronized boolean hasSpeculativeAttempt() {
+      return this.speculativeAttempt != null;
+    }
+
+    /**
+     * Add a speculative attempt, which counts as running from now on, unless no attempt is running anymore.
+     *
+     * @return whether the speculative attempt should be launched
+     */
+    synchronized boolean tryLaunchSpeculativeAttempt(Task attempt) {
+      if (this.speculativeAttempt != null || this.runningAttempts == 0) {
+        return false;
+      }
+      this.speculativeAttempt = attempt;
+      this.speculativeAttemptLaunching = true;
+      this.runningAttempts++;
+      return true;
+    }
+
+    synchronized void onAttemptStart(Task attempt) {
+      if (attempt == this.speculativeAttempt && this.speculativeAttemptLaunching) {
+        // Already counted when it was launched
+        this.speculativeAttemptLaunching = false;
+        return;
+      }
+      this.runningAttempts++;
+    }
+
+    /**
+     * Whether another attempt has committed its output, in which case the given attempt should stop.
+     */
+    boolean isLost(Task attempt) {
+      Task committed = this.committedAttempt;
+      return committed != null && committed != attempt;
+    }
+
+    /**
+     * Try to become the attempt committing the output.
+     *
+     * @return {@code true} if the given attempt should commit its output, {@code false} if another attempt did
+     */
+    synchronized boolean tryCommit(Task attempt) {
+      if (this.committedAttempt == null) {
+        this.committedAttempt = attempt;
+      }
+      return this.committedAttempt == attempt;
+    }
+
+    /**
+     * Try to become the attempt committing the output of a failed attempt, i.e., the output of the {@link Fork}s that
+     * succeeded, which is only allowed if no other attempt has committed or is still running and may succeed.
+     *
+     * @return {@code true} if the given attempt should commit the output of its succeeded {@link Fork}s
+     */
+    synchronized boolean tryCommitFailed(Task attempt) {
+      if (this.committedAttempt == null && this.runningAttempts == 1) {
+        this.committedAttempt = attempt;
+      }
+      return this.committedAttempt == attempt;
+    }
+
+    /**
+     * Record the completion of an attempt.
+     *
+     * @return whether the completion should be reported to the {@link TaskStateTracker}
+     */
+    synchronized boolean onAttemptCompletion(Task attempt) {
+      this.runningAttempts--;
+      boolean report = this.committedAttempt != null ? this.committedAttempt == attempt : this.runningAttempts == 0;
+      if (report) {
+        this.completedAttempt = attempt;
+        if (attempt == this.speculativeAttempt && this.committedAttempt == attempt) {
+          LOG.info(String.format("Speculative attempt %s of task %s won", attempt.getAttemptId(), attempt.getTaskId()));
+          TaskSpeculator.this.attemptsWon.inc();
+        }
+      } else {
+        LOG.info(String.format("Completion of attempt %s of task %s is not reported as another attempt %s",
+            attempt.getAttemptId(), attempt.getTaskId(),
+            this.committedAttempt != null ? "committed" : "is still running"));
+      }
+      return report;
+    }
+
+    /**
+     * Get the attempt whose completion was last reported to the {@link TaskStateTracker}.
+     */
+    synchronized Optional<Task> getCompletedAttempt() {
+      return Optional.fromNullable(this.completedAttempt);
+    }
+  }
+}
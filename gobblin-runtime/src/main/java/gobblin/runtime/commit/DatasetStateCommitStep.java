@@ -25,6 +25,7 @@ import gobblin.commit.CommitStep;
 import gobblin.commit.CommitStepBase;
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.runtime.FsDatasetStateStore;
+import gobblin.runtime.IndexedFsDatasetStateStore;
 import gobblin.runtime.JobState.DatasetState;
 import gobblin.util.HadoopUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -103,7 +104,10 @@ public class DatasetStateCommitStep extends CommitStepBase {
           URI.create(this.props.getProp(ConfigurationKeys.STATE_STORE_FS_URI_KEY, ConfigurationKeys.LOCAL_FS_URI)),
           HadoopUtils.getConfFromState(this.props));
 
-      this.stateStore = new FsDatasetStateStore(fs, this.props.getProp(ConfigurationKeys.STATE_STORE_ROOT_DIR_KEY));
+      String stateStoreRootDir = this.props.getProp(ConfigurationKeys.STATE_STORE_ROOT_DIR_KEY);
+      this.stateStore = this.props.getPropAsBoolean(ConfigurationKeys.STATE_STORE_INDEXED_ENABLED_KEY,
+          ConfigurationKeys.DEFAULT_STATE_STORE_INDEXED_ENABLED) ? new IndexedFsDatasetStateStore(fs, stateStoreRootDir)
+              : new FsDatasetStateStore(fs, stateStoreRootDir);
     }
     return this.stateStore;
   }
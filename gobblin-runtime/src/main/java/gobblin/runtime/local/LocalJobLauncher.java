@@ -30,6 +30,7 @@ import gobblin.metrics.Tag;
 import gobblin.metrics.event.TimingEvent;
 import gobblin.runtime.AbstractJobLauncher;
 import gobblin.runtime.JobState;
+import gobblin.runtime.Task;
 import gobblin.runtime.TaskExecutor;
 import gobblin.runtime.TaskStateTracker;
 import gobblin.source.workunit.WorkUnit;
@@ -55,6 +56,8 @@ public class LocalJobLauncher extends AbstractJobLauncher {
 
   private volatile CountDownLatch countDownLatch;
 
+  private volatile List<Task> tasks;
+
   public LocalJobLauncher(Properties jobProps) throws Exception {
     super(jobProps, ImmutableList.<Tag<?>> of());
 
@@ -109,13 +112,17 @@ public class LocalJobLauncher extends AbstractJobLauncher {
     TimingEvent workUnitsRunTimer = this.eventSubmitter.getTimingEvent(TimingEvent.RunJobTimings.WORK_UNITS_RUN);
 
     this.countDownLatch = new CountDownLatch(workUnitsToRun.size());
-    AbstractJobLauncher.runWorkUnits(this.jobContext.getJobId(), this.jobContext.getJobState(), workUnitsToRun,
-        this.taskStateTracker, this.taskExecutor, this.countDownLatch);
+    this.tasks = AbstractJobLauncher.runWorkUnits(this.jobContext.getJobId(), this.jobContext.getJobState(),
+        workUnitsToRun, this.taskStateTracker, this.taskExecutor, this.countDownLatch);
 
     LOG.info(String.format("Waiting for submitted tasks of job %s to complete...", jobId));
-    while (!this.countDownLatch.await(1, TimeUnit.MINUTES)) {
-      LOG.info(String.format("%d out of %d tasks of job %s are running", this.countDownLatch.getCount(),
-          workUnitsToRun.size(), jobId));
+    try {
+      while (!this.countDownLatch.await(1, TimeUnit.MINUTES)) {
+        LOG.info(String.format("%d out of %d tasks of job %s are running", this.countDownLatch.getCount(),
+            workUnitsToRun.size(), jobId));
+      }
+    } finally {
+      AbstractJobLauncher.stopTaskSpeculation(this.tasks);
     }
 
     workUnitsRunTimer.stop();
@@ -138,6 +145,9 @@ public class LocalJobLauncher extends AbstractJobLauncher {
 
   @Override
   protected void executeCancellation() {
+    if (this.tasks != null) {
+      AbstractJobLauncher.stopTaskSpeculation(this.tasks);
+    }
     if (this.countDownLatch != null) {
       while (this.countDownLatch.getCount() > 0) {
         this.countDownLatch.countDown();
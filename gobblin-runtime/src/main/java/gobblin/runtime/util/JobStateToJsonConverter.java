@@ -36,12 +36,13 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.Lists;
 import com.google.common.io.Closer;
 import com.google.gson.stream.JsonWriter;
 
 import gobblin.configuration.ConfigurationKeys;
-import gobblin.metastore.StateStore;
 import gobblin.runtime.FsDatasetStateStore;
+import gobblin.runtime.IndexedFsDatasetStateStore;
 import gobblin.runtime.JobState;
 
 
@@ -57,7 +58,7 @@ public class JobStateToJsonConverter {
 
   private static final String JOB_STATE_STORE_TABLE_SUFFIX = ".jst";
 
-  private final StateStore<? extends JobState> jobStateStore;
+  private final FsDatasetStateStore jobStateStore;
   private final boolean keepConfig;
 
   public JobStateToJsonConverter(Properties props, String storeUrl, boolean keepConfig)
@@ -67,7 +68,9 @@ public class JobStateToJsonConverter {
     Path storePath = new Path(storeUrl);
     FileSystem fs = storePath.getFileSystem(conf);
     String storeRootDir = storePath.toUri().getPath();
-    this.jobStateStore = new FsDatasetStateStore(fs, storeRootDir);
+    this.jobStateStore = Boolean.parseBoolean(props.getProperty(ConfigurationKeys.STATE_STORE_INDEXED_ENABLED_KEY,
+        Boolean.toString(ConfigurationKeys.DEFAULT_STATE_STORE_INDEXED_ENABLED)))
+            ? new IndexedFsDatasetStateStore(fs, storeRootDir) : new FsDatasetStateStore(fs, storeRootDir);
     this.keepConfig = keepConfig;
   }
 
@@ -99,7 +102,8 @@ public class JobStateToJsonConverter {
   }
 
   /**
-   * Convert the most recent {@link JobState} of the given job.
+   * Convert the most recent {@link JobState} of the given job. With an {@link IndexedFsDatasetStateStore}, the
+   * latest {@link JobState.DatasetState}s of all the datasets of the job are converted instead.
    *
    * @param jobName job name
    * @param writer {@link java.io.Writer} to write the json document
@@ -107,7 +111,25 @@ public class JobStateToJsonConverter {
   @SuppressWarnings("unchecked")
   public void convert(String jobName, Writer writer)
       throws IOException {
-    convert(jobName, "current", writer);
+    if (!(this.jobStateStore instanceof IndexedFsDatasetStateStore)) {
+      convert(jobName, "current", writer);
+      return;
+    }
+
+    List<JobState.DatasetState> datasetStates =
+        Lists.newArrayList(this.jobStateStore.getLatestDatasetStatesByUrns(jobName).values());
+    if (datasetStates.isEmpty()) {
+      LOGGER.warn(String.format("No dataset state found for job with name %s", jobName));
+      return;
+    }
+
+    JsonWriter jsonWriter = new JsonWriter(writer);
+    jsonWriter.setIndent("\t");
+    try {
+      writeJobStates(jsonWriter, datasetStates);
+    } finally {
+      jsonWriter.close();
+    }
   }
 
   /**
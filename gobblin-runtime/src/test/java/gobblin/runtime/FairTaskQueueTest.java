@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+
+
+/**
+ * Unit tests for {@link FairTaskQueue}.
+ */
+@Test(groups = {"gobblin.runtime"})
+public class FairTaskQueueTest {
+
+  @Test
+  public void testWeightedFairOrder() {
+    FairTaskQueue queue = new FairTaskQueue();
+    // The first job submits all its tasks before the second one
+    for (int i = 0; i < 4; i++) {
+      queue.offer(newEntry("job1", 1.0, 0, 0));
+    }
+    for (int i = 0; i < 4; i++) {
+      queue.offer(newEntry("job2", 2.0, 0, 0));
+    }
+
+    // A group of weight 2 gets two tasks for every task of a group of weight 1
+    int job2Taken = 0;
+    for (int i = 0; i < 3; i++) {
+      if (getGroup(queue.poll()).equals("job2")) {
+        job2Taken++;
+      }
+    }
+    Assert.assertEquals(job2Taken, 2);
+    Assert.assertEquals(queue.size(), 5);
+  }
+
+  @Test
+  public void testPriority() {
+    FairTaskQueue queue = new FairTaskQueue();
+    queue.offer(newEntry("batch", 1.0, 0, 0));
+    queue.offer(newEntry("batch", 1.0, 0, 0));
+    queue.offer(newEntry("latencySensitive", 1.0, 1, 0));
+
+    Assert.assertEquals(getGroup(queue.poll()), "latencySensitive");
+    Assert.assertEquals(getGroup(queue.poll()), "batch");
+  }
+
+  @Test
+  public void testMaxConcurrentTasks() {
+    FairTaskQueue queue = new FairTaskQueue();
+    queue.offer(newEntry("job1", 1.0, 0, 1));
+    queue.offer(newEntry("job1", 1.0, 0, 1));
+
+    Runnable running = queue.poll();
+    Assert.assertNotNull(running);
+    // The second task is held back until the first one completes
+    Assert.assertNull(queue.poll());
+    Assert.assertEquals(queue.size(), 1);
+
+    queue.onCompletion(running);
+    Assert.assertNotNull(queue.poll());
+    Assert.assertTrue(queue.isEmpty());
+  }
+
+  private FairTaskQueue.Entry newEntry(String group, double weight, int priority, int maxConcurrentTasks) {
+    return new FairTaskQueue.Entry(Mockito.mock(Runnable.class), group, weight, priority, maxConcurrentTasks,
+        Optional.<Timer>absent());
+  }
+
+  private String getGroup(Runnable entry) {
+    return ((FairTaskQueue.Entry) entry).getGroup();
+  }
+}
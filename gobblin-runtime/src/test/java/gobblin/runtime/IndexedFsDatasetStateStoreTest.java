@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+
+import gobblin.configuration.ConfigurationKeys;
+
+
+/**
+ * Unit tests for {@link IndexedFsDatasetStateStore}.
+ */
+@Test(groups = { "gobblin.runtime" })
+public class IndexedFsDatasetStateStoreTest {
+
+  private static final String TEST_JOB_NAME = "TestJob";
+  private static final String TEST_JOB_ID_PREFIX = "TestJob";
+  private static final String TEST_DATASET_URN_PREFIX = "TestDataset";
+
+  private FileSystem fs;
+  private FsDatasetStateStore fsDatasetStateStore;
+  private IndexedFsDatasetStateStore indexedFsDatasetStateStore;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.fs = FileSystem.getLocal(new Configuration());
+    this.fsDatasetStateStore = new FsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI,
+        IndexedFsDatasetStateStoreTest.class.getSimpleName());
+    this.indexedFsDatasetStateStore = new IndexedFsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI,
+        IndexedFsDatasetStateStoreTest.class.getSimpleName());
+  }
+
+  @Test
+  public void testMigrateFromPerDatasetStateFiles() throws IOException {
+    for (int i = 0; i < 3; i++) {
+      this.fsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + i, createDatasetState(i, 1));
+    }
+
+    // The per-dataset state files are read before the index exists
+    Assert.assertEquals(this.indexedFsDatasetStateStore.getLatestDatasetStatesByUrns(TEST_JOB_NAME).size(), 3);
+
+    this.indexedFsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 1, createDatasetState(1, 2));
+    this.indexedFsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 3, createDatasetState(3, 2));
+    // Persisted dataset states are visible before they are flushed
+    Assert.assertEquals(this.indexedFsDatasetStateStore.getLatestDatasetStatesByUrns(TEST_JOB_NAME).size(), 4);
+    this.indexedFsDatasetStateStore.flush(TEST_JOB_NAME);
+
+    Assert.assertTrue(this.fs.exists(new Path(new Path(IndexedFsDatasetStateStoreTest.class.getSimpleName(),
+        TEST_JOB_NAME), IndexedFsDatasetStateStore.DATASET_STATE_INDEX_NAME)));
+    assertLatestDatasetStates(new int[] { 1, 2, 1, 2 });
+  }
+
+  @Test(dependsOnMethods = "testMigrateFromPerDatasetStateFiles")
+  public void testUpdateIndex() throws IOException {
+    // A new store instance reads the index written by the previous one
+    IndexedFsDatasetStateStore newStateStore = new IndexedFsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI,
+        IndexedFsDatasetStateStoreTest.class.getSimpleName());
+    newStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 0, createDatasetState(0, 3));
+    newStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 4, createDatasetState(4, 3));
+    newStateStore.flush(TEST_JOB_NAME);
+
+    this.indexedFsDatasetStateStore = newStateStore;
+    assertLatestDatasetStates(new int[] { 3, 2, 1, 2, 3 });
+    Assert.assertNull(newStateStore.getLatestDatasetState(TEST_JOB_NAME, TEST_DATASET_URN_PREFIX + 5));
+  }
+
+  @Test(dependsOnMethods = "testUpdateIndex")
+  public void testPersistedStatesDurableWithoutFlush() throws IOException {
+    this.indexedFsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 1, createDatasetState(1, 4));
+    this.indexedFsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 1, createDatasetState(1, 5));
+
+    // A new store instance sees the persisted dataset states of a job that failed before flushing them
+    this.indexedFsDatasetStateStore = new IndexedFsDatasetStateStore(ConfigurationKeys.LOCAL_FS_URI,
+        IndexedFsDatasetStateStoreTest.class.getSimpleName());
+    assertLatestDatasetStates(new int[] { 3, 5, 1, 2, 3 });
+
+    this.indexedFsDatasetStateStore.flush(TEST_JOB_NAME);
+    Assert.assertFalse(this.fs.exists(getPendingDir()) && this.fs.listStatus(getPendingDir()).length > 0);
+    assertLatestDatasetStates(new int[] { 3, 5, 1, 2, 3 });
+  }
+
+  @Test(dependsOnMethods = "testPersistedStatesDurableWithoutFlush")
+  public void testConcurrentPersist() throws Exception {
+    final int numDatasets = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int i = 0; i < numDatasets; i++) {
+        final int dataset = i;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            indexedFsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + dataset,
+                createDatasetState(dataset, 6));
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Each dataset is persisted to its own pending file
+    Assert.assertEquals(this.fs.listStatus(getPendingDir()).length, numDatasets);
+    this.indexedFsDatasetStateStore.flush(TEST_JOB_NAME);
+
+    int[] expectedRuns = new int[numDatasets];
+    Arrays.fill(expectedRuns, 6);
+    assertLatestDatasetStates(expectedRuns);
+  }
+
+  @Test(dependsOnMethods = "testConcurrentPersist")
+  public void testReadWhilePersisting() throws Exception {
+    final int firstRun = 7;
+    final int lastRun = firstRun + 50;
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Void> persisting = executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          for (int run = firstRun; run <= lastRun; run++) {
+            indexedFsDatasetStateStore.persistDatasetState(TEST_DATASET_URN_PREFIX + 0, createDatasetState(0, run));
+          }
+          return null;
+        }
+      });
+
+      // Readers never fall back to the index while a pending dataset state is swapped in
+      int lastReadRun = 6;
+      while (!persisting.isDone()) {
+        JobState.DatasetState datasetState =
+            this.indexedFsDatasetStateStore.getLatestDatasetState(TEST_JOB_NAME, TEST_DATASET_URN_PREFIX + 0);
+        int run = Integer.parseInt(datasetState.getJobId().substring(TEST_JOB_ID_PREFIX.length()));
+        Assert.assertTrue(run >= lastReadRun, String.format("Read run %d after run %d", run, lastReadRun));
+        lastReadRun = run;
+      }
+      persisting.get();
+      Assert.assertEquals(this.indexedFsDatasetStateStore
+          .getLatestDatasetState(TEST_JOB_NAME, TEST_DATASET_URN_PREFIX + 0).getJobId(), TEST_JOB_ID_PREFIX + lastRun);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Path getPendingDir() {
+    return new Path(new Path(IndexedFsDatasetStateStoreTest.class.getSimpleName(), TEST_JOB_NAME),
+        IndexedFsDatasetStateStore.PENDING_DATASET_STATE_DIR_NAME);
+  }
+
+  private void assertLatestDatasetStates(int[] expectedRuns) throws IOException {
+    Map<String, JobState.DatasetState> datasetStatesByUrns =
+        this.indexedFsDatasetStateStore.getLatestDatasetStatesByUrns(TEST_JOB_NAME);
+    Assert.assertEquals(datasetStatesByUrns.size(), expectedRuns.length);
+
+    for (int i = 0; i < expectedRuns.length; i++) {
+      String datasetUrn = TEST_DATASET_URN_PREFIX + i;
+      Assert.assertEquals(datasetStatesByUrns.get(datasetUrn).getJobId(), TEST_JOB_ID_PREFIX + expectedRuns[i]);
+
+      JobState.DatasetState datasetState =
+          this.indexedFsDatasetStateStore.getLatestDatasetState(TEST_JOB_NAME, datasetUrn);
+      Assert.assertEquals(datasetState.getDatasetUrn(), datasetUrn);
+      Assert.assertEquals(datasetState.getJobId(), TEST_JOB_ID_PREFIX + expectedRuns[i]);
+      Assert.assertEquals(datasetState.getState(), JobState.RunningState.COMMITTED);
+    }
+  }
+
+  private static JobState.DatasetState createDatasetState(int dataset, int run) {
+    JobState.DatasetState datasetState = new JobState.DatasetState(TEST_JOB_NAME, TEST_JOB_ID_PREFIX + run);
+    datasetState.setDatasetUrn(TEST_DATASET_URN_PREFIX + dataset);
+    datasetState.setId(TEST_DATASET_URN_PREFIX + dataset);
+    datasetState.setState(JobState.RunningState.COMMITTED);
+    return datasetState;
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    Path rootDir = new Path(IndexedFsDatasetStateStoreTest.class.getSimpleName());
+    if (this.fs.exists(rootDir)) {
+      this.fs.delete(rootDir, true);
+    }
+  }
+}
@@ -30,8 +30,10 @@ import gobblin.converter.Converter;
 import gobblin.converter.DataConversionException;
 import gobblin.converter.EmptyIterable;
 import gobblin.converter.SchemaConversionException;
+import gobblin.converter.SingleRecordConverter;
 import gobblin.converter.SingleRecordIterable;
 import gobblin.test.TestConverter;
+import gobblin.util.RecordBatch;
 
 
 /**
@@ -153,6 +155,69 @@ public class MultiConverterTest {
     }
   }
 
+  @Test
+  public void testConversionWithSingleRecordConverters() throws Exception {
+    WorkUnitState workUnitState = new WorkUnitState();
+
+    // All converters are fused into a single stage
+    MultiConverter multiConverter = new MultiConverter(Lists.newArrayList(new SingleRecordIdentityConverter(),
+        new SingleRecordIdentityConverter(), new SingleRecordIdentityConverter()));
+    Assert.assertEquals(multiConverter.convertSchema(TEST_SCHEMA, workUnitState), TEST_SCHEMA);
+    Iterable<Object> convertedRecordIterable = multiConverter.convertRecord(TEST_SCHEMA, TEST_RECORD, workUnitState);
+    Assert.assertEquals(Iterables.size(convertedRecordIterable), 1);
+    Assert.assertEquals(convertedRecordIterable.iterator().next(), TEST_RECORD);
+
+    // A filtering converter stops the fused stage
+    multiConverter = new MultiConverter(Lists.newArrayList(new SingleRecordIdentityConverter(),
+        new SingleRecordFilterConverter(2), new SingleRecordIdentityConverter()));
+    multiConverter.convertSchema(TEST_SCHEMA, workUnitState);
+    Assert.assertEquals(Iterables.size(multiConverter.convertRecord(TEST_SCHEMA, TEST_RECORD, workUnitState)), 1);
+    Assert.assertEquals(Iterables.size(multiConverter.convertRecord(TEST_SCHEMA, TEST_RECORD, workUnitState)), 0);
+
+    // Fused stages mixed with other converters
+    multiConverter =
+        new MultiConverter(Lists.newArrayList(new SchemaSimplificationConverter(), new SingleRecordIdentityConverter(),
+            new MultiIdentityConverter(4), new SingleRecordFilterConverter(2), new SingleRecordIdentityConverter(),
+            new TestConverter()));
+    Schema schema = (Schema) multiConverter.convertSchema(TEST_SCHEMA, workUnitState);
+    convertedRecordIterable = multiConverter.convertRecord(schema, TEST_RECORD, workUnitState);
+    List<Object> convertedRecords = Lists.newArrayList(convertedRecordIterable);
+    Assert.assertEquals(convertedRecords.size(), 2);
+    for (Object record : convertedRecords) {
+      checkConvertedAvroData(schema, (GenericRecord) record);
+    }
+  }
+
+  @Test
+  public void testBatchConversion() throws Exception {
+    WorkUnitState workUnitState = new WorkUnitState();
+
+    MultiConverter multiConverter =
+        new MultiConverter(Lists.newArrayList(new SchemaSimplificationConverter(), new SingleRecordIdentityConverter(),
+            new MultiIdentityConverter(4), new SingleRecordFilterConverter(2), new SingleRecordIdentityConverter(),
+            new TestConverter()));
+    Schema schema = (Schema) multiConverter.convertSchema(TEST_SCHEMA, workUnitState);
+
+    RecordBatch<Object> records = new RecordBatch<>(3);
+    RecordBatch<Object> convertedRecords = new RecordBatch<>(3);
+    for (int i = 0; i < 3; i++) {
+      records.add(TEST_RECORD);
+    }
+    Assert.assertTrue(records.isFull());
+
+    // Each record is exploded into 4 records, half of which are filtered out
+    multiConverter.convertBatch(schema, records, convertedRecords, workUnitState);
+    Assert.assertEquals(convertedRecords.size(), 6);
+    for (Object record : convertedRecords) {
+      checkConvertedAvroData(schema, (GenericRecord) record);
+    }
+
+    // The same batches can be reused for the next batch of records
+    convertedRecords.clear();
+    multiConverter.convertBatch(schema, records, convertedRecords, workUnitState);
+    Assert.assertEquals(convertedRecords.size(), 6);
+  }
+
   @Test
   public void testConversionWithEmptyConverter() throws Exception {
     WorkUnitState workUnitState = new WorkUnitState();
@@ -259,6 +324,63 @@ public class MultiConverterTest {
     }
   }
 
+  /**
+   * A {@link SingleRecordConverter} that returns the input schema and data records as they are.
+   */
+  private static class SingleRecordIdentityConverter extends Converter<Object, Object, Object, Object>
+      implements SingleRecordConverter<Object, Object, Object> {
+
+    @Override
+    public Object convertSchema(Object inputSchema, WorkUnitState workUnit) throws SchemaConversionException {
+      return inputSchema;
+    }
+
+    @Override
+    public Iterable<Object> convertRecord(Object outputSchema, Object inputRecord, WorkUnitState workUnit)
+        throws DataConversionException {
+      return new SingleRecordIterable<>(convertSingleRecord(outputSchema, inputRecord, workUnit));
+    }
+
+    @Override
+    public Object convertSingleRecord(Object outputSchema, Object inputRecord, WorkUnitState workUnit)
+        throws DataConversionException {
+      return inputRecord;
+    }
+  }
+
+  /**
+   * A {@link SingleRecordConverter} that only keeps every "x"-th record it is given, starting with the first one.
+   */
+  private static class SingleRecordFilterConverter extends Converter<Object, Object, Object, Object>
+      implements SingleRecordConverter<Object, Object, Object> {
+
+    private int executionCount = 0;
+
+    private final int recordNum;
+
+    public SingleRecordFilterConverter(int recordNum) {
+      this.recordNum = recordNum;
+    }
+
+    @Override
+    public Object convertSchema(Object inputSchema, WorkUnitState workUnit) throws SchemaConversionException {
+      return inputSchema;
+    }
+
+    @Override
+    public Iterable<Object> convertRecord(Object outputSchema, Object inputRecord, WorkUnitState workUnit)
+        throws DataConversionException {
+      Object outputRecord = convertSingleRecord(outputSchema, inputRecord, workUnit);
+      return outputRecord != null ? new SingleRecordIterable<>(outputRecord) : new EmptyIterable<>();
+    }
+
+    @Override
+    public Object convertSingleRecord(Object outputSchema, Object inputRecord, WorkUnitState workUnit)
+        throws DataConversionException {
+      return this.executionCount++ % this.recordNum == 0 ? inputRecord : null;
+    }
+  }
+
   /**
    * A {@link Converter} that returns the input schema and data records as they are but with a given multiplicity.
    */
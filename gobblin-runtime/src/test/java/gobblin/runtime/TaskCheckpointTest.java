@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.io.Files;
+import com.google.gson.JsonPrimitive;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.configuration.WorkUnitState;
+
+
+/**
+ * Unit tests for {@link TaskCheckpoint}.
+ */
+@Test(groups = {"gobblin.runtime"})
+public class TaskCheckpointTest {
+
+  private final File checkpointDir = Files.createTempDir();
+
+  @Test
+  public void testCheckpointRecordedOnceAllForksCommitted() throws IOException {
+    TaskState taskState = newTaskState();
+    TaskCheckpoint checkpoint = new TaskCheckpoint(taskState, 1, new JsonPrimitive(100L), 2);
+
+    checkpoint.onForkCommitted();
+    Assert.assertFalse(TaskCheckpoint.getCheckpointWatermark(taskState).isPresent());
+
+    checkpoint.onForkCommitted();
+    Assert.assertEquals(TaskCheckpoint.getCheckpointWatermark(taskState).get().getAsLong(), 100L);
+    Assert.assertEquals(taskState.getPropAsInt(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY), 1);
+  }
+
+  @Test(dependsOnMethods = "testCheckpointRecordedOnceAllForksCommitted")
+  public void testCheckpointLoadedByNewRun() throws IOException {
+    // A rerun of the task in a new process starts from a fresh TaskState
+    TaskState taskState = newTaskState();
+    Assert.assertEquals(TaskCheckpoint.getCheckpointWatermark(taskState).get().getAsLong(), 100L);
+    Assert.assertEquals(taskState.getPropAsInt(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY), 1);
+
+    TaskCheckpoint.deleteCheckpoint(taskState);
+    Assert.assertFalse(TaskCheckpoint.getCheckpointWatermark(newTaskState()).isPresent());
+  }
+
+  private TaskState newTaskState() {
+    WorkUnitState workUnitState = new WorkUnitState();
+    workUnitState.setProp(ConfigurationKeys.JOB_ID_KEY, "TaskCheckpointTest-Job");
+    workUnitState.setProp(ConfigurationKeys.TASK_ID_KEY, "TaskCheckpointTest-Task");
+    workUnitState.setProp(ConfigurationKeys.TASK_CHECKPOINT_DIR_KEY, this.checkpointDir.getAbsolutePath());
+    return new TaskState(workUnitState);
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(this.checkpointDir);
+  }
+}
@@ -13,14 +13,21 @@
 package gobblin.runtime;
 
 import java.io.StringReader;
+import java.util.List;
 import java.util.Properties;
 
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.Lists;
+
 import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
+import gobblin.converter.Converter;
+import gobblin.converter.IdentityConverter;
+import gobblin.converter.SingleRecordConverter;
+import gobblin.converter.string.ObjectToStringConverter;
 import gobblin.source.workunit.WorkUnit;
 import gobblin.test.TestSource;
 import gobblin.writer.Destination;
@@ -74,4 +81,26 @@ public class TaskContextTest {
     Assert.assertEquals(this.taskContext.getWriterOutputFormat(1, 0), WriterOutputFormat.AVRO);
     Assert.assertTrue(this.taskContext.getConverters().isEmpty());
   }
+
+  @Test
+  public void testGetConvertersKeepsSingleRecordConverters() throws Exception {
+    WorkUnit workUnit = WorkUnit.createEmpty();
+    workUnit.addAll(this.taskContext.getTaskState());
+    workUnit.setProp(ConfigurationKeys.CONVERTER_CLASSES_KEY, IdentityConverter.class.getName() + ","
+        + ObjectToStringConverter.class.getName() + "," + IdentityConverter.class.getName());
+    WorkUnitState workUnitState = new WorkUnitState(workUnit);
+
+    List<Converter<?, ?, ?, ?>> converters = new TaskContext(workUnitState).getConverters();
+    Assert.assertEquals(converters.size(), 3);
+    // The decorated converters can still be fused by MultiConverter
+    Assert.assertTrue(converters.get(0) instanceof SingleRecordConverter);
+    Assert.assertFalse(converters.get(1) instanceof SingleRecordConverter);
+    Assert.assertTrue(converters.get(2) instanceof SingleRecordConverter);
+
+    MultiConverter multiConverter = new MultiConverter(converters);
+    Object schema = multiConverter.convertSchema("schema", workUnitState);
+    Assert.assertEquals(schema, String.class);
+    Assert.assertEquals(Lists.newArrayList(multiConverter.convertRecord(schema, 1, workUnitState)),
+        Lists.newArrayList("1"));
+  }
 }
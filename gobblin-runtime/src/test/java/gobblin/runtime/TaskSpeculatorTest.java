@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.runtime;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.source.extractor.extract.kafka.KafkaSource;
+
+
+/**
+ * Unit tests for {@link TaskSpeculator.SpeculativeTaskGroup}.
+ */
+@Test(groups = {"gobblin.runtime"})
+public class TaskSpeculatorTest {
+
+  private TaskSpeculator.SpeculativeTaskGroup taskGroup;
+  private Task original;
+  private Task speculative;
+
+  @BeforeMethod
+  public void setUp() {
+    JobState jobState = new JobState("TaskSpeculatorTest", "TaskSpeculatorTest-" + System.currentTimeMillis());
+    jobState.setProp(ConfigurationKeys.TASK_SPECULATION_ENABLED_KEY, true);
+    TaskSpeculator taskSpeculator = new TaskSpeculator(jobState.getJobId(), jobState,
+        Mockito.mock(TaskStateTracker.class), Mockito.mock(TaskExecutor.class), new CountDownLatch(1));
+    this.taskGroup = taskSpeculator.newTaskGroup();
+    this.original = Mockito.mock(Task.class);
+    this.speculative = Mockito.mock(Task.class);
+  }
+
+  @Test
+  public void testOnlyFirstAttemptCommits() {
+    this.taskGroup.onAttemptStart(this.original);
+    this.taskGroup.onAttemptStart(this.speculative);
+
+    Assert.assertTrue(this.taskGroup.tryCommit(this.speculative));
+    Assert.assertTrue(this.taskGroup.isLost(this.original));
+    Assert.assertFalse(this.taskGroup.isLost(this.speculative));
+    Assert.assertFalse(this.taskGroup.tryCommit(this.original));
+
+    // Only the completion of the committing attempt is reported
+    Assert.assertFalse(this.taskGroup.onAttemptCompletion(this.original));
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.speculative));
+    Assert.assertEquals(this.taskGroup.getCompletedAttempt().get(), this.speculative);
+  }
+
+  @Test
+  public void testFailureReportedOnlyForLastRunningAttempt() {
+    this.taskGroup.onAttemptStart(this.original);
+    this.taskGroup.onAttemptStart(this.speculative);
+
+    // A failed attempt is not reported while the other attempt is still running
+    Assert.assertFalse(this.taskGroup.onAttemptCompletion(this.original));
+    Assert.assertFalse(this.taskGroup.getCompletedAttempt().isPresent());
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.speculative));
+    Assert.assertEquals(this.taskGroup.getCompletedAttempt().get(), this.speculative);
+  }
+
+  @Test
+  public void testSpeculativeAttemptCountedAtLaunch() {
+    this.taskGroup.onAttemptStart(this.original);
+    Assert.assertTrue(this.taskGroup.tryLaunchSpeculativeAttempt(this.speculative));
+    Assert.assertFalse(this.taskGroup.tryLaunchSpeculativeAttempt(Mockito.mock(Task.class)));
+
+    // The original attempt fails before the speculative attempt has started, which is still to be reported
+    Assert.assertFalse(this.taskGroup.onAttemptCompletion(this.original));
+    this.taskGroup.onAttemptStart(this.speculative);
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.speculative));
+    Assert.assertEquals(this.taskGroup.getCompletedAttempt().get(), this.speculative);
+
+    // A retry of the reported attempt is counted again
+    this.taskGroup.onAttemptStart(this.speculative);
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.speculative));
+  }
+
+  @Test
+  public void testNoSpeculativeAttemptAfterCompletion() {
+    this.taskGroup.onAttemptStart(this.original);
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.original));
+    Assert.assertFalse(this.taskGroup.tryLaunchSpeculativeAttempt(this.speculative));
+  }
+
+  @Test
+  public void testFailedAttemptCommitsNothingWhileOtherAttemptRuns() {
+    this.taskGroup.onAttemptStart(this.original);
+    Assert.assertTrue(this.taskGroup.tryLaunchSpeculativeAttempt(this.speculative));
+
+    // An attempt with a failed fork does not commit while the other attempt may still succeed
+    Assert.assertFalse(this.taskGroup.tryCommitFailed(this.original));
+    Assert.assertFalse(this.taskGroup.onAttemptCompletion(this.original));
+    this.taskGroup.onAttemptStart(this.speculative);
+    Assert.assertTrue(this.taskGroup.tryCommit(this.speculative));
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.speculative));
+
+    setUp();
+    this.taskGroup.onAttemptStart(this.original);
+    Assert.assertTrue(this.taskGroup.tryLaunchSpeculativeAttempt(this.speculative));
+    this.taskGroup.onAttemptStart(this.speculative);
+    Assert.assertFalse(this.taskGroup.tryCommitFailed(this.original));
+    Assert.assertFalse(this.taskGroup.onAttemptCompletion(this.original));
+
+    // The last running attempt commits the output of its succeeded forks even if another fork failed
+    Assert.assertTrue(this.taskGroup.tryCommitFailed(this.speculative));
+    Assert.assertTrue(this.taskGroup.isLost(this.original));
+    Assert.assertTrue(this.taskGroup.onAttemptCompletion(this.speculative));
+  }
+
+  @Test
+  public void testStopBeforeTasksComplete() throws Exception {
+    JobState jobState = new JobState("TaskSpeculatorTest", "TaskSpeculatorTest-" + System.currentTimeMillis());
+    jobState.setProp(ConfigurationKeys.TASK_SPECULATION_CHECK_INTERVAL_MS_KEY, 10);
+    TaskSpeculator taskSpeculator = new TaskSpeculator(jobState.getJobId(), jobState,
+        Mockito.mock(TaskStateTracker.class), Mockito.mock(TaskExecutor.class), new CountDownLatch(1));
+    Task task = Mockito.mock(Task.class);
+    Mockito.when(task.getSpeculativeTaskGroup()).thenReturn(Optional.of(taskSpeculator.newTaskGroup()));
+    taskSpeculator.addTask(task);
+    taskSpeculator.start();
+
+    // The job is cancelled while its only task is still running, so the latch never reaches 0
+    AbstractJobLauncher.stopTaskSpeculation(ImmutableList.of(task));
+    for (int i = 0; i < 100 && !taskSpeculator.isStopped(); i++) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    Assert.assertTrue(taskSpeculator.isStopped());
+  }
+
+  @Test
+  public void testDisabledWithKafkaWorkStealing() {
+    JobState jobState = new JobState("TaskSpeculatorTest", "TaskSpeculatorTest-" + System.currentTimeMillis());
+    jobState.setProp(ConfigurationKeys.TASK_SPECULATION_ENABLED_KEY, true);
+    Assert.assertTrue(TaskSpeculator.isEnabled(jobState));
+    jobState.setProp(KafkaSource.WORK_STEALING_ENABLED, true);
+    Assert.assertFalse(TaskSpeculator.isEnabled(jobState));
+  }
+}
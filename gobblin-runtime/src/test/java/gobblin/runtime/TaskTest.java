@@ -14,15 +14,28 @@ package gobblin.runtime;
 
 import static org.mockito.Mockito.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.base.Charsets;
 import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gson.JsonElement;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -31,12 +44,16 @@ import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.WorkUnitState;
 import gobblin.fork.IdentityForkOperator;
 import gobblin.publisher.TaskPublisher;
+import gobblin.source.extractor.CheckpointableExtractor;
 import gobblin.source.extractor.DataRecordException;
 import gobblin.source.extractor.Extractor;
+import gobblin.source.extractor.Watermark;
+import gobblin.source.extractor.extract.LongWatermark;
 import gobblin.source.workunit.Extract;
 import gobblin.source.workunit.WorkUnit;
 import gobblin.qualitychecker.task.TaskLevelPolicyCheckResults;
 import gobblin.qualitychecker.task.TaskLevelPolicyChecker;
+import gobblin.writer.SimpleDataWriterBuilder;
 
 
 /**
@@ -89,6 +106,129 @@ public class TaskTest {
     Assert.assertEquals(task.getTaskState().getWorkingState(), WorkUnitState.WorkingState.SUCCESSFUL);
   }
 
+  /**
+   * Check that a {@link Task} that fails after some checkpoints resumes from the last one, and that the output of its
+   * writers is published exactly once and only after the {@link Task} succeeds.
+   */
+  @Test
+  public void testResumeFromCheckpointAfterFailure() throws Exception {
+    File tmpDir = Files.createTempDir();
+    try {
+      WorkUnit workUnit = WorkUnit.createEmpty();
+      workUnit.setProp(ConfigurationKeys.JOB_ID_KEY, "testResumeFromCheckpointJobId");
+      workUnit.setProp(ConfigurationKeys.TASK_ID_KEY, "testResumeFromCheckpointTaskId");
+      workUnit.setProp(ConfigurationKeys.METRICS_ENABLED_KEY, Boolean.toString(false));
+      workUnit.setProp(ConfigurationKeys.TASK_CHECKPOINT_INTERVAL_MS_KEY, 1);
+      workUnit.setProp(ConfigurationKeys.WRITER_BUILDER_CLASS, SimpleDataWriterBuilder.class.getName());
+      workUnit.setProp(ConfigurationKeys.SIMPLE_WRITER_DELIMITER, "\n");
+      workUnit.setProp(ConfigurationKeys.WRITER_STAGING_DIR, new File(tmpDir, "staging").getAbsolutePath());
+      workUnit.setProp(ConfigurationKeys.WRITER_OUTPUT_DIR, new File(tmpDir, "output").getAbsolutePath());
+      workUnit.setProp(ConfigurationKeys.WRITER_FILE_PATH, "test");
+
+      // A real TaskContext is used so the records are written to files by real writers
+      TaskContext taskContext = spy(new TaskContext(new WorkUnitState(workUnit)));
+      doReturn(new CheckpointableTestExtractor(6)).doReturn(new CheckpointableTestExtractor(-1)).when(taskContext)
+          .getExtractor();
+      Task task = new Task(taskContext, mock(TaskStateTracker.class), new TaskExecutor(new Properties()),
+          Optional.<CountDownLatch> absent());
+
+      // The first run fails after taking checkpoints, whose output is not published yet
+      task.run();
+      Assert.assertEquals(task.getTaskState().getWorkingState(), WorkUnitState.WorkingState.FAILED);
+      Assert.assertTrue(task.getTaskState().getPropAsInt(ConfigurationKeys.TASK_CHECKPOINT_COUNT_KEY, 0) > 0);
+      Assert.assertTrue(readRecords(new File(tmpDir, "output")).isEmpty());
+      Assert.assertFalse(readRecords(new File(tmpDir, "staging/test/_checkpoints")).isEmpty());
+
+      // The retry resumes from the last checkpoint and publishes each record exactly once
+      task.run();
+      Assert.assertEquals(task.getTaskState().getWorkingState(), WorkUnitState.WorkingState.SUCCESSFUL);
+      List<String> records = readRecords(new File(tmpDir, "output"));
+      Collections.sort(records);
+      Assert.assertEquals(records, CheckpointableTestExtractor.RECORDS);
+      Assert.assertFalse(new File(tmpDir, "staging/test/_checkpoints/testResumeFromCheckpointTaskId").exists());
+    } finally {
+      FileUtils.deleteDirectory(tmpDir);
+    }
+  }
+
+  /**
+   * Read the records in all data files under a directory, skipping checksum files.
+   */
+  private static List<String> readRecords(File dir) throws IOException {
+    List<String> records = Lists.newArrayList();
+    if (!dir.exists()) {
+      return records;
+    }
+    for (File file : FileUtils.listFiles(dir, null, true)) {
+      if (!file.getName().startsWith(".")) {
+        records.addAll(Files.readLines(file, Charsets.UTF_8));
+      }
+    }
+    return records;
+  }
+
+  /**
+   * A {@link CheckpointableExtractor} of {@link #RECORDS} whose watermark is the number of records read, and that may
+   * fail to read a given record.
+   */
+  private static class CheckpointableTestExtractor implements CheckpointableExtractor<String, byte[]> {
+
+    private static final List<String> RECORDS =
+        Lists.newArrayList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+
+    private final int failedRecord;
+    private int nextRecord = 0;
+
+    CheckpointableTestExtractor(int failedRecord) {
+      this.failedRecord = failedRecord;
+    }
+
+    @Override
+    public String getSchema() throws IOException {
+      return "schema";
+    }
+
+    @Override
+    public byte[] readRecord(@Deprecated byte[] reuse) throws DataRecordException, IOException {
+      if (this.nextRecord == this.failedRecord) {
+        // Give the forks time to commit at the checkpoints taken so far
+        Uninterruptibles.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+        throw new IOException("Failed to read record " + this.nextRecord);
+      }
+      if (this.nextRecord >= RECORDS.size()) {
+        return null;
+      }
+      // Let the checkpoint interval elapse so a checkpoint is taken after each record
+      Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+      return RECORDS.get(this.nextRecord++).getBytes(Charsets.UTF_8);
+    }
+
+    @Override
+    public Watermark getCheckpointWatermark() {
+      return new LongWatermark(this.nextRecord);
+    }
+
+    @Override
+    public void resumeFrom(JsonElement checkpointWatermark) throws IOException {
+      this.nextRecord = checkpointWatermark.getAsJsonObject().get("value").getAsInt();
+    }
+
+    @Override
+    public long getExpectedRecordCount() {
+      return RECORDS.size();
+    }
+
+    @Override
+    public long getHighWatermark() {
+      return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+      // Do nothing
+    }
+  }
+
   /**
    * An implementation of {@link Extractor} that throws an {@link IOException} during the invocation of
    * {@link #readRecord(Object)}.
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.salesforce;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import gobblin.util.ExecutorsUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Downloads the result sets of a Salesforce Bulk API query job concurrently, while handing them out in the order of
+ * the given list of results, so that records are read in the same order as if the results were downloaded one after
+ * another.
+ *
+ * <p>
+ *   Each result set is spooled to a local temporary file by one of a pool of download threads. At most a given number
+ *   of result sets are downloaded ahead of the one being read, which bounds the local disk usage. A download that
+ *   fails, e.g., because the connection dropped, is retried from the start of the result set, without affecting the
+ *   other result sets.
+ * </p>
+ */
+@Slf4j
+class BulkResultDownloader implements Closeable {
+
+  /**
+   * Opens the stream of a result set.
+   */
+  interface ResultStreamProvider {
+
+    InputStream getResultStream(BulkResultId resultId) throws IOException;
+  }
+
+  private final Iterator<BulkResultId> pendingResults;
+  private final ResultStreamProvider resultStreamProvider;
+  private final int bufferSize;
+  private final int maxRetries;
+  private final long retryIntervalMillis;
+  private final ExecutorService executor;
+  private final Deque<Future<File>> downloads = new ArrayDeque<>();
+  // Result sets downloaded but not yet returned by nextResult(), including those of downloads cancelled on completion
+  private final Set<File> unreadFiles = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+  /**
+   * @param resultIds the result sets to download, in the order they are to be read
+   * @param resultStreamProvider a {@link ResultStreamProvider} opening the stream of each result set
+   * @param threads the number of result sets downloaded concurrently
+   * @param bufferSize the maximum number of result sets downloaded ahead of the one being read
+   * @param maxRetries the maximum number of retries of the download of each result set
+   * @param retryIntervalMillis the time to wait before retrying a failed download
+   */
+  BulkResultDownloader(List<BulkResultId> resultIds, ResultStreamProvider resultStreamProvider, int threads,
+      int bufferSize, int maxRetries, long retryIntervalMillis) {
+    Preconditions.checkArgument(threads > 0, "Number of download threads must be positive");
+    Preconditions.checkArgument(bufferSize > 0, "Download buffer size must be positive");
+    this.pendingResults = ImmutableList.copyOf(resultIds).iterator();
+    this.resultStreamProvider = resultStreamProvider;
+    this.bufferSize = bufferSize;
+    this.maxRetries = maxRetries;
+    this.retryIntervalMillis = retryIntervalMillis;
+    this.executor = Executors.newFixedThreadPool(threads,
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(log), Optional.of("SalesforceBulkDownloader-%d")));
+  }
+
+  /**
+   * Get the stream of the next result set, waiting for its download to complete. The local copy of the result set
+   * is deleted when the stream is closed.
+   *
+   * @return the stream of the next result set, or {@code null} if all the result sets have been returned
+   * @throws IOException if the result set could not be downloaded within the maximum number of retries
+   */
+  InputStream nextResult() throws IOException {
+    fillBuffer();
+    Future<File> download = this.downloads.poll();
+    if (download == null) {
+      return null;
+    }
+
+    final File file;
+    try {
+      file = download.get();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a bulk result to be downloaded", ie);
+    } catch (ExecutionException ee) {
+      throw new IOException("Failed to download a bulk result", ee.getCause());
+    }
+    this.unreadFiles.remove(file);
+    fillBuffer();
+
+    return new FileInputStream(file) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          deleteFile(file);
+        }
+      }
+    };
+  }
+
+  private void fillBuffer() {
+    while (this.downloads.size() < this.bufferSize && this.pendingResults.hasNext()) {
+      final BulkResultId resultId = this.pendingResults.next();
+      this.downloads.add(this.executor.submit(new Callable<File>() {
+        @Override
+        public File call() throws Exception {
+          return download(resultId);
+        }
+      }));
+    }
+  }
+
+  private File download(BulkResultId resultId) throws IOException, InterruptedException {
+    for (int attempt = 0;; attempt++) {
+      File file = File.createTempFile("salesforce-bulk-", ".csv");
+      try {
+        try (InputStream is = this.resultStreamProvider.getResultStream(resultId)) {
+          Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (Thread.interrupted()) {
+          // The download was cancelled by close()
+          deleteFile(file);
+          throw new InterruptedException();
+        }
+        log.info(String.format("Downloaded bulk result %s (%d bytes)", resultId, file.length()));
+        this.unreadFiles.add(file);
+        return file;
+      } catch (IOException ioe) {
+        deleteFile(file);
+        if (attempt >= this.maxRetries) {
+          throw ioe;
+        }
+        log.warn(String.format("Failed to download bulk result %s, retry %d of %d in %d ms", resultId,
+            attempt + 1, this.maxRetries, this.retryIntervalMillis), ioe);
+        Thread.sleep(this.retryIntervalMillis);
+      }
+    }
+  }
+
+  private static void deleteFile(File file) {
+    if (!file.delete() && file.exists()) {
+      log.warn("Failed to delete " + file);
+    }
+  }
+
+  /**
+   * Cancel the pending downloads and delete the result sets that have been downloaded but not read.
+   */
+  @Override
+  public void close() throws IOException {
+    for (Future<File> download : this.downloads) {
+      download.cancel(true);
+    }
+    ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(log));
+    // A download cancelled after it completed still has its result set on disk, though its future does not return it
+    for (File file : this.unreadFiles) {
+      deleteFile(file);
+    }
+    this.unreadFiles.clear();
+    this.downloads.clear();
+  }
+}
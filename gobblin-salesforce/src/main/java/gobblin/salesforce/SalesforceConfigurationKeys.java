@@ -17,4 +17,24 @@ public class SalesforceConfigurationKeys {
       "source.querybased.salesforce.is.soft.deletes.pull.disabled";
   public static final int DEFAULT_SALESFORCE_MAX_CHARS_IN_FILE = 200000000;
   public static final int DEFAULT_SALESFORCE_MAX_ROWS_IN_FILE = 1000000;
+
+  // Number of records per batch when the bulk query is split into batches by primary key, 0 to disable PK chunking
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_PK_CHUNKING_SIZE =
+      "source.querybased.salesforce.bulk.pk.chunking.size";
+  public static final int DEFAULT_SALESFORCE_BULK_PK_CHUNKING_SIZE = 0;
+  public static final int MAX_SALESFORCE_BULK_PK_CHUNKING_SIZE = 250000;
+  // Number of bulk result sets downloaded concurrently
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_THREADS =
+      "source.querybased.salesforce.bulk.download.threads";
+  public static final int DEFAULT_SALESFORCE_BULK_DOWNLOAD_THREADS = 1;
+  // Maximum number of bulk result sets downloaded ahead of the one being read
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_BUFFER_SIZE =
+      "source.querybased.salesforce.bulk.download.buffer.size";
+  public static final int DEFAULT_SALESFORCE_BULK_DOWNLOAD_BUFFER_SIZE = 2;
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_MAX_RETRIES =
+      "source.querybased.salesforce.bulk.download.max.retries";
+  public static final int DEFAULT_SALESFORCE_BULK_DOWNLOAD_MAX_RETRIES = 3;
+  public static final String SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_RETRY_INTERVAL_MILLIS =
+      "source.querybased.salesforce.bulk.download.retry.interval.millis";
+  public static final long DEFAULT_SALESFORCE_BULK_DOWNLOAD_RETRY_INTERVAL_MILLIS = 10000;
 }
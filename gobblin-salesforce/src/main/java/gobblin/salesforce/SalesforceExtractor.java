@@ -15,12 +15,14 @@ package gobblin.salesforce;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -92,6 +94,7 @@ public class SalesforceExtractor extends RestApiExtractor {
   private static final String SALESFORCE_HOUR_FORMAT = "HH";
   private static final String SALESFORCE_SOAP_AUTH_SERVICE = "/services/Soap/u";
   private static final Gson GSON = new Gson();
+  private static final String PK_CHUNKING_HEADER = "Sforce-Enable-PKChunking";
 
   private boolean pullStatus = true;
   private String nextUrl;
@@ -101,8 +104,8 @@ public class SalesforceExtractor extends RestApiExtractor {
   private JobInfo bulkJob = new JobInfo();
   private BatchInfo bulkBatchInfo = null;
   private BufferedReader bulkBufferedReader = null;
-  private List<String> bulkResultIdList = Lists.newArrayList();
-  private int bulkResultIdCount = 0;
+  private List<BulkResultId> bulkResultIdList = Lists.newArrayList();
+  private BulkResultDownloader bulkResultDownloader = null;
   private boolean bulkJobFinished = true;
   private List<String> bulkRecordHeader;
   private int bulkResultColumCount;
@@ -542,6 +545,7 @@ public class SalesforceExtractor extends RestApiExtractor {
         this.setBulkJobFinished(false);
         this.bulkResultIdList = getQueryResultIds(entity, predicateList);
         log.info("Number of bulk api resultSet Ids:" + this.bulkResultIdList.size());
+        this.bulkResultDownloader = newBulkResultDownloader(this.bulkResultIdList);
       }
 
       // Get data from input stream
@@ -637,14 +641,26 @@ public class SalesforceExtractor extends RestApiExtractor {
    * @param schema/databasename
    * @param entity/tablename
    * @param list of all predicate conditions
-     * @return iterator with batch of records
+     * @return ids of the result sets of all the batches, in the order the records are to be read
    */
-  private List<String> getQueryResultIds(String entity, List<Predicate> predicateList) throws Exception {
+  private List<BulkResultId> getQueryResultIds(String entity, List<Predicate> predicateList) throws Exception {
     if (!bulkApiLogin()) {
       throw new IllegalArgumentException("Invalid Login");
     }
 
     try {
+      // With PK chunking, Salesforce splits the query into a batch per range of record ids, which are processed
+      // in parallel and can be downloaded in parallel
+      int pkChunkingSize = this.workUnit.getPropAsInt(
+          SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_PK_CHUNKING_SIZE,
+          SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_PK_CHUNKING_SIZE);
+      boolean pkChunking = pkChunkingSize > 0;
+      if (pkChunking) {
+        pkChunkingSize = Math.min(pkChunkingSize, SalesforceConfigurationKeys.MAX_SALESFORCE_BULK_PK_CHUNKING_SIZE);
+        log.info("Enabling PK chunking with chunk size " + pkChunkingSize);
+        this.bulkConnection.addHeader(PK_CHUNKING_HEADER, "chunkSize=" + pkChunkingSize);
+      }
+
       // Set bulk job attributes
       this.bulkJob.setObject(entity);
       this.bulkJob.setOperation(OperationEnum.query);
@@ -686,18 +702,37 @@ public class SalesforceExtractor extends RestApiExtractor {
             + " error - " + this.bulkBatchInfo.getStateMessage());
       }
 
+      // A PK chunked batch is not processed itself once it has been split into a batch per chunk
       while ((this.bulkBatchInfo.getState() != BatchStateEnum.Completed)
-          && (this.bulkBatchInfo.getState() != BatchStateEnum.Failed)) {
+          && (this.bulkBatchInfo.getState() != BatchStateEnum.Failed)
+          && (this.bulkBatchInfo.getState() != BatchStateEnum.NotProcessed)) {
         Thread.sleep(retryInterval * 1000);
         this.bulkBatchInfo = this.bulkConnection.getBatchInfo(this.bulkJob.getId(), this.bulkBatchInfo.getId());
         log.debug("Bulk Api Batch Info:" + this.bulkBatchInfo);
         log.info("Waiting for bulk resultSetIds");
       }
+      if (this.bulkBatchInfo.getState() == BatchStateEnum.Failed) {
+        throw new RuntimeException("Failed bulk batch for jobId " + this.bulkBatchInfo.getJobId() + " error - "
+            + this.bulkBatchInfo.getStateMessage());
+      }
+      // Without PK chunking, a batch that is not processed (e.g., because the job was aborted) has no results
+      if (this.bulkBatchInfo.getState() == BatchStateEnum.NotProcessed && !pkChunking) {
+        throw new RuntimeException("Bulk batch not processed for jobId " + this.bulkBatchInfo.getJobId()
+            + " error - " + this.bulkBatchInfo.getStateMessage());
+      }
 
-      // Get resultset ids from the batch info
-      QueryResultList list = this.bulkConnection.getQueryResultList(this.bulkJob.getId(), this.bulkBatchInfo.getId());
+      List<BatchInfo> batches = this.bulkBatchInfo.getState() == BatchStateEnum.NotProcessed
+          ? waitForPkChunkBatches(retryInterval) : Collections.singletonList(this.bulkBatchInfo);
 
-      return Arrays.asList(list.getResult());
+      // Get resultset ids from the batch infos
+      List<BulkResultId> resultIds = Lists.newArrayList();
+      for (BatchInfo batch : batches) {
+        QueryResultList list = this.bulkConnection.getQueryResultList(this.bulkJob.getId(), batch.getId());
+        for (String resultId : list.getResult()) {
+          resultIds.add(new BulkResultId(batch.getId(), resultId));
+        }
+      }
+      return resultIds;
 
     } catch (RuntimeException | AsyncApiException | InterruptedException e) {
       throw new RuntimeException(
@@ -705,6 +740,72 @@ public class SalesforceExtractor extends RestApiExtractor {
     }
   }
 
+  /**
+   * Wait for all the batches created by PK chunking of the original batch to complete.
+   *
+   * @param retryInterval interval in seconds between checks of the batch states
+   * @return the batches of the chunks in the order they were created, i.e., in the order of their record ids
+   */
+  private List<BatchInfo> waitForPkChunkBatches(int retryInterval) throws AsyncApiException, InterruptedException {
+    while (true) {
+      List<BatchInfo> chunkBatches = Lists.newArrayList();
+      int completedBatches = 0;
+      for (BatchInfo batch : this.bulkConnection.getBatchInfoList(this.bulkJob.getId()).getBatchInfo()) {
+        if (batch.getId().equals(this.bulkBatchInfo.getId())) {
+          continue;
+        }
+        if (batch.getState() == BatchStateEnum.Failed) {
+          throw new RuntimeException("Failed PK chunk batch " + batch.getId() + " for jobId " + batch.getJobId()
+              + " error - " + batch.getStateMessage());
+        }
+        if (batch.getState() == BatchStateEnum.Completed) {
+          completedBatches++;
+        }
+        chunkBatches.add(batch);
+      }
+
+      // The original batch is only marked as not processed once the chunk batches have been created
+      if (chunkBatches.isEmpty()) {
+        throw new RuntimeException("No PK chunk batches for not processed batch " + this.bulkBatchInfo.getId()
+            + " of jobId " + this.bulkJob.getId() + " error - " + this.bulkBatchInfo.getStateMessage());
+      }
+      if (completedBatches == chunkBatches.size()) {
+        log.info("Number of completed PK chunk batches:" + chunkBatches.size());
+        return chunkBatches;
+      }
+      log.info(String.format("Waiting for PK chunk batches, %d of %d completed", completedBatches,
+          chunkBatches.size()));
+      Thread.sleep(retryInterval * 1000);
+    }
+  }
+
+  private BulkResultDownloader newBulkResultDownloader(List<BulkResultId> resultIds) {
+    final BulkConnection connection = this.bulkConnection;
+    final String jobId = this.bulkJob.getId();
+    int threads = this.workUnit.getPropAsInt(
+        SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_THREADS,
+        SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_DOWNLOAD_THREADS);
+    int bufferSize = this.workUnit.getPropAsInt(
+        SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_BUFFER_SIZE,
+        SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_DOWNLOAD_BUFFER_SIZE);
+
+    return new BulkResultDownloader(resultIds, new BulkResultDownloader.ResultStreamProvider() {
+      @Override
+      public InputStream getResultStream(BulkResultId resultId) throws IOException {
+        try {
+          return connection.getQueryResultStream(jobId, resultId.getBatchId(), resultId.getResultId());
+        } catch (AsyncApiException e) {
+          throw new IOException("Failed to get the stream of bulk result " + resultId, e);
+        }
+      }
+    }, threads, Math.max(threads, bufferSize),
+        this.workUnit.getPropAsInt(SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_MAX_RETRIES,
+            SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_DOWNLOAD_MAX_RETRIES),
+        this.workUnit.getPropAsLong(
+            SalesforceConfigurationKeys.SOURCE_QUERYBASED_SALESFORCE_BULK_DOWNLOAD_RETRY_INTERVAL_MILLIS,
+            SalesforceConfigurationKeys.DEFAULT_SALESFORCE_BULK_DOWNLOAD_RETRY_INTERVAL_MILLIS));
+  }
+
   /**
    * Get data from the bulk api input stream
      * @return record set with each record as a JsonObject
@@ -717,18 +818,18 @@ public class SalesforceExtractor extends RestApiExtractor {
       // if Buffer is empty then get stream for the new resultset id
       if (this.bulkBufferedReader == null || !this.bulkBufferedReader.ready()) {
 
-        // if there is unprocessed resultset id then get result stream for that id
-        if (this.bulkResultIdCount < this.bulkResultIdList.size()) {
-          log.info("Stream resultset for resultId:" + this.bulkResultIdList.get(this.bulkResultIdCount));
+        if (this.bulkBufferedReader != null) {
+          this.bulkBufferedReader.close();
+          this.bulkBufferedReader = null;
+        }
+
+        // if there is unprocessed resultset then get the stream of the next resultset, in order
+        InputStream resultStream = this.bulkResultDownloader.nextResult();
+        if (resultStream != null) {
+          log.info("Stream next bulk resultset");
           this.setNewBulkResultSet(true);
           this.bulkBufferedReader =
-              new BufferedReader(
-                  new InputStreamReader(
-                      this.bulkConnection.getQueryResultStream(this.bulkJob.getId(), this.bulkBatchInfo.getId(),
-                          this.bulkResultIdList.get(this.bulkResultIdCount)),
-                      ConfigurationKeys.DEFAULT_CHARSET_ENCODING));
-
-          this.bulkResultIdCount++;
+              new BufferedReader(new InputStreamReader(resultStream, ConfigurationKeys.DEFAULT_CHARSET_ENCODING));
         } else {
           // if result stream processed for all resultset ids then finish the bulk job
           log.info("Bulk job is finished");
@@ -782,6 +883,12 @@ public class SalesforceExtractor extends RestApiExtractor {
 
   @Override
   public void closeConnection() throws Exception {
+    if (this.bulkBufferedReader != null) {
+      this.bulkBufferedReader.close();
+    }
+    if (this.bulkResultDownloader != null) {
+      this.bulkResultDownloader.close();
+    }
     if (this.bulkConnection != null
         && !this.bulkConnection.getJobStatus(this.bulkJob.getId()).getState().toString().equals("Closed")) {
       log.info("Closing salesforce bulk job connection");
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.salesforce;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+
+/**
+ * Unit tests for {@link BulkResultDownloader}.
+ */
+@Test(groups = { "gobblin.salesforce" })
+public class BulkResultDownloaderTest {
+
+  @Test
+  public void testResultsInOrderWithRetries() throws IOException {
+    final int numResults = 10;
+    List<BulkResultId> resultIds = Lists.newArrayList();
+    for (int i = 0; i < numResults; i++) {
+      resultIds.add(new BulkResultId("batch" + i / 5, String.valueOf(i)));
+    }
+
+    final Map<BulkResultId, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    BulkResultDownloader.ResultStreamProvider provider = new BulkResultDownloader.ResultStreamProvider() {
+      @Override
+      public InputStream getResultStream(BulkResultId resultId) throws IOException {
+        attempts.putIfAbsent(resultId, new AtomicInteger());
+        int attempt = attempts.get(resultId).incrementAndGet();
+        int index = Integer.parseInt(resultId.getResultId());
+        // Earlier results take longer to download, and every third result fails on the first attempt
+        try {
+          Thread.sleep((numResults - index) * 10);
+        } catch (InterruptedException ie) {
+          throw new IOException(ie);
+        }
+        if (index % 3 == 0 && attempt == 1) {
+          throw new IOException("Connection reset");
+        }
+        return new ByteArrayInputStream((resultId.getBatchId() + "," + index).getBytes(Charsets.UTF_8));
+      }
+    };
+
+    try (BulkResultDownloader downloader = new BulkResultDownloader(resultIds, provider, 4, 4, 1, 10)) {
+      for (int i = 0; i < numResults; i++) {
+        try (InputStream is = downloader.nextResult()) {
+          Assert.assertEquals(IOUtils.toString(is, Charsets.UTF_8), "batch" + i / 5 + "," + i);
+        }
+      }
+      Assert.assertNull(downloader.nextResult());
+    }
+    Assert.assertEquals(attempts.get(resultIds.get(3)).get(), 2);
+    Assert.assertEquals(attempts.get(resultIds.get(4)).get(), 1);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testFailureAfterRetries() throws IOException {
+    BulkResultDownloader.ResultStreamProvider provider = new BulkResultDownloader.ResultStreamProvider() {
+      @Override
+      public InputStream getResultStream(BulkResultId resultId) throws IOException {
+        throw new IOException("Connection reset");
+      }
+    };
+
+    try (BulkResultDownloader downloader =
+        new BulkResultDownloader(Lists.newArrayList(new BulkResultId("batch", "0")), provider, 1, 1, 2, 10)) {
+      downloader.nextResult();
+    }
+  }
+
+  @Test
+  public void testUnreadResultsDeletedOnClose() throws Exception {
+    BulkResultDownloader.ResultStreamProvider provider = new BulkResultDownloader.ResultStreamProvider() {
+      @Override
+      public InputStream getResultStream(BulkResultId resultId) throws IOException {
+        return new ByteArrayInputStream(resultId.getResultId().getBytes(Charsets.UTF_8));
+      }
+    };
+    List<BulkResultId> resultIds = Lists.newArrayList();
+    for (int i = 0; i < 4; i++) {
+      resultIds.add(new BulkResultId("batch", String.valueOf(i)));
+    }
+
+    Set<File> existingFiles = listResultFiles();
+    try (BulkResultDownloader downloader = new BulkResultDownloader(resultIds, provider, 4, 4, 0, 10)) {
+      try (InputStream is = downloader.nextResult()) {
+        Assert.assertEquals(IOUtils.toString(is, Charsets.UTF_8), "0");
+      }
+      // Let the downloads ahead of the one read complete
+      Thread.sleep(500);
+    }
+    Assert.assertTrue(Sets.difference(listResultFiles(), existingFiles).isEmpty());
+  }
+
+  private static Set<File> listResultFiles() {
+    File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.startsWith("salesforce-bulk-");
+      }
+    });
+    return Sets.newHashSet(Arrays.asList(files));
+  }
+}
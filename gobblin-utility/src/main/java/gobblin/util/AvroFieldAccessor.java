@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.collect.MapMaker;
+
+
+/**
+ * An accessor of a possibly nested field of Avro records, located by an ordered string such as
+ * "field1.nestedField1", in the same way as {@link AvroUtils#getFieldValue(GenericRecord, String)}.
+ *
+ * <p>
+ *   The field location is parsed once when the {@link AvroFieldAccessor} is created. For each record schema, the
+ *   field location is resolved into the chain of positions of the fields along the path, which is cached by the
+ *   schema instance, so that the fields of records are accessed by position rather than looked up by name. A nested
+ *   record whose schema is not the one the chain is resolved for, e.g., a branch of a union other than the record
+ *   branch, is accessed by name.
+ * </p>
+ *
+ * <p>
+ *   This class is thread-safe.
+ * </p>
+ */
+public class AvroFieldAccessor {
+
+  private final String fieldLocation;
+  private final String[] path;
+
+  // Position chains resolved for schemas, keyed by the identities of the schemas since positions are checked against
+  // schemas by reference. Weak keys compare by identity and let schemas that are no longer used be collected
+  private final ConcurrentMap<Schema, ResolvedPath> resolvedPaths = new MapMaker().weakKeys().makeMap();
+  // The position chain resolved for the last schema, which saves a map lookup for records of that schema
+  private volatile ResolvedPath lastResolvedPath = null;
+
+  public AvroFieldAccessor(String fieldLocation) {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(fieldLocation));
+    this.fieldLocation = fieldLocation;
+    List<String> pathList = AvroUtils.FIELD_LOCATION_SPLITTER.splitToList(fieldLocation);
+    this.path = pathList.toArray(new String[pathList.size()]);
+  }
+
+  public String getFieldLocation() {
+    return this.fieldLocation;
+  }
+
+  /**
+   * Get the schema of the field in records of the given schema.
+   *
+   * @return the schema of the field, or {@link Optional#absent()} if records of the given schema do not have the field
+   */
+  public Optional<Schema> getFieldSchema(Schema schema) {
+    Preconditions.checkNotNull(schema);
+    ResolvedPath resolvedPath = resolve(schema);
+    return Optional.fromNullable(resolvedPath.fieldSchema);
+  }
+
+  /**
+   * Get the value of the field in the given record.
+   *
+   * @return the value of the field, or {@link Optional#absent()} if the field or any record along the path is null
+   *         or missing
+   */
+  public Optional<Object> getFieldValue(GenericRecord record) {
+    Preconditions.checkNotNull(record);
+    if (this.path.length == 0) {
+      return Optional.absent();
+    }
+
+    ResolvedPath resolvedPath = resolve(record.getSchema());
+    Object data = record;
+    for (int i = 0; i < this.path.length; i++) {
+      if (!(data instanceof GenericRecord)) {
+        return Optional.absent();
+      }
+      GenericRecord current = (GenericRecord) data;
+      if (current.getSchema() == resolvedPath.recordSchemas[i]) {
+        int pos = resolvedPath.positions[i];
+        data = pos < 0 ? null : current.get(pos);
+      } else {
+        data = current.get(this.path[i]);
+      }
+    }
+    return Optional.fromNullable(data);
+  }
+
+  private ResolvedPath resolve(Schema schema) {
+    ResolvedPath resolvedPath = this.lastResolvedPath;
+    if (resolvedPath != null && resolvedPath.recordSchemas[0] == schema) {
+      return resolvedPath;
+    }
+
+    resolvedPath = this.resolvedPaths.get(schema);
+    if (resolvedPath == null) {
+      resolvedPath = new ResolvedPath(schema, this.path);
+      this.resolvedPaths.put(schema, resolvedPath);
+    }
+    this.lastResolvedPath = resolvedPath;
+    return resolvedPath;
+  }
+
+  /**
+   * The chain of field positions a field location resolves to for a record schema.
+   */
+  private static class ResolvedPath {
+
+    // Schema of the record at each level of the path, which is null below a missing field
+    private final Schema[] recordSchemas;
+    // Position of the field at each level of the path, which is -1 for a missing field
+    private final int[] positions;
+    // Schema of the field, which is null if the field is missing
+    private final Schema fieldSchema;
+
+    private ResolvedPath(Schema schema, String[] path) {
+      this.recordSchemas = new Schema[Math.max(path.length, 1)];
+      this.positions = new int[path.length];
+      this.recordSchemas[0] = schema;
+
+      Schema fieldSchema = null;
+      Schema recordSchema = getRecordSchema(schema);
+      for (int i = 0; i < path.length; i++) {
+        if (i > 0) {
+          this.recordSchemas[i] = recordSchema;
+        }
+        Schema.Field field = recordSchema == null ? null : recordSchema.getField(path[i]);
+        this.positions[i] = field == null ? -1 : field.pos();
+        fieldSchema = field == null ? null : field.schema();
+        recordSchema = fieldSchema == null ? null : getRecordSchema(fieldSchema);
+      }
+      this.fieldSchema = fieldSchema;
+    }
+
+    /**
+     * Get the schema of the records a field of the given schema may hold, which is the schema itself if it is a
+     * record schema, or the record branch of a union with a single record branch, e.g., a nullable record.
+     */
+    private static Schema getRecordSchema(Schema schema) {
+      if (schema.getType() == Schema.Type.RECORD) {
+        return schema;
+      }
+      if (schema.getType() != Schema.Type.UNION) {
+        return null;
+      }
+      Schema recordSchema = null;
+      for (Schema type : schema.getTypes()) {
+        if (type.getType() == Schema.Type.RECORD) {
+          if (recordSchema != null) {
+            return null;
+          }
+          recordSchema = type;
+        }
+      }
+      return recordSchema;
+    }
+  }
+}
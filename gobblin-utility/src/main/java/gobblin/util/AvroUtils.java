@@ -66,6 +66,8 @@ public class AvroUtils {
   private static final Logger LOG = LoggerFactory.getLogger(AvroUtils.class);
 
   private static final String FIELD_LOCATION_DELIMITER = ".";
+  static final Splitter FIELD_LOCATION_SPLITTER =
+      Splitter.on(FIELD_LOCATION_DELIMITER).omitEmptyStrings().trimResults();
 
   private static final String AVRO_SUFFIX = ".avro";
 
@@ -81,8 +83,7 @@ public class AvroUtils {
     Preconditions.checkNotNull(schema);
     Preconditions.checkArgument(!Strings.isNullOrEmpty(fieldLocation));
 
-    Splitter splitter = Splitter.on(FIELD_LOCATION_DELIMITER).omitEmptyStrings().trimResults();
-    List<String> pathList = Lists.newArrayList(splitter.split(fieldLocation));
+    List<String> pathList = FIELD_LOCATION_SPLITTER.splitToList(fieldLocation);
 
     if (pathList.size() == 0) {
       return Optional.absent();
@@ -112,6 +113,8 @@ public class AvroUtils {
    * Given a GenericRecord, this method will return the field specified by the path parameter. The fieldLocation
    * parameter is an ordered string specifying the location of the nested field to retrieve. For example,
    * field1.nestedField1 takes the the value of the field "field1", and retrieves the field "nestedField1" from it.
+   * To retrieve the same field from many records, use an {@link AvroFieldAccessor}, which resolves the field location
+   * once per schema.
    * @param record is the record to retrieve the field from
    * @param fieldLocation is the location of the field
    * @return the value of the field
@@ -120,8 +123,7 @@ public class AvroUtils {
     Preconditions.checkNotNull(record);
     Preconditions.checkArgument(!Strings.isNullOrEmpty(fieldLocation));
 
-    Splitter splitter = Splitter.on(FIELD_LOCATION_DELIMITER).omitEmptyStrings().trimResults();
-    List<String> pathList = splitter.splitToList(fieldLocation);
+    List<String> pathList = FIELD_LOCATION_SPLITTER.splitToList(fieldLocation);
 
     if (pathList.size() == 0) {
       return Optional.absent();
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+
+
+/**
+ * A {@link GenericRecord} backed by the binary encoding of an Avro datum that is only decoded when one of
+ * its fields is accessed.
+ *
+ * <p>
+ *   This allows records to be moved from a source to a sink that both use the Avro binary encoding without
+ *   being decoded and encoded again, e.g., by appending {@link #getEncodedDatum()} to a
+ *   {@link org.apache.avro.file.DataFileWriter} using {@link org.apache.avro.file.DataFileWriter#appendEncoded}.
+ *   Any access to the fields of the record, e.g., by a converter, decodes it, after which
+ *   {@link #isDecoded()} returns {@code true} and the encoded datum should no longer be used since the decoded
+ *   record may have been modified.
+ * </p>
+ */
+public class EncodedAvroRecord implements GenericRecord {
+
+  private final Schema schema;
+  private final ByteBuffer encodedDatum;
+  private final DatumReader<GenericRecord> datumReader;
+
+  private volatile GenericRecord decodedRecord;
+
+  /**
+   * @param schema the {@link Schema} the datum is encoded with
+   * @param encodedDatum the binary encoding of the datum
+   * @param datumReader a {@link DatumReader} for decoding the datum if needed
+   */
+  public EncodedAvroRecord(Schema schema, ByteBuffer encodedDatum, DatumReader<GenericRecord> datumReader) {
+    this.schema = schema;
+    this.encodedDatum = encodedDatum;
+    this.datumReader = datumReader;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return this.schema;
+  }
+
+  /**
+   * Get the binary encoding of the datum.
+   */
+  public ByteBuffer getEncodedDatum() {
+    return this.encodedDatum.duplicate();
+  }
+
+  /**
+   * Check if the datum has been decoded, in which case the encoded datum may not reflect the record any more.
+   */
+  public boolean isDecoded() {
+    return this.decodedRecord != null;
+  }
+
+  /**
+   * Get the decoded record, decoding the datum if this has not been done yet.
+   */
+  public synchronized GenericRecord getDecodedRecord() {
+    if (this.decodedRecord == null) {
+      try {
+        this.decodedRecord = this.datumReader.read(null, DecoderFactory.get().binaryDecoder(
+            this.encodedDatum.array(), this.encodedDatum.arrayOffset() + this.encodedDatum.position(),
+            this.encodedDatum.remaining(), null));
+      } catch (IOException ioe) {
+        throw new AvroRuntimeException("Failed to decode record with schema " + this.schema.getFullName(), ioe);
+      }
+    }
+    return this.decodedRecord;
+  }
+
+  @Override
+  public void put(String key, Object v) {
+    getDecodedRecord().put(key, v);
+  }
+
+  @Override
+  public Object get(String key) {
+    return getDecodedRecord().get(key);
+  }
+
+  @Override
+  public void put(int i, Object v) {
+    getDecodedRecord().put(i, v);
+  }
+
+  @Override
+  public Object get(int i) {
+    return getDecodedRecord().get(i);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof EncodedAvroRecord) {
+      return getDecodedRecord().equals(((EncodedAvroRecord) o).getDecodedRecord());
+    }
+    return getDecodedRecord().equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return getDecodedRecord().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return getDecodedRecord().toString();
+  }
+}
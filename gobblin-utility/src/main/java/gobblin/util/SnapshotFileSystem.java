@@ -0,0 +1,547 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.util.Progressable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+
+
+/**
+ * Subclass of {@link org.apache.hadoop.fs.FileSystem} that answers namespace reads from an in-memory snapshot of
+ * the {@link FileStatus}es under a set of snapshot roots.
+ *
+ * <p>
+ *   Each snapshot root is listed once, recursively and in parallel, the first time a path under it is read. The
+ *   listing goes through the decorated {@link FileSystem}, so wrapping a {@link RateControlledFileSystem} keeps the
+ *   listing within the configured call rate. The resulting tree is indexed by path component and is rebuilt once
+ *   it is older than the configured TTL.
+ * </p>
+ *
+ * <p>
+ *   {@link #getFileStatus(Path)} and {@link #listStatus(Path)} are answered from memory for paths under a snapshot
+ *   root. {@link FileSystem#globStatus(Path)}, {@link FileSystem#exists(Path)} and the other read methods of
+ *   {@link FileSystem} are built on those two, so glob based dataset and version finders never reach the
+ *   underlying file system. Mutations are delegated and update or invalidate the affected part of the snapshot.
+ *   Paths outside every snapshot root are delegated directly.
+ * </p>
+ */
+public class SnapshotFileSystem extends FileSystem implements Decorator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SnapshotFileSystem.class);
+
+  public static final String CONFIGURATION_KEY_PREFIX = "gobblin.fs.snapshot.";
+  public static final String SNAPSHOT_ENABLED_KEY = CONFIGURATION_KEY_PREFIX + "enabled";
+  public static final String SNAPSHOT_ROOTS_KEY = CONFIGURATION_KEY_PREFIX + "roots";
+  public static final String SNAPSHOT_TTL_SECONDS_KEY = CONFIGURATION_KEY_PREFIX + "ttl.seconds";
+  public static final long DEFAULT_SNAPSHOT_TTL_SECONDS = 600;
+  public static final String SNAPSHOT_LISTING_THREADS_KEY = CONFIGURATION_KEY_PREFIX + "listing.threads";
+  public static final int DEFAULT_SNAPSHOT_LISTING_THREADS = 10;
+  public static final String SNAPSHOT_MAX_DEPTH_KEY = CONFIGURATION_KEY_PREFIX + "max.depth";
+  public static final int DEFAULT_SNAPSHOT_MAX_DEPTH = -1;
+
+  private final FileSystem fs;
+  private final long ttlMillis;
+  private final int listingThreads;
+  private final int maxDepth;
+  private final ConcurrentMap<Path, RootSnapshot> snapshots = Maps.newConcurrentMap();
+
+  private final AtomicLong snapshotHits = new AtomicLong();
+  private final AtomicLong delegatedReads = new AtomicLong();
+
+  /**
+   * Wraps the input {@link FileSystem} in a {@link SnapshotFileSystem} if {@link #SNAPSHOT_ENABLED_KEY} is set to
+   * true, registering every root listed at {@link #SNAPSHOT_ROOTS_KEY}. Otherwise, returns the input
+   * {@link FileSystem}.
+   */
+  public static FileSystem getOptionallySnapshottedFileSystem(FileSystem fs, Properties props) {
+    if (!Boolean.parseBoolean(props.getProperty(SNAPSHOT_ENABLED_KEY, Boolean.toString(false)))) {
+      return fs;
+    }
+    if (getSnapshotFileSystem(fs).isPresent()) {
+      // Already snapshotted
+      return fs;
+    }
+
+    SnapshotFileSystem snapshotFs = new SnapshotFileSystem(fs,
+        TimeUnit.SECONDS.toMillis(Long.parseLong(props.getProperty(SNAPSHOT_TTL_SECONDS_KEY,
+            Long.toString(DEFAULT_SNAPSHOT_TTL_SECONDS)))),
+        Integer.parseInt(props.getProperty(SNAPSHOT_LISTING_THREADS_KEY,
+            Integer.toString(DEFAULT_SNAPSHOT_LISTING_THREADS))),
+        Integer.parseInt(props.getProperty(SNAPSHOT_MAX_DEPTH_KEY, Integer.toString(DEFAULT_SNAPSHOT_MAX_DEPTH))));
+    for (String root : Splitter.on(',').omitEmptyStrings().trimResults()
+        .split(props.getProperty(SNAPSHOT_ROOTS_KEY, ""))) {
+      snapshotFs.addSnapshotRoot(new Path(root));
+    }
+    return snapshotFs;
+  }
+
+  /**
+   * @return the {@link SnapshotFileSystem} in the decorator lineage of the input {@link FileSystem}, if any.
+   */
+  public static Optional<SnapshotFileSystem> getSnapshotFileSystem(FileSystem fs) {
+    for (Object obj : DecoratorUtils.getDecoratorLineage(fs)) {
+      if (obj instanceof SnapshotFileSystem) {
+        return Optional.of((SnapshotFileSystem) obj);
+      }
+    }
+    return Optional.absent();
+  }
+
+  /**
+   * @param fs the {@link FileSystem} to decorate.
+   * @param ttlMillis age after which a snapshot is listed again.
+   * @param listingThreads number of concurrent listings used to build a snapshot.
+   * @param maxDepth number of directory levels below a root listed eagerly. Deeper directories are listed on first
+   *                 read and cached afterwards. A negative value lists the whole subtree eagerly.
+   */
+  public SnapshotFileSystem(FileSystem fs, long ttlMillis, int listingThreads, int maxDepth) {
+    this.fs = fs;
+    this.ttlMillis = ttlMillis;
+    this.listingThreads = Math.max(1, listingThreads);
+    this.maxDepth = maxDepth;
+  }
+
+  public SnapshotFileSystem(FileSystem fs, Collection<Path> roots, long ttlMillis, int listingThreads) {
+    this(fs, ttlMillis, listingThreads, DEFAULT_SNAPSHOT_MAX_DEPTH);
+    for (Path root : roots) {
+      addSnapshotRoot(root);
+    }
+  }
+
+  /**
+   * Register a root whose whole subtree should be served from memory. The root is listed lazily, the first time a
+   * path under it is read. Registering an existing root is a no-op.
+   */
+  public void addSnapshotRoot(Path root) {
+    Path qualifiedRoot = this.fs.makeQualified(root);
+    if (this.snapshots.putIfAbsent(qualifiedRoot, new RootSnapshot(qualifiedRoot)) == null) {
+      LOG.info("Registered file system snapshot root " + qualifiedRoot);
+    }
+  }
+
+  /**
+   * Drop the in-memory listing of every snapshot root. The roots stay registered and are listed again on next read.
+   */
+  public void invalidateSnapshots() {
+    for (RootSnapshot snapshot : this.snapshots.values()) {
+      snapshot.invalidate();
+    }
+  }
+
+  /**
+   * @return number of reads answered from a snapshot.
+   */
+  public long getSnapshotHits() {
+    return this.snapshotHits.get();
+  }
+
+  /**
+   * @return number of reads delegated to the underlying {@link FileSystem}, including those issued to build snapshots.
+   */
+  public long getDelegatedReads() {
+    return this.delegatedReads.get();
+  }
+
+  @Override
+  public FileStatus getFileStatus(Path path) throws IOException {
+    Node node = resolve(path);
+    if (node == null) {
+      this.delegatedReads.incrementAndGet();
+      return this.fs.getFileStatus(path);
+    }
+    this.snapshotHits.incrementAndGet();
+    return node.status;
+  }
+
+  @Override
+  public FileStatus[] listStatus(Path path) throws IOException {
+    Node node = resolve(path);
+    if (node == null) {
+      this.delegatedReads.incrementAndGet();
+      return this.fs.listStatus(path);
+    }
+    if (!node.status.isDirectory()) {
+      this.snapshotHits.incrementAndGet();
+      return new FileStatus[] { node.status };
+    }
+
+    Map<String, Node> children = node.children;
+    if (children == null) {
+      listChildren(node);
+      children = node.children;
+    } else {
+      this.snapshotHits.incrementAndGet();
+    }
+    FileStatus[] statuses = new FileStatus[children.size()];
+    int i = 0;
+    for (Node child : children.values()) {
+      statuses[i++] = child.status;
+    }
+    return statuses;
+  }
+
+  @Override
+  public boolean delete(Path path) throws IOException {
+    return this.delete(path, true);
+  }
+
+  @Override
+  public boolean delete(Path path, boolean recursive) throws IOException {
+    boolean deleted = this.fs.delete(path, recursive);
+    if (deleted) {
+      removeFromSnapshots(path);
+    }
+    return deleted;
+  }
+
+  @Override
+  public boolean rename(Path src, Path dst) throws IOException {
+    boolean renamed = this.fs.rename(src, dst);
+    if (renamed) {
+      removeFromSnapshots(src);
+      invalidateListing(dst);
+    }
+    return renamed;
+  }
+
+  @Override
+  public boolean mkdirs(Path path, FsPermission permission) throws IOException {
+    boolean created = this.fs.mkdirs(path, permission);
+    invalidateListing(path);
+    return created;
+  }
+
+  @Override
+  public FSDataOutputStream append(Path path, int bufferSize, Progressable progress) throws IOException {
+    invalidateListing(path.getParent());
+    return this.fs.append(path, bufferSize, progress);
+  }
+
+  @Override
+  public FSDataOutputStream create(Path path, FsPermission permission, boolean overwrite, int bufferSize,
+      short replication, long blockSize, Progressable progress) throws IOException {
+    FSDataOutputStream outputStream =
+        this.fs.create(path, permission, overwrite, bufferSize, replication, blockSize, progress);
+    invalidateListing(path.getParent());
+    return outputStream;
+  }
+
+  @Override
+  public void setPermission(Path path, FsPermission permission) throws IOException {
+    this.fs.setPermission(path, permission);
+    invalidateStatus(path);
+  }
+
+  @Override
+  public void setOwner(Path path, String username, String groupname) throws IOException {
+    this.fs.setOwner(path, username, groupname);
+    invalidateStatus(path);
+  }
+
+  @Override
+  public void setTimes(Path path, long mtime, long atime) throws IOException {
+    this.fs.setTimes(path, mtime, atime);
+    invalidateStatus(path);
+  }
+
+  @Override
+  public FSDataInputStream open(Path path, int bufferSize) throws IOException {
+    return this.fs.open(path, bufferSize);
+  }
+
+  @Override
+  public URI getUri() {
+    return this.fs.getUri();
+  }
+
+  @Override
+  public Path getWorkingDirectory() {
+    return this.fs.getWorkingDirectory();
+  }
+
+  @Override
+  public void setWorkingDirectory(Path path) {
+    this.fs.setWorkingDirectory(path);
+  }
+
+  @Override
+  public Configuration getConf() {
+    return this.fs.getConf();
+  }
+
+  @Override
+  public Object getDecoratedObject() {
+    return this.fs;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.snapshots.clear();
+  }
+
+  /**
+   * Find the {@link Node} for the input path in the deepest snapshot root containing it.
+   *
+   * @return the {@link Node} for the path, or null if the snapshot cannot answer for the path.
+   * @throws FileNotFoundException if the snapshot knows the path does not exist.
+   */
+  private Node resolve(Path path) throws IOException {
+    Path qualifiedPath = this.fs.makeQualified(path);
+    Deque<String> components = Queues.newArrayDeque();
+    for (Path current = qualifiedPath; current != null; current = current.getParent()) {
+      RootSnapshot snapshot = this.snapshots.get(current);
+      if (snapshot != null) {
+        return snapshot.getRootNode().resolve(components, qualifiedPath);
+      }
+      components.push(current.getName());
+    }
+    return null;
+  }
+
+  /**
+   * Find the deepest {@link Node} already present in a snapshot on the path from the snapshot root to the input path.
+   */
+  private Optional<Node> deepestKnownNode(Path path) {
+    Path qualifiedPath = this.fs.makeQualified(path);
+    Deque<String> components = Queues.newArrayDeque();
+    for (Path current = qualifiedPath; current != null; current = current.getParent()) {
+      RootSnapshot snapshot = this.snapshots.get(current);
+      if (snapshot != null) {
+        Optional<Node> rootNode = snapshot.getRootNodeIfPresent();
+        if (!rootNode.isPresent()) {
+          return Optional.absent();
+        }
+        Node node = rootNode.get();
+        for (String component : components) {
+          Map<String, Node> children = node.children;
+          if (children == null || !children.containsKey(component)) {
+            break;
+          }
+          node = children.get(component);
+        }
+        return Optional.of(node);
+      }
+      components.push(current.getName());
+    }
+    return Optional.absent();
+  }
+
+  /**
+   * Forget the children of the deepest known {@link Node} on the path to the input path, so they are listed again
+   * on next read.
+   */
+  private void invalidateListing(Path path) {
+    if (path == null) {
+      return;
+    }
+    Optional<Node> node = deepestKnownNode(path);
+    if (node.isPresent()) {
+      node.get().children = null;
+    }
+  }
+
+  /**
+   * Refresh the {@link FileStatus} of the input path, which lives in its parent's listing.
+   */
+  private void invalidateStatus(Path path) {
+    invalidateRoots(path);
+    invalidateListing(path.getParent());
+  }
+
+  private void removeFromSnapshots(Path path) {
+    invalidateRoots(path);
+    Path parent = path.getParent();
+    if (parent == null) {
+      return;
+    }
+    Optional<Node> node = deepestKnownNode(parent);
+    if (node.isPresent() && node.get().status.getPath().equals(this.fs.makeQualified(parent))) {
+      Map<String, Node> children = node.get().children;
+      if (children != null) {
+        children.remove(path.getName());
+      }
+    } else {
+      invalidateListing(parent);
+    }
+  }
+
+  /**
+   * Invalidate every snapshot root at or below the input path.
+   */
+  private void invalidateRoots(Path path) {
+    String prefix = PathUtils.getPathWithoutSchemeAndAuthority(this.fs.makeQualified(path)).toString();
+    for (Map.Entry<Path, RootSnapshot> entry : this.snapshots.entrySet()) {
+      String root = PathUtils.getPathWithoutSchemeAndAuthority(entry.getKey()).toString();
+      if (root.equals(prefix) || root.startsWith(prefix.endsWith(Path.SEPARATOR) ? prefix : prefix + Path.SEPARATOR)) {
+        entry.getValue().invalidate();
+      }
+    }
+  }
+
+  /**
+   * List the children of a directory {@link Node} through the underlying {@link FileSystem}.
+   *
+   * @return the children that are directories.
+   */
+  private List<Node> listChildren(Node node) throws IOException {
+    ConcurrentSkipListMap<String, Node> children = new ConcurrentSkipListMap<>();
+    List<Node> directories = Lists.newArrayList();
+    this.delegatedReads.incrementAndGet();
+    try {
+      for (FileStatus status : this.fs.listStatus(node.status.getPath())) {
+        Node child = new Node(status);
+        children.put(status.getPath().getName(), child);
+        if (status.isDirectory()) {
+          directories.add(child);
+        }
+      }
+    } catch (FileNotFoundException fnfe) {
+      LOG.warn(String.format("Directory %s disappeared while building snapshot.", node.status.getPath()));
+    }
+    node.children = children;
+    return directories;
+  }
+
+  /**
+   * List the subtree under the input {@link Node} down to {@link #maxDepth}, one tree level at a time, with up to
+   * {@link #listingThreads} concurrent listings.
+   */
+  private void listRecursively(Node rootNode) throws IOException {
+    if (!rootNode.status.isDirectory()) {
+      return;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(this.listingThreads,
+        ExecutorsUtils.newThreadFactory(Optional.of(LOG), Optional.of("fs-snapshot-listing-%d")));
+    try {
+      List<Node> level = Lists.newArrayList(rootNode);
+      for (int depth = 0; !level.isEmpty() && (this.maxDepth < 0 || depth < this.maxDepth); depth++) {
+        List<Future<List<Node>>> futures = Lists.newArrayListWithCapacity(level.size());
+        for (final Node node : level) {
+          futures.add(executor.submit(new Callable<List<Node>>() {
+            @Override
+            public List<Node> call() throws Exception {
+              return listChildren(node);
+            }
+          }));
+        }
+        List<Node> nextLevel = Lists.newArrayList();
+        for (Future<List<Node>> future : futures) {
+          nextLevel.addAll(future.get());
+        }
+        level = nextLevel;
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while building file system snapshot.", ie);
+    } catch (ExecutionException ee) {
+      throw new IOException("Failed to build file system snapshot.", ee.getCause());
+    } finally {
+      ExecutorsUtils.shutdownExecutorService(executor, Optional.of(LOG));
+    }
+  }
+
+  /**
+   * A single {@link FileStatus} in a snapshot. Children are keyed by name, and are null until the directory has been
+   * listed.
+   */
+  private static class Node {
+    private final FileStatus status;
+    private volatile ConcurrentSkipListMap<String, Node> children;
+
+    private Node(FileStatus status) {
+      this.status = status;
+    }
+
+    private Node resolve(Iterable<String> components, Path path) throws IOException {
+      Node node = this;
+      for (String component : components) {
+        Map<String, Node> nodeChildren = node.children;
+        if (nodeChildren == null) {
+          // Not listed yet, or listing invalidated by a mutation.
+          return null;
+        }
+        node = nodeChildren.get(component);
+        if (node == null) {
+          throw new FileNotFoundException(String.format("File %s does not exist.", path));
+        }
+      }
+      return node;
+    }
+  }
+
+  /**
+   * The snapshot of a single root. Built on first access and rebuilt once older than {@link #ttlMillis}.
+   */
+  private class RootSnapshot {
+    private final Path root;
+    private Node rootNode;
+    private long createTime;
+
+    private RootSnapshot(Path root) {
+      this.root = root;
+    }
+
+    private synchronized Node getRootNode() throws IOException {
+      if (this.rootNode == null || System.currentTimeMillis() - this.createTime > SnapshotFileSystem.this.ttlMillis) {
+        long startTime = System.currentTimeMillis();
+        SnapshotFileSystem.this.delegatedReads.incrementAndGet();
+        Node node = new Node(SnapshotFileSystem.this.fs.getFileStatus(this.root));
+        listRecursively(node);
+        this.rootNode = node;
+        this.createTime = System.currentTimeMillis();
+        LOG.info(String.format("Built file system snapshot of %s in %d ms.", this.root, this.createTime - startTime));
+      }
+      return this.rootNode;
+    }
+
+    private synchronized Optional<Node> getRootNodeIfPresent() {
+      return Optional.fromNullable(this.rootNode);
+    }
+
+    private synchronized void invalidate() {
+      this.rootNode = null;
+    }
+  }
+}
@@ -37,7 +37,12 @@ public enum BaseLimiterType {
   /**
    * For {@link PoolBasedLimiter}.
    */
-  POOL_BASED("pool");
+  POOL_BASED("pool"),
+
+  /**
+   * For {@link DistributedLimiter}.
+   */
+  DISTRIBUTED("distributed");
 
   private final String name;
 
@@ -69,6 +74,9 @@ public enum BaseLimiterType {
     if (name.equalsIgnoreCase(POOL_BASED.name)) {
       return POOL_BASED;
     }
+    if (name.equalsIgnoreCase(DISTRIBUTED.name)) {
+      return DISTRIBUTED;
+    }
     throw new IllegalArgumentException("No Limiter implementation available for name: " + name);
   }
 }
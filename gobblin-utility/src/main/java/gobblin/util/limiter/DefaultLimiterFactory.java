@@ -12,10 +12,14 @@
 
 package gobblin.util.limiter;
 
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
 
+import gobblin.configuration.ConfigurationKeys;
 import gobblin.configuration.State;
 
 
@@ -26,6 +30,17 @@ import gobblin.configuration.State;
  */
 public class DefaultLimiterFactory {
 
+  /**
+   * Prefix of the configuration properties of the {@link Limiter} of an extractor.
+   */
+  public static final String EXTRACT_LIMIT_PREFIX = "extract.limit.";
+
+  /**
+   * Prefix of the configuration properties of the {@link Limiter} of a writer, which take the same suffixes as the
+   * properties of the {@link Limiter} of an extractor, e.g., {@code writer.limit.type}.
+   */
+  public static final String WRITER_LIMIT_PREFIX = "writer.limit.";
+
   public static final String EXTRACT_LIMIT_TYPE_KEY = "extract.limit.type";
   public static final String EXTRACT_LIMIT_RATE_LIMIT_KEY = "extract.limit.rate.limit";
   public static final String EXTRACT_LIMIT_RATE_LIMIT_TIMEUNIT_KEY = "extract.limit.rate.limit.timeunit";
@@ -33,6 +48,22 @@ public class DefaultLimiterFactory {
   public static final String EXTRACT_LIMIT_TIME_LIMIT_TIMEUNIT_KEY = "extract.limit.time.limit.timeunit";
   public static final String EXTRACT_LIMIT_COUNT_LIMIT_KEY = "extract.limit.count.limit";
   public static final String EXTRACT_LIMIT_POOL_SIZE_KEY = "extract.limit.pool.size";
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_SERVICE_URL_KEY = "extract.limit.distributed.service.url";
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_RESOURCE_KEY = "extract.limit.distributed.resource";
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_BATCH_SIZE_KEY = "extract.limit.distributed.batch.size";
+  public static final long DEFAULT_EXTRACT_LIMIT_DISTRIBUTED_BATCH_SIZE = 100;
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_TIMEOUT_MILLIS_KEY = "extract.limit.distributed.timeout.millis";
+  public static final int DEFAULT_EXTRACT_LIMIT_DISTRIBUTED_TIMEOUT_MILLIS = 5000;
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_RETRY_INTERVAL_MILLIS_KEY =
+      "extract.limit.distributed.retry.interval.millis";
+  public static final long DEFAULT_EXTRACT_LIMIT_DISTRIBUTED_RETRY_INTERVAL_MILLIS = 30000;
+  public static final String EXTRACT_LIMIT_DISTRIBUTED_FALLBACK_RATE_LIMIT_KEY =
+      "extract.limit.distributed.fallback.rate.limit";
+  /**
+   * Name under which the {@link Limiter} is registered in the {@link LimiterRegistry}, to be shared by all the tasks
+   * of the JVM using the same name.
+   */
+  public static final String EXTRACT_LIMIT_SHARED_NAME_KEY = "extract.limit.shared.name";
 
   /**
    * Create a new {@link Limiter} instance of one of the types in {@link BaseLimiterType}.
@@ -57,37 +88,108 @@ public class DefaultLimiterFactory {
    * @throws IllegalArgumentException if the input configuration does not specify a valid supported
    */
   public static Limiter newLimiter(State state) {
-    Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_TYPE_KEY),
-        String.format("Missing configuration property %s for the Limiter type", EXTRACT_LIMIT_TYPE_KEY));
-    BaseLimiterType type = BaseLimiterType.forName(state.getProp(EXTRACT_LIMIT_TYPE_KEY));
+    return newLimiter(state, EXTRACT_LIMIT_PREFIX);
+  }
+
+  /**
+   * Create a new {@link Limiter} instance as {@link #newLimiter(State)} does, from the configuration properties with
+   * the given prefix in place of {@link #EXTRACT_LIMIT_PREFIX}, e.g., {@link #WRITER_LIMIT_PREFIX}.
+   *
+   * @param state a {@link State} instance carrying configuration properties
+   * @param keyPrefix the prefix of the configuration properties of the {@link Limiter}
+   * @return a new {@link Limiter} instance
+   */
+  public static Limiter newLimiter(State state, String keyPrefix) {
+    String typeKey = key(keyPrefix, EXTRACT_LIMIT_TYPE_KEY);
+    Preconditions.checkArgument(state.contains(typeKey),
+        String.format("Missing configuration property %s for the Limiter type", typeKey));
+    BaseLimiterType type = BaseLimiterType.forName(state.getProp(typeKey));
 
     switch (type) {
       case RATE_BASED:
-        Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_RATE_LIMIT_KEY));
-        int rateLimit = Integer.parseInt(state.getProp(EXTRACT_LIMIT_RATE_LIMIT_KEY));
-        if (state.contains(EXTRACT_LIMIT_RATE_LIMIT_TIMEUNIT_KEY)) {
-          TimeUnit rateTimeUnit = TimeUnit.valueOf(state.getProp(EXTRACT_LIMIT_RATE_LIMIT_TIMEUNIT_KEY).toUpperCase());
+        String rateLimitKey = key(keyPrefix, EXTRACT_LIMIT_RATE_LIMIT_KEY);
+        String rateTimeUnitKey = key(keyPrefix, EXTRACT_LIMIT_RATE_LIMIT_TIMEUNIT_KEY);
+        Preconditions.checkArgument(state.contains(rateLimitKey));
+        int rateLimit = Integer.parseInt(state.getProp(rateLimitKey));
+        if (state.contains(rateTimeUnitKey)) {
+          TimeUnit rateTimeUnit = TimeUnit.valueOf(state.getProp(rateTimeUnitKey).toUpperCase());
           return new RateBasedLimiter(rateLimit, rateTimeUnit);
         }
         return new RateBasedLimiter(rateLimit);
       case TIME_BASED:
-        Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_TIME_LIMIT_KEY));
-        long timeLimit = Long.parseLong(state.getProp(EXTRACT_LIMIT_TIME_LIMIT_KEY));
-        if (state.contains(EXTRACT_LIMIT_TIME_LIMIT_TIMEUNIT_KEY)) {
-          TimeUnit timeTimeUnit = TimeUnit.valueOf(state.getProp(EXTRACT_LIMIT_TIME_LIMIT_TIMEUNIT_KEY).toUpperCase());
+        String timeLimitKey = key(keyPrefix, EXTRACT_LIMIT_TIME_LIMIT_KEY);
+        String timeTimeUnitKey = key(keyPrefix, EXTRACT_LIMIT_TIME_LIMIT_TIMEUNIT_KEY);
+        Preconditions.checkArgument(state.contains(timeLimitKey));
+        long timeLimit = Long.parseLong(state.getProp(timeLimitKey));
+        if (state.contains(timeTimeUnitKey)) {
+          TimeUnit timeTimeUnit = TimeUnit.valueOf(state.getProp(timeTimeUnitKey).toUpperCase());
           return new TimeBasedLimiter(timeLimit, timeTimeUnit);
         }
         return new TimeBasedLimiter(timeLimit);
       case COUNT_BASED:
-        Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_COUNT_LIMIT_KEY));
-        long countLimit = Long.parseLong(state.getProp(EXTRACT_LIMIT_COUNT_LIMIT_KEY));
+        String countLimitKey = key(keyPrefix, EXTRACT_LIMIT_COUNT_LIMIT_KEY);
+        Preconditions.checkArgument(state.contains(countLimitKey));
+        long countLimit = Long.parseLong(state.getProp(countLimitKey));
         return new CountBasedLimiter(countLimit);
       case POOL_BASED:
-        Preconditions.checkArgument(state.contains(EXTRACT_LIMIT_POOL_SIZE_KEY));
-        int poolSize = Integer.parseInt(state.getProp(EXTRACT_LIMIT_POOL_SIZE_KEY));
+        String poolSizeKey = key(keyPrefix, EXTRACT_LIMIT_POOL_SIZE_KEY);
+        Preconditions.checkArgument(state.contains(poolSizeKey));
+        int poolSize = Integer.parseInt(state.getProp(poolSizeKey));
         return new PoolBasedLimiter(poolSize);
+      case DISTRIBUTED:
+        return newDistributedLimiter(state, keyPrefix);
       default:
         throw new IllegalArgumentException("Unrecognized Limiter type: " + type.toString());
     }
   }
+
+  /**
+   * Get the {@link Limiter} configured by the properties with the given prefix, which is the {@link Limiter}
+   * registered in the {@link LimiterRegistry} under the name given by the {@code shared.name} property if present,
+   * e.g., {@link #EXTRACT_LIMIT_SHARED_NAME_KEY}, or a new {@link Limiter} created by
+   * {@link #newLimiter(State, String)} otherwise.
+   *
+   * @param state a {@link State} instance carrying configuration properties
+   * @param keyPrefix the prefix of the configuration properties of the {@link Limiter}
+   * @return a {@link Limiter} instance, which should be started and stopped by the caller
+   */
+  public static Limiter getLimiter(final State state, final String keyPrefix) {
+    String sharedNameKey = key(keyPrefix, EXTRACT_LIMIT_SHARED_NAME_KEY);
+    if (!state.contains(sharedNameKey)) {
+      return newLimiter(state, keyPrefix);
+    }
+    return LimiterRegistry.getLimiter(state.getProp(sharedNameKey), new Supplier<Limiter>() {
+      @Override
+      public Limiter get() {
+        return newLimiter(state, keyPrefix);
+      }
+    });
+  }
+
+  private static Limiter newDistributedLimiter(State state, String keyPrefix) {
+    String serviceUrlKey = key(keyPrefix, EXTRACT_LIMIT_DISTRIBUTED_SERVICE_URL_KEY);
+    String resourceKey = key(keyPrefix, EXTRACT_LIMIT_DISTRIBUTED_RESOURCE_KEY);
+    String fallbackRateLimitKey = key(keyPrefix, EXTRACT_LIMIT_DISTRIBUTED_FALLBACK_RATE_LIMIT_KEY);
+    Preconditions.checkArgument(state.contains(serviceUrlKey));
+    Preconditions.checkArgument(state.contains(resourceKey));
+    PermitLeaseService service = new HttpPermitLeaseService(state.getProp(serviceUrlKey),
+        state.getPropAsInt(key(keyPrefix, EXTRACT_LIMIT_DISTRIBUTED_TIMEOUT_MILLIS_KEY),
+            DEFAULT_EXTRACT_LIMIT_DISTRIBUTED_TIMEOUT_MILLIS));
+    Optional<Limiter> fallbackLimiter = state.contains(fallbackRateLimitKey)
+        ? Optional.<Limiter> of(new RateBasedLimiter(state.getPropAsDouble(fallbackRateLimitKey)))
+        : Optional.<Limiter> absent();
+    return new DistributedLimiter(service, state.getProp(resourceKey),
+        state.getProp(ConfigurationKeys.TASK_ID_KEY, UUID.randomUUID().toString()),
+        state.getPropAsLong(key(keyPrefix, EXTRACT_LIMIT_DISTRIBUTED_BATCH_SIZE_KEY),
+            DEFAULT_EXTRACT_LIMIT_DISTRIBUTED_BATCH_SIZE),
+        fallbackLimiter, state.getPropAsLong(key(keyPrefix, EXTRACT_LIMIT_DISTRIBUTED_RETRY_INTERVAL_MILLIS_KEY),
+            DEFAULT_EXTRACT_LIMIT_DISTRIBUTED_RETRY_INTERVAL_MILLIS));
+  }
+
+  /**
+   * Get the name of the property with the given prefix corresponding to the given extractor limiter property.
+   */
+  private static String key(String keyPrefix, String extractLimitKey) {
+    return keyPrefix + extractLimitKey.substring(EXTRACT_LIMIT_PREFIX.length());
+  }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+
+
+/**
+ * An implementation of {@link Limiter} that limits the rate of some events across all the tasks and containers of a
+ * job, by leasing batches of permits on a shared resource from a {@link PermitLeaseService}, e.g., a
+ * {@link QuotaService} behind a {@link QuotaServer}.
+ *
+ * <p>
+ *   {@link #acquirePermits(long)} takes permits from the current lease, and leases a new batch of permits when the
+ *   current lease is used up or has expired, blocking for as long as the {@link PermitLeaseService} asks if no
+ *   permit is available. The number of permits acquired at once should not exceed the fair share of permits the
+ *   {@link PermitLeaseService} grants to each client.
+ * </p>
+ *
+ * <p>
+ *   If the {@link PermitLeaseService} cannot be reached, permits are acquired from a local fallback {@link Limiter}
+ *   if one is given, and otherwise {@link #acquirePermits(long)} blocks, until the {@link PermitLeaseService} is
+ *   retried after the given retry interval.
+ * </p>
+ */
+public class DistributedLimiter extends NonRefillableLimiter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DistributedLimiter.class);
+
+  private final PermitLeaseService service;
+  private final String resource;
+  private final String clientId;
+  private final long batchSize;
+  private final Optional<Limiter> fallbackLimiter;
+  private final long retryIntervalNanos;
+
+  private long leasedPermits = 0;
+  private long leaseExpirationNanos = 0;
+  // Time until which the PermitLeaseService is not retried after a failure
+  private long serviceUnavailableUntilNanos = 0;
+
+  /**
+   * @param service the {@link PermitLeaseService} to lease permits from
+   * @param resource the name of the shared resource
+   * @param clientId an identifier of this client, e.g., the task ID
+   * @param batchSize the number of permits to lease at a time
+   * @param fallbackLimiter an optional {@link Limiter} to use while the {@link PermitLeaseService} is unreachable
+   * @param retryIntervalMillis the time to wait before retrying the {@link PermitLeaseService} after a failure
+   */
+  public DistributedLimiter(PermitLeaseService service, String resource, String clientId, long batchSize,
+      Optional<Limiter> fallbackLimiter, long retryIntervalMillis) {
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive");
+    this.service = service;
+    this.resource = resource;
+    this.clientId = clientId;
+    this.batchSize = batchSize;
+    this.fallbackLimiter = fallbackLimiter;
+    this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(retryIntervalMillis);
+  }
+
+  @Override
+  public void start() {
+    if (this.fallbackLimiter.isPresent()) {
+      this.fallbackLimiter.get().start();
+    }
+  }
+
+  @Override
+  public synchronized Closeable acquirePermits(long permits) throws InterruptedException {
+    while (true) {
+      long now = System.nanoTime();
+      if (now >= this.leaseExpirationNanos) {
+        this.leasedPermits = 0;
+      }
+      if (this.leasedPermits >= permits) {
+        this.leasedPermits -= permits;
+        return NO_OP_CLOSEABLE;
+      }
+
+      if (now < this.serviceUnavailableUntilNanos) {
+        if (this.fallbackLimiter.isPresent()) {
+          return this.fallbackLimiter.get().acquirePermits(permits);
+        }
+        TimeUnit.NANOSECONDS.sleep(this.serviceUnavailableUntilNanos - now);
+        continue;
+      }
+
+      PermitLease lease;
+      try {
+        lease = this.service.leasePermits(this.resource, this.clientId, Math.max(permits, this.batchSize));
+      } catch (IOException ioe) {
+        LOG.warn(String.format("Failed to lease permits of resource %s; %s for %d ms", this.resource,
+            this.fallbackLimiter.isPresent() ? "using the fallback limiter" : "blocking",
+            TimeUnit.NANOSECONDS.toMillis(this.retryIntervalNanos)), ioe);
+        this.serviceUnavailableUntilNanos = System.nanoTime() + this.retryIntervalNanos;
+        continue;
+      }
+
+      if (lease.getPermits() > 0) {
+        this.leasedPermits += lease.getPermits();
+        this.leaseExpirationNanos = now + TimeUnit.MILLISECONDS.toNanos(lease.getLeaseDurationMillis());
+      } else {
+        TimeUnit.MILLISECONDS.sleep(lease.getRetryAfterMillis());
+      }
+    }
+  }
+
+  @Override
+  public void stop() {
+    if (this.fallbackLimiter.isPresent()) {
+      this.fallbackLimiter.get().stop();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Closer;
+
+
+/**
+ * A {@link PermitLeaseService} that leases permits from a remote {@link QuotaServer} over HTTP.
+ */
+public class HttpPermitLeaseService implements PermitLeaseService {
+
+  private final String serviceUrl;
+  private final int timeoutMillis;
+
+  /**
+   * @param serviceUrl the base URL of the {@link QuotaServer}, e.g., "http://host:port"
+   * @param timeoutMillis the connect and read timeout of each request in milliseconds
+   */
+  public HttpPermitLeaseService(String serviceUrl, int timeoutMillis) {
+    this.serviceUrl = serviceUrl.endsWith("/") ? serviceUrl.substring(0, serviceUrl.length() - 1) : serviceUrl;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Override
+  public PermitLease leasePermits(String resource, String clientId, long permits) throws IOException {
+    URL url = new URL(this.serviceUrl + QuotaServer.LEASE_PATH + "?" + QuotaServer.RESOURCE_PARAM + "="
+        + URLEncoder.encode(resource, Charsets.UTF_8.name()) + "&" + QuotaServer.CLIENT_PARAM + "="
+        + URLEncoder.encode(clientId, Charsets.UTF_8.name()) + "&" + QuotaServer.PERMITS_PARAM + "=" + permits);
+
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setConnectTimeout(this.timeoutMillis);
+    connection.setReadTimeout(this.timeoutMillis);
+    Closer closer = Closer.create();
+    try {
+      int status = connection.getResponseCode();
+      InputStream is =
+          status == HttpURLConnection.HTTP_OK ? connection.getInputStream() : connection.getErrorStream();
+      String body =
+          is == null ? "" : CharStreams.toString(closer.register(new InputStreamReader(is, Charsets.UTF_8))).trim();
+      if (status != HttpURLConnection.HTTP_OK) {
+        throw new IOException(String.format("Failed to lease %d permits of resource %s from %s: %d %s", permits,
+            resource, this.serviceUrl, status, body));
+      }
+      return QuotaServer.decodeLease(body);
+    } catch (Throwable t) {
+      throw closer.rethrow(t);
+    } finally {
+      closer.close();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.Closeable;
+import java.util.Map;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
+
+import gobblin.util.Decorator;
+
+
+/**
+ * A registry of named {@link Limiter}s shared by all the tasks running in the same JVM, e.g., to limit the total
+ * throughput of all the tasks of a container.
+ *
+ * <p>
+ *   {@link #getLimiter(String, Supplier)} returns a handle to the {@link Limiter} registered under the given name,
+ *   creating the {@link Limiter} the first time the name is used. The underlying {@link Limiter} is started when the
+ *   first handle is started, and is stopped and removed from the registry when the last started handle is stopped,
+ *   so each user of the {@link Limiter} can start and stop its handle as if it owned the {@link Limiter}.
+ * </p>
+ */
+public class LimiterRegistry {
+
+  private static final Map<String, SharedLimiter> LIMITERS = Maps.newHashMap();
+
+  private LimiterRegistry() {
+  }
+
+  /**
+   * Get a handle to the {@link Limiter} registered under the given name.
+   *
+   * @param name the name of the shared {@link Limiter}
+   * @param limiterSupplier a {@link Supplier} creating the {@link Limiter} if none is registered under the name
+   * @return a handle to the shared {@link Limiter}, which should be started and stopped by the caller
+   */
+  public static Limiter getLimiter(String name, Supplier<? extends Limiter> limiterSupplier) {
+    synchronized (LIMITERS) {
+      SharedLimiter sharedLimiter = LIMITERS.get(name);
+      if (sharedLimiter == null) {
+        sharedLimiter = new SharedLimiter(name, limiterSupplier.get());
+        LIMITERS.put(name, sharedLimiter);
+      }
+      return new LimiterHandle(sharedLimiter);
+    }
+  }
+
+  /**
+   * A {@link Limiter} registered under a name, with the number of started handles to it.
+   */
+  private static class SharedLimiter {
+
+    private final String name;
+    private final Limiter limiter;
+    private int references = 0;
+
+    private SharedLimiter(String name, Limiter limiter) {
+      this.name = name;
+      this.limiter = limiter;
+    }
+
+    private void retain() {
+      synchronized (LIMITERS) {
+        if (this.references++ == 0) {
+          this.limiter.start();
+          if (!LIMITERS.containsKey(this.name)) {
+            LIMITERS.put(this.name, this);
+          }
+        }
+      }
+    }
+
+    private void release() {
+      synchronized (LIMITERS) {
+        if (--this.references == 0) {
+          this.limiter.stop();
+          if (LIMITERS.get(this.name) == this) {
+            LIMITERS.remove(this.name);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * A handle to a {@link SharedLimiter}, which is started and stopped at most once.
+   */
+  private static class LimiterHandle implements Limiter, Decorator {
+
+    private final SharedLimiter sharedLimiter;
+    private boolean started = false;
+
+    private LimiterHandle(SharedLimiter sharedLimiter) {
+      this.sharedLimiter = sharedLimiter;
+    }
+
+    @Override
+    public synchronized void start() {
+      if (!this.started) {
+        this.sharedLimiter.retain();
+        this.started = true;
+      }
+    }
+
+    @Override
+    public Closeable acquirePermits(long permits) throws InterruptedException {
+      return this.sharedLimiter.limiter.acquirePermits(permits);
+    }
+
+    @Override
+    public synchronized void stop() {
+      if (this.started) {
+        this.sharedLimiter.release();
+        this.started = false;
+      }
+    }
+
+    @Override
+    public Object getDecoratedObject() {
+      return this.sharedLimiter.limiter;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+
+/**
+ * A lease of permits granted by a {@link PermitLeaseService}.
+ *
+ * <p>
+ *   The granted permits may be used within {@link #getLeaseDurationMillis()} milliseconds after the lease is
+ *   granted, after which the unused permits expire. If no permit is granted, {@link #getRetryAfterMillis()} is the
+ *   number of milliseconds after which permits are expected to be available again.
+ * </p>
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class PermitLease {
+
+  private final long permits;
+  private final long leaseDurationMillis;
+  private final long retryAfterMillis;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.IOException;
+
+
+/**
+ * An interface for services that lease batches of permits on shared resources to clients, e.g.,
+ * {@link DistributedLimiter}s running in different tasks and containers.
+ */
+public interface PermitLeaseService {
+
+  /**
+   * Lease up to the given number of permits on a resource.
+   *
+   * @param resource the name of the resource
+   * @param clientId an identifier of the client, used to share the permits of the resource fairly among clients
+   * @param permits the number of permits requested
+   * @return a {@link PermitLease} of the permits granted, which may be fewer than requested or none
+   * @throws IOException if the service cannot be reached or does not know the resource
+   */
+  public PermitLease leasePermits(String resource, String clientId, long permits) throws IOException;
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import gobblin.util.ExecutorsUtils;
+
+
+/**
+ * A lightweight HTTP server exposing a {@link PermitLeaseService}, e.g., a {@link QuotaService}, to
+ * {@link HttpPermitLeaseService} clients, which can be run in-process for local testing or in a standalone process
+ * shared by all the containers of a job.
+ *
+ * <p>
+ *   A lease is requested with {@code GET /lease?resource=<resource>&client=<client id>&permits=<permits>}, and is
+ *   returned as a line of text {@code <permits> <lease duration millis> <retry after millis>}.
+ * </p>
+ */
+public class QuotaServer implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QuotaServer.class);
+
+  static final String LEASE_PATH = "/lease";
+  static final String RESOURCE_PARAM = "resource";
+  static final String CLIENT_PARAM = "client";
+  static final String PERMITS_PARAM = "permits";
+
+  private static final Splitter QUERY_SPLITTER = Splitter.on('&').omitEmptyStrings();
+  private static final Splitter PARAM_SPLITTER = Splitter.on('=').limit(2);
+  private static final Joiner LEASE_JOINER = Joiner.on(' ');
+  private static final Splitter LEASE_SPLITTER = Splitter.on(' ').omitEmptyStrings().trimResults();
+
+  private final PermitLeaseService service;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * @param service the {@link PermitLeaseService} to expose
+   * @param port the port to listen on, or 0 to use any free port
+   */
+  public QuotaServer(PermitLeaseService service, int port) throws IOException {
+    this.service = service;
+    this.server = HttpServer.create(new InetSocketAddress(port), 0);
+    this.executor = Executors.newCachedThreadPool(
+        ExecutorsUtils.newDaemonThreadFactory(Optional.of(LOG), Optional.of("QuotaServer-%d")));
+    this.server.setExecutor(this.executor);
+    this.server.createContext(LEASE_PATH, new LeaseHandler());
+  }
+
+  public void start() {
+    this.server.start();
+    LOG.info("Started quota server on port " + getPort());
+  }
+
+  public int getPort() {
+    return this.server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.server.stop(0);
+    ExecutorsUtils.shutdownExecutorService(this.executor, Optional.of(LOG));
+  }
+
+  static String encodeLease(PermitLease lease) {
+    return LEASE_JOINER.join(lease.getPermits(), lease.getLeaseDurationMillis(), lease.getRetryAfterMillis());
+  }
+
+  static PermitLease decodeLease(String encodedLease) throws IOException {
+    List<String> fields = LEASE_SPLITTER.splitToList(encodedLease);
+    if (fields.size() != 3) {
+      throw new IOException("Malformed lease: " + encodedLease);
+    }
+    try {
+      return new PermitLease(Long.parseLong(fields.get(0)), Long.parseLong(fields.get(1)),
+          Long.parseLong(fields.get(2)));
+    } catch (NumberFormatException nfe) {
+      throw new IOException("Malformed lease: " + encodedLease, nfe);
+    }
+  }
+
+  private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+    Map<String, String> params = Maps.newHashMap();
+    if (query == null) {
+      return params;
+    }
+    for (String param : QUERY_SPLITTER.split(query)) {
+      List<String> keyValue = PARAM_SPLITTER.splitToList(param);
+      params.put(URLDecoder.decode(keyValue.get(0), Charsets.UTF_8.name()),
+          keyValue.size() > 1 ? URLDecoder.decode(keyValue.get(1), Charsets.UTF_8.name()) : "");
+    }
+    return params;
+  }
+
+  private class LeaseHandler implements HttpHandler {
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+      try {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!params.containsKey(RESOURCE_PARAM) || !params.containsKey(CLIENT_PARAM)
+            || !params.containsKey(PERMITS_PARAM)) {
+          respond(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "Missing parameters");
+          return;
+        }
+
+        PermitLease lease;
+        try {
+          lease = QuotaServer.this.service.leasePermits(params.get(RESOURCE_PARAM), params.get(CLIENT_PARAM),
+              Long.parseLong(params.get(PERMITS_PARAM)));
+        } catch (IllegalArgumentException iae) {
+          respond(exchange, HttpURLConnection.HTTP_BAD_REQUEST, iae.getMessage());
+          return;
+        } catch (IOException ioe) {
+          respond(exchange, HttpURLConnection.HTTP_NOT_FOUND, ioe.getMessage());
+          return;
+        }
+        respond(exchange, HttpURLConnection.HTTP_OK, encodeLease(lease));
+      } finally {
+        exchange.close();
+      }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+      byte[] bytes = String.valueOf(body).getBytes(Charsets.UTF_8);
+      exchange.sendResponseHeaders(status, bytes.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(bytes);
+      }
+    }
+  }
+}
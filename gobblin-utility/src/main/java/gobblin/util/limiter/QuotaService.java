@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+
+/**
+ * A {@link PermitLeaseService} that enforces a global rate of permits per second on each of a set of resources,
+ * shared by all the clients leasing permits on the resource.
+ *
+ * <p>
+ *   Permits of each resource accumulate at the configured rate up to the number of permits of one lease duration.
+ *   A lease is granted from the accumulated permits, and is capped at a fair share of the permits of one lease
+ *   duration, i.e., an equal split among the clients that have leased permits on the resource within the last two
+ *   lease durations, so that a few clients cannot starve the others. If no permit is available, the lease tells
+ *   the client how long to wait before retrying.
+ * </p>
+ *
+ * <p>
+ *   Permits are counted against the rate when they are leased, whether or not the client uses them before the
+ *   lease expires, so the global rate is never exceeded.
+ * </p>
+ */
+public class QuotaService implements PermitLeaseService {
+
+  public static final long DEFAULT_LEASE_DURATION_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  private final Map<String, ResourceQuota> quotas;
+  private final long leaseDurationMillis;
+
+  /**
+   * @param ratesPerSecond the number of permits per second of each resource
+   */
+  public QuotaService(Map<String, Double> ratesPerSecond) {
+    this(ratesPerSecond, DEFAULT_LEASE_DURATION_MILLIS);
+  }
+
+  public QuotaService(Map<String, Double> ratesPerSecond, long leaseDurationMillis) {
+    Preconditions.checkArgument(leaseDurationMillis > 0, "Lease duration must be positive");
+    this.leaseDurationMillis = leaseDurationMillis;
+    ImmutableMap.Builder<String, ResourceQuota> quotasBuilder = ImmutableMap.builder();
+    for (Map.Entry<String, Double> entry : ratesPerSecond.entrySet()) {
+      Preconditions.checkArgument(entry.getValue() > 0, "Rate of resource " + entry.getKey() + " must be positive");
+      quotasBuilder.put(entry.getKey(), new ResourceQuota(entry.getValue(), leaseDurationMillis));
+    }
+    this.quotas = quotasBuilder.build();
+  }
+
+  @Override
+  public PermitLease leasePermits(String resource, String clientId, long permits) throws IOException {
+    Preconditions.checkArgument(permits > 0, "Number of permits must be positive");
+    ResourceQuota quota = this.quotas.get(resource);
+    if (quota == null) {
+      throw new IOException("Unknown resource " + resource);
+    }
+    return quota.lease(clientId, permits, this.leaseDurationMillis);
+  }
+
+  /**
+   * The permits of a single resource.
+   */
+  private static class ResourceQuota {
+
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private final long clientExpirationNanos;
+
+    private double availablePermits;
+    private long lastRefillNanos;
+    // Last time each client leased permits
+    private final Map<String, Long> clients = Maps.newHashMap();
+
+    private ResourceQuota(double permitsPerSecond, long leaseDurationMillis) {
+      this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+      this.maxPermits = Math.max(1, permitsPerSecond * leaseDurationMillis / TimeUnit.SECONDS.toMillis(1));
+      this.clientExpirationNanos = 2 * TimeUnit.MILLISECONDS.toNanos(leaseDurationMillis);
+      this.availablePermits = 0;
+      this.lastRefillNanos = System.nanoTime();
+    }
+
+    private synchronized PermitLease lease(String clientId, long permits, long leaseDurationMillis) {
+      long now = System.nanoTime();
+      this.availablePermits =
+          Math.min(this.maxPermits, this.availablePermits + (now - this.lastRefillNanos) * this.permitsPerNano);
+      this.lastRefillNanos = now;
+
+      this.clients.put(clientId, now);
+      Iterator<Long> lastLeaseTimes = this.clients.values().iterator();
+      while (lastLeaseTimes.hasNext()) {
+        if (now - lastLeaseTimes.next() > this.clientExpirationNanos) {
+          lastLeaseTimes.remove();
+        }
+      }
+
+      long fairShare = (long) Math.max(1, Math.floor(this.maxPermits / this.clients.size()));
+      long wanted = Math.min(permits, fairShare);
+      long granted = Math.min(wanted, (long) Math.floor(this.availablePermits));
+      if (granted > 0) {
+        this.availablePermits -= granted;
+        return new PermitLease(granted, leaseDurationMillis, 0);
+      }
+
+      long retryAfterNanos = (long) Math.ceil((1 - this.availablePermits) / this.permitsPerNano);
+      return new PermitLease(0, 0, Math.max(1, TimeUnit.NANOSECONDS.toMillis(retryAfterNanos)));
+    }
+  }
+}
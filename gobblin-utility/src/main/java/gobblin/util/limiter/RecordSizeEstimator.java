@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import gobblin.util.EncodedAvroRecord;
+
+
+/**
+ * A utility class for estimating the serialized size in bytes of data records, e.g., for acquiring permits in bytes
+ * from a {@link Limiter}.
+ *
+ * <p>
+ *   The estimate walks Avro records, Gson {@link JsonElement}s, {@link Collection}s and {@link Map}s, counting the
+ *   length of strings and byte arrays and a fixed size for numbers and other primitive values, without serializing
+ *   the record. An {@link EncodedAvroRecord} that has not been decoded is estimated by the length of its binary
+ *   encoding, so it is not decoded. Records of other types are estimated by the length of their string
+ *   representation.
+ * </p>
+ */
+public class RecordSizeEstimator {
+
+  /**
+   * Estimated size in bytes of a number, boolean, or other fixed-size value.
+   */
+  static final long PRIMITIVE_SIZE = 8;
+
+  private RecordSizeEstimator() {
+  }
+
+  /**
+   * Estimate the size in bytes of a data record.
+   *
+   * @param record the data record, possibly {@code null}
+   * @return the estimated size of the record in bytes
+   */
+  public static long estimateSize(Object record) {
+    if (record == null) {
+      return 0;
+    }
+    if (record instanceof byte[]) {
+      return ((byte[]) record).length;
+    }
+    if (record instanceof ByteBuffer) {
+      return ((ByteBuffer) record).remaining();
+    }
+    if (record instanceof CharSequence) {
+      return ((CharSequence) record).length();
+    }
+    if (record instanceof Number || record instanceof Boolean || record instanceof Character) {
+      return PRIMITIVE_SIZE;
+    }
+    if (record instanceof EncodedAvroRecord && !((EncodedAvroRecord) record).isDecoded()) {
+      return ((EncodedAvroRecord) record).getEncodedDatum().remaining();
+    }
+    if (record instanceof IndexedRecord) {
+      IndexedRecord indexedRecord = (IndexedRecord) record;
+      long size = 0;
+      int numFields = indexedRecord.getSchema().getFields().size();
+      for (int i = 0; i < numFields; i++) {
+        size += estimateSize(indexedRecord.get(i));
+      }
+      return size;
+    }
+    if (record instanceof GenericFixed) {
+      return ((GenericFixed) record).bytes().length;
+    }
+    if (record instanceof Collection) {
+      long size = 0;
+      for (Object element : (Collection<?>) record) {
+        size += estimateSize(element);
+      }
+      return size;
+    }
+    if (record instanceof Map) {
+      long size = 0;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) record).entrySet()) {
+        size += estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    }
+    if (record instanceof JsonElement) {
+      return estimateJsonSize((JsonElement) record);
+    }
+    if (record instanceof Enum) {
+      return ((Enum<?>) record).name().length();
+    }
+    return record.toString().length();
+  }
+
+  private static long estimateJsonSize(JsonElement element) {
+    if (element.isJsonPrimitive()) {
+      JsonPrimitive primitive = element.getAsJsonPrimitive();
+      return primitive.isString() ? primitive.getAsString().length() : PRIMITIVE_SIZE;
+    }
+    if (element.isJsonObject()) {
+      long size = 0;
+      for (Map.Entry<String, JsonElement> entry : ((JsonObject) element).entrySet()) {
+        size += entry.getKey().length() + estimateJsonSize(entry.getValue());
+      }
+      return size;
+    }
+    if (element.isJsonArray()) {
+      long size = 0;
+      for (JsonElement arrayElement : (JsonArray) element) {
+        size += estimateJsonSize(arrayElement);
+      }
+      return size;
+    }
+    // JsonNull
+    return 0;
+  }
+}
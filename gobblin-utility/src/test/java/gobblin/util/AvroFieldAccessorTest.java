@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit tests for {@link AvroFieldAccessor}.
+ */
+@Test(groups = { "gobblin.util" })
+public class AvroFieldAccessorTest {
+
+  private static final Schema HEADER_SCHEMA = SchemaBuilder.record("Header").fields()
+      .name("guid").type().nullable().stringType().noDefault()
+      .name("time").type().longType().noDefault()
+      .endRecord();
+
+  private static final Schema EVENT_SCHEMA = SchemaBuilder.record("Event").fields()
+      .name("name").type().stringType().noDefault()
+      .name("header").type().unionOf().nullType().and().type(HEADER_SCHEMA).endUnion().noDefault()
+      .endRecord();
+
+  @Test
+  public void testGetFieldSchema() {
+    Assert.assertEquals(new AvroFieldAccessor("header.time").getFieldSchema(EVENT_SCHEMA).get().getType(),
+        Schema.Type.LONG);
+    Assert.assertEquals(new AvroFieldAccessor("name").getFieldSchema(EVENT_SCHEMA).get().getType(),
+        Schema.Type.STRING);
+    Assert.assertFalse(new AvroFieldAccessor("header.missing").getFieldSchema(EVENT_SCHEMA).isPresent());
+    Assert.assertFalse(new AvroFieldAccessor("name.nested").getFieldSchema(EVENT_SCHEMA).isPresent());
+  }
+
+  @Test
+  public void testGetFieldValue() {
+    AvroFieldAccessor timeAccessor = new AvroFieldAccessor("header.time");
+    AvroFieldAccessor guidAccessor = new AvroFieldAccessor("header.guid");
+
+    GenericRecord header = new GenericData.Record(HEADER_SCHEMA);
+    header.put("time", 1L);
+    GenericRecord event = new GenericData.Record(EVENT_SCHEMA);
+    event.put("name", "event");
+    event.put("header", header);
+
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(timeAccessor.getFieldValue(event).get(), 1L);
+      Assert.assertEquals(timeAccessor.getFieldValue(event), AvroUtils.getFieldValue(event, "header.time"));
+      Assert.assertFalse(guidAccessor.getFieldValue(event).isPresent());
+    }
+
+    event.put("header", null);
+    Assert.assertFalse(timeAccessor.getFieldValue(event).isPresent());
+  }
+
+  @Test
+  public void testGetFieldValueWithDifferentSchemas() {
+    AvroFieldAccessor timeAccessor = new AvroFieldAccessor("header.time");
+
+    Schema otherHeaderSchema = SchemaBuilder.record("Header").fields()
+        .name("time").type().longType().noDefault()
+        .endRecord();
+    Schema otherEventSchema = SchemaBuilder.record("Event").fields()
+        .name("header").type(otherHeaderSchema).noDefault()
+        .endRecord();
+
+    GenericRecord header = new GenericData.Record(HEADER_SCHEMA);
+    header.put("time", 1L);
+    GenericRecord event = new GenericData.Record(EVENT_SCHEMA);
+    event.put("header", header);
+
+    GenericRecord otherHeader = new GenericData.Record(otherHeaderSchema);
+    otherHeader.put("time", 2L);
+    GenericRecord otherEvent = new GenericData.Record(otherEventSchema);
+    otherEvent.put("header", otherHeader);
+
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(timeAccessor.getFieldValue(event).get(), 1L);
+      Assert.assertEquals(timeAccessor.getFieldValue(otherEvent).get(), 2L);
+    }
+
+    // A nested record of a schema other than the one the field location is resolved for
+    event.put("header", otherHeader);
+    Assert.assertEquals(timeAccessor.getFieldValue(event).get(), 2L);
+  }
+
+  @Test
+  public void testGetFieldValueWithEqualSchemaInstances() {
+    AvroFieldAccessor timeAccessor = new AvroFieldAccessor("header.time");
+
+    // Equal schemas parsed separately, e.g., by different readers of the same data
+    Schema eventSchema = new Schema.Parser().parse(EVENT_SCHEMA.toString());
+    Schema headerSchema = eventSchema.getField("header").schema().getTypes().get(1);
+
+    GenericRecord header = new GenericData.Record(HEADER_SCHEMA);
+    header.put("time", 1L);
+    GenericRecord event = new GenericData.Record(EVENT_SCHEMA);
+    event.put("header", header);
+
+    GenericRecord otherHeader = new GenericData.Record(headerSchema);
+    otherHeader.put("time", 2L);
+    GenericRecord otherEvent = new GenericData.Record(eventSchema);
+    otherEvent.put("header", otherHeader);
+
+    for (int i = 0; i < 2; i++) {
+      Assert.assertEquals(timeAccessor.getFieldValue(event).get(), 1L);
+      Assert.assertEquals(timeAccessor.getFieldValue(otherEvent).get(), 2L);
+      Assert.assertEquals(timeAccessor.getFieldSchema(eventSchema).get().getType(), Schema.Type.LONG);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+
+/**
+ * Unit tests for {@link SnapshotFileSystem}.
+ */
+@Test(groups = { "gobblin.util" })
+public class SnapshotFileSystemTest {
+
+  private static final String TEST_DIR = "gobblin-utility/src/test/resources/snapshotFileSystemTestDir";
+
+  private FileSystem localFs;
+  private Path baseDir;
+
+  @BeforeMethod
+  public void setUp() throws IOException {
+    this.localFs = FileSystem.getLocal(new Configuration());
+    this.baseDir = this.localFs.makeQualified(new Path(TEST_DIR));
+    if (this.localFs.exists(this.baseDir)) {
+      this.localFs.delete(this.baseDir, true);
+    }
+    this.localFs.mkdirs(new Path(this.baseDir, "dataset1/2016/01"));
+    this.localFs.mkdirs(new Path(this.baseDir, "dataset1/2016/02"));
+    this.localFs.mkdirs(new Path(this.baseDir, "dataset2/2016/01"));
+    this.localFs.create(new Path(this.baseDir, "dataset1/2016/01/file1")).close();
+    this.localFs.create(new Path(this.baseDir, "dataset2/2016/01/file2")).close();
+  }
+
+  @AfterMethod
+  public void tearDown() throws IOException {
+    this.localFs.delete(this.baseDir, true);
+  }
+
+  @Test
+  public void testReadsServedFromSnapshot() throws IOException {
+    SnapshotFileSystem snapshotFs = new SnapshotFileSystem(this.localFs, ImmutableList.of(this.baseDir), 600000, 4);
+
+    FileStatus[] versions = snapshotFs.globStatus(new Path(this.baseDir, "*/2016/*"));
+    Assert.assertEquals(versions.length, 3);
+    long delegatedReads = snapshotFs.getDelegatedReads();
+
+    List<FileStatus> files = FileListUtils.listFilesRecursively(snapshotFs, this.baseDir);
+    Set<String> fileNames = Sets.newHashSet();
+    for (FileStatus file : files) {
+      fileNames.add(file.getPath().getName());
+    }
+    Assert.assertEquals(fileNames, Sets.newHashSet("file1", "file2"));
+    Assert.assertTrue(snapshotFs.exists(new Path(this.baseDir, "dataset2/2016/01/file2")));
+    Assert.assertFalse(snapshotFs.exists(new Path(this.baseDir, "dataset3")));
+
+    // No listing after the snapshot was built
+    Assert.assertEquals(snapshotFs.getDelegatedReads(), delegatedReads);
+    Assert.assertTrue(snapshotFs.getSnapshotHits() > 0);
+
+    // Changes made outside the snapshot are not visible until it expires
+    this.localFs.mkdirs(new Path(this.baseDir, "dataset3"));
+    Assert.assertFalse(snapshotFs.exists(new Path(this.baseDir, "dataset3")));
+    snapshotFs.invalidateSnapshots();
+    Assert.assertTrue(snapshotFs.exists(new Path(this.baseDir, "dataset3")));
+  }
+
+  @Test
+  public void testMutationsUpdateSnapshot() throws IOException {
+    SnapshotFileSystem snapshotFs = new SnapshotFileSystem(this.localFs, ImmutableList.of(this.baseDir), 600000, 4);
+    Assert.assertEquals(snapshotFs.globStatus(new Path(this.baseDir, "*/2016/*")).length, 3);
+
+    Assert.assertTrue(snapshotFs.delete(new Path(this.baseDir, "dataset1/2016/02"), true));
+    Assert.assertEquals(snapshotFs.globStatus(new Path(this.baseDir, "*/2016/*")).length, 2);
+
+    Assert.assertTrue(snapshotFs.mkdirs(new Path(this.baseDir, "dataset2/2016/03")));
+    Assert.assertEquals(snapshotFs.globStatus(new Path(this.baseDir, "*/2016/*")).length, 3);
+
+    Assert.assertTrue(snapshotFs.rename(new Path(this.baseDir, "dataset2/2016/03"),
+        new Path(this.baseDir, "dataset1/2016/03")));
+    Assert.assertFalse(snapshotFs.exists(new Path(this.baseDir, "dataset2/2016/03")));
+    Assert.assertTrue(snapshotFs.exists(new Path(this.baseDir, "dataset1/2016/03")));
+  }
+
+  @Test
+  public void testPathsOutsideRootsAreDelegated() throws IOException {
+    Properties props = new Properties();
+    props.setProperty(SnapshotFileSystem.SNAPSHOT_ENABLED_KEY, Boolean.toString(true));
+    props.setProperty(SnapshotFileSystem.SNAPSHOT_ROOTS_KEY, new Path(this.baseDir, "dataset1").toString());
+    FileSystem fs = SnapshotFileSystem.getOptionallySnapshottedFileSystem(this.localFs, props);
+    Assert.assertTrue(fs instanceof SnapshotFileSystem);
+    Assert.assertSame(SnapshotFileSystem.getOptionallySnapshottedFileSystem(fs, props), fs);
+
+    SnapshotFileSystem snapshotFs = (SnapshotFileSystem) fs;
+    Assert.assertEquals(snapshotFs.listStatus(new Path(this.baseDir, "dataset2/2016")).length, 1);
+    Assert.assertEquals(snapshotFs.getSnapshotHits(), 0);
+    Assert.assertEquals(snapshotFs.listStatus(new Path(this.baseDir, "dataset1/2016")).length, 2);
+    Assert.assertEquals(snapshotFs.getSnapshotHits(), 1);
+  }
+}
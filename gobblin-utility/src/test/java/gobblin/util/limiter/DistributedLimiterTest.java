@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+
+/**
+ * Unit tests for {@link DistributedLimiter} with an in-process {@link QuotaServer}.
+ */
+@Test(groups = { "gobblin.util.limiter" })
+public class DistributedLimiterTest {
+
+  private static final String RESOURCE = "testResource";
+  private static final double RATE_PER_SECOND = 50;
+
+  private QuotaServer server;
+  private String serviceUrl;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.server = new QuotaServer(
+        new QuotaService(ImmutableMap.of(RESOURCE, RATE_PER_SECOND), TimeUnit.SECONDS.toMillis(1)), 0);
+    this.server.start();
+    this.serviceUrl = "http://localhost:" + this.server.getPort();
+  }
+
+  @Test
+  public void testThrottlingAcrossLimiters() throws Exception {
+    final int numLimiters = 2;
+    final int permitsPerLimiter = 50;
+    ExecutorService executor = Executors.newFixedThreadPool(numLimiters);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      long startTime = System.currentTimeMillis();
+      for (int i = 0; i < numLimiters; i++) {
+        final Limiter limiter = new DistributedLimiter(new HttpPermitLeaseService(this.serviceUrl, 1000), RESOURCE,
+            "client" + i, 5, Optional.<Limiter> absent(), 1000);
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            limiter.start();
+            for (int j = 0; j < permitsPerLimiter; j++) {
+              Assert.assertNotNull(limiter.acquirePermits(1));
+            }
+            limiter.stop();
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+
+      // The permits of all the limiters are leased from a single budget, of which up to the permits of one lease
+      // duration may have accumulated before the limiters start
+      long elapsedMillis = System.currentTimeMillis() - startTime;
+      double minElapsedMillis = (numLimiters * permitsPerLimiter - RATE_PER_SECOND) / RATE_PER_SECOND * 1000;
+      Assert.assertTrue(elapsedMillis >= minElapsedMillis * 0.9,
+          "Permits acquired too fast: " + elapsedMillis + " ms");
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFairShare() throws Exception {
+    QuotaService service = new QuotaService(ImmutableMap.of(RESOURCE, 1000d), TimeUnit.SECONDS.toMillis(1));
+    // Let the permits of one lease duration accumulate
+    Thread.sleep(1100);
+    Assert.assertEquals(service.leasePermits(RESOURCE, "client1", 1).getPermits(), 1);
+    Assert.assertEquals(service.leasePermits(RESOURCE, "client2", 1000).getPermits(), 500);
+  }
+
+  @Test(expectedExceptions = IOException.class)
+  public void testUnknownResource() throws IOException {
+    new HttpPermitLeaseService(this.serviceUrl, 1000).leasePermits("unknownResource", "client", 1);
+  }
+
+  @Test
+  public void testFallbackWhenServiceUnreachable() throws Exception {
+    QuotaServer unreachableServer = new QuotaServer(new QuotaService(ImmutableMap.of(RESOURCE, 1d)), 0);
+    unreachableServer.start();
+    String unreachableUrl = "http://localhost:" + unreachableServer.getPort();
+    unreachableServer.close();
+
+    Limiter limiter = new DistributedLimiter(new HttpPermitLeaseService(unreachableUrl, 1000), RESOURCE, "client",
+        5, Optional.<Limiter> of(new RateBasedLimiter(1000)), TimeUnit.MINUTES.toMillis(1));
+    limiter.start();
+    long startTime = System.currentTimeMillis();
+    for (int i = 0; i < 10; i++) {
+      Assert.assertNotNull(limiter.acquirePermits(1));
+    }
+    Assert.assertTrue(System.currentTimeMillis() - startTime < TimeUnit.SECONDS.toMillis(10));
+    limiter.stop();
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    this.server.close();
+  }
+}
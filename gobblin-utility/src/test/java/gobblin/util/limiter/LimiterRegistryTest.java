@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Suppliers;
+
+import gobblin.configuration.State;
+import gobblin.util.DecoratorUtils;
+
+
+/**
+ * Unit tests for {@link LimiterRegistry}.
+ */
+@Test(groups = { "gobblin.util.limiter" })
+public class LimiterRegistryTest {
+
+  @Test
+  public void testSharedLimiter() throws InterruptedException {
+    CountBasedLimiter countBasedLimiter = new CountBasedLimiter(3);
+    Limiter limiter1 = LimiterRegistry.getLimiter("testSharedLimiter", Suppliers.ofInstance(countBasedLimiter));
+    Limiter limiter2 =
+        LimiterRegistry.getLimiter("testSharedLimiter", Suppliers.ofInstance(new CountBasedLimiter(100)));
+    Assert.assertSame(DecoratorUtils.resolveUnderlyingObject(limiter1), countBasedLimiter);
+    Assert.assertSame(DecoratorUtils.resolveUnderlyingObject(limiter2), countBasedLimiter);
+
+    limiter1.start();
+    limiter2.start();
+    Assert.assertNotNull(limiter1.acquirePermits(1));
+    Assert.assertNotNull(limiter2.acquirePermits(1));
+    Assert.assertNotNull(limiter1.acquirePermits(1));
+    Assert.assertNull(limiter2.acquirePermits(1));
+    limiter1.stop();
+    limiter2.stop();
+
+    // The limiter is removed from the registry once all the handles are stopped
+    CountBasedLimiter newLimiter = new CountBasedLimiter(3);
+    Limiter limiter3 = LimiterRegistry.getLimiter("testSharedLimiter", Suppliers.ofInstance(newLimiter));
+    Assert.assertSame(DecoratorUtils.resolveUnderlyingObject(limiter3), newLimiter);
+  }
+
+  @Test
+  public void testGetLimiterWithPrefix() {
+    State state = new State();
+    state.setProp(DefaultLimiterFactory.WRITER_LIMIT_PREFIX + "type", BaseLimiterType.RATE_BASED.toString());
+    state.setProp(DefaultLimiterFactory.WRITER_LIMIT_PREFIX + "rate.limit", 100);
+    state.setProp(DefaultLimiterFactory.WRITER_LIMIT_PREFIX + "shared.name", "testGetLimiterWithPrefix");
+
+    Limiter limiter1 = DefaultLimiterFactory.getLimiter(state, DefaultLimiterFactory.WRITER_LIMIT_PREFIX);
+    Limiter limiter2 = DefaultLimiterFactory.getLimiter(state, DefaultLimiterFactory.WRITER_LIMIT_PREFIX);
+    Assert.assertTrue(DecoratorUtils.resolveUnderlyingObject(limiter1) instanceof RateBasedLimiter);
+    Assert.assertSame(DecoratorUtils.resolveUnderlyingObject(limiter1),
+        DecoratorUtils.resolveUnderlyingObject(limiter2));
+  }
+}
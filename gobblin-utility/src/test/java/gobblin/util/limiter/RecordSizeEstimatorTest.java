@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.util.limiter;
+
+import java.nio.ByteBuffer;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import gobblin.util.EncodedAvroRecord;
+
+
+/**
+ * Unit tests for {@link RecordSizeEstimator}.
+ */
+@Test(groups = { "gobblin.util.limiter" })
+public class RecordSizeEstimatorTest {
+
+  @Test
+  public void testSimpleValues() {
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(null), 0);
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(new byte[10]), 10);
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(ByteBuffer.wrap(new byte[20])), 20);
+    Assert.assertEquals(RecordSizeEstimator.estimateSize("abcde"), 5);
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(1L), RecordSizeEstimator.PRIMITIVE_SIZE);
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(ImmutableList.of("ab", "cd")), 4);
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(ImmutableMap.of("key", 1)),
+        3 + RecordSizeEstimator.PRIMITIVE_SIZE);
+  }
+
+  @Test
+  public void testAvroRecord() {
+    Schema schema = SchemaBuilder.record("test").fields()
+        .requiredString("name")
+        .requiredLong("id")
+        .requiredBytes("payload")
+        .endRecord();
+    GenericRecord record = new GenericData.Record(schema);
+    record.put("name", "gobblin");
+    record.put("id", 1L);
+    record.put("payload", ByteBuffer.wrap(new byte[100]));
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(record), 7 + RecordSizeEstimator.PRIMITIVE_SIZE + 100);
+  }
+
+  @Test
+  public void testEncodedAvroRecord() {
+    Schema schema = SchemaBuilder.record("test").fields().requiredString("name").endRecord();
+    EncodedAvroRecord record = new EncodedAvroRecord(schema, ByteBuffer.wrap(new byte[] { 14, 'g', 'o', 'b', 'b',
+        'l', 'i', 'n' }), new GenericDatumReader<GenericRecord>(schema));
+
+    // A record passed through undecoded is estimated by its binary encoding, without decoding it
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(record), 8);
+    Assert.assertFalse(record.isDecoded());
+
+    // A decoded record is estimated by its fields, as it may have been modified
+    Assert.assertEquals(record.get("name").toString(), "gobblin");
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(record), 7);
+  }
+
+  @Test
+  public void testJsonRecord() {
+    JsonObject record = new JsonParser().parse("{\"name\": \"gobblin\", \"ids\": [1, 2], \"empty\": null}")
+        .getAsJsonObject();
+    Assert.assertEquals(RecordSizeEstimator.estimateSize(record),
+        "name".length() + 7 + "ids".length() + 2 * RecordSizeEstimator.PRIMITIVE_SIZE + "empty".length());
+  }
+}
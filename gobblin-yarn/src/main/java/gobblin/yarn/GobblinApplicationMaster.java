@@ -139,8 +139,15 @@ public class GobblinApplicationMaster implements ApplicationLauncher {
       this.applicationLauncher.addService(gobblinYarnLogSource.buildLogCopier(config, containerId, fs, appWorkDir));
     }
 
-    this.applicationLauncher
-        .addService(buildYarnService(config, applicationName, applicationId, yarnConfiguration, fs));
+    YarnService yarnService = buildYarnService(config, applicationName, applicationId, yarnConfiguration, fs);
+    this.applicationLauncher.addService(yarnService);
+    boolean autoScalingEnabled = config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_ENABLED_KEY) ?
+        config.getBoolean(GobblinYarnConfigurationKeys.AUTOSCALING_ENABLED_KEY) :
+        GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_ENABLED;
+    if (autoScalingEnabled) {
+      LOGGER.info("Adding YarnAutoScalingManager since container autoscaling is enabled");
+      this.applicationLauncher.addService(buildYarnAutoScalingManager(config, yarnService));
+    }
     this.applicationLauncher
         .addService(buildGobblinHelixJobScheduler(config, appWorkDir, getMetadataTags(applicationName, applicationId)));
     this.applicationLauncher.addService(buildJobConfigurationManager(config));
@@ -224,6 +231,13 @@ public class GobblinApplicationMaster implements ApplicationLauncher {
     return new YarnService(config, applicationName, applicationId, yarnConfiguration, fs, this.eventBus);
   }
 
+  /**
+   * Build the {@link YarnAutoScalingManager} for the Application Master.
+   */
+  private YarnAutoScalingManager buildYarnAutoScalingManager(Config config, YarnService yarnService) {
+    return new YarnAutoScalingManager(config, this.helixManager, yarnService, this.eventBus);
+  }
+
   /**
    * Build the {@link GobblinHelixJobScheduler} for the Application Master.
    */
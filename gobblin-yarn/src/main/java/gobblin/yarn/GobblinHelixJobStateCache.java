@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+
+import gobblin.runtime.AbstractJobLauncher;
+import gobblin.runtime.JobState;
+import gobblin.runtime.util.JobMetrics;
+import gobblin.util.SerializationUtils;
+
+
+/**
+ * A container-level cache of the de-serialized {@link JobState}s and {@link JobMetrics} of the jobs
+ * whose tasks run in a container, keyed by job ID.
+ *
+ * <p>
+ *   Each {@link GobblinHelixTask} acquires the entry of its job when it is created and releases it
+ *   when it finishes, so the {@link JobState} file of a job is only read once per container no matter
+ *   how many tasks of the job run in the container. An entry that is not used by any task is evicted
+ *   once it has been idle for a configurable amount of time, which happens after the last task of the
+ *   job has run in the container.
+ * </p>
+ */
+public class GobblinHelixJobStateCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GobblinHelixJobStateCache.class);
+
+  private final FileSystem fs;
+  private final Path appWorkDir;
+  private final Optional<ContainerMetrics> containerMetrics;
+  private final long idleTimeoutMillis;
+
+  private final Map<String, CachedJob> cachedJobs = Maps.newHashMap();
+
+  public GobblinHelixJobStateCache(FileSystem fs, Path appWorkDir, Optional<ContainerMetrics> containerMetrics,
+      long idleTimeoutMillis) {
+    this.fs = fs;
+    this.appWorkDir = appWorkDir;
+    this.containerMetrics = containerMetrics;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  /**
+   * Acquire the cached entry of the given job, reading the {@link JobState} of the job if it is not cached yet.
+   * Each call must be paired with a call to {@link #release(String)}.
+   */
+  public CachedJob acquire(String jobId) throws IOException {
+    CachedJob cachedJob;
+    synchronized (this.cachedJobs) {
+      evictIdleJobs(System.currentTimeMillis());
+      cachedJob = this.cachedJobs.get(jobId);
+      if (cachedJob == null) {
+        cachedJob = new CachedJob(jobId);
+        this.cachedJobs.put(jobId, cachedJob);
+      }
+      cachedJob.refCount++;
+    }
+
+    try {
+      cachedJob.load();
+      return cachedJob;
+    } catch (IOException | RuntimeException e) {
+      release(jobId);
+      throw e;
+    }
+  }
+
+  /**
+   * Release the cached entry of the given job previously acquired through {@link #acquire(String)}.
+   */
+  public void release(String jobId) {
+    synchronized (this.cachedJobs) {
+      CachedJob cachedJob = this.cachedJobs.get(jobId);
+      if (cachedJob == null || cachedJob.refCount == 0) {
+        LOGGER.warn("Releasing job state of job " + jobId + " that is not acquired");
+        return;
+      }
+      cachedJob.refCount--;
+      cachedJob.lastReleaseTime = System.currentTimeMillis();
+      if (cachedJob.refCount == 0 && !cachedJob.loaded) {
+        // Failed to load, do not keep the entry around
+        this.cachedJobs.remove(jobId);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int size() {
+    synchronized (this.cachedJobs) {
+      return this.cachedJobs.size();
+    }
+  }
+
+  @VisibleForTesting
+  void evictIdleJobs(long now) {
+    synchronized (this.cachedJobs) {
+      Iterator<Map.Entry<String, CachedJob>> iterator = this.cachedJobs.entrySet().iterator();
+      while (iterator.hasNext()) {
+        CachedJob cachedJob = iterator.next().getValue();
+        if (cachedJob.refCount == 0 && now - cachedJob.lastReleaseTime >= this.idleTimeoutMillis) {
+          LOGGER.info("Evicting cached job state of job " + cachedJob.jobId);
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * A cached entry holding the {@link JobState} and {@link JobMetrics} of a job.
+   */
+  public class CachedJob {
+
+    private final String jobId;
+    // An empty JobState instance that will be filled with values read from the serialized JobState
+    private final JobState jobState = new JobState();
+    // A reference to jobMetrics is required to ensure it is not evicted from the GobblinMetricsRegistry Cache
+    private Optional<JobMetrics> jobMetrics = Optional.absent();
+
+    // Guarded by the lock on cachedJobs
+    private int refCount = 0;
+    private long lastReleaseTime = 0;
+
+    private volatile boolean loaded = false;
+
+    private CachedJob(String jobId) {
+      this.jobId = jobId;
+    }
+
+    private synchronized void load() throws IOException {
+      if (this.loaded) {
+        return;
+      }
+
+      Path jobStateFilePath = new Path(appWorkDir, this.jobId + "." + AbstractJobLauncher.JOB_STATE_FILE_NAME);
+      SerializationUtils.deserializeState(fs, jobStateFilePath, this.jobState);
+
+      if (containerMetrics.isPresent()) {
+        // This must be done after the jobState is deserialized from the jobStateFilePath
+        this.jobMetrics = Optional.of(JobMetrics.get(this.jobState, containerMetrics.get().getMetricContext()));
+      }
+
+      this.loaded = true;
+    }
+
+    public JobState getJobState() {
+      return this.jobState;
+    }
+
+    public Optional<JobMetrics> getJobMetrics() {
+      return this.jobMetrics;
+    }
+  }
+}
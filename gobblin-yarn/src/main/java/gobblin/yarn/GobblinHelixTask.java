@@ -14,6 +14,7 @@ package gobblin.yarn;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -26,19 +27,16 @@ import org.apache.helix.task.TaskResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 
 import gobblin.configuration.ConfigurationKeys;
-import gobblin.metastore.FsStateStore;
 import gobblin.metastore.StateStore;
 import gobblin.runtime.AbstractJobLauncher;
 import gobblin.runtime.JobState;
 import gobblin.runtime.TaskExecutor;
 import gobblin.runtime.TaskState;
 import gobblin.runtime.TaskStateTracker;
-import gobblin.runtime.util.JobMetrics;
 import gobblin.source.workunit.MultiWorkUnit;
 import gobblin.source.workunit.WorkUnit;
 import gobblin.util.JobLauncherUtils;
@@ -60,28 +58,35 @@ import gobblin.util.SerializationUtils;
  *   a file that will be collected by the {@link GobblinHelixJobLauncher} later upon completion of the job.
  * </p>
  *
+ * <p>
+ *   The {@link JobState} of the job is shared by all {@link GobblinHelixTask}s of the job running in the
+ *   same container through a {@link GobblinHelixJobStateCache}, so it is only read once per container.
+ * </p>
+ *
  * @author Yinan Li
  */
 public class GobblinHelixTask implements Task {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GobblinHelixTask.class);
 
-  @SuppressWarnings({ "unused", "FieldCanBeLocal" })
-  private final Optional<JobMetrics> jobMetrics;
   private final TaskExecutor taskExecutor;
   private final TaskStateTracker taskStateTracker;
 
   private final TaskConfig taskConfig;
-  // An empty JobState instance that will be filled with values read from the serialized JobState
-  private final JobState jobState = new JobState();
   private final String jobId;
   private final String participantId;
 
+  private final GobblinHelixJobStateCache jobStateCache;
+  // Holds the JobState, as well as the JobMetrics so it is not evicted from the GobblinMetricsRegistry Cache
+  private final GobblinHelixJobStateCache.CachedJob cachedJob;
+  private final AtomicBoolean jobStateReleased = new AtomicBoolean(false);
+
   private final FileSystem fs;
   private final StateStore<TaskState> taskStateStore;
 
-  public GobblinHelixTask(TaskCallbackContext taskCallbackContext, Optional<ContainerMetrics> containerMetrics,
-      TaskExecutor taskExecutor, TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir) throws IOException {
+  public GobblinHelixTask(TaskCallbackContext taskCallbackContext, GobblinHelixJobStateCache jobStateCache,
+      TaskExecutor taskExecutor, TaskStateTracker taskStateTracker, FileSystem fs,
+      StateStore<TaskState> taskStateStore) throws IOException {
     this.taskExecutor = taskExecutor;
     this.taskStateTracker = taskStateTracker;
 
@@ -90,19 +95,10 @@ public class GobblinHelixTask implements Task {
     this.participantId = taskCallbackContext.getManager().getInstanceName();
 
     this.fs = fs;
-    Path taskStateOutputDir = new Path(appWorkDir, GobblinYarnConfigurationKeys.OUTPUT_TASK_STATE_DIR_NAME);
-    this.taskStateStore = new FsStateStore<>(this.fs, taskStateOutputDir.toString(), TaskState.class);
-
-    Path jobStateFilePath = new Path(appWorkDir, this.jobId + "." + AbstractJobLauncher.JOB_STATE_FILE_NAME);
-    SerializationUtils.deserializeState(this.fs, jobStateFilePath, this.jobState);
-
-    if (containerMetrics.isPresent()) {
-      // This must be done after the jobState is deserialized from the jobStateFilePath
-      // A reference to jobMetrics is required to ensure it is not evicted from the GobblinMetricsRegistry Cache
-      this.jobMetrics = Optional.of(JobMetrics.get(this.jobState, containerMetrics.get().getMetricContext()));
-    } else {
-      this.jobMetrics = Optional.absent();
-    }
+    this.taskStateStore = taskStateStore;
+
+    this.jobStateCache = jobStateCache;
+    this.cachedJob = this.jobStateCache.acquire(this.jobId);
   }
 
   @Override
@@ -127,7 +123,8 @@ public class GobblinHelixTask implements Task {
         workUnits.add(workUnit);
       }
 
-      AbstractJobLauncher.runWorkUnits(this.jobId, this.participantId, this.jobState, workUnits, this.taskStateTracker,
+      JobState jobState = this.cachedJob.getJobState();
+      AbstractJobLauncher.runWorkUnits(this.jobId, this.participantId, jobState, workUnits, this.taskStateTracker,
           this.taskExecutor, this.taskStateStore, LOGGER);
       return new TaskResult(TaskResult.Status.COMPLETED, String.format("completed tasks: %d", workUnits.size()));
     } catch (InterruptedException ie) {
@@ -136,11 +133,22 @@ public class GobblinHelixTask implements Task {
     } catch (Throwable t) {
       LOGGER.error("GobblinHelixTask failed due to " + t.getMessage(), t);
       return new TaskResult(TaskResult.Status.ERROR, Throwables.getStackTraceAsString(t));
+    } finally {
+      releaseJobState();
     }
   }
 
   @Override
   public void cancel() {
     // TODO: implement cancellation.
+    // A task cancelled before it runs never reaches the release in run(). If it is running, run() keeps its own
+    // reference to the job state, so releasing it here only lets the cache evict it once no other task uses it
+    releaseJobState();
+  }
+
+  private void releaseJobState() {
+    if (this.jobStateReleased.compareAndSet(false, true)) {
+      this.jobStateCache.release(this.jobId);
+    }
   }
 }
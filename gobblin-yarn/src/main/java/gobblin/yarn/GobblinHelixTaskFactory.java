@@ -13,6 +13,7 @@
 package gobblin.yarn;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -29,7 +30,10 @@ import com.codahale.metrics.Counter;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 
+import gobblin.metastore.FsStateStore;
+import gobblin.metastore.StateStore;
 import gobblin.runtime.TaskExecutor;
+import gobblin.runtime.TaskState;
 import gobblin.runtime.TaskStateTracker;
 
 
@@ -53,10 +57,17 @@ public class GobblinHelixTaskFactory implements TaskFactory {
   private final TaskExecutor taskExecutor;
   private final TaskStateTracker taskStateTracker;
   private final FileSystem fs;
-  private final Path appWorkDir;
+  private final StateStore<TaskState> taskStateStore;
+  private final GobblinHelixJobStateCache jobStateCache;
 
   public GobblinHelixTaskFactory(Optional<ContainerMetrics> containerMetrics, TaskExecutor taskExecutor,
       TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir) {
+    this(containerMetrics, taskExecutor, taskStateTracker, fs, appWorkDir, TimeUnit.SECONDS.toMillis(
+        GobblinYarnConfigurationKeys.DEFAULT_JOB_STATE_CACHE_IDLE_TIMEOUT_SECONDS));
+  }
+
+  public GobblinHelixTaskFactory(Optional<ContainerMetrics> containerMetrics, TaskExecutor taskExecutor,
+      TaskStateTracker taskStateTracker, FileSystem fs, Path appWorkDir, long jobStateCacheIdleTimeoutMillis) {
     this.containerMetrics = containerMetrics;
     if (this.containerMetrics.isPresent()) {
       this.newTasksCounter = Optional.of(this.containerMetrics.get().getCounter(GOBBLIN_YARN_NEW_HELIX_TASK_COUNTER));
@@ -66,7 +77,10 @@ public class GobblinHelixTaskFactory implements TaskFactory {
     this.taskExecutor = taskExecutor;
     this.taskStateTracker = taskStateTracker;
     this.fs = fs;
-    this.appWorkDir = appWorkDir;
+    Path taskStateOutputDir = new Path(appWorkDir, GobblinYarnConfigurationKeys.OUTPUT_TASK_STATE_DIR_NAME);
+    this.taskStateStore = new FsStateStore<>(this.fs, taskStateOutputDir.toString(), TaskState.class);
+    this.jobStateCache =
+        new GobblinHelixJobStateCache(this.fs, appWorkDir, this.containerMetrics, jobStateCacheIdleTimeoutMillis);
   }
 
   @Override
@@ -75,8 +89,8 @@ public class GobblinHelixTaskFactory implements TaskFactory {
       if (this.newTasksCounter.isPresent()) {
         this.newTasksCounter.get().inc();
       }
-      return new GobblinHelixTask(context, this.containerMetrics, this.taskExecutor, this.taskStateTracker, this.fs,
-          this.appWorkDir);
+      return new GobblinHelixTask(context, this.jobStateCache, this.taskExecutor, this.taskStateTracker, this.fs,
+          this.taskStateStore);
     } catch (IOException ioe) {
       LOGGER.error("Failed to create a new GobblinHelixTask", ioe);
       throw Throwables.propagate(ioe);
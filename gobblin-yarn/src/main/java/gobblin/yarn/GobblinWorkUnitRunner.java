@@ -170,8 +170,13 @@ public class GobblinWorkUnitRunner extends GobblinYarnLogSource {
 
     // Register task factory for the Helix task state model
     Map<String, TaskFactory> taskFactoryMap = Maps.newHashMap();
+    long jobStateCacheIdleTimeoutSeconds =
+        config.hasPath(GobblinYarnConfigurationKeys.JOB_STATE_CACHE_IDLE_TIMEOUT_SECONDS_KEY) ?
+            config.getLong(GobblinYarnConfigurationKeys.JOB_STATE_CACHE_IDLE_TIMEOUT_SECONDS_KEY) :
+            GobblinYarnConfigurationKeys.DEFAULT_JOB_STATE_CACHE_IDLE_TIMEOUT_SECONDS;
     taskFactoryMap.put(GOBBLIN_TASK_FACTORY_NAME,
-        new GobblinHelixTaskFactory(this.containerMetrics, taskExecutor, taskStateTracker, fs, appWorkDir));
+        new GobblinHelixTaskFactory(this.containerMetrics, taskExecutor, taskStateTracker, fs, appWorkDir,
+            TimeUnit.SECONDS.toMillis(jobStateCacheIdleTimeoutSeconds)));
     this.taskStateModelFactory = new TaskStateModelFactory(this.helixManager, taskFactoryMap);
     this.helixManager.getStateMachineEngine().registerStateModelFactory("Task", this.taskStateModelFactory);
   }
@@ -50,12 +50,36 @@ public class GobblinYarnConfigurationKeys {
   public static final String CONTAINER_JVM_ARGS_KEY = GOBBLIN_YARN_PREFIX + "container.jvm.args";
   public static final String CONTAINER_HOST_AFFINITY_ENABLED = GOBBLIN_YARN_PREFIX + "container.affinity.enabled";
 
+  // Gobblin Yarn container autoscaling configuration properties.
+  public static final String AUTOSCALING_PREFIX = GOBBLIN_YARN_PREFIX + "autoscaling.";
+  public static final String AUTOSCALING_ENABLED_KEY = AUTOSCALING_PREFIX + "enabled";
+  public static final boolean DEFAULT_AUTOSCALING_ENABLED = false;
+  public static final String AUTOSCALING_MIN_CONTAINERS_KEY = AUTOSCALING_PREFIX + "min.containers";
+  public static final int DEFAULT_AUTOSCALING_MIN_CONTAINERS = 1;
+  // Defaults to the value of INITIAL_CONTAINERS_KEY if not set
+  public static final String AUTOSCALING_MAX_CONTAINERS_KEY = AUTOSCALING_PREFIX + "max.containers";
+  // Defaults to the value of ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY if not set
+  public static final String AUTOSCALING_TASKS_PER_CONTAINER_KEY = AUTOSCALING_PREFIX + "tasks.per.container";
+  public static final String AUTOSCALING_INTERVAL_SECONDS_KEY = AUTOSCALING_PREFIX + "interval.seconds";
+  public static final long DEFAULT_AUTOSCALING_INTERVAL_SECONDS = 60;
+  public static final String AUTOSCALING_SCALE_UP_COOLDOWN_SECONDS_KEY =
+      AUTOSCALING_PREFIX + "scale.up.cooldown.seconds";
+  public static final long DEFAULT_AUTOSCALING_SCALE_UP_COOLDOWN_SECONDS = 120;
+  public static final String AUTOSCALING_SCALE_DOWN_COOLDOWN_SECONDS_KEY =
+      AUTOSCALING_PREFIX + "scale.down.cooldown.seconds";
+  public static final long DEFAULT_AUTOSCALING_SCALE_DOWN_COOLDOWN_SECONDS = 600;
+  public static final String AUTOSCALING_DRAIN_TIMEOUT_SECONDS_KEY = AUTOSCALING_PREFIX + "drain.timeout.seconds";
+  public static final long DEFAULT_AUTOSCALING_DRAIN_TIMEOUT_SECONDS = 300;
+
   //Helix configuration properties.
   public static final String HELIX_CLUSTER_NAME_KEY = GOBBLIN_YARN_PREFIX + "helix.cluster.name";
   public static final String ZK_CONNECTION_STRING_KEY = GOBBLIN_YARN_PREFIX + "zk.connection.string";
   public static final String WORK_UNIT_FILE_PATH = GOBBLIN_YARN_PREFIX + "work.unit.file.path";
   public static final String HELIX_INSTANCE_MAX_RETRIES = GOBBLIN_YARN_PREFIX + "helix.instance.max.retries";
   public static final String HELIX_INSTANCE_NAME_OPTION_NAME = "helix_instance_name";
+  public static final String JOB_STATE_CACHE_IDLE_TIMEOUT_SECONDS_KEY =
+      GOBBLIN_YARN_PREFIX + "job.state.cache.idle.timeout.seconds";
+  public static final long DEFAULT_JOB_STATE_CACHE_IDLE_TIMEOUT_SECONDS = 300;
 
   //Security and authentication configuration properties.
   public static final String KEYTAB_FILE_PATH = GOBBLIN_YARN_PREFIX + "keytab.file.path";
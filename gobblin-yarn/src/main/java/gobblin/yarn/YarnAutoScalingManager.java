@@ -0,0 +1,329 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.yarn.api.records.Container;
+import org.apache.helix.Criteria;
+import org.apache.helix.HelixManager;
+import org.apache.helix.InstanceType;
+import org.apache.helix.model.Message;
+import org.apache.helix.task.JobConfig;
+import org.apache.helix.task.JobContext;
+import org.apache.helix.task.TaskPartitionState;
+import org.apache.helix.task.TaskState;
+import org.apache.helix.task.TaskUtil;
+import org.apache.helix.task.WorkflowConfig;
+import org.apache.helix.task.WorkflowContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.AbstractIdleService;
+
+import com.typesafe.config.Config;
+
+import gobblin.configuration.ConfigurationKeys;
+import gobblin.util.ExecutorsUtils;
+import gobblin.yarn.event.ContainerReleaseRequest;
+import gobblin.yarn.event.NewContainerRequest;
+
+
+/**
+ * A class for growing and shrinking the number of Yarn containers based on the number of Helix tasks
+ * waiting to run.
+ *
+ * <p>
+ *   This class periodically reads the {@link JobContext}s of all unfinished Helix jobs to count the
+ *   pending and running tasks, and the running tasks assigned to each participant. The number of
+ *   containers needed is the number of pending and running tasks divided by the number of tasks a
+ *   container can run concurrently, bounded by a configurable minimum and maximum.
+ * </p>
+ *
+ * <p>
+ *   Scaling up posts {@link NewContainerRequest}s to the {@link YarnService}. Scaling down only picks
+ *   participants with no running task. Each of them is sent a Helix message of subtype
+ *   {@link HelixMessageSubTypes#WORK_UNIT_RUNNER_SHUTDOWN} so it shuts down gracefully, and a
+ *   {@link ContainerReleaseRequest} tells the {@link YarnService} not to replace its container.
+ *   Scaling up and scaling down each have a cooldown period so the number of containers does not
+ *   flap when the load fluctuates.
+ * </p>
+ */
+public class YarnAutoScalingManager extends AbstractIdleService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(YarnAutoScalingManager.class);
+
+  private final HelixManager helixManager;
+  private final YarnService yarnService;
+  private final EventBus eventBus;
+
+  private final int minContainers;
+  private final int maxContainers;
+  private final int tasksPerContainer;
+  private final long intervalSeconds;
+  private final long scaleUpCooldownMillis;
+  private final long scaleDownCooldownMillis;
+  private final long drainTimeoutMillis;
+
+  private final ScheduledExecutorService autoScalingExecutor;
+
+  private long lastScaleUpTime = 0;
+  private long lastScaleDownTime = 0;
+
+  public YarnAutoScalingManager(Config config, HelixManager helixManager, YarnService yarnService,
+      EventBus eventBus) {
+    this.helixManager = helixManager;
+    this.yarnService = yarnService;
+    this.eventBus = eventBus;
+
+    this.minContainers = config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_MIN_CONTAINERS_KEY) ?
+        config.getInt(GobblinYarnConfigurationKeys.AUTOSCALING_MIN_CONTAINERS_KEY) :
+        GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_MIN_CONTAINERS;
+    this.maxContainers = config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_MAX_CONTAINERS_KEY) ?
+        config.getInt(GobblinYarnConfigurationKeys.AUTOSCALING_MAX_CONTAINERS_KEY) :
+        config.getInt(GobblinYarnConfigurationKeys.INITIAL_CONTAINERS_KEY);
+    Preconditions.checkArgument(this.minContainers > 0 && this.minContainers <= this.maxContainers,
+        String.format("Invalid container bounds for autoscaling: [min = %d, max = %d]", this.minContainers,
+            this.maxContainers));
+
+    if (config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_TASKS_PER_CONTAINER_KEY)) {
+      this.tasksPerContainer = config.getInt(GobblinYarnConfigurationKeys.AUTOSCALING_TASKS_PER_CONTAINER_KEY);
+    } else if (config.hasPath(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY)) {
+      this.tasksPerContainer = config.getInt(ConfigurationKeys.TASK_EXECUTOR_THREADPOOL_SIZE_KEY);
+    } else {
+      this.tasksPerContainer = ConfigurationKeys.DEFAULT_TASK_EXECUTOR_THREADPOOL_SIZE;
+    }
+    Preconditions.checkArgument(this.tasksPerContainer > 0, "Number of tasks per container must be positive");
+
+    this.intervalSeconds = config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_INTERVAL_SECONDS_KEY) ?
+        config.getLong(GobblinYarnConfigurationKeys.AUTOSCALING_INTERVAL_SECONDS_KEY) :
+        GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_INTERVAL_SECONDS;
+    this.scaleUpCooldownMillis = TimeUnit.SECONDS.toMillis(
+        config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_SCALE_UP_COOLDOWN_SECONDS_KEY) ?
+            config.getLong(GobblinYarnConfigurationKeys.AUTOSCALING_SCALE_UP_COOLDOWN_SECONDS_KEY) :
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_SCALE_UP_COOLDOWN_SECONDS);
+    this.scaleDownCooldownMillis = TimeUnit.SECONDS.toMillis(
+        config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_SCALE_DOWN_COOLDOWN_SECONDS_KEY) ?
+            config.getLong(GobblinYarnConfigurationKeys.AUTOSCALING_SCALE_DOWN_COOLDOWN_SECONDS_KEY) :
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_SCALE_DOWN_COOLDOWN_SECONDS);
+    this.drainTimeoutMillis = TimeUnit.SECONDS.toMillis(
+        config.hasPath(GobblinYarnConfigurationKeys.AUTOSCALING_DRAIN_TIMEOUT_SECONDS_KEY) ?
+            config.getLong(GobblinYarnConfigurationKeys.AUTOSCALING_DRAIN_TIMEOUT_SECONDS_KEY) :
+            GobblinYarnConfigurationKeys.DEFAULT_AUTOSCALING_DRAIN_TIMEOUT_SECONDS);
+
+    this.autoScalingExecutor = Executors.newSingleThreadScheduledExecutor(
+        ExecutorsUtils.newThreadFactory(Optional.of(LOGGER), Optional.of("AutoScalingExecutor")));
+  }
+
+  @Override
+  protected void startUp() throws Exception {
+    LOGGER.info(String.format("Scheduling the autoscaling task with an interval of %d second(s) "
+        + "[min containers = %d, max containers = %d, tasks per container = %d]", this.intervalSeconds,
+        this.minContainers, this.maxContainers, this.tasksPerContainer));
+
+    this.autoScalingExecutor.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          runOnce();
+        } catch (Throwable t) {
+          // Do not let a failed iteration cancel the subsequent ones
+          LOGGER.error("Failed to run the autoscaling task", t);
+        }
+      }
+    }, this.intervalSeconds, this.intervalSeconds, TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void shutDown() throws Exception {
+    LOGGER.info("Stopping the " + YarnAutoScalingManager.class.getSimpleName());
+    ExecutorsUtils.shutdownExecutorService(this.autoScalingExecutor, Optional.of(LOGGER));
+  }
+
+  /**
+   * Compute the number of containers needed to run the given numbers of pending and running tasks.
+   */
+  @VisibleForTesting
+  static int getTargetContainers(int pendingTasks, int runningTasks, int tasksPerContainer, int minContainers,
+      int maxContainers) {
+    int neededContainers = (pendingTasks + runningTasks + tasksPerContainer - 1) / tasksPerContainer;
+    return Math.max(minContainers, Math.min(maxContainers, neededContainers));
+  }
+
+  /**
+   * Pick up to the given number of participants to drain among those with no running task.
+   */
+  @VisibleForTesting
+  static List<String> getInstancesToDrain(List<String> activeInstances, final Map<String, Integer> runningTasks,
+      int count) {
+    List<String> idleInstances = Lists.newArrayList();
+    for (String instance : activeInstances) {
+      if (!runningTasks.containsKey(instance) || runningTasks.get(instance) == 0) {
+        idleInstances.add(instance);
+      }
+    }
+    // Prefer draining the most recently added instances, whose names have the largest IDs
+    Collections.sort(idleInstances, Collections.reverseOrder(new Comparator<String>() {
+      @Override
+      public int compare(String instance1, String instance2) {
+        return instance1.length() != instance2.length() ? instance1.length() - instance2.length() :
+            instance1.compareTo(instance2);
+      }
+    }));
+    return idleInstances.subList(0, Math.min(count, idleInstances.size()));
+  }
+
+  @VisibleForTesting
+  void runOnce() {
+    TaskCounts taskCounts = getTaskCounts();
+    int currentContainers = this.yarnService.getNumTargetContainers();
+    int targetContainers = getTargetContainers(taskCounts.pendingTasks, taskCounts.runningTasks,
+        this.tasksPerContainer, this.minContainers, this.maxContainers);
+
+    LOGGER.info(String.format("Autoscaling status: [pending tasks = %d, running tasks = %d, current containers = %d, "
+        + "target containers = %d]", taskCounts.pendingTasks, taskCounts.runningTasks, currentContainers,
+        targetContainers));
+
+    long now = System.currentTimeMillis();
+    if (targetContainers > currentContainers) {
+      if (now - this.lastScaleUpTime < this.scaleUpCooldownMillis) {
+        return;
+      }
+      LOGGER.info(String.format("Scaling up by %d container(s)", targetContainers - currentContainers));
+      for (int i = currentContainers; i < targetContainers; i++) {
+        this.eventBus.post(new NewContainerRequest(Optional.<Container>absent()));
+      }
+      this.lastScaleUpTime = now;
+    } else if (targetContainers < currentContainers) {
+      if (now - Math.max(this.lastScaleUpTime, this.lastScaleDownTime) < this.scaleDownCooldownMillis) {
+        return;
+      }
+      List<String> instancesToDrain = getInstancesToDrain(this.yarnService.getActiveHelixInstanceNames(),
+          taskCounts.runningTasksPerInstance, currentContainers - targetContainers);
+      if (instancesToDrain.isEmpty()) {
+        return;
+      }
+      LOGGER.info(String.format("Scaling down by draining Helix instance(s) %s", instancesToDrain));
+      for (String instance : instancesToDrain) {
+        sendDrainRequest(instance);
+      }
+      this.eventBus.post(new ContainerReleaseRequest(instancesToDrain, this.drainTimeoutMillis));
+      this.lastScaleDownTime = now;
+    }
+  }
+
+  /**
+   * Count the pending and running tasks of all unfinished Helix jobs.
+   */
+  private TaskCounts getTaskCounts() {
+    TaskCounts taskCounts = new TaskCounts();
+    for (String resource : this.helixManager.getClusterManagmentTool()
+        .getResourcesInCluster(this.helixManager.getClusterName())) {
+      WorkflowConfig workflowConfig;
+      try {
+        workflowConfig = TaskUtil.getWorkflowCfg(this.helixManager, resource);
+      } catch (IllegalArgumentException iae) {
+        // Not a workflow
+        continue;
+      }
+      if (workflowConfig == null) {
+        continue;
+      }
+
+      WorkflowContext workflowContext = TaskUtil.getWorkflowContext(this.helixManager, resource);
+      for (String job : workflowConfig.getJobDag().getAllNodes()) {
+        TaskState jobState = workflowContext == null ? null : workflowContext.getJobState(job);
+        if (jobState == TaskState.COMPLETED || jobState == TaskState.FAILED || jobState == TaskState.STOPPED) {
+          continue;
+        }
+        JobConfig jobConfig = TaskUtil.getJobCfg(this.helixManager, job);
+        if (jobConfig == null) {
+          continue;
+        }
+        addTaskCounts(taskCounts, jobConfig.getTaskConfigMap().size(),
+            TaskUtil.getJobContext(this.helixManager, job));
+      }
+    }
+    return taskCounts;
+  }
+
+  private static void addTaskCounts(TaskCounts taskCounts, int numTasks, JobContext jobContext) {
+    int startedTasks = 0;
+    if (jobContext != null) {
+      for (int partition : jobContext.getPartitionSet()) {
+        TaskPartitionState partitionState = jobContext.getPartitionState(partition);
+        if (partitionState == null || partitionState == TaskPartitionState.INIT) {
+          continue;
+        }
+        startedTasks++;
+        if (partitionState == TaskPartitionState.RUNNING) {
+          taskCounts.runningTasks++;
+          String instance = jobContext.getAssignedParticipant(partition);
+          if (instance != null) {
+            Integer count = taskCounts.runningTasksPerInstance.get(instance);
+            taskCounts.runningTasksPerInstance.put(instance, count == null ? 1 : count + 1);
+          }
+        }
+      }
+    }
+    taskCounts.pendingTasks += Math.max(0, numTasks - startedTasks);
+  }
+
+  /**
+   * Send a message of subtype {@link HelixMessageSubTypes#WORK_UNIT_RUNNER_SHUTDOWN} to the given
+   * participant so it stops taking new tasks and shuts down.
+   */
+  private void sendDrainRequest(String helixInstanceName) {
+    Criteria criteria = new Criteria();
+    criteria.setInstanceName(helixInstanceName);
+    criteria.setResource("%");
+    criteria.setPartition("%");
+    criteria.setPartitionState("%");
+    criteria.setRecipientInstanceType(InstanceType.PARTICIPANT);
+    criteria.setDataSource(Criteria.DataSource.LIVEINSTANCES);
+    criteria.setSessionSpecific(true);
+
+    Message shutdownRequest = new Message(Message.MessageType.SHUTDOWN,
+        HelixMessageSubTypes.WORK_UNIT_RUNNER_SHUTDOWN.toString().toLowerCase() + UUID.randomUUID().toString());
+    shutdownRequest.setMsgSubType(HelixMessageSubTypes.WORK_UNIT_RUNNER_SHUTDOWN.toString());
+    shutdownRequest.setMsgState(Message.MessageState.NEW);
+
+    int messagesSent = this.helixManager.getMessagingService().send(criteria, shutdownRequest);
+    if (messagesSent == 0) {
+      LOGGER.warn(String.format("Failed to send the %s message to participant %s, its container will be released "
+          + "after the drain timeout", shutdownRequest.getMsgSubType(), helixInstanceName));
+    }
+  }
+
+  /**
+   * Numbers of pending and running Helix tasks.
+   */
+  private static class TaskCounts {
+    private int pendingTasks = 0;
+    private int runningTasks = 0;
+    private final Map<String, Integer> runningTasksPerInstance = Maps.newHashMap();
+  }
+}
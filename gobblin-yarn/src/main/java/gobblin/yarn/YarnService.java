@@ -19,10 +19,13 @@ import java.util.AbstractMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.conf.Configuration;
@@ -66,6 +69,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.io.Closer;
@@ -80,6 +84,7 @@ import gobblin.metrics.event.EventSubmitter;
 import gobblin.util.ConfigUtils;
 import gobblin.util.ExecutorsUtils;
 import gobblin.yarn.event.ApplicationMasterShutdownRequest;
+import gobblin.yarn.event.ContainerReleaseRequest;
 import gobblin.yarn.event.ContainerShutdownRequest;
 import gobblin.yarn.event.NewContainerRequest;
 
@@ -112,6 +117,7 @@ public class YarnService extends AbstractIdleService {
   private final AMRMClientAsync<AMRMClient.ContainerRequest> amrmClientAsync;
   private final NMClientAsync nmClientAsync;
   private final ExecutorService containerLaunchExecutor;
+  private final ScheduledExecutorService containerReleaseExecutor;
 
   private final int initialContainers;
   private final int requestedContainerMemoryMbs;
@@ -145,6 +151,12 @@ public class YarnService extends AbstractIdleService {
   // instance names get picked up when replacement containers get allocated.
   private final ConcurrentLinkedQueue<String> unusedHelixInstanceNames = Queues.newConcurrentLinkedQueue();
 
+  // IDs of containers that are being released and should not be replaced when they complete
+  private final Set<ContainerId> releasedContainers = Sets.newConcurrentHashSet();
+
+  // The number of containers that have been requested but not allocated yet
+  private final AtomicInteger outstandingContainerRequests = new AtomicInteger(0);
+
   private volatile boolean shutdownInProgress = false;
 
   public YarnService(Config config, String applicationName, String applicationId, YarnConfiguration yarnConfiguration,
@@ -184,6 +196,8 @@ public class YarnService extends AbstractIdleService {
 
     this.containerLaunchExecutor = Executors.newFixedThreadPool(10,
         ExecutorsUtils.newThreadFactory(Optional.of(LOGGER), Optional.of("ContainerLaunchExecutor")));
+    this.containerReleaseExecutor = Executors.newSingleThreadScheduledExecutor(
+        ExecutorsUtils.newThreadFactory(Optional.of(LOGGER), Optional.of("ContainerReleaseExecutor")));
 
     this.tokens = getSecurityTokens();
   }
@@ -217,6 +231,41 @@ public class YarnService extends AbstractIdleService {
     }
   }
 
+  @SuppressWarnings("unused")
+  @Subscribe
+  public void handleContainerReleaseRequest(ContainerReleaseRequest containerReleaseRequest) {
+    for (String helixInstanceName : containerReleaseRequest.getHelixInstanceNames()) {
+      for (Map.Entry<ContainerId, Map.Entry<Container, String>> entry : this.containerMap.entrySet()) {
+        if (entry.getValue().getValue().equals(helixInstanceName) && this.releasedContainers.add(entry.getKey())) {
+          LOGGER.info(String.format("Releasing container %s running Helix instance %s", entry.getKey(),
+              helixInstanceName));
+          scheduleContainerRelease(entry.getKey(), containerReleaseRequest.getDrainTimeoutMillis());
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the number of containers this service is expected to be running once all outstanding container
+   * requests are fulfilled, not counting the containers that are being released.
+   */
+  int getNumTargetContainers() {
+    return this.containerMap.size() - this.releasedContainers.size() + this.outstandingContainerRequests.get();
+  }
+
+  /**
+   * Get the names of the Helix instances running in containers that are not being released.
+   */
+  List<String> getActiveHelixInstanceNames() {
+    List<String> helixInstanceNames = Lists.newArrayList();
+    for (Map.Entry<ContainerId, Map.Entry<Container, String>> entry : this.containerMap.entrySet()) {
+      if (!this.releasedContainers.contains(entry.getKey())) {
+        helixInstanceNames.add(entry.getValue().getValue());
+      }
+    }
+    return helixInstanceNames;
+  }
+
   @Override
   protected void startUp() throws Exception {
     LOGGER.info("Starting the YarnService");
@@ -245,6 +294,7 @@ public class YarnService extends AbstractIdleService {
 
     try {
       ExecutorsUtils.shutdownExecutorService(this.containerLaunchExecutor, Optional.of(LOGGER));
+      ExecutorsUtils.shutdownExecutorService(this.containerReleaseExecutor, Optional.of(LOGGER));
 
       // Stop the running containers
       for (Map.Entry<Container, String> entry : this.containerMap.values()) {
@@ -319,6 +369,23 @@ public class YarnService extends AbstractIdleService {
     String[] preferredNodes = preferredNode.isPresent() ? new String[] {preferredNode.get()} : null;
     this.amrmClientAsync.addContainerRequest(
         new AMRMClient.ContainerRequest(capability, preferredNodes, null, priority));
+    this.outstandingContainerRequests.incrementAndGet();
+  }
+
+  /**
+   * Schedule a container that is being drained to be released to the ResourceManager if it is
+   * still running after the given timeout.
+   */
+  private void scheduleContainerRelease(final ContainerId containerId, long drainTimeoutMillis) {
+    this.containerReleaseExecutor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        if (containerMap.containsKey(containerId)) {
+          LOGGER.warn(String.format("Container %s did not exit after being drained, releasing it", containerId));
+          amrmClientAsync.releaseAssignedContainer(containerId);
+        }
+      }
+    }, drainTimeoutMillis, TimeUnit.MILLISECONDS);
   }
 
   private ContainerLaunchContext newContainerLaunchContext(Container container, String helixInstanceName)
@@ -442,10 +509,16 @@ public class YarnService extends AbstractIdleService {
    * container and caused the container to exit, 2) the container gets killed due to some reason,
    * for example, if it runs over the allowed amount of virtual or physical memory, 3) the gets
    * preempted by the ResourceManager, or 4) the container gets stopped by the ApplicationMaster.
-   * A replacement container is needed in all but the last case.
+   * A replacement container is needed in all but the last case. A replacement container is not
+   * needed either if the container was released because the application is scaling down.
    */
   private void handleContainerCompletion(ContainerStatus containerStatus) {
     Map.Entry<Container, String> completedContainerEntry = this.containerMap.remove(containerStatus.getContainerId());
+    if (completedContainerEntry == null) {
+      LOGGER.info(String.format("Container %s has completed after being stopped", containerStatus.getContainerId()));
+      this.releasedContainers.remove(containerStatus.getContainerId());
+      return;
+    }
     String completedInstanceName = completedContainerEntry.getValue();
 
     LOGGER.info(String.format("Container %s running Helix instance %s has completed with exit status %d",
@@ -460,6 +533,13 @@ public class YarnService extends AbstractIdleService {
       return;
     }
 
+    if (this.releasedContainers.remove(containerStatus.getContainerId())) {
+      // The Helix instance name can be reused by a container allocated when scaling up again
+      LOGGER.info(String.format("Not replacing released container %s", containerStatus.getContainerId()));
+      this.unusedHelixInstanceNames.offer(completedInstanceName);
+      return;
+    }
+
     int retryCount =
         this.helixInstanceRetryCount.putIfAbsent(completedInstanceName, new AtomicInteger(0)).incrementAndGet();
 
@@ -537,6 +617,9 @@ public class YarnService extends AbstractIdleService {
         }
 
         LOGGER.info(String.format("Container %s has been allocated", container.getId()));
+        if (outstandingContainerRequests.decrementAndGet() < 0) {
+          outstandingContainerRequests.incrementAndGet();
+        }
 
         String instanceName = unusedHelixInstanceNames.poll();
         if (Strings.isNullOrEmpty(instanceName)) {
@@ -633,6 +716,7 @@ public class YarnService extends AbstractIdleService {
 
       LOGGER.info(String.format("Container %s has been stopped", containerId));
       containerMap.remove(containerId);
+      releasedContainers.remove(containerId);
       if (containerMap.isEmpty()) {
         synchronized (allContainersStopped) {
           allContainersStopped.notify();
@@ -650,6 +734,7 @@ public class YarnService extends AbstractIdleService {
 
       LOGGER.error(String.format("Failed to start container %s due to error %s", containerId, t));
       containerMap.remove(containerId);
+      releasedContainers.remove(containerId);
     }
 
     @Override
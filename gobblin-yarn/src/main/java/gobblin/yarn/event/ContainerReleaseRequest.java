@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn.event;
+
+import java.util.Collection;
+
+
+/**
+ * A type of events for requests to permanently release the containers running a set of Helix instances
+ * to be used with a {@link com.google.common.eventbus.EventBus}.
+ *
+ * <p>
+ *   Containers released this way are not replaced when they complete. The Helix instances are expected
+ *   to be draining already, and a container that is still running after the drain timeout is released
+ *   to the ResourceManager forcibly.
+ * </p>
+ */
+public class ContainerReleaseRequest {
+
+  private final Collection<String> helixInstanceNames;
+  private final long drainTimeoutMillis;
+
+  public ContainerReleaseRequest(Collection<String> helixInstanceNames, long drainTimeoutMillis) {
+    this.helixInstanceNames = helixInstanceNames;
+    this.drainTimeoutMillis = drainTimeoutMillis;
+  }
+
+  /**
+   * Get the names of the Helix instances whose containers should be released.
+   *
+   * @return the names of the Helix instances whose containers should be released
+   */
+  public Collection<String> getHelixInstanceNames() {
+    return this.helixInstanceNames;
+  }
+
+  /**
+   * Get the amount of time in milliseconds the containers are given to exit gracefully.
+   *
+   * @return the amount of time in milliseconds the containers are given to exit gracefully
+   */
+  public long getDrainTimeoutMillis() {
+    return this.drainTimeoutMillis;
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import java.io.IOException;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+
+import gobblin.runtime.AbstractJobLauncher;
+import gobblin.runtime.JobState;
+import gobblin.util.SerializationUtils;
+
+
+/**
+ * Unit tests for {@link GobblinHelixJobStateCache}.
+ */
+@Test(groups = { "gobblin.yarn" })
+public class GobblinHelixJobStateCacheTest {
+
+  private FileSystem localFs;
+  private Path appWorkDir;
+  private Path jobStateFilePath;
+
+  @BeforeClass
+  public void setUp() throws IOException {
+    this.localFs = FileSystem.getLocal(new Configuration());
+    this.appWorkDir = new Path(GobblinHelixJobStateCacheTest.class.getSimpleName());
+    this.jobStateFilePath =
+        new Path(this.appWorkDir, TestHelper.TEST_JOB_ID + "." + AbstractJobLauncher.JOB_STATE_FILE_NAME);
+
+    JobState jobState = new JobState();
+    jobState.setJobName(TestHelper.TEST_JOB_NAME);
+    jobState.setJobId(TestHelper.TEST_JOB_ID);
+    SerializationUtils.serializeState(this.localFs, this.jobStateFilePath, jobState);
+  }
+
+  @Test
+  public void testJobStateSharedUntilIdle() throws IOException {
+    GobblinHelixJobStateCache cache =
+        new GobblinHelixJobStateCache(this.localFs, this.appWorkDir, Optional.<ContainerMetrics>absent(), 1000);
+
+    GobblinHelixJobStateCache.CachedJob cachedJob1 = cache.acquire(TestHelper.TEST_JOB_ID);
+    Assert.assertEquals(cachedJob1.getJobState().getJobName(), TestHelper.TEST_JOB_NAME);
+
+    // The job state file is not read again while the job is cached
+    this.localFs.delete(this.jobStateFilePath, false);
+    GobblinHelixJobStateCache.CachedJob cachedJob2 = cache.acquire(TestHelper.TEST_JOB_ID);
+    Assert.assertSame(cachedJob2, cachedJob1);
+
+    cache.release(TestHelper.TEST_JOB_ID);
+    cache.evictIdleJobs(System.currentTimeMillis() + 2000);
+    Assert.assertEquals(cache.size(), 1, "A job still in use must not be evicted");
+
+    cache.release(TestHelper.TEST_JOB_ID);
+    cache.evictIdleJobs(System.currentTimeMillis());
+    Assert.assertEquals(cache.size(), 1, "An idle job is kept until the idle timeout");
+    cache.evictIdleJobs(System.currentTimeMillis() + 2000);
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void testFailedLoadNotCached() {
+    GobblinHelixJobStateCache cache =
+        new GobblinHelixJobStateCache(this.localFs, this.appWorkDir, Optional.<ContainerMetrics>absent(), 1000);
+    try {
+      cache.acquire("nonexistent_job");
+      Assert.fail("Expected the job state file to be missing");
+    } catch (IOException ioe) {
+      // Expected
+    }
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  @AfterClass
+  public void tearDown() throws IOException {
+    this.localFs.delete(this.appWorkDir, true);
+  }
+}
@@ -149,6 +149,25 @@ public class GobblinHelixTaskTest {
     TestHelper.assertGenericRecords(outputAvroFile, schema);
   }
 
+  @Test
+  public void testCancelReleasesJobState() throws IOException {
+    Map<String, String> taskConfigMap = Maps.newHashMap();
+    taskConfigMap.put(ConfigurationKeys.JOB_ID_KEY, TestHelper.TEST_JOB_ID);
+    TaskCallbackContext taskCallbackContext = Mockito.mock(TaskCallbackContext.class);
+    Mockito.when(taskCallbackContext.getTaskConfig()).thenReturn(new TaskConfig("", taskConfigMap, true));
+    Mockito.when(taskCallbackContext.getManager()).thenReturn(this.helixManager);
+    GobblinHelixJobStateCache jobStateCache = Mockito.mock(GobblinHelixJobStateCache.class);
+
+    GobblinHelixTask task = new GobblinHelixTask(taskCallbackContext, jobStateCache, this.taskExecutor,
+        this.taskStateTracker, this.localFs, null);
+    Mockito.verify(jobStateCache).acquire(TestHelper.TEST_JOB_ID);
+
+    // A task cancelled before it runs releases the job state it acquired, and only once
+    task.cancel();
+    task.cancel();
+    Mockito.verify(jobStateCache).release(TestHelper.TEST_JOB_ID);
+  }
+
   @AfterClass
   public void tearDown() throws IOException {
     try {
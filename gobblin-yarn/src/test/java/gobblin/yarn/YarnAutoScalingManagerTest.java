@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014-2016 LinkedIn Corp. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the
+ * License at  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.
+ */
+
+package gobblin.yarn;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+
+/**
+ * Unit tests for {@link YarnAutoScalingManager}.
+ */
+@Test(groups = { "gobblin.yarn" })
+public class YarnAutoScalingManagerTest {
+
+  @Test
+  public void testGetTargetContainers() {
+    // 10 tasks at 4 tasks per container need 3 containers
+    Assert.assertEquals(YarnAutoScalingManager.getTargetContainers(6, 4, 4, 1, 10), 3);
+    // Bounded by the maximum
+    Assert.assertEquals(YarnAutoScalingManager.getTargetContainers(100, 4, 4, 1, 10), 10);
+    // Bounded by the minimum when idle
+    Assert.assertEquals(YarnAutoScalingManager.getTargetContainers(0, 0, 4, 2, 10), 2);
+  }
+
+  @Test
+  public void testGetInstancesToDrain() {
+    ImmutableList<String> activeInstances = ImmutableList.of("GobblinWorkUnitRunner_1", "GobblinWorkUnitRunner_2",
+        "GobblinWorkUnitRunner_9", "GobblinWorkUnitRunner_10");
+    ImmutableMap<String, Integer> runningTasks = ImmutableMap.of("GobblinWorkUnitRunner_1", 2,
+        "GobblinWorkUnitRunner_10", 1, "GobblinWorkUnitRunner_2", 0);
+
+    // Only idle instances are drained, most recently added first
+    Assert.assertEquals(YarnAutoScalingManager.getInstancesToDrain(activeInstances, runningTasks, 1),
+        ImmutableList.of("GobblinWorkUnitRunner_9"));
+    Assert.assertEquals(YarnAutoScalingManager.getInstancesToDrain(activeInstances, runningTasks, 3),
+        ImmutableList.of("GobblinWorkUnitRunner_9", "GobblinWorkUnitRunner_2"));
+  }
+}